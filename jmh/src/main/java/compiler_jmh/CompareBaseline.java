@@ -0,0 +1,99 @@
+package compiler_jmh;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compara un resultado de JMH en CSV con la línea base guardada en jmh/baselines/ e indica
+ * qué mediciones empeoraron más que el umbral. Termina con código 1 si hay regresiones.
+ *
+ * Uso: java -cp jmh/target/benchmarks.jar compiler_jmh.CompareBaseline base.csv nuevo.csv [umbral %]
+ */
+public class CompareBaseline {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: CompareBaseline base.csv nuevo.csv [umbral %]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, Row> base = read(Paths.get(args[0]));
+        Map<String, Row> current = read(Paths.get(args[1]));
+
+        int regressions = 0;
+        for (Map.Entry<String, Row> entry : current.entrySet()) {
+            Row now = entry.getValue();
+            Row before = base.get(entry.getKey());
+            if (before == null || before.score == 0) {
+                System.out.printf("%-70s %14.3f %-10s (sin línea base)%n", entry.getKey(), now.score, now.unit);
+                continue;
+            }
+            double change = (now.score - before.score) / before.score * 100;
+            // En ops/s conviene subir; en tiempos y bytes asignados, bajar
+            double worse = now.unit.contains("/s") && !now.unit.startsWith("MB") ? -change : change;
+            boolean regression = worse > threshold;
+            if (regression) regressions++;
+            System.out.printf("%-70s %14.3f %-10s %+7.1f%%%s%n", entry.getKey(), now.score, now.unit,
+                    change, regression ? "  REGRESIÓN" : "");
+        }
+        System.out.printf("%d regresiones (umbral %.0f%%)%n", regressions, threshold);
+        if (regressions > 0) System.exit(1);
+    }
+
+    private static final class Row {
+        final double score;
+        final String unit;
+
+        Row(double score, String unit) {
+            this.score = score;
+            this.unit = unit;
+        }
+    }
+
+    // Clave: benchmark + parámetros; valor: puntaje y unidad
+    private static Map<String, Row> read(Path path) throws IOException {
+        Map<String, Row> rows = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(path);
+        if (lines.isEmpty()) return rows;
+        List<String> header = split(lines.get(0));
+        int score = header.indexOf("Score");
+        int unit = header.indexOf("Unit");
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) continue;
+            List<String> fields = split(line);
+            // De las métricas del perfilador gc sólo se compara la asignación por operación:
+            // la tasa, la cantidad y el tiempo de GC dependen del ritmo y del ruido de la máquina
+            String name = fields.get(0);
+            if (name.contains(":gc.") && !name.endsWith("gc.alloc.rate.norm")) continue;
+            StringBuilder key = new StringBuilder(name.replace("compiler_jmh.", ""));
+            for (int i = unit + 1; i < fields.size(); i++) {
+                if (!fields.get(i).isEmpty()) key.append(' ').append(header.get(i).replace("Param: ", "")).append('=').append(fields.get(i));
+            }
+            rows.put(key.toString(), new Row(Double.parseDouble(fields.get(score)), fields.get(unit)));
+        }
+        return rows;
+    }
+
+    // Campos separados por coma; las comillas dobles agrupan
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') quoted = !quoted;
+            else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else field.append(c);
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
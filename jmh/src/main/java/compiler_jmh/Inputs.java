@@ -0,0 +1,26 @@
+package compiler_jmh;
+
+import compiler_bench.PipelineBenchmark;
+
+/**
+ * Programas de entrada para los benchmarks, del tamaño indicado ("1KB", "1MB", "100MB").
+ */
+final class Inputs {
+
+    private Inputs() {
+    }
+
+    static String program(String size) {
+        int bytes = parseSize(size);
+        // Tamaño medio de un bloque del generador, medido sobre una muestra
+        double perBlock = PipelineBenchmark.buildSource(1000).length() / 1000.0;
+        return PipelineBenchmark.buildSource(Math.max(1, (int) (bytes / perBlock)));
+    }
+
+    static int parseSize(String size) {
+        String s = size.trim().toUpperCase();
+        if (s.endsWith("MB")) return Integer.parseInt(s.substring(0, s.length() - 2)) << 20;
+        if (s.endsWith("KB")) return Integer.parseInt(s.substring(0, s.length() - 2)) << 10;
+        return Integer.parseInt(s);
+    }
+}
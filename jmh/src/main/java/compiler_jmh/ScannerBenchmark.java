@@ -0,0 +1,53 @@
+package compiler_jmh;
+
+import compiler_lexer.Scanner;
+import compiler_lexer.TokenType;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Escaneo completo con Scanner.nextToken(). Una operación es un archivo entero;
+ * el contador "tokens" da además los tokens por segundo.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class ScannerBenchmark {
+
+    @Param({"1KB", "1MB", "100MB"})
+    public String size;
+
+    private String src;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        src = Inputs.program(size);
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long tokens;
+    }
+
+    @Benchmark
+    public int nextToken(Counters counters) {
+        Scanner scanner = new Scanner(src);
+        int count = 0;
+        while (scanner.nextToken().getType() != TokenType.EOF) count++;
+        counters.tokens += count;
+        return count;
+    }
+}
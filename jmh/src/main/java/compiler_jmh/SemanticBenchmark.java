@@ -0,0 +1,54 @@
+package compiler_jmh;
+
+import compiler_lexer.TokenBuffer;
+import compiler_lexer.TokenStream;
+import compiler_semantic.SemanticAnalyzer;
+import compiler_semantic.SemanticError;
+import compiler_sintactic.Ast;
+import compiler_sintactic.SyntacticAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * SemanticAnalyzer.analyze() sobre un AST ya construido.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class SemanticBenchmark {
+
+    private static final PrintStream SINK = new PrintStream(OutputStream.nullOutputStream());
+
+    @Param({"1KB", "1MB", "100MB"})
+    public String size;
+
+    private Ast ast;
+
+    @Setup(Level.Trial)
+    public void setup() throws SemanticError {
+        TokenBuffer tokens = TokenBuffer.lex(Inputs.program(size));
+        ast = new SyntacticAnalyzer(new TokenStream(tokens)).parseProgram();
+    }
+
+    @Benchmark
+    public SemanticAnalyzer analyze() throws SemanticError {
+        SemanticAnalyzer semantic = new SemanticAnalyzer(ast);
+        semantic.setOutput(SINK);
+        semantic.analyze();
+        return semantic;
+    }
+}
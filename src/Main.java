@@ -1,89 +1,249 @@
-import compiler_lexer.Scanner;
-import compiler_lexer.Token;
-import compiler_lexer.TokenType;
-import compiler_sintactic.*;
-import compiler_semantic.*;
+import compiler_driver.BatchCompiler;
+import compiler_driver.CdsArchive;
+import compiler_driver.CompilerDaemon;
+import compiler_driver.DaemonClient;
+import compiler_driver.ReportFormat;
+import compiler_driver.ResultCache;
+import compiler_driver.Runner;
+import compiler_ir.IrOptimizer;
+import compiler_ir.IrProgram;
+import compiler_ir.Pass;
+import compiler_lsp.LanguageServer;
+import compiler_vm.Program;
 
 import java.io.IOException;
-import java.nio.file.*;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Main {
 
-    public static void main(String[] args) throws SemanticError {
-
-        String[] folders = {"test/success", "test/error"};
-
-        for (String folder : folders) {
-            System.out.println("Analizando carpeta: " + folder);
-
-            try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(folder), "*.txt")) {
-
-                for (Path path : stream) {
-                    String fileName = path.getFileName().toString();
-                    System.out.println("\nCaso de prueba: " + fileName);
-
-                    System.out.println("Contenido:");
-                    System.out.println("----------------------------------------");
-                    String content = Files.readString(path);
-                    System.out.println(content.trim());
-                    System.out.println("----------------------------------------");
-
-                    boolean lexicalOK = false;
-                    boolean syntacticOK = false;
-
-                    System.out.println("Análisis léxico:");
-                    Scanner scanner = new Scanner(content);
-                    Token token;
-                    boolean lexError = false;
-                    do {
-                        token = scanner.nextToken();
-                        if (token.getType() == TokenType.ERROR) {
-                            System.out.println("Error léxico: " + token.getLexeme());
-                            lexError = true;
-                        }
-                    } while (token.getType() != TokenType.EOF);
-
-                    if (!lexError) {
-                        lexicalOK = true;
-                        System.out.println("Léxico correcto");
-                    } else {
-                        System.out.println("Error en análisis léxico");
-                    }
-
-                    if (!lexicalOK) continue;
+    public static void main(String[] args) throws IOException {
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean metrics = false;
+        String metricsJson = null;
+        String cacheDir = null;
+        long cacheBytes = ResultCache.DEFAULT_MAX_BYTES;
+        List<String> folders = new ArrayList<>();
+        String run = null;
+        String bytecode = null;
+        boolean jvm = false;
+        boolean optimize = false;
+        String classFile = null;
+        String classDir = ".";
+        String ir = null;
+        String irPasses = null;
+        String daemon = null;
+        String client = null;
+        String cdsArchive = null;
+        boolean lsp = false;
+        long debounce = LanguageServer.DEFAULT_DEBOUNCE_MILLIS;
+        String report = "human";
+        String reportFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--metrics")) {
+                metrics = true;
+            } else if (args[i].equals("--metrics-json") && i + 1 < args.length) {
+                metrics = true;
+                metricsJson = args[++i];
+            } else if (args[i].equals("--run") && i + 1 < args.length) {
+                run = args[++i];
+            } else if (args[i].equals("--bytecode") && i + 1 < args.length) {
+                bytecode = args[++i];
+            } else if (args[i].equals("--optimize")) {
+                optimize = true;
+            } else if (args[i].equals("--jvm")) {
+                jvm = true;
+            } else if (args[i].equals("--class") && i + 1 < args.length) {
+                classFile = args[++i];
+            } else if (args[i].equals("--class-dir") && i + 1 < args.length) {
+                classDir = args[++i];
+            } else if (args[i].equals("--ir") && i + 1 < args.length) {
+                ir = args[++i];
+            } else if (args[i].equals("--ir-passes") && i + 1 < args.length) {
+                irPasses = args[++i];
+            } else if (args[i].equals("--daemon") && i + 1 < args.length) {
+                daemon = args[++i];
+            } else if (args[i].equals("--client") && i + 1 < args.length) {
+                client = args[++i];
+            } else if (args[i].equals("--lsp")) {
+                lsp = true;
+            } else if (args[i].equals("--lsp-debounce") && i + 1 < args.length) {
+                debounce = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--cds-archive") && i + 1 < args.length) {
+                cdsArchive = args[++i];
+            } else if (args[i].equals("--report") && i + 1 < args.length) {
+                report = args[++i];
+            } else if (args[i].equals("--report-file") && i + 1 < args.length) {
+                reportFile = args[++i];
+            } else if (args[i].equals("--cache") && i + 1 < args.length) {
+                cacheDir = args[++i];
+            } else if (args[i].equals("--cache-size") && i + 1 < args.length) {
+                cacheBytes = Long.parseLong(args[++i]) * 1024 * 1024;
+            } else {
+                folders.add(args[i]);
+            }
+        }
 
-                    System.out.println("Análisis sintáctico:");
-                    try {
-                        SyntacticAnalyzer parser = new SyntacticAnalyzer(content);
-                        parser.parseProgram();
-                        syntacticOK = true;
-                        System.out.println("Sintáctico correcto");
-                    } catch (SyntacticError e) {
-                        System.out.println("Error sintáctico: " + e.getMessage());
-                    }
+        if (cdsArchive != null) {
+            // Entrenamiento sobre las carpetas de siempre (o las dadas) en una JVM hija
+            if (folders.isEmpty()) {
+                folders.add("test/success");
+                folders.add("test/error");
+            }
+            String classpath = System.getProperty("java.class.path");
+            String error;
+            try {
+                error = CdsArchive.create(classpath, Paths.get(cdsArchive), folders);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = "entrenamiento interrumpido";
+            }
+            if (error != null) {
+                System.err.println("No se pudo generar el archivo CDS: " + error);
+                System.exit(1);
+            }
+            System.out.println("Archivo CDS generado: " + cdsArchive + " (java -XX:SharedArchiveFile=" + cdsArchive
+                    + " -XX:TieredStopAtLevel=1 -cp " + classpath + " Main archivo.txt)");
+            return;
+        }
+        if (lsp) {
+            // La salida estándar es el canal del protocolo: nada más puede escribir en ella
+            LanguageServer server = new LanguageServer(System.in, System.out);
+            server.setDebounceMillis(debounce);
+            System.exit(server.run());
+        }
+        if (daemon != null) {
+            try (CompilerDaemon server = CompilerDaemon.open(daemon)) {
+                server.warmUp(2000);
+                // Con el puerto 0 el sistema elige uno: se muestra el real
+                System.out.println("Demonio escuchando en " + (server.getPort() >= 0 ? server.getPort() : daemon));
+                server.serve();
+            }
+            return;
+        }
+        if (client != null) {
+            // Los argumentos sueltos son los archivos a verificar (o --stop)
+            List<String> request = new ArrayList<>();
+            request.add(client);
+            request.addAll(folders);
+            DaemonClient.main(request.toArray(new String[0]));
+            return;
+        }
 
-                    if (!syntacticOK) continue;
+        // Un solo programa: se ejecuta (o se muestra su bytecode) en lugar de analizar carpetas.
+        // Runner (y con él los backends) sólo se carga en estos modos
+        if (run != null || classFile != null || bytecode != null || ir != null) {
+            Runner runner = new Runner(System.err);
+            runner.setOptimize(optimize);
+            if (run != null) {
+                String content = Files.readString(Paths.get(run));
+                System.exit(jvm ? runner.runJvm(content, System.in, System.out) : runner.run(content, System.in, System.out));
+            }
+            if (classFile != null) {
+                Path source = Paths.get(classFile);
+                String name = Runner.className(source.getFileName().toString());
+                byte[] bytes = runner.compileClass(Files.readString(source), name, source.getFileName().toString());
+                if (bytes == null) System.exit(Runner.COMPILE_ERROR);
+                printOptimization(runner);
+                Path target = Paths.get(classDir).resolve(name + ".class");
+                Files.createDirectories(target.getParent());
+                Files.write(target, bytes);
+                System.out.println("Clase generada: " + target + " (java -cp " + classDir + " " + name + ")");
+                return;
+            }
+            if (bytecode != null) {
+                Program program = runner.compile(Files.readString(Paths.get(bytecode)));
+                if (program == null) System.exit(Runner.COMPILE_ERROR);
+                printOptimization(runner);
+                System.out.print(program.disassemble());
+                return;
+            }
+            if (ir != null) {
+                IrOptimizer optimizer = irOptimizer(irPasses);
+                IrProgram program = runner.compileIr(Files.readString(Paths.get(ir)), optimizer);
+                if (program == null) System.exit(Runner.COMPILE_ERROR);
+                printOptimization(runner);
+                System.out.print(optimizer.report());
+                System.out.println();
+                System.out.print(program.dump());
+                return;
+            }
+        }
 
-                    System.out.println("Análisis semántico:");
-                    try {
-                        SemanticAnalyzer semantic = new SemanticAnalyzer(content);
-                        semantic.analyze();
-                        System.out.println("Semántico correcto");
-                    } catch (SemanticError e) {
-                        System.out.println(e.getMessage());
-                        System.out.println("Error semántico");
-                    }
+        if (folders.isEmpty()) {
+            folders.add("test/success");
+            folders.add("test/error");
+        }
 
+        ReportFormat format = ReportFormat.byName(report);
+        if (format == null) {
+            StringBuilder known = new StringBuilder();
+            for (ReportFormat f : ReportFormat.values()) known.append(known.length() == 0 ? "" : ", ").append(f.getName());
+            System.err.println("Formato de reporte desconocido: " + report + " (se conocen " + known + ")");
+            System.exit(Runner.COMPILE_ERROR);
+        }
+        // Con JSON o SARIF en la salida estándar, el resumen va a la de errores para no mezclarlos
+        PrintStream summary = reportFile == null && (format == ReportFormat.JSON_LINES || format == ReportFormat.SARIF)
+                ? System.err : System.out;
+        Writer reportWriter = reportFile != null
+                ? Files.newBufferedWriter(Paths.get(reportFile), format.charset())
+                : format.writer(System.out);
+
+        BatchCompiler batch = new BatchCompiler(threads, format.open(reportWriter));
+        batch.setMetrics(metrics);
+        if (cacheDir != null) {
+            try {
+                batch.setCache(ResultCache.open(Paths.get(cacheDir), cacheBytes));
+            } catch (IOException e) {
+                summary.println("No se pudo abrir la caché " + cacheDir + ", se compila sin ella");
+            }
+        }
+        try {
+            batch.run(folders);
+        } finally {
+            if (reportFile != null) reportWriter.close();
+        }
 
-                    System.out.println("Resultado final: hubo errores en alguna fase");
+        summary.println("\nAnálisis completado");
+        batch.printSummary(summary);
 
-                }
+        if (metricsJson != null) {
+            try (Writer writer = Files.newBufferedWriter(Paths.get(metricsJson), StandardCharsets.UTF_8)) {
+                batch.writeJson(writer);
+            }
+        }
+    }
 
-            } catch (IOException e) {
-                System.out.println("No se pudo abrir la carpeta " + folder);
+    // Sólo las pasadas de la lista (separadas por comas; "ninguna" las apaga todas); sin lista, todas
+    private static IrOptimizer irOptimizer(String passes) {
+        IrOptimizer optimizer = new IrOptimizer();
+        if (passes == null) return optimizer;
+        for (Pass pass : Pass.values()) optimizer.setEnabled(pass, false);
+        if (passes.equals("ninguna")) return optimizer;
+        for (String name : passes.split(",")) {
+            Pass pass = Pass.byName(name.trim());
+            if (pass == null) {
+                StringBuilder known = new StringBuilder();
+                for (Pass p : Pass.values()) known.append(known.length() == 0 ? "" : ", ").append(p.getName());
+                System.err.println("Pasada desconocida: " + name + " (se conocen " + known + ")");
+                System.exit(Runner.COMPILE_ERROR);
             }
+            optimizer.setEnabled(pass, true);
         }
+        return optimizer;
+    }
 
-        System.out.println("\nAnálisis completado");
+    private static void printOptimization(Runner runner) {
+        if (runner.getOptimizer() != null) System.out.println("Optimización: " + runner.getOptimizer().summary());
     }
 }
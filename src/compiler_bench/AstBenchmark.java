@@ -0,0 +1,46 @@
+package compiler_bench;
+
+import compiler_lexer.TokenBuffer;
+import compiler_lexer.TokenStream;
+import compiler_semantic.SemanticError;
+import compiler_sintactic.Ast;
+import compiler_sintactic.SyntacticAnalyzer;
+
+/**
+ * Mide la velocidad de construcción del AST y la memoria por nodo del arena.
+ *
+ * Uso: java compiler_bench.AstBenchmark [bloques] [iteraciones]
+ */
+public class AstBenchmark {
+
+    public static void main(String[] args) throws SemanticError {
+        int blocks = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        String src = PipelineBenchmark.buildSource(blocks);
+        TokenBuffer tokens = TokenBuffer.lex(src);
+        double mb = src.length() / (1024.0 * 1024.0);
+        System.out.printf("Entrada: %.2f MB, %d tokens%n", mb, tokens.size());
+
+        Ast ast = null;
+        for (int i = 0; i < 3; i++) ast = parse(tokens);
+
+        long bytes = TokenBufferBenchmark.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) ast = parse(tokens);
+        long nanos = System.nanoTime() - start;
+        long allocated = (TokenBufferBenchmark.allocatedBytes() - bytes) / iterations;
+
+        double seconds = nanos / 1e9 / iterations;
+        System.out.printf("Nodos: %d%n", ast.size());
+        System.out.printf("Arena: %.1f bytes/nodo (capacidad reservada %.2f MB)%n",
+                (double) ast.memoryBytes() / ast.size(), ast.memoryBytes() / (1024.0 * 1024.0));
+        System.out.printf("Asignado por análisis: %.1f bytes/nodo%n", (double) allocated / ast.size());
+        System.out.printf("Análisis: %.2f ms, %.0f nodos/s, %.2f MB/s%n",
+                seconds * 1000, ast.size() / seconds, mb / seconds);
+    }
+
+    private static Ast parse(TokenBuffer tokens) throws SemanticError {
+        return new SyntacticAnalyzer(new TokenStream(tokens)).parseProgram();
+    }
+}
@@ -0,0 +1,52 @@
+package compiler_bench;
+
+import compiler_driver.BatchCompiler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Mide archivos/segundo del modo por lotes con distinta cantidad de hilos para ver el escalado.
+ *
+ * Uso: java compiler_bench.BatchBenchmark [archivos] [bloques por archivo]
+ */
+public class BatchBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int files = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int blocks = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        Path dir = Files.createTempDirectory("compiler-batch");
+        try {
+            String src = PipelineBenchmark.buildSource(blocks);
+            for (int i = 0; i < files; i++) {
+                Files.writeString(dir.resolve(String.format("case%05d.txt", i)), src);
+            }
+            System.out.printf("Lote: %d archivos de %d bytes, %d núcleos%n", files, src.length(), cores);
+
+            PrintStream sink = new PrintStream(OutputStream.nullOutputStream());
+            List<String> folders = List.of(dir.toString());
+            new BatchCompiler(cores, sink).run(folders);
+
+            double base = 0;
+            for (int threads = 1; threads <= Math.max(2, cores * 2); threads *= 2) {
+                BatchCompiler batch = new BatchCompiler(threads, sink);
+                batch.run(folders);
+                double rate = batch.getFiles() / (batch.getWallNanos() / 1e9);
+                if (threads == 1) base = rate;
+                System.out.printf("%3d hilos  %10.1f archivos/s  escalado %.2fx%n", threads, rate, rate / base);
+            }
+        } finally {
+            try (Stream<Path> walk = Files.walk(dir)) {
+                walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package compiler_bench;
+
+import compiler_driver.CompilerDaemon;
+import compiler_driver.DaemonClient;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compara verificar un programa en una JVM nueva (Main sobre una carpeta con ese archivo)
+ * con pedírselo a {@link CompilerDaemon} ya caliente: desde este mismo proceso (sólo el
+ * viaje por el socket y las fases), con el cliente de línea de comandos, que paga arrancar
+ * una JVM pero no cargar el compilador ni calentar el JIT, y con el cliente de una línea de
+ * bash sobre /dev/tcp, que no arranca ninguna JVM. El objetivo es que un pedido caliente
+ * desde la línea de comandos sea diez veces más rápido que la JVM nueva.
+ *
+ * Uso: java compiler_bench.DaemonBenchmark [corridas] [tamaño]
+ */
+public class DaemonBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        long size = args.length > 1 ? Long.parseLong(args[1]) : 20_000;
+
+        Path folder = Files.createTempDirectory("demonio");
+        Path file = folder.resolve("programa.txt");
+        Files.writeString(file, new ProgramGenerator(42).generate(size));
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classpath = System.getProperty("java.class.path");
+
+        // En un puerto de localhost, para que también llegue el cliente de bash
+        CompilerDaemon daemon = CompilerDaemon.open("0");
+        String port = String.valueOf(daemon.getPort());
+        daemon.warmUp(2000);
+        Thread server = new Thread(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+        }, "demonio");
+        server.setDaemon(true);
+        server.start();
+
+        try {
+            double cold = process(runs, java, "-cp", classpath, "Main", folder.toString());
+            double thin = process(runs, java, "-XX:TieredStopAtLevel=1", "-cp", classpath,
+                    "compiler_driver.DaemonClient", port, file.toString());
+            double shell = process(runs, "bash", "-c", SHELL_CLIENT, port, file.toString());
+            double warm;
+            try (DaemonClient client = DaemonClient.connect(port)) {
+                for (int k = 0; k < 50; k++) client.compileFile(file);
+                long start = System.nanoTime();
+                for (int k = 0; k < runs * 10; k++) client.compileFile(file);
+                warm = (System.nanoTime() - start) / 1e6 / (runs * 10);
+            }
+
+            System.out.printf("Programa de %d bytes, %d corridas%n", Files.size(file), runs);
+            System.out.printf("%-28s %10s %10s%n", "Modo", "ms", "Mejora");
+            System.out.printf("%-28s %10.2f %10s%n", "JVM nueva (Main)", cold, "1.0x");
+            System.out.printf("%-28s %10.2f %9.1fx%n", "Cliente (JVM nueva)", thin, cold / thin);
+            System.out.printf("%-28s %10.2f %9.1fx%n", "Cliente bash (/dev/tcp)", shell, cold / shell);
+            System.out.printf("%-28s %10.2f %9.1fx%n", "Pedido al demonio", warm, cold / warm);
+        } finally {
+            daemon.close();
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(folder);
+        }
+    }
+
+    // El cliente de una línea del README: $0 es el puerto y $1 el archivo
+    private static final String SHELL_CLIENT =
+            "exec 3<>/dev/tcp/127.0.0.1/$0; echo \"file $1\" >&3; read -r response <&3; echo \"$response\"";
+
+    // Promedio en ms de correr el proceso hasta que termina (la primera corrida no cuenta)
+    private static double process(int runs, String... command) throws IOException, InterruptedException {
+        List<String> line = new ArrayList<>(Arrays.asList(command));
+        long total = 0;
+        for (int k = 0; k <= runs; k++) {
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(line).redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            process.waitFor();
+            if (k > 0) total += System.nanoTime() - start;
+        }
+        return total / 1e6 / runs;
+    }
+}
@@ -0,0 +1,69 @@
+package compiler_bench;
+
+import compiler_lexer.TokenBuffer;
+import compiler_lexer.TokenStream;
+import compiler_semantic.SemanticAnalyzer;
+import compiler_semantic.SemanticError;
+import compiler_sintactic.Ast;
+import compiler_sintactic.SyntacticAnalyzer;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Compara el costo de compilar un programa limpio con el de programas del mismo tamaño con
+ * cada vez más errores sintácticos y semánticos, todos informados en una sola corrida.
+ * El semántico corre aunque haya errores de sintaxis para medir las dos recuperaciones.
+ *
+ * Uso: java compiler_bench.ErrorBenchmark [tamaño] [iteraciones]
+ */
+public class ErrorBenchmark {
+
+    private static final PrintStream SINK = new PrintStream(OutputStream.nullOutputStream());
+
+    public static void main(String[] args) throws SemanticError {
+        long size = ProgramGenerator.parseSize(args.length > 0 ? args[0] : "1MB");
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        double[] rates = {0, 0.01, 0.1, 0.5};
+
+        String[] sources = new String[rates.length];
+        for (int i = 0; i < rates.length; i++) {
+            ProgramGenerator generator = new ProgramGenerator(1);
+            generator.setErrorRate(rates[i]);
+            generator.setLexicalErrors(false);
+            sources[i] = generator.generate(size);
+        }
+
+        for (int i = 0; i < 5; i++) {
+            for (String src : sources) compile(src);
+        }
+
+        // Se alternan las entradas en cada vuelta para que el JIT y el GC las traten igual
+        long[] nanos = new long[rates.length];
+        int[] errors = new int[rates.length];
+        for (int k = 0; k < iterations; k++) {
+            for (int i = 0; i < rates.length; i++) {
+                long start = System.nanoTime();
+                errors[i] = compile(sources[i]);
+                nanos[i] += System.nanoTime() - start;
+            }
+        }
+
+        System.out.printf("%8s %10s %12s %10s%n", "Tasa", "Errores", "ms", "vs limpio");
+        for (int i = 0; i < rates.length; i++) {
+            double ms = nanos[i] / 1e6 / iterations;
+            System.out.printf("%8.2f %10d %12.2f %9.2fx%n", rates[i], errors[i], ms, (double) nanos[i] / nanos[0]);
+        }
+    }
+
+    // Devuelve la cantidad de errores informados
+    private static int compile(String src) throws SemanticError {
+        TokenBuffer tokens = TokenBuffer.lex(src);
+        SyntacticAnalyzer parser = new SyntacticAnalyzer(new TokenStream(tokens));
+        Ast ast = parser.parseProgram();
+        SemanticAnalyzer semantic = new SemanticAnalyzer(ast);
+        semantic.setOutput(SINK);
+        semantic.analyze();
+        return parser.getDiagnostics().count() + semantic.getDiagnostics().count();
+    }
+}
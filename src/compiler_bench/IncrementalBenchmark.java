@@ -0,0 +1,52 @@
+package compiler_bench;
+
+import compiler_lexer.IncrementalLexer;
+import compiler_lexer.TokenBuffer;
+
+import java.util.Random;
+
+/**
+ * Compara el re-escaneo incremental tras ediciones pequeñas con volver a escanear el archivo completo.
+ *
+ * Uso: java compiler_bench.IncrementalBenchmark [bloques] [ediciones]
+ */
+public class IncrementalBenchmark {
+
+    private static final String[] INSERTS = {"x", " ", ";", "1", "\n", "+ 2", "/*", "\""};
+
+    public static void main(String[] args) {
+        int blocks = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int edits = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        String src = PipelineBenchmark.buildSource(blocks);
+        TokenBuffer buffer = TokenBuffer.lex(src);
+        System.out.printf("Entrada: %.2f MB, %d tokens%n", src.length() / (1024.0 * 1024.0), buffer.size());
+
+        for (int i = 0; i < 5; i++) TokenBuffer.lex(src);
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) TokenBuffer.lex(src);
+        double full = (System.nanoTime() - start) / 5.0;
+
+        IncrementalLexer lexer = new IncrementalLexer();
+        Random random = new Random(42);
+        long rescanned = 0;
+        long nanos = 0;
+        for (int i = 0; i < edits; i++) {
+            int offset = random.nextInt(buffer.sourceLength());
+            String inserted = INSERTS[random.nextInt(INSERTS.length)];
+            int removed = random.nextBoolean() ? 0 : Math.min(1, buffer.sourceLength() - offset);
+            long t0 = System.nanoTime();
+            TokenBuffer edited = lexer.relex(buffer, offset, removed, inserted);
+            nanos += System.nanoTime() - t0;
+            rescanned += lexer.rescannedTokens();
+            // Se deshace la edición para que el texto no se degrade
+            lexer.relex(edited, offset, inserted.length(), src.substring(offset, offset + removed));
+        }
+
+        double incremental = (double) nanos / edits;
+        System.out.printf("Escaneo completo   %10.3f ms%n", full / 1e6);
+        System.out.printf("Incremental        %10.3f ms  (%.1f tokens re-escaneados por edición)%n",
+                incremental / 1e6, (double) rescanned / edits);
+        System.out.printf("Mejora: %.1fx%n", full / incremental);
+    }
+}
@@ -0,0 +1,63 @@
+package compiler_bench;
+
+import compiler_driver.Runner;
+import compiler_vm.Program;
+import compiler_vm.VirtualMachine;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Compara la máquina virtual con la clase JVM generada sobre los programas de
+ * {@link VmBenchmark}. El tiempo de la JVM incluye traducir, cargar la clase y calentar el
+ * JIT, porque cada corrida define una clase nueva. La salida se descarta y cada read
+ * recibe un 1.
+ *
+ * Uso: java compiler_bench.JvmBenchmark [iteraciones] [escala]
+ */
+public class JvmBenchmark {
+
+    private static final PrintStream SINK = new PrintStream(OutputStream.nullOutputStream());
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int scale = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        String[] names = {"Enteros", "Double", "Ramas", "Generado"};
+        String[] sources = {VmBenchmark.integers(scale), VmBenchmark.doubles(scale), VmBenchmark.branches(scale),
+                VmBenchmark.generated()};
+        Runner runner = new Runner(System.err);
+
+        System.out.printf("%-10s %10s %10s %10s %12s%n", "Programa", "VM ms", "JVM ms", "Mejora", "Clase bytes");
+        for (int i = 0; i < sources.length; i++) {
+            Program program = runner.compile(sources[i]);
+            byte[] bytes = runner.compileClass(sources[i], "Programa", null);
+            if (program == null || bytes == null) throw new IllegalStateException(names[i] + " no compila");
+
+            for (int k = 0; k < 3; k++) {
+                runVm(program);
+                runJvm(runner, sources[i]);
+            }
+            long start = System.nanoTime();
+            for (int k = 0; k < iterations; k++) runVm(program);
+            double vm = (System.nanoTime() - start) / 1e6 / iterations;
+            start = System.nanoTime();
+            for (int k = 0; k < iterations; k++) runJvm(runner, sources[i]);
+            double jvm = (System.nanoTime() - start) / 1e6 / iterations;
+            System.out.printf("%-10s %10.1f %10.1f %9.1fx %12d%n", names[i], vm, jvm, vm / jvm, bytes.length);
+        }
+    }
+
+    private static void runVm(Program program) {
+        VirtualMachine vm = new VirtualMachine(program);
+        vm.setInput(new VmBenchmark.Ones());
+        vm.setOutput(SINK);
+        vm.run();
+    }
+
+    private static void runJvm(Runner runner, String source) {
+        if (runner.runJvm(source, new VmBenchmark.Ones(), SINK) != Runner.OK) {
+            throw new IllegalStateException("Falló la ejecución en la JVM");
+        }
+    }
+}
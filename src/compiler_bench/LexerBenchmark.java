@@ -0,0 +1,84 @@
+package compiler_bench;
+
+import compiler_lexer.ByteScanner;
+import compiler_lexer.Lexer;
+import compiler_lexer.Scanner;
+import compiler_lexer.TableScanner;
+import compiler_lexer.TokenType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/**
+ * Compara el rendimiento (tokens/segundo) de Scanner con el lexer dirigido por tablas
+ * y con el lexer que trabaja sobre los bytes UTF-8.
+ *
+ * Uso: java compiler_bench.LexerBenchmark [bloques] [iteraciones]
+ */
+public class LexerBenchmark {
+
+    public static void main(String[] args) {
+        int blocks = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        String src = PipelineBenchmark.buildSource(blocks);
+        System.out.printf("Entrada: %d bloques, %.2f MB%n", blocks, src.length() / (1024.0 * 1024.0));
+
+        measure("Scanner", src, Scanner::new, iterations);
+        measure("TableScanner", src, TableScanner::new, iterations);
+        measureScan(src, iterations);
+
+        byte[] bytes = src.getBytes(StandardCharsets.UTF_8);
+        measure("ByteScanner", bytes, ByteScanner::new, iterations);
+        measureByteScan(bytes, iterations);
+    }
+
+    private static <S> void measure(String name, S src, Function<S, Lexer> factory, int iterations) {
+        long count = 0;
+        for (int i = 0; i < 3; i++) count = lex(factory.apply(src));
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) lex(factory.apply(src));
+        report(name, count, System.nanoTime() - start, iterations);
+    }
+
+    // Camino sin objetos Token: sólo scan()
+    private static void measureScan(String src, int iterations) {
+        long count = 0;
+        for (int i = 0; i < 3; i++) count = scanAll(new TableScanner(src));
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) scanAll(new TableScanner(src));
+        report("TableScanner.scan", count, System.nanoTime() - start, iterations);
+    }
+
+    private static void measureByteScan(byte[] src, int iterations) {
+        long count = 0;
+        for (int i = 0; i < 3; i++) count = scanAll(new ByteScanner(src));
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) scanAll(new ByteScanner(src));
+        report("ByteScanner.scan", count, System.nanoTime() - start, iterations);
+    }
+
+    private static long scanAll(ByteScanner scanner) {
+        long n = 0;
+        while (scanner.scan() != TokenType.EOF) n++;
+        return n;
+    }
+
+    private static long lex(Lexer lexer) {
+        long n = 0;
+        while (lexer.nextToken().getType() != TokenType.EOF) n++;
+        return n;
+    }
+
+    private static long scanAll(TableScanner scanner) {
+        long n = 0;
+        while (scanner.scan() != TokenType.EOF) n++;
+        return n;
+    }
+
+    private static void report(String name, long tokens, long nanos, int iterations) {
+        double seconds = nanos / 1e9 / iterations;
+        System.out.printf("%-18s %10d tokens  %8.2f ms  %12.0f tokens/s%n",
+                name, tokens, seconds * 1000, tokens / seconds);
+    }
+}
@@ -0,0 +1,201 @@
+package compiler_bench;
+
+import compiler_driver.Json;
+import compiler_lsp.LanguageServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia del servidor LSP desde una tecla hasta sus diagnósticos, sobre un programa generado
+ * de unas 50.000 líneas. Cada tecla es un didChange incremental (insertar o borrar un espacio,
+ * o escribir y borrar un carácter inválido) y se mide hasta el publishDiagnostics de esa
+ * versión, con la espera del servidor incluida. Después mide ráfagas de teclas seguidas, en
+ * las que sólo la última versión debería analizarse. Termina con error si el percentil 95 pasa
+ * el presupuesto.
+ *
+ * Uso: java compiler_bench.LspBenchmark [líneas] [teclas] [espera ms] [presupuesto ms]
+ */
+public class LspBenchmark {
+
+    private static final String URI = "file:///benchmark/programa.txt";
+
+    public static void main(String[] args) throws Exception {
+        int targetLines = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int keystrokes = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        long debounce = args.length > 2 ? Long.parseLong(args[2]) : LanguageServer.DEFAULT_DEBOUNCE_MILLIS;
+        double budget = args.length > 3 ? Double.parseDouble(args[3]) : 200;
+
+        String source = program(targetLines);
+        String[] lines = source.split("\n", -1);
+        System.out.printf("Documento: %d líneas, %.2f MB, espera %d ms%n", lines.length - 1,
+                source.length() / (1024.0 * 1024.0), debounce);
+
+        PipedOutputStream toServer = new PipedOutputStream();
+        PipedInputStream serverIn = new PipedInputStream(toServer, 1 << 20);
+        PipedOutputStream serverOut = new PipedOutputStream();
+        PipedInputStream fromServer = new PipedInputStream(serverOut, 1 << 20);
+        LanguageServer server = new LanguageServer(serverIn, serverOut);
+        server.setDebounceMillis(debounce);
+        Thread serverThread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, "servidor");
+        serverThread.start();
+
+        // Versión de cada publishDiagnostics, en orden de llegada
+        BlockingQueue<Integer> published = new LinkedBlockingQueue<>();
+        Thread reader = new Thread(() -> readVersions(fromServer, published), "lector");
+        reader.setDaemon(true);
+        reader.start();
+
+        send(toServer, "{\"jsonrpc\": \"2.0\", \"id\": 1, \"method\": \"initialize\", \"params\": {}}");
+        long start = System.nanoTime();
+        send(toServer, "{\"jsonrpc\": \"2.0\", \"method\": \"textDocument/didOpen\", \"params\": {\"textDocument\": "
+                + "{\"uri\": \"" + URI + "\", \"languageId\": \"compilador\", \"version\": 1, \"text\": "
+                + Json.quote(source) + "}}}");
+        await(published, 1);
+        System.out.printf("Apertura: %.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+        Random random = new Random(42);
+        int version = 1;
+        // Calentamiento del JIT con la misma carga
+        for (int i = 0; i < keystrokes / 2; i++) {
+            version = keystroke(toServer, random, lines.length - 1, version, i);
+            await(published, version);
+        }
+
+        double[] latencies = new double[keystrokes];
+        for (int i = 0; i < keystrokes; i++) {
+            long t0 = System.nanoTime();
+            version = keystroke(toServer, random, lines.length - 1, version, i);
+            await(published, version);
+            latencies[i] = (System.nanoTime() - t0) / 1e6;
+        }
+        Arrays.sort(latencies);
+        double p50 = latencies[keystrokes / 2];
+        double p95 = latencies[Math.min(keystrokes - 1, (int) Math.ceil(keystrokes * 0.95) - 1)];
+        System.out.printf("Tecla a diagnósticos: mediana %.1f ms, p95 %.1f ms, máximo %.1f ms (%.1f ms sin la espera)%n",
+                p50, p95, latencies[keystrokes - 1], p50 - debounce);
+
+        // Ráfagas de diez teclas a 10 ms: se mide desde la última
+        int bursts = Math.max(1, keystrokes / 20);
+        int cancelledBefore = server.getCancelled();
+        int analysesBefore = server.getAnalyses();
+        double burstTotal = 0;
+        for (int b = 0; b < bursts; b++) {
+            for (int k = 0; k < 10; k++) {
+                version = keystroke(toServer, random, lines.length - 1, version, k);
+                if (k < 9) Thread.sleep(10);
+            }
+            long t0 = System.nanoTime();
+            await(published, version);
+            burstTotal += (System.nanoTime() - t0) / 1e6;
+        }
+        System.out.printf("Ráfagas: %.1f ms desde la última tecla, %d análisis publicados y %d cortados para %d teclas%n",
+                burstTotal / bursts, server.getAnalyses() - analysesBefore, server.getCancelled() - cancelledBefore,
+                bursts * 10);
+
+        send(toServer, "{\"jsonrpc\": \"2.0\", \"id\": 2, \"method\": \"shutdown\"}");
+        send(toServer, "{\"jsonrpc\": \"2.0\", \"method\": \"exit\"}");
+        serverThread.join();
+
+        System.out.printf("Presupuesto: p95 %.1f ms de %.1f ms%n", p95, budget);
+        if (p95 > budget) {
+            System.out.println("El p95 pasa el presupuesto");
+            System.exit(1);
+        }
+    }
+
+    // Un programa válido con al menos esa cantidad de líneas
+    static String program(int targetLines) {
+        long bytes = targetLines * 24L;
+        while (true) {
+            ProgramGenerator generator = new ProgramGenerator(1);
+            String source = generator.generate(bytes);
+            if (generator.getLines() >= targetLines) return source;
+            bytes = bytes * targetLines / Math.max(1, generator.getLines()) + 1024;
+        }
+    }
+
+    // Las teclas pares insertan (un espacio, o un '@' que es error léxico); las impares lo borran
+    private static int keystroke(OutputStream toServer, Random random, int lines, int version, int index)
+            throws IOException {
+        String text;
+        int line = random.nextInt(lines);
+        if (index % 2 == 0) {
+            lastLine = line;
+            String typed = random.nextInt(4) == 0 ? "@" : " ";
+            text = "{\"range\": {\"start\": {\"line\": " + line + ", \"character\": 0}, \"end\": {\"line\": " + line
+                    + ", \"character\": 0}}, \"text\": \"" + typed + "\"}";
+        } else {
+            text = "{\"range\": {\"start\": {\"line\": " + lastLine + ", \"character\": 0}, \"end\": {\"line\": " + lastLine
+                    + ", \"character\": 1}}, \"text\": \"\"}";
+        }
+        version++;
+        send(toServer, "{\"jsonrpc\": \"2.0\", \"method\": \"textDocument/didChange\", \"params\": {\"textDocument\": "
+                + "{\"uri\": \"" + URI + "\", \"version\": " + version + "}, \"contentChanges\": [" + text + "]}}");
+        return version;
+    }
+
+    // Línea de la última inserción, para borrarla con la tecla siguiente
+    private static int lastLine;
+
+    private static void await(BlockingQueue<Integer> published, int version) throws InterruptedException {
+        while (true) {
+            Integer arrived = published.poll(30, TimeUnit.SECONDS);
+            if (arrived == null) throw new IllegalStateException("Sin diagnósticos para la versión " + version);
+            if (arrived == version) return;
+        }
+    }
+
+    private static void send(OutputStream out, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        out.write(("Content-Length: " + body.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(body);
+        out.flush();
+    }
+
+    private static void readVersions(InputStream in, BlockingQueue<Integer> published) {
+        try {
+            while (true) {
+                int length = -1;
+                String header;
+                while (!(header = readLine(in)).isEmpty()) {
+                    if (header.startsWith("Content-Length:")) length = Integer.parseInt(header.substring(15).trim());
+                }
+                String body = new String(in.readNBytes(length), StandardCharsets.UTF_8);
+                if (!body.contains("\"textDocument/publishDiagnostics\"")) continue;
+                int at = body.indexOf("\"version\": ") + 11;
+                int end = at;
+                while (Character.isDigit(body.charAt(end))) end++;
+                published.add(Integer.parseInt(body.substring(at, end)));
+            }
+        } catch (IOException | RuntimeException e) {
+            // El servidor terminó
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int c;
+        while ((c = in.read()) != '\n') {
+            if (c < 0) throw new IOException("fin de la salida del servidor");
+            if (c != '\r') line.write(c);
+        }
+        return line.toString(StandardCharsets.US_ASCII);
+    }
+}
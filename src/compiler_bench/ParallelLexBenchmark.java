@@ -0,0 +1,75 @@
+package compiler_bench;
+
+import compiler_lexer.ParallelLexer;
+import compiler_lexer.TokenBuffer;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Escanea un solo programa generado grande con {@link TokenBuffer#lex(CharSequence)} y con
+ * {@link ParallelLexer} en pools de 1, 2, 4... hasta 32 hilos, y muestra MB/s y la mejora sobre
+ * el escaneo secuencial. Antes de medir comprueba que cada configuración da exactamente los
+ * mismos tokens. Con más hilos que núcleos la mejora deja de crecer.
+ *
+ * Uso: java -Xmx3g compiler_bench.ParallelLexBenchmark [tamaño] [iteraciones] [hilos máximos]
+ */
+public class ParallelLexBenchmark {
+
+    public static void main(String[] args) {
+        String size = args.length > 0 ? args[0] : "100MB";
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+
+        String src = new ProgramGenerator(1).generate(ProgramGenerator.parseSize(size));
+        double mb = src.length() / (1024.0 * 1024.0);
+        System.out.printf("Entrada: %.1f MB, %d núcleos%n", mb, Runtime.getRuntime().availableProcessors());
+
+        TokenBuffer expected = TokenBuffer.lex(src);
+        for (int i = 0; i < iterations; i++) TokenBuffer.lex(src);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) TokenBuffer.lex(src);
+        double sequential = (System.nanoTime() - start) / 1e9 / iterations;
+        System.out.printf("%-12s %10s %10s %10s%n", "Hilos", "ms", "MB/s", "Mejora");
+        System.out.printf("%-12s %10.1f %10.1f %9.2fx%n", "secuencial", sequential * 1e3, mb / sequential, 1.0);
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                // Con un hilo se fuerza el corte en trozos para medir lo que cuesta unirlos
+                int chunk = Math.max(ParallelLexer.MIN_CHUNK_CHARS, src.length() / (threads * 4));
+                String mismatch = compare(expected, ParallelLexer.lex(src, pool, chunk));
+                if (mismatch != null) throw new IllegalStateException(threads + " hilos: " + mismatch);
+                for (int i = 0; i < iterations; i++) ParallelLexer.lex(src, pool, chunk);
+                start = System.nanoTime();
+                for (int i = 0; i < iterations; i++) ParallelLexer.lex(src, pool, chunk);
+                double seconds = (System.nanoTime() - start) / 1e9 / iterations;
+                System.out.printf("%-12d %10.1f %10.1f %9.2fx%n", threads, seconds * 1e3, mb / seconds,
+                        sequential / seconds);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // null si los dos buffers tienen los mismos tokens, errores y nombres
+    static String compare(TokenBuffer a, TokenBuffer b) {
+        if (a.size() != b.size()) return "tokens: " + a.size() + " contra " + b.size();
+        for (int i = 0; i < a.size(); i++) {
+            if (a.typeOrdinal(i) != b.typeOrdinal(i) || a.start(i) != b.start(i) || a.length(i) != b.length(i)
+                    || a.line(i) != b.line(i) || a.column(i) != b.column(i) || a.symbol(i) != b.symbol(i)) {
+                return "token " + i + " distinto";
+            }
+        }
+        if (a.errorCount() != b.errorCount()) return "errores: " + a.errorCount() + " contra " + b.errorCount();
+        for (int k = 0; k < a.errorCount(); k++) {
+            if (a.errorToken(k) != b.errorToken(k) || !a.errorMessage(k).equals(b.errorMessage(k))) {
+                return "error " + k + " distinto";
+            }
+        }
+        if (a.interner().size() != b.interner().size()) return "cantidad de nombres distinta";
+        for (int k = 0; k < a.interner().size(); k++) {
+            if (!a.interner().name(k).equals(b.interner().name(k))) return "nombre " + k + " distinto";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,96 @@
+package compiler_bench;
+
+import compiler_lexer.Scanner;
+import compiler_lexer.Token;
+import compiler_lexer.TokenStream;
+import compiler_lexer.TokenType;
+import compiler_semantic.SemanticAnalyzer;
+import compiler_semantic.SemanticError;
+import compiler_sintactic.Ast;
+import compiler_sintactic.SyntacticAnalyzer;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compara el flujo original (tres recorridos del texto: Scanner, parser por caracteres
+ * y semántico por líneas) con el flujo de una sola pasada guiado por tokens y el AST.
+ *
+ * Uso: java compiler_bench.PipelineBenchmark [bloques] [iteraciones]
+ */
+public class PipelineBenchmark {
+
+    public static void main(String[] args) throws SemanticError {
+        int blocks = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        String src = buildSource(blocks);
+        double mb = src.length() / (1024.0 * 1024.0);
+        System.out.printf("Entrada: %d bloques, %.2f MB%n", blocks, mb);
+
+        // El analizador semántico imprime su progreso: se descarta durante la medición
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int i = 0; i < 3; i++) {
+                threeScan(src);
+                singlePass(src);
+            }
+            long threeScan = 0;
+            long singlePass = 0;
+            for (int i = 0; i < iterations; i++) {
+                long t0 = System.nanoTime();
+                threeScan(src);
+                long t1 = System.nanoTime();
+                singlePass(src);
+                long t2 = System.nanoTime();
+                threeScan += t1 - t0;
+                singlePass += t2 - t1;
+            }
+            report(out, "Tres recorridos", threeScan, iterations, mb);
+            report(out, "Una pasada", singlePass, iterations, mb);
+            out.printf("Mejora: %.2fx%n", (double) threeScan / singlePass);
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    private static void threeScan(String src) throws SemanticError {
+        Scanner scanner = new Scanner(src);
+        while (scanner.nextToken().getType() != TokenType.EOF) { }
+        new SyntacticAnalyzer(src).parseProgram();
+        new SemanticAnalyzer(src).analyze();
+    }
+
+    private static void singlePass(String src) throws SemanticError {
+        Scanner scanner = new Scanner(src);
+        List<Token> tokens = new ArrayList<>();
+        Token token;
+        do {
+            token = scanner.nextToken();
+            tokens.add(token);
+        } while (token.getType() != TokenType.EOF);
+        Ast ast = new SyntacticAnalyzer(new TokenStream(tokens)).parseProgram();
+        new SemanticAnalyzer(ast).analyze();
+    }
+
+    private static void report(PrintStream out, String name, long nanos, int iterations, double mb) {
+        double seconds = nanos / 1e9 / iterations;
+        out.printf("%-16s %8.2f ms/compilación  %8.2f MB/s%n", name, seconds * 1000, mb / seconds);
+    }
+
+    // Programa válido en las tres fases: declaraciones, bucles y comentarios
+    public static String buildSource(int blocks) {
+        StringBuilder sb = new StringBuilder(blocks * 96);
+        for (int i = 0; i < blocks; i++) {
+            sb.append("// bloque ").append(i).append('\n');
+            sb.append("int v").append(i).append(" = ").append(i).append(";\n");
+            sb.append("while (v").append(i).append(" < 100) {\n");
+            sb.append("    v").append(i).append(" = v").append(i).append(" + 1;\n");
+            sb.append("}\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,448 @@
+package compiler_bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Genera programas sintéticos del lenguaje, siempre iguales para la misma semilla.
+ * Los programas válidos pasan las tres fases: cada variable se declara antes de usarse y
+ * en su bloque, las expresiones respetan los tipos y los while terminan (usan un contador
+ * propio que el cuerpo no modifica). Con una tasa de errores mayor que cero se insertan
+ * sentencias con errores léxicos, sintácticos o semánticos.
+ *
+ * Uso: java compiler_bench.ProgramGenerator [--size 10MB] [--depth 4] [--expr 8]
+ *      [--loops 10] [--seed 1] [--errors 0.0] [--out archivo]
+ */
+public class ProgramGenerator {
+
+    private static final String[] TYPES = {"int", "long", "double", "boolean"};
+    // Clase extra para los contadores de los while: son int pero no se les asigna
+    private static final int COUNTER = 4;
+    // Variables recordadas por tipo y bloque; las más viejas siguen declaradas pero dejan de usarse
+    private static final int REMEMBERED = 256;
+    private static final String[] COMPARISONS = {"<", ">", "<=", ">=", "==", "!="};
+
+    private final Random random;
+    private int maxDepth = 4;
+    private int expressionLength = 8;
+    private int loopBound = 10;
+    private double errorRate;
+    private boolean lexicalErrors = true;
+
+    // Variables visibles por bloque, separadas por tipo (índice en TYPES, o COUNTER)
+    private final List<List<String>[]> scopes = new ArrayList<>();
+    private int nextName;
+    private int loopDepth;
+
+    private Writer out;
+    private long written;
+    private long lines;
+    private long errors;
+
+    public ProgramGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = Math.max(0, maxDepth);
+    }
+
+    public void setExpressionLength(int expressionLength) {
+        this.expressionLength = Math.max(1, expressionLength);
+    }
+
+    // Cada while da entre 1 y loopBound vueltas; con valores grandes el programa pesa al ejecutarlo
+    public void setLoopBound(int loopBound) {
+        this.loopBound = Math.max(1, loopBound);
+    }
+
+    // Probabilidad de que cada sentencia del nivel global tenga un error
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    // Sin errores léxicos el archivo llega al parser y al semántico con todos sus errores
+    public void setLexicalErrors(boolean lexicalErrors) {
+        this.lexicalErrors = lexicalErrors;
+    }
+
+    public String generate(long targetBytes) {
+        StringBuilder sb = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 16, targetBytes + 1024));
+        try {
+            generate(targetBytes, new StringBuilderWriter(sb));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return sb.toString();
+    }
+
+    // Escribe sentencias del nivel global hasta superar targetBytes caracteres
+    public void generate(long targetBytes, Writer target) throws IOException {
+        out = target;
+        written = 0;
+        lines = 0;
+        errors = 0;
+        scopes.clear();
+        scopes.add(newScope());
+        loopDepth = 0;
+
+        // Una variable de cada tipo para que siempre haya a quién asignar
+        comment(0);
+        for (int type = 0; type < TYPES.length; type++) {
+            String name = "v" + nextName++;
+            line(0, TYPES[type] + " " + name + " = " + (type == 3 ? "true" : literal(type)) + ";");
+            declare(name, type);
+        }
+        while (written < targetBytes) {
+            if (errorRate > 0 && random.nextDouble() < errorRate) faulty();
+            else statement(0, true);
+        }
+        out.flush();
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    // ---------------------------------------------------------------
+    // Sentencias
+    // ---------------------------------------------------------------
+
+    // inBlock: la sentencia está directamente en un bloque (puede declarar variables)
+    private void statement(int depth, boolean inBlock) throws IOException {
+        int roll = random.nextInt(100);
+        boolean nest = depth < maxDepth;
+        if (inBlock && roll < 20) {
+            declaration(depth);
+        } else if (roll < 45) {
+            assignment(depth);
+        } else if (roll < 60 && nest) {
+            ifStatement(depth);
+        } else if (roll < 72 && nest && inBlock) {
+            whileStatement(depth);
+        } else if (roll < 80) {
+            line(depth, "read(" + pick(-1, false) + ");");
+        } else if (roll < 90) {
+            writeStatement(depth);
+        } else if (roll < 93 && loopDepth > 0) {
+            line(depth, "if (" + condition() + ") then break;");
+        } else if (roll < 96 && inBlock) {
+            comment(depth);
+        } else {
+            assignment(depth);
+        }
+    }
+
+    private void declaration(int depth) throws IOException {
+        int type = random.nextInt(TYPES.length);
+        int count = 1 + (random.nextInt(4) == 0 ? random.nextInt(3) : 0);
+        StringBuilder sb = new StringBuilder(TYPES[type]).append(' ');
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(", ");
+            names[i] = "v" + nextName++;
+            sb.append(names[i]);
+        }
+        // La inicialización (del último nombre) se arma antes de declararlo
+        if (random.nextInt(4) != 0) sb.append(" = ").append(expression(type));
+        sb.append(';');
+        for (String name : names) declare(name, type);
+        line(depth, sb.toString());
+    }
+
+    private void assignment(int depth) throws IOException {
+        int type = random.nextInt(TYPES.length);
+        String name = pick(type, false);
+        String op = "=";
+        if (type != 3 && random.nextInt(3) == 0) {
+            // En int y long no se divide: la división se deja a los literales distintos de cero
+            String[] ops = type == 2 ? new String[] {"+=", "-=", "*=", "/="} : new String[] {"+=", "-=", "*="};
+            op = ops[random.nextInt(ops.length)];
+            if (op.equals("/=")) {
+                line(depth, name + " /= " + (1 + random.nextInt(9)) + ".5;");
+                return;
+            }
+        }
+        line(depth, name + " " + op + " " + expression(type) + ";");
+    }
+
+    private void ifStatement(int depth) throws IOException {
+        String head = "if (" + condition() + ")" + (random.nextBoolean() ? " then" : "");
+        if (random.nextInt(3) == 0) {
+            line(depth, head);
+            statement(depth + 1, false);
+        } else {
+            line(depth, head + " {");
+            block(depth + 1);
+            line(depth, "}");
+        }
+        if (random.nextBoolean()) {
+            line(depth, "else {");
+            block(depth + 1);
+            line(depth, "}");
+        }
+    }
+
+    private void whileStatement(int depth) throws IOException {
+        String counter = "i" + nextName++;
+        line(depth, "int " + counter + " = 0;");
+        declare(counter, COUNTER);
+        line(depth, "while (" + counter + " < " + (1 + random.nextInt(loopBound)) + ") {");
+        loopDepth++;
+        block(depth + 1);
+        line(depth + 1, counter + " = " + counter + " + 1;");
+        loopDepth--;
+        line(depth, "}");
+    }
+
+    private void writeStatement(int depth) throws IOException {
+        if (random.nextInt(4) == 0) {
+            line(depth, "write(\"texto " + random.nextInt(1000) + "\");");
+        } else {
+            line(depth, "write(" + expression(random.nextInt(TYPES.length)) + ");");
+        }
+    }
+
+    private void block(int depth) throws IOException {
+        scopes.add(newScope());
+        int count = 1 + random.nextInt(4);
+        for (int i = 0; i < count; i++) statement(depth, true);
+        scopes.remove(scopes.size() - 1);
+    }
+
+    private void comment(int depth) throws IOException {
+        if (random.nextBoolean()) {
+            line(depth, "// comentario " + random.nextInt(100_000));
+        } else {
+            line(depth, "/* comentario");
+            line(depth, "   de varias líneas */");
+        }
+    }
+
+    // Sentencia con un error de una de las tres fases
+    private void faulty() throws IOException {
+        errors++;
+        String name = pick(0, false);
+        switch (lexicalErrors ? random.nextInt(4) : 1 + random.nextInt(3)) {
+            case 0:
+                line(0, name + " = 1 @ 2;");
+                break;
+            case 1:
+                line(0, name + " = (1 + 2;");
+                break;
+            case 2:
+                line(0, "noDeclarada" + random.nextInt(1000) + " = 1;");
+                break;
+            default:
+                line(0, name + " = \"texto\";");
+                break;
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Expresiones: todos los operandos son del tipo pedido o de uno más angosto, así que el
+    // tipo del resultado no depende de cómo la precedencia agrupe los operadores
+    // ---------------------------------------------------------------
+
+    private String expression(int type) {
+        return type == 3 ? condition() : numeric(type, expressionLength, 0);
+    }
+
+    private String numeric(int type, int length, int nesting) {
+        StringBuilder sb = new StringBuilder();
+        int terms = 1 + random.nextInt(length);
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) sb.append(' ').append(random.nextInt(3) == 0 ? '-' : '+').append(' ');
+            sb.append(operand(type, nesting));
+            if (random.nextInt(4) == 0) {
+                sb.append(" * ").append(operand(type, nesting));
+            } else if (random.nextInt(8) == 0) {
+                sb.append(" / ").append(1 + random.nextInt(9));
+            }
+        }
+        return sb.toString();
+    }
+
+    // Operando de tipo type o de uno más angosto
+    private String operand(int type, int nesting) {
+        int roll = random.nextInt(10);
+        if (roll < 4) return literal(type);
+        if (roll == 9 && nesting < 2) return "(" + numeric(type, Math.max(1, expressionLength / 2), nesting + 1) + ")";
+        String name = pick(type, true);
+        return name != null ? name : literal(type);
+    }
+
+    private String literal(int type) {
+        if (type == 2 && random.nextBoolean()) return random.nextInt(100) + "." + random.nextInt(10);
+        return Integer.toString(random.nextInt(1000));
+    }
+
+    private String condition() {
+        int type = random.nextInt(3);
+        StringBuilder sb = new StringBuilder();
+        sb.append(numeric(type, Math.max(1, expressionLength / 2), 1));
+        sb.append(' ').append(COMPARISONS[random.nextInt(COMPARISONS.length)]).append(' ');
+        // La derecha de una comparación es un solo operando o va entre paréntesis
+        sb.append(random.nextBoolean() ? operand(type, 2) : "(" + numeric(type, 2, 2) + ")");
+        int extra = random.nextInt(3);
+        for (int i = 0; i < extra; i++) {
+            sb.append(random.nextBoolean() ? " && " : " || ");
+            int roll = random.nextInt(4);
+            String flag = pick(3, false);
+            if (roll == 0) sb.append(random.nextBoolean() ? "true" : "false");
+            else if (roll == 1) sb.append('!').append(flag);
+            else if (roll == 2) sb.append(flag);
+            else sb.append('(').append(operand(0, 2)).append(" < ").append(operand(0, 2)).append(')');
+        }
+        return sb.toString();
+    }
+
+    // ---------------------------------------------------------------
+    // Variables visibles
+    // ---------------------------------------------------------------
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<String>[] newScope() {
+        List<String>[] scope = new List[COUNTER + 1];
+        for (int k = 0; k < scope.length; k++) scope[k] = new ArrayList<>();
+        return scope;
+    }
+
+    private void declare(String name, int type) {
+        List<String> names = scopes.get(scopes.size() - 1)[type];
+        if (names.size() < REMEMBERED) names.add(name);
+        else names.set(random.nextInt(REMEMBERED), name);
+    }
+
+    /**
+     * Elige una variable visible de tipo type (-1: cualquiera a la que se pueda asignar).
+     * Con widening también sirven las de tipos numéricos más angostos y los contadores.
+     * Devuelve null si no hay candidatas; con type -1 siempre hay (las del comienzo).
+     */
+    private String pick(int type, boolean widening) {
+        int kinds = 0;
+        int[] allowed = new int[COUNTER + 1];
+        if (type < 0) {
+            for (int k = 0; k < COUNTER; k++) allowed[kinds++] = k;
+        } else {
+            allowed[kinds++] = type;
+            if (widening && type < 3) {
+                for (int k = 0; k < type; k++) allowed[kinds++] = k;
+                allowed[kinds++] = COUNTER;
+            }
+        }
+        int start = random.nextInt(kinds);
+        for (int a = 0; a < kinds; a++) {
+            int kind = allowed[(start + a) % kinds];
+            // Primero un bloque al azar entre los tres más cercanos, después de adentro hacia afuera
+            int near = scopes.size() - 1 - random.nextInt(Math.min(scopes.size(), 3));
+            List<String> names = scopes.get(near)[kind];
+            for (int k = scopes.size() - 1; names.isEmpty() && k >= 0; k--) names = scopes.get(k)[kind];
+            if (!names.isEmpty()) return names.get(random.nextInt(names.size()));
+        }
+        return null;
+    }
+
+    private void line(int depth, String text) throws IOException {
+        for (int i = 0; i < depth; i++) out.write("    ");
+        out.write(text);
+        out.write('\n');
+        written += depth * 4L + text.length() + 1;
+        lines++;
+    }
+
+    /**
+     * Writer sobre un StringBuilder, sin la sincronización de StringWriter.
+     */
+    private static final class StringBuilderWriter extends Writer {
+        private final StringBuilder sb;
+
+        StringBuilderWriter(StringBuilder sb) {
+            this.sb = sb;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            sb.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str) {
+            sb.append(str);
+        }
+
+        @Override
+        public void write(int c) {
+            sb.append((char) c);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        long size = 1 << 20;
+        long seed = 1;
+        String file = null;
+        int depth = 4;
+        int expr = 8;
+        int loops = 10;
+        double errorRate = 0;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--size": size = parseSize(args[i + 1]); break;
+                case "--depth": depth = Integer.parseInt(args[i + 1]); break;
+                case "--expr": expr = Integer.parseInt(args[i + 1]); break;
+                case "--loops": loops = Integer.parseInt(args[i + 1]); break;
+                case "--seed": seed = Long.parseLong(args[i + 1]); break;
+                case "--errors": errorRate = Double.parseDouble(args[i + 1]); break;
+                case "--out": file = args[i + 1]; break;
+                default: throw new IllegalArgumentException("Opción desconocida: " + args[i]);
+            }
+        }
+
+        ProgramGenerator generator = new ProgramGenerator(seed);
+        generator.setMaxDepth(depth);
+        generator.setExpressionLength(expr);
+        generator.setLoopBound(loops);
+        generator.setErrorRate(errorRate);
+
+        Writer out = file != null
+                ? Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        try {
+            generator.generate(size, out);
+        } finally {
+            if (file != null) out.close();
+            else out.flush();
+        }
+        System.err.printf("%d líneas, %d sentencias con errores%n", generator.getLines(), generator.getErrors());
+    }
+
+    // "10MB", "512KB" o un número de caracteres
+    static long parseSize(String size) {
+        String s = size.trim().toUpperCase();
+        if (s.endsWith("GB")) return Long.parseLong(s.substring(0, s.length() - 2)) << 30;
+        if (s.endsWith("MB")) return Long.parseLong(s.substring(0, s.length() - 2)) << 20;
+        if (s.endsWith("KB")) return Long.parseLong(s.substring(0, s.length() - 2)) << 10;
+        return Long.parseLong(s);
+    }
+}
@@ -0,0 +1,70 @@
+package compiler_bench;
+
+import compiler_lexer.TokenBuffer;
+import compiler_lexer.TokenStream;
+import compiler_semantic.SemanticAnalyzer;
+import compiler_semantic.SemanticError;
+import compiler_sintactic.Ast;
+import compiler_sintactic.SyntacticAnalyzer;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Compila programas generados por {@link ProgramGenerator} de tamaño creciente y muestra
+ * líneas/segundo de cada fase, para ver si el costo crece de forma lineal.
+ *
+ * Uso: java -Xmx3g compiler_bench.ScaleBenchmark [tamaños separados por coma] [profundidad] [semilla]
+ */
+public class ScaleBenchmark {
+
+    public static void main(String[] args) throws SemanticError {
+        String[] sizes = (args.length > 0 ? args[0] : "1MB,10MB,100MB").split(",");
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        PrintStream sink = new PrintStream(OutputStream.nullOutputStream());
+
+        // Calentamiento con un programa chico
+        for (int i = 0; i < 20; i++) compile(generate("256KB", depth, seed + i), sink, new long[3]);
+
+        System.out.printf("%10s %10s %12s %12s %12s %12s%n",
+                "Tamaño", "Líneas", "Léxico", "Sintáctico", "Semántico", "Total");
+        for (String size : sizes) {
+            ProgramGenerator generator = new ProgramGenerator(seed);
+            generator.setMaxDepth(depth);
+            String src = generator.generate(ProgramGenerator.parseSize(size));
+            long[] nanos = new long[3];
+            compile(src, sink, nanos);
+            long lines = generator.getLines();
+            System.out.printf("%10s %10d %12s %12s %12s %12s%n", size, lines,
+                    rate(lines, nanos[0]), rate(lines, nanos[1]), rate(lines, nanos[2]),
+                    rate(lines, nanos[0] + nanos[1] + nanos[2]));
+        }
+        System.out.println("(líneas por segundo)");
+    }
+
+    private static String generate(String size, int depth, long seed) {
+        ProgramGenerator generator = new ProgramGenerator(seed);
+        generator.setMaxDepth(depth);
+        return generator.generate(ProgramGenerator.parseSize(size));
+    }
+
+    private static void compile(String src, PrintStream sink, long[] nanos) throws SemanticError {
+        long t0 = System.nanoTime();
+        TokenBuffer tokens = TokenBuffer.lex(src);
+        long t1 = System.nanoTime();
+        Ast ast = new SyntacticAnalyzer(new TokenStream(tokens)).parseProgram();
+        long t2 = System.nanoTime();
+        SemanticAnalyzer semantic = new SemanticAnalyzer(ast);
+        semantic.setOutput(sink);
+        semantic.analyze();
+        long t3 = System.nanoTime();
+        nanos[0] += t1 - t0;
+        nanos[1] += t2 - t1;
+        nanos[2] += t3 - t2;
+    }
+
+    private static String rate(long lines, long nanos) {
+        return String.format("%.2fM", lines / (nanos / 1e9) / 1e6);
+    }
+}
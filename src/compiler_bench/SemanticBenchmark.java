@@ -0,0 +1,75 @@
+package compiler_bench;
+
+import compiler_lexer.TokenBuffer;
+import compiler_lexer.TokenStream;
+import compiler_semantic.SemanticAnalyzer;
+import compiler_semantic.SemanticError;
+import compiler_sintactic.Ast;
+import compiler_sintactic.SyntacticAnalyzer;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Compara el análisis semántico por líneas de texto con el recorrido del AST.
+ * El AST se construye una vez fuera de la medición.
+ *
+ * Uso: java compiler_bench.SemanticBenchmark [bloques] [iteraciones]
+ */
+public class SemanticBenchmark {
+
+    private static final PrintStream SINK = new PrintStream(OutputStream.nullOutputStream());
+
+    public static void main(String[] args) throws SemanticError {
+        int blocks = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        String src = PipelineBenchmark.buildSource(blocks);
+        Ast ast = new SyntacticAnalyzer(new TokenStream(TokenBuffer.lex(src))).parseProgram();
+        System.out.printf("Entrada: %.2f MB, %d nodos%n", src.length() / (1024.0 * 1024.0), ast.size());
+
+        for (int i = 0; i < 3; i++) {
+            lines(src);
+            tree(ast);
+        }
+
+        long lines = 0;
+        long tree = 0;
+        long linesBytes = 0;
+        long treeBytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            long b0 = TokenBufferBenchmark.allocatedBytes();
+            long t0 = System.nanoTime();
+            lines(src);
+            long t1 = System.nanoTime();
+            long b1 = TokenBufferBenchmark.allocatedBytes();
+            tree(ast);
+            long t2 = System.nanoTime();
+            long b2 = TokenBufferBenchmark.allocatedBytes();
+            lines += t1 - t0;
+            tree += t2 - t1;
+            linesBytes += b1 - b0;
+            treeBytes += b2 - b1;
+        }
+        report("Por líneas", lines, linesBytes, iterations);
+        report("Sobre el AST", tree, treeBytes, iterations);
+        System.out.printf("Mejora: %.2fx%n", (double) lines / tree);
+    }
+
+    private static void lines(String src) throws SemanticError {
+        SemanticAnalyzer semantic = new SemanticAnalyzer(src);
+        semantic.setOutput(SINK);
+        semantic.analyze();
+    }
+
+    private static void tree(Ast ast) throws SemanticError {
+        SemanticAnalyzer semantic = new SemanticAnalyzer(ast);
+        semantic.setOutput(SINK);
+        semantic.analyze();
+    }
+
+    private static void report(String name, long nanos, long bytes, int iterations) {
+        System.out.printf("%-14s %8.2f ms/análisis  %10.1f KB asignados%n",
+                name, nanos / 1e6 / iterations, bytes / 1024.0 / iterations);
+    }
+}
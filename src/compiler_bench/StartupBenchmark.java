@@ -0,0 +1,143 @@
+package compiler_bench;
+
+import compiler_driver.CdsArchive;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Tiempo hasta el primer diagnóstico de Main sobre un archivo de una línea con un error de
+ * sintaxis, en una JVM nueva por corrida: sin archivo CDS de la aplicación, con el archivo
+ * generado por {@link CdsArchive} (entrenado sobre test/success y test/error) y con el
+ * archivo más -XX:TieredStopAtLevel=1. Muestra la mediana del primer diagnóstico y del
+ * fin del proceso; con un segundo argumento escribe también un CSV.
+ *
+ * Uso: java compiler_bench.StartupBenchmark [corridas] [salida.csv]
+ * (desde la raíz del proyecto, para que el entrenamiento encuentre test/)
+ */
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        Path csv = args.length > 1 ? Paths.get(args[1]) : null;
+
+        Path folder = Files.createTempDirectory("arranque");
+        Path file = folder.resolve("uno.txt");
+        Files.writeString(file, "int a = ;\n");
+        String classpath = jarClasspath(folder);
+        Path archive = folder.resolve("compilador.jsa");
+        String error = CdsArchive.create(classpath, archive, Arrays.asList("test/success", "test/error"));
+        if (error != null) throw new IllegalStateException("No se pudo generar el archivo CDS: " + error);
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+
+        String[] names = {"Sin CDS", "CDS", "CDS + C1"};
+        String[][] options = {
+                {},
+                {"-XX:SharedArchiveFile=" + archive},
+                {"-XX:SharedArchiveFile=" + archive, "-XX:TieredStopAtLevel=1"}
+        };
+        double[][] results = new double[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            List<String> command = new ArrayList<>();
+            command.add(java);
+            command.addAll(Arrays.asList(options[i]));
+            command.addAll(Arrays.asList("-cp", classpath, "Main", file.toString()));
+            measure(command);
+            results[i] = measure(command, runs);
+        }
+
+        System.out.printf("Archivo CDS: %d KB, %d corridas%n", Files.size(archive) / 1024, runs);
+        System.out.printf("%-12s %22s %14s %10s%n", "Modo", "Primer diagnóstico ms", "Fin ms", "Mejora");
+        for (int i = 0; i < names.length; i++) {
+            System.out.printf("%-12s %22.1f %14.1f %9.2fx%n", names[i], results[i][0], results[i][1],
+                    results[0][0] / results[i][0]);
+        }
+        if (csv != null) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(csv), true, StandardCharsets.UTF_8)) {
+                out.println("\"Modo\",\"Primer diagnóstico ms\",\"Fin ms\",\"Corridas\"");
+                for (int i = 0; i < names.length; i++) {
+                    out.printf("\"%s\",%.1f,%.1f,%d%n", names[i], results[i][0], results[i][1], runs);
+                }
+            }
+        }
+        try (Stream<Path> files = Files.list(folder)) {
+            files.forEach(path -> path.toFile().delete());
+        }
+        Files.deleteIfExists(folder);
+    }
+
+    // Medianas en ms: hasta la primera línea con "Error" en la salida y hasta que el proceso termina
+    private static double[] measure(List<String> command, int runs) throws IOException, InterruptedException {
+        double[] first = new double[runs];
+        double[] total = new double[runs];
+        for (int k = 0; k < runs; k++) {
+            double[] times = measure(command);
+            first[k] = times[0];
+            total[k] = times[1];
+        }
+        Arrays.sort(first);
+        Arrays.sort(total);
+        return new double[] {first[runs / 2], total[runs / 2]};
+    }
+
+    private static double[] measure(List<String> command) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        double first = -1;
+        try (BufferedReader out = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                if (first < 0 && line.contains("Error")) first = (System.nanoTime() - start) / 1e6;
+            }
+        }
+        process.waitFor();
+        double total = (System.nanoTime() - start) / 1e6;
+        if (first < 0) throw new IllegalStateException("Main no informó el error de sintaxis");
+        return new double[] {first, total};
+    }
+
+    // El classpath actual con cada carpeta empaquetada en un .jar (la JVM no archiva clases de carpetas)
+    private static String jarClasspath(Path folder) throws IOException {
+        List<String> entries = new ArrayList<>();
+        int count = 0;
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            Path path = Paths.get(entry);
+            if (!Files.isDirectory(path)) {
+                entries.add(entry);
+                continue;
+            }
+            Path jar = folder.resolve("clases" + count++ + ".jar");
+            try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar));
+                 Stream<Path> files = Files.walk(path)) {
+                files.filter(Files::isRegularFile).forEach(source -> add(out, path, source));
+            }
+            entries.add(jar.toString());
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static void add(JarOutputStream out, Path root, Path source) {
+        try {
+            out.putNextEntry(new JarEntry(root.relativize(source).toString().replace(File.separatorChar, '/')));
+            Files.copy(source, out);
+            out.closeEntry();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package compiler_bench;
+
+import compiler_lexer.Lexer;
+import compiler_lexer.Scanner;
+import compiler_lexer.TokenType;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compara el heap máximo al escanear un archivo grande leído completo con Files.readString
+ * y leído por ventanas desde un archivo mapeado en memoria.
+ *
+ * Uso: java compiler_bench.StreamingBenchmark [MB...]
+ */
+public class StreamingBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = args.length > 0 ? new int[args.length] : new int[] {16, 64, 128};
+        for (int i = 0; i < args.length; i++) sizes[i] = Integer.parseInt(args[i]);
+
+        for (int mb : sizes) {
+            Path file = Files.createTempFile("compiler-stream", ".txt");
+            try {
+                writeSource(file, mb);
+                measure("Mapeado", mb, file, true);
+                measure("readString", mb, file, false);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static void measure(String name, int mb, Path file, boolean mapped) throws IOException {
+        System.gc();
+        resetPeaks();
+        long start = System.nanoTime();
+        long tokens;
+        if (mapped) {
+            try (Scanner scanner = Scanner.fromFile(file)) {
+                tokens = count(scanner);
+            }
+        } else {
+            tokens = count(new Scanner(Files.readString(file)));
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%4d MB  %-10s %10d tokens  %8.0f ms  heap máximo %6.1f MB%n",
+                mb, name, tokens, nanos / 1e6, peakHeap() / (1024.0 * 1024.0));
+    }
+
+    private static long count(Lexer lexer) {
+        long n = 0;
+        while (lexer.nextToken().getType() != TokenType.EOF) n++;
+        return n;
+    }
+
+    private static void writeSource(Path file, int mb) throws IOException {
+        String chunk = PipelineBenchmark.buildSource(1000);
+        long target = (long) mb << 20;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (long written = 0; written < target; written += chunk.length()) {
+                out.write(chunk);
+            }
+        }
+    }
+
+    private static void resetPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,70 @@
+package compiler_bench;
+
+import compiler_lexer.Scanner;
+import compiler_lexer.Token;
+import compiler_lexer.TokenBuffer;
+import compiler_lexer.TokenType;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mide tiempo y bytes asignados por token al guardar todos los tokens de un archivo:
+ * lista de objetos Token frente a TokenBuffer (arreglos primitivos).
+ *
+ * Uso: java compiler_bench.TokenBufferBenchmark [bloques] [iteraciones]
+ */
+public class TokenBufferBenchmark {
+
+    public static void main(String[] args) {
+        int blocks = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        String src = PipelineBenchmark.buildSource(blocks);
+        System.out.printf("Entrada: %d bloques, %.2f MB%n", blocks, src.length() / (1024.0 * 1024.0));
+
+        for (int i = 0; i < 3; i++) {
+            tokenList(src);
+            TokenBuffer.lex(src);
+        }
+
+        long tokens = TokenBuffer.lex(src).size();
+
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) tokenList(src);
+        report("List<Token>", tokens, System.nanoTime() - start, allocatedBytes() - bytes, iterations);
+
+        bytes = allocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) TokenBuffer.lex(src);
+        report("TokenBuffer", tokens, System.nanoTime() - start, allocatedBytes() - bytes, iterations);
+    }
+
+    private static List<Token> tokenList(String src) {
+        Scanner scanner = new Scanner(src);
+        List<Token> tokens = new ArrayList<>();
+        Token token;
+        do {
+            token = scanner.nextToken();
+            tokens.add(token);
+        } while (token.getType() != TokenType.EOF);
+        return tokens;
+    }
+
+    static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static void report(String name, long tokens, long nanos, long bytes, int iterations) {
+        double seconds = nanos / 1e9 / iterations;
+        double perToken = (double) bytes / iterations / tokens;
+        System.out.printf("%-12s %8.2f ms  %12.0f tokens/s  %8.1f bytes/token%n",
+                name, seconds * 1000, tokens / seconds, perToken);
+    }
+}
@@ -0,0 +1,117 @@
+package compiler_bench;
+
+import compiler_driver.Runner;
+import compiler_vm.Program;
+import compiler_vm.VirtualMachine;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Mide instrucciones por segundo de la máquina virtual con programas de muchas vueltas:
+ * ciclos anidados con aritmética entera, con double, con ramas y programas generados con
+ * while de muchas iteraciones. La salida se descarta y cada read recibe un 1.
+ *
+ * Uso: java compiler_bench.VmBenchmark [iteraciones] [escala]
+ */
+public class VmBenchmark {
+
+    private static final PrintStream SINK = new PrintStream(OutputStream.nullOutputStream());
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int scale = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        String[] names = {"Enteros", "Double", "Ramas", "Generado"};
+        String[] sources = {integers(scale), doubles(scale), branches(scale), generated()};
+        Runner runner = new Runner(System.err);
+
+        System.out.printf("%-10s %12s %14s %10s %12s%n", "Programa", "Bytecode", "Instrucciones", "ms", "M instr/s");
+        for (int i = 0; i < sources.length; i++) {
+            long start = System.nanoTime();
+            Program program = runner.compile(sources[i]);
+            long compileNanos = System.nanoTime() - start;
+            if (program == null) throw new IllegalStateException(names[i] + " no compila");
+
+            for (int k = 0; k < 3; k++) run(program);
+            long executed = 0;
+            start = System.nanoTime();
+            for (int k = 0; k < iterations; k++) executed = run(program);
+            double seconds = (System.nanoTime() - start) / 1e9 / iterations;
+            System.out.printf("%-10s %12d %14d %10.1f %12.1f   (traducción %.1f ms)%n", names[i], program.size(),
+                    executed, seconds * 1000, executed / seconds / 1e6, compileNanos / 1e6);
+        }
+    }
+
+    private static long run(Program program) {
+        VirtualMachine vm = new VirtualMachine(program);
+        vm.setInput(new Ones());
+        vm.setOutput(SINK);
+        vm.run();
+        return vm.getExecuted();
+    }
+
+    static String integers(int scale) {
+        return "long suma = 0;\n"
+                + "int i = 0;\n"
+                + "while (i < " + scale + ") {\n"
+                + "    int j = 0;\n"
+                + "    while (j < 1000) {\n"
+                + "        suma = suma + i * j - j / 3;\n"
+                + "        j = j + 1;\n"
+                + "    }\n"
+                + "    i = i + 1;\n"
+                + "}\n"
+                + "write(suma);\n";
+    }
+
+    static String doubles(int scale) {
+        return "double x, paso = 0.5;\n"
+                + "int i = 0;\n"
+                + "while (i < " + (scale * 1000) + ") {\n"
+                + "    x = x * 0.999 + paso * i / 1000.0;\n"
+                + "    i += 1;\n"
+                + "}\n"
+                + "write(x);\n";
+    }
+
+    static String branches(int scale) {
+        return "int i, pares, grandes;\n"
+                + "boolean marca = false;\n"
+                + "while (i < " + (scale * 1000) + ") {\n"
+                + "    if (i / 2 * 2 == i && !marca) then pares += 1;\n"
+                + "    else {\n"
+                + "        if ((i > 500) || marca) grandes = grandes + 1;\n"
+                + "    }\n"
+                + "    marca = !marca;\n"
+                + "    i = i + 1;\n"
+                + "}\n"
+                + "write(pares);\n"
+                + "write(grandes);\n";
+    }
+
+    // Programa generado con while de hasta 200 vueltas anidados cuatro niveles
+    static String generated() {
+        ProgramGenerator generator = new ProgramGenerator(7);
+        generator.setMaxDepth(4);
+        generator.setLoopBound(200);
+        return generator.generate(64 * 1024);
+    }
+
+    // Entrada infinita de unos: sirve para cualquier read (int, long, double o boolean)
+    static final class Ones extends InputStream {
+        private int position;
+
+        @Override
+        public int read() {
+            return (position++ & 1) == 0 ? '1' : '\n';
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            for (int k = 0; k < length; k++) buffer[offset + k] = (byte) read();
+            return length;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package compiler_diagnostics;
+
+/**
+ * Un error encontrado por alguna fase: posición, mensaje y el texto completo tal como
+ * lo muestra esa fase.
+ */
+public class Diagnostic {
+    private final int line;
+    private final int column;
+    private final String message;
+    private final String text;
+
+    public Diagnostic(int line, int column, String message, String text) {
+        this.line = line;
+        this.column = column;
+        this.message = message;
+        this.text = text;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,49 @@
+package compiler_diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Junta los errores de una fase para informarlos todos juntos en lugar de cortar en el
+ * primero. Guarda hasta un límite para que un archivo muy roto no llene la memoria;
+ * los que pasan el límite sólo se cuentan.
+ */
+public class Diagnostics {
+
+    public static final int DEFAULT_LIMIT = 100;
+
+    private final List<Diagnostic> list = new ArrayList<>();
+    private final int limit;
+    private int count;
+
+    public Diagnostics() {
+        this(DEFAULT_LIMIT);
+    }
+
+    public Diagnostics(int limit) {
+        this.limit = limit;
+    }
+
+    public void add(Diagnostic diagnostic) {
+        count++;
+        if (list.size() < limit) list.add(diagnostic);
+    }
+
+    public boolean hasErrors() {
+        return count > 0;
+    }
+
+    // Total de errores, incluidos los que no se guardaron
+    public int count() {
+        return count;
+    }
+
+    public List<Diagnostic> getAll() {
+        return list;
+    }
+
+    // Errores descartados por el límite
+    public int omitted() {
+        return count - list.size();
+    }
+}
@@ -0,0 +1,29 @@
+package compiler_driver;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Bytes asignados por el hilo actual, según ThreadMXBean. Devuelve -1 si la JVM no
+ * ofrece la medición (sólo HotSpot y derivados la tienen).
+ */
+final class Allocation {
+
+    private static final com.sun.management.ThreadMXBean BEAN = bean();
+
+    private Allocation() {
+    }
+
+    private static com.sun.management.ThreadMXBean bean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+        com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) bean;
+        if (!sun.isThreadAllocatedMemorySupported()) return null;
+        if (!sun.isThreadAllocatedMemoryEnabled()) sun.setThreadAllocatedMemoryEnabled(true);
+        return sun;
+    }
+
+    static long currentThreadBytes() {
+        return BEAN != null ? BEAN.getCurrentThreadAllocatedBytes() : -1;
+    }
+}
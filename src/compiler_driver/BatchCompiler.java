@@ -0,0 +1,350 @@
+package compiler_driver;
+
+import compiler_lexer.ParallelLexer;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Compila carpetas completas en paralelo: la lectura de archivos corre en un ejecutor de E/S
+ * (hilos virtuales cuando la JVM los tiene) y las fases en un pool fijo. Cada archivo arma su
+ * informe aparte y el {@link Reporter} los recibe todos en el orden de la carpeta. Un archivo
+ * solo no tiene con quién repartir los hilos: si es grande, se escanea en paralelo.
+ */
+public class BatchCompiler {
+
+    private final int threads;
+    private Reporter reporter;
+    private FileCompiler compiler = new FileCompiler();
+    private boolean metrics;
+    private ResultCache cache;
+
+    // Totales del último lote
+    private int files;
+    private int failedFiles;
+    private long wallNanos;
+    private long readNanos;
+    private long bytesRead;
+    private long tokens;
+    private long nodes;
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private final long[] phaseAllocated = new long[Phase.values().length];
+
+    // Métricas de cada archivo, sólo con setMetrics(true)
+    private final List<Path> paths = new ArrayList<>();
+    private final List<FileMetrics> perFile = new ArrayList<>();
+
+    // Informe completo en out
+    public BatchCompiler(int threads, PrintStream out) {
+        this(threads, ReportFormat.HUMAN.open(ReportFormat.HUMAN.writer(out)));
+    }
+
+    public BatchCompiler(int threads, Reporter reporter) {
+        this.threads = Math.max(1, threads);
+        this.reporter = reporter;
+        compiler.setText(reporter.needsText());
+    }
+
+    // Mide también la memoria asignada por fase y guarda las métricas de cada archivo
+    public void setMetrics(boolean metrics) {
+        this.metrics = metrics;
+        compiler = new FileCompiler(metrics);
+        compiler.setCache(cache);
+        compiler.setText(reporter.needsText());
+    }
+
+    public void setCache(ResultCache cache) {
+        this.cache = cache;
+        compiler.setCache(cache);
+    }
+
+    // El reporte se vacía al terminar el lote (y se cierra su documento, si lo tiene)
+    public void run(List<String> folders) {
+        long start = System.nanoTime();
+        try {
+            compile(folders);
+            reporter.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        wallNanos = System.nanoTime() - start;
+    }
+
+    private void compile(List<String> folders) throws IOException {
+        // Los ejecutores se crean con la primera carpeta de más de un archivo: para uno solo
+        // no vale la pena arrancar hilos (ni cargar sus clases)
+        ExecutorService io = null;
+        ExecutorService cpu = null;
+        ForkJoinPool lex = null;
+        try {
+            for (String folder : folders) {
+                reporter.folder(folder);
+
+                List<Path> paths;
+                try {
+                    paths = list(Paths.get(folder));
+                } catch (IOException e) {
+                    reporter.missingFolder(folder);
+                    continue;
+                }
+
+                if (paths.size() == 1) {
+                    Path path = paths.get(0);
+                    Source read = read(path);
+                    if (read.failure != null) {
+                        unreadable(path, read.failure);
+                        continue;
+                    }
+                    if (lex == null && threads > 1 && read.content.length() >= 2 * ParallelLexer.MIN_CHUNK_CHARS) {
+                        lex = new ForkJoinPool(threads);
+                    }
+                    FileReport report = compiler.compile(path, read.content, read.nanos, read.bytes, lex);
+                    reporter.file(report);
+                    record(report);
+                    continue;
+                }
+                if (io == null) {
+                    io = ioExecutor();
+                    cpu = Executors.newFixedThreadPool(threads, daemon("compiler-cpu"));
+                }
+                ExecutorService phases = cpu;
+
+                List<CompletableFuture<Source>> sources = new ArrayList<>(paths.size());
+                List<CompletableFuture<FileReport>> reports = new ArrayList<>(paths.size());
+                for (Path path : paths) {
+                    CompletableFuture<Source> source = CompletableFuture.supplyAsync(() -> read(path), io);
+                    sources.add(source);
+                    // Un archivo que no se pudo leer no tiene informe
+                    reports.add(source.thenApplyAsync(read -> read.failure != null ? null
+                            : compiler.compile(path, read.content, read.nanos, read.bytes), phases));
+                }
+
+                // Se informa en orden: cada informe espera a que termine el suyo
+                for (int i = 0; i < reports.size(); i++) {
+                    FileReport report = reports.get(i).join();
+                    if (report == null) {
+                        unreadable(paths.get(i), sources.get(i).join().failure);
+                        continue;
+                    }
+                    reporter.file(report);
+                    record(report);
+                }
+            }
+        } finally {
+            if (io != null) {
+                io.shutdown();
+                cpu.shutdown();
+            }
+            if (lex != null) lex.shutdown();
+        }
+    }
+
+    // Los archivos .txt de la carpeta, en orden; un archivo suelto se compila solo
+    private static List<Path> list(Path folder) throws IOException {
+        if (Files.isRegularFile(folder)) return Collections.singletonList(folder);
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder, "*.txt")) {
+            for (Path path : stream) paths.add(path);
+        }
+        Collections.sort(paths);
+        return paths;
+    }
+
+    // El contenido leído, o el error de lectura
+    private static final class Source {
+        final String content;
+        final long bytes;
+        final long nanos;
+        final IOException failure;
+
+        Source(String content, long bytes, long nanos, IOException failure) {
+            this.content = content;
+            this.bytes = bytes;
+            this.nanos = nanos;
+            this.failure = failure;
+        }
+    }
+
+    private static Source read(Path path) {
+        long start = System.nanoTime();
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            String content = new String(bytes, StandardCharsets.UTF_8);
+            return new Source(content, bytes.length, System.nanoTime() - start, null);
+        } catch (IOException e) {
+            return new Source(null, 0, System.nanoTime() - start, e);
+        }
+    }
+
+    // Cuenta como archivo con errores, sin métricas
+    private void unreadable(Path path, IOException failure) throws IOException {
+        reporter.unreadableFile(path, reason(failure));
+        files++;
+        failedFiles++;
+    }
+
+    private static String reason(IOException e) {
+        if (e instanceof NoSuchFileException) return "no existe";
+        if (e instanceof AccessDeniedException) return "acceso denegado";
+        if (e instanceof FileSystemException && ((FileSystemException) e).getReason() != null) {
+            return ((FileSystemException) e).getReason();
+        }
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    private void record(FileReport report) {
+        files++;
+        if (!report.isSuccessful()) failedFiles++;
+        FileMetrics file = report.getMetrics();
+        readNanos += file.getReadNanos();
+        bytesRead += file.getBytesRead();
+        tokens += file.getTokens();
+        nodes += file.getNodes();
+        for (Phase phase : Phase.values()) {
+            phaseNanos[phase.ordinal()] += file.getPhaseNanos(phase);
+            long allocated = file.getPhaseAllocated(phase);
+            if (allocated > 0) phaseAllocated[phase.ordinal()] += allocated;
+        }
+        if (metrics) {
+            paths.add(report.getPath());
+            perFile.add(file);
+        }
+    }
+
+    public void printSummary(PrintStream summary) {
+        double seconds = wallNanos / 1e9;
+        summary.println("\nResumen del lote");
+        summary.printf("Archivos: %d (%d con errores), hilos: %d%n", files, failedFiles, threads);
+        summary.printf("Tiempo total: %.1f ms, %.1f archivos/s%n", wallNanos / 1e6, seconds > 0 ? files / seconds : 0);
+        if (cache != null) {
+            summary.printf("Caché: %d aciertos, %d fallos, %.2f ms de fases evitados (%.2f ms consultando), %d entradas, %.2f MB%n",
+                    cache.getHits(), cache.getMisses(), cache.getSavedNanos() / 1e6, cache.getLookupNanos() / 1e6,
+                    cache.getEntries(), cache.getSize() / MB);
+        }
+        if (!metrics) {
+            summary.printf("  %-12s %10.2f ms%n", "Lectura", readNanos / 1e6);
+            for (Phase phase : Phase.values()) {
+                summary.printf("  %-12s %10.2f ms%n", phase.getLabel(), phaseNanos[phase.ordinal()] / 1e6);
+            }
+            return;
+        }
+        summary.printf("Entrada: %.2f MB, %d tokens, %d nodos%n", bytesRead / MB, tokens, nodes);
+        summary.printf("  %-12s %10s %10s %12s%n", "", "ms", "MB/s", "MB asignados");
+        summary.printf("  %-12s %10.2f %10.1f %12s%n", "Lectura", readNanos / 1e6, rate(readNanos), "-");
+        for (Phase phase : Phase.values()) {
+            long nanos = phaseNanos[phase.ordinal()];
+            summary.printf("  %-12s %10.2f %10.1f %12.2f%n", phase.getLabel(), nanos / 1e6, rate(nanos),
+                    phaseAllocated[phase.ordinal()] / MB);
+        }
+    }
+
+    private static final double MB = 1024.0 * 1024.0;
+
+    // MB/s de entrada; las fases que cortaron antes cuentan igual todo el archivo
+    private double rate(long nanos) {
+        return nanos > 0 ? bytesRead / MB / (nanos / 1e9) : 0;
+    }
+
+    /**
+     * Escribe los totales del lote y las métricas de cada archivo en JSON. Los tiempos van en
+     * nanosegundos y la asignación en bytes (-1 si no se midió).
+     */
+    public void writeJson(Writer writer) throws IOException {
+        StringBuilder json = new StringBuilder(256 + perFile.size() * 256);
+        json.append("{\n");
+        json.append("  \"files\": ").append(files).append(",\n");
+        json.append("  \"failedFiles\": ").append(failedFiles).append(",\n");
+        json.append("  \"threads\": ").append(threads).append(",\n");
+        json.append("  \"wallNanos\": ").append(wallNanos).append(",\n");
+        json.append("  \"bytes\": ").append(bytesRead).append(",\n");
+        json.append("  \"tokens\": ").append(tokens).append(",\n");
+        json.append("  \"nodes\": ").append(nodes).append(",\n");
+        json.append("  \"readNanos\": ").append(readNanos).append(",\n");
+        if (cache != null) {
+            json.append("  \"cache\": {\"hits\": ").append(cache.getHits())
+                    .append(", \"misses\": ").append(cache.getMisses())
+                    .append(", \"savedNanos\": ").append(cache.getSavedNanos())
+                    .append(", \"lookupNanos\": ").append(cache.getLookupNanos())
+                    .append(", \"entries\": ").append(cache.getEntries())
+                    .append(", \"bytes\": ").append(cache.getSize()).append("},\n");
+        }
+        json.append("  \"phases\": {");
+        for (Phase phase : Phase.values()) {
+            if (phase.ordinal() > 0) json.append(',');
+            long nanos = phaseNanos[phase.ordinal()];
+            json.append("\n    ").append(Json.quote(phase.name().toLowerCase(Locale.ROOT)))
+                    .append(": {\"nanos\": ").append(nanos)
+                    .append(", \"allocated\": ").append(phaseAllocated[phase.ordinal()])
+                    .append(", \"mbPerSecond\": ").append(String.format(Locale.ROOT, "%.3f", rate(nanos)))
+                    .append('}');
+        }
+        json.append("\n  },\n");
+        json.append("  \"perFile\": [");
+        for (int i = 0; i < perFile.size(); i++) {
+            FileMetrics file = perFile.get(i);
+            json.append(i > 0 ? ",\n    " : "\n    ");
+            json.append("{\"file\": ").append(Json.quote(paths.get(i).toString()))
+                    .append(", \"bytes\": ").append(file.getBytesRead())
+                    .append(", \"tokens\": ").append(file.getTokens())
+                    .append(", \"nodes\": ").append(file.getNodes())
+                    .append(", \"errors\": ").append(file.getErrors())
+                    .append(", \"cached\": ").append(file.isCached())
+                    .append(", \"readNanos\": ").append(file.getReadNanos());
+            for (Phase phase : Phase.values()) {
+                String name = phase.name().toLowerCase(Locale.ROOT);
+                json.append(", \"").append(name).append("Nanos\": ").append(file.getPhaseNanos(phase));
+                json.append(", \"").append(name).append("Allocated\": ").append(file.getPhaseAllocated(phase));
+            }
+            json.append('}');
+        }
+        json.append(perFile.isEmpty() ? "]\n" : "\n  ]\n");
+        json.append("}\n");
+        writer.write(json.toString());
+    }
+
+    public int getFiles() {
+        return files;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    // Hilos virtuales si la JVM los ofrece (Java 21+); si no, un pool que crece según la demanda
+    static ExecutorService ioExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(daemon("compiler-io"));
+        }
+    }
+
+    static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package compiler_driver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Genera un archivo CDS (class data sharing) de la aplicación con una corrida de
+ * entrenamiento: una JVM hija corre Main sobre las carpetas dadas con
+ * -XX:ArchiveClassesAtExit y al salir vuelca las clases que cargó, ya verificadas y
+ * enlazadas. Las corridas siguientes lo usan con -XX:SharedArchiveFile y arrancan sin
+ * leer ni verificar esas clases. Sólo hace falta el JDK.
+ */
+public final class CdsArchive {
+
+    private CdsArchive() {
+    }
+
+    /**
+     * Corre el entrenamiento con el classpath dado (tiene que ser de archivos .jar: la JVM
+     * no archiva clases de carpetas) y devuelve null si salió bien o el motivo del error.
+     */
+    public static String create(String classpath, Path archive, List<String> folders)
+            throws IOException, InterruptedException {
+        for (String entry : classpath.split(File.pathSeparator)) {
+            if (Files.isDirectory(Paths.get(entry))) {
+                return "el classpath tiene la carpeta " + entry + "; CDS necesita el compilador en un .jar (mvn package)";
+            }
+        }
+        Files.deleteIfExists(archive);
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-XX:ArchiveClassesAtExit=" + archive);
+        command.add("-cp");
+        command.add(classpath);
+        command.add("Main");
+        command.addAll(folders);
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        process.waitFor();
+        return Files.isRegularFile(archive) ? null : "la JVM no generó " + archive;
+    }
+}
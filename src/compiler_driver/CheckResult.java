@@ -0,0 +1,140 @@
+package compiler_driver;
+
+import compiler_diagnostics.Diagnostic;
+import compiler_diagnostics.Diagnostics;
+import compiler_lexer.TokenBuffer;
+import compiler_lexer.TokenStream;
+import compiler_semantic.SemanticAnalyzer;
+import compiler_semantic.SemanticError;
+import compiler_sintactic.Ast;
+import compiler_sintactic.SyntacticAnalyzer;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Resultado de verificar un programa sin armar el informe de texto: la primera fase que
+ * falló, sus errores con posición y los tamaños. Lo usa el demonio para responder en JSON.
+ */
+public class CheckResult {
+
+    private final Phase failedPhase;
+    private final List<Diagnostic> diagnostics;
+    private final int omitted;
+    private final int tokens;
+    private final int nodes;
+    private final long nanos;
+
+    private CheckResult(Phase failedPhase, List<Diagnostic> diagnostics, int omitted, int tokens, int nodes,
+                        long nanos) {
+        this.failedPhase = failedPhase;
+        this.diagnostics = diagnostics;
+        this.omitted = omitted;
+        this.tokens = tokens;
+        this.nodes = nodes;
+        this.nanos = nanos;
+    }
+
+    // Las tres fases, cortando en la primera con errores (como FileCompiler)
+    public static CheckResult check(String content) {
+        long start = System.nanoTime();
+        return check(TokenBuffer.lex(content), () -> false, start);
+    }
+
+    /**
+     * Las fases sintáctica y semántica sobre tokens ya escaneados (por ejemplo por
+     * IncrementalLexer). Entre fase y fase consulta cancelled y devuelve null si ya no hace falta.
+     */
+    public static CheckResult check(TokenBuffer buffer, BooleanSupplier cancelled) {
+        return check(buffer, cancelled, System.nanoTime());
+    }
+
+    private static CheckResult check(TokenBuffer buffer, BooleanSupplier cancelled, long start) {
+        if (buffer.errorCount() != 0) {
+            List<Diagnostic> errors = new ArrayList<>(buffer.errorCount());
+            for (int k = 0; k < buffer.errorCount(); k++) {
+                int token = buffer.errorToken(k);
+                errors.add(new Diagnostic(buffer.line(token), buffer.column(token), buffer.errorDetail(k),
+                        "Error léxico: " + buffer.errorMessage(k)));
+            }
+            return new CheckResult(Phase.LEXICAL, errors, 0, buffer.size(), 0, System.nanoTime() - start);
+        }
+        if (cancelled.getAsBoolean()) return null;
+        int nodes = 0;
+        try {
+            SyntacticAnalyzer parser = new SyntacticAnalyzer(new TokenStream(buffer));
+            Ast ast = parser.parseProgram();
+            nodes = ast.size();
+            if (parser.getDiagnostics().hasErrors()) {
+                return failed(Phase.SYNTACTIC, parser.getDiagnostics(), buffer.size(), nodes, start);
+            }
+            if (cancelled.getAsBoolean()) return null;
+            SemanticAnalyzer semantic = new SemanticAnalyzer(ast);
+            semantic.setOutput(new PrintStream(OutputStream.nullOutputStream()));
+            semantic.analyze();
+            if (semantic.getDiagnostics().hasErrors()) {
+                return failed(Phase.SEMANTIC, semantic.getDiagnostics(), buffer.size(), nodes, start);
+            }
+        } catch (SemanticError e) {
+            List<Diagnostic> errors = Collections.singletonList(e.toDiagnostic());
+            return new CheckResult(Phase.SEMANTIC, errors, 0, buffer.size(), nodes, System.nanoTime() - start);
+        }
+        return new CheckResult(null, Collections.emptyList(), 0, buffer.size(), nodes, System.nanoTime() - start);
+    }
+
+    private static CheckResult failed(Phase phase, Diagnostics diagnostics, int tokens, int nodes, long start) {
+        return new CheckResult(phase, diagnostics.getAll(), diagnostics.omitted(), tokens, nodes,
+                System.nanoTime() - start);
+    }
+
+    public boolean isSuccessful() {
+        return failedPhase == null;
+    }
+
+    // Primera fase con errores, o null si todas fueron correctas
+    public Phase getFailedPhase() {
+        return failedPhase;
+    }
+
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    // Errores que pasaron el límite de Diagnostics y no están en la lista
+    public int getOmitted() {
+        return omitted;
+    }
+
+    public int getTokens() {
+        return tokens;
+    }
+
+    public int getNodes() {
+        return nodes;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    // Una línea de JSON; file puede ser null (fuente enviada en línea)
+    public String toJson(String file) {
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"file\": ").append(file != null ? Json.quote(file) : "null");
+        json.append(", \"ok\": ").append(isSuccessful());
+        json.append(", \"phase\": ").append(failedPhase != null
+                ? Json.quote(failedPhase.name().toLowerCase(Locale.ROOT)) : "null");
+        json.append(", \"tokens\": ").append(tokens);
+        json.append(", \"nodes\": ").append(nodes);
+        json.append(", \"micros\": ").append(nanos / 1000);
+        json.append(", \"diagnostics\": ");
+        Json.diagnostics(json, diagnostics);
+        json.append(", \"omitted\": ").append(omitted).append('}');
+        return json.toString();
+    }
+}
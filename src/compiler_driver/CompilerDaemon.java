@@ -0,0 +1,177 @@
+package compiler_driver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compilador residente: escucha en un socket Unix o en un puerto TCP local y verifica los
+ * programas que le mandan, con las clases ya cargadas y el JIT caliente. Cada conexión se
+ * atiende en su propio hilo (virtual si la JVM los tiene) y puede hacer varios pedidos, uno
+ * por línea:
+ *
+ * <pre>
+ * file RUTA        verifica el archivo (la ruta la resuelve el demonio)
+ * source N         verifica los N bytes UTF-8 que siguen a la línea
+ * stop             termina el demonio
+ * </pre>
+ *
+ * Cada pedido recibe una línea de JSON: la de {@link CheckResult#toJson}, o
+ * {"error": "..."} si no se pudo atender.
+ */
+public class CompilerDaemon implements Closeable {
+
+    // Programas chicos para calentar las fases al arrancar: uno con todas las construcciones
+    // y uno con errores de cada fase, así también los caminos de error llegan compilados
+    private static final String[] WARM_UP = {
+            "int i, suma;\nlong l = 3;\ndouble d = 1.5;\nboolean b;\n"
+                    + "while (i < 10 && !b) {\n    suma += i * 2 - 1;\n"
+                    + "    if (suma > 20 || i == 7) then { b = true; } else d = d / 2;\n"
+                    + "    i = i + 1;\n}\nread(l);\nwrite(\"fin\");\nwrite(suma + l);\n",
+            "int a;\na = 1 # 2;\n/* sin cierre",
+            "int a;\nwhile (a < ) { a = ; }\nwrite(a;\n",
+            "int a;\nboolean a;\nb = a + true;\nwrite(c);\n"
+    };
+
+    private final ServerSocketChannel server;
+    private final Path socketFile;
+    private final ExecutorService clients;
+    private final AtomicLong requests = new AtomicLong();
+
+    private CompilerDaemon(ServerSocketChannel server, Path socketFile) {
+        this.server = server;
+        this.socketFile = socketFile;
+        this.clients = BatchCompiler.ioExecutor();
+    }
+
+    /**
+     * Abre el demonio en la dirección dada: un número es un puerto de localhost, cualquier
+     * otra cosa es la ruta de un socket Unix (se reemplaza si quedó de una corrida anterior).
+     */
+    public static CompilerDaemon open(String address) throws IOException {
+        SocketAddress target = DaemonClient.address(address);
+        ServerSocketChannel server;
+        Path socketFile = null;
+        if (target instanceof UnixDomainSocketAddress) {
+            socketFile = ((UnixDomainSocketAddress) target).getPath();
+            Files.deleteIfExists(socketFile);
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            server = ServerSocketChannel.open();
+        }
+        server.bind(target);
+        return new CompilerDaemon(server, socketFile);
+    }
+
+    // Verifica los programas de calentamiento las veces pedidas, para que C2 compile las fases
+    public void warmUp(int rounds) {
+        for (int k = 0; k < rounds; k++) {
+            for (String source : WARM_UP) CheckResult.check(source);
+        }
+    }
+
+    // El puerto en el que escucha (útil al abrirlo en el puerto 0), o -1 con un socket Unix
+    public int getPort() throws IOException {
+        SocketAddress local = server.getLocalAddress();
+        return local instanceof InetSocketAddress ? ((InetSocketAddress) local).getPort() : -1;
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    // Atiende conexiones hasta que llegue un stop o se cierre el demonio
+    public void serve() throws IOException {
+        try {
+            while (true) {
+                SocketChannel channel = server.accept();
+                clients.execute(() -> handle(channel));
+            }
+        } catch (ClosedChannelException e) {
+            // close(): fin normal
+        } finally {
+            close();
+        }
+    }
+
+    private void handle(SocketChannel channel) {
+        try (channel) {
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel));
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            String line;
+            while ((line = DaemonClient.readLine(in)) != null) {
+                if (line.isEmpty()) continue;
+                requests.incrementAndGet();
+                if (line.equals("stop")) {
+                    respond(out, "{\"stopped\": true}");
+                    close();
+                    return;
+                }
+                respond(out, answer(line, in));
+            }
+        } catch (IOException e) {
+            // El cliente se fue a mitad de un pedido: no hay a quién avisar
+        }
+    }
+
+    private static String answer(String line, InputStream in) throws IOException {
+        if (line.startsWith("file ")) {
+            String file = line.substring(5);
+            try {
+                return CheckResult.check(Files.readString(Paths.get(file))).toJson(file);
+            } catch (NoSuchFileException e) {
+                return error("No existe el archivo " + file);
+            } catch (IOException e) {
+                return error("No se pudo leer " + file + ": " + e.getMessage());
+            }
+        }
+        if (line.startsWith("source ")) {
+            int length;
+            try {
+                length = Integer.parseInt(line.substring(7).trim());
+            } catch (NumberFormatException e) {
+                return error("Largo inválido: " + line.substring(7));
+            }
+            if (length < 0) return error("Largo inválido: " + line.substring(7));
+            byte[] source = in.readNBytes(length);
+            if (source.length < length) throw new IOException("fuente incompleta");
+            return CheckResult.check(new String(source, StandardCharsets.UTF_8)).toJson(null);
+        }
+        return error("Pedido desconocido: " + line);
+    }
+
+    private static String error(String message) {
+        return "{\"error\": " + Json.quote(message) + "}";
+    }
+
+    private static void respond(OutputStream out, String json) throws IOException {
+        out.write(json.getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        clients.shutdown();
+        if (socketFile != null) Files.deleteIfExists(socketFile);
+    }
+}
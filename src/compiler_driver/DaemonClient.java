@@ -0,0 +1,121 @@
+package compiler_driver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Cliente de {@link CompilerDaemon}: manda pedidos por la misma conexión y devuelve la
+ * línea de JSON de cada respuesta. Su main es el cliente de línea de comandos; no toca
+ * ninguna clase del compilador, así arranca cargando sólo lo del JDK.
+ *
+ * Uso: java compiler_driver.DaemonClient DIRECCIÓN archivo... | DIRECCIÓN --stop
+ */
+public class DaemonClient implements Closeable {
+
+    private static final int MAX_LINE = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final InputStream in;
+    private final OutputStream out;
+
+    private DaemonClient(SocketChannel channel) {
+        this.channel = channel;
+        this.in = new BufferedInputStream(Channels.newInputStream(channel));
+        this.out = new BufferedOutputStream(Channels.newOutputStream(channel));
+    }
+
+    public static DaemonClient connect(String address) throws IOException {
+        SocketAddress target = address(address);
+        SocketChannel channel = target instanceof UnixDomainSocketAddress
+                ? SocketChannel.open(StandardProtocolFamily.UNIX) : SocketChannel.open();
+        channel.connect(target);
+        return new DaemonClient(channel);
+    }
+
+    // Un número es un puerto de localhost; lo demás, la ruta de un socket Unix
+    static SocketAddress address(String address) {
+        if (!address.isEmpty() && address.chars().allMatch(Character::isDigit)) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address));
+        }
+        return UnixDomainSocketAddress.of(address);
+    }
+
+    // La ruta va absoluta: el demonio puede estar corriendo en otra carpeta
+    public String compileFile(Path file) throws IOException {
+        return request("file " + file.toAbsolutePath(), null);
+    }
+
+    public String compileSource(String source) throws IOException {
+        byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+        return request("source " + bytes.length, bytes);
+    }
+
+    public String stop() throws IOException {
+        return request("stop", null);
+    }
+
+    private String request(String line, byte[] body) throws IOException {
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+        if (body != null) out.write(body);
+        out.flush();
+        String response = readLine(in);
+        if (response == null) throw new IOException("El demonio cerró la conexión");
+        return response;
+    }
+
+    // Una línea sin el '\n' (y sin '\r'), o null al final de la conexión
+    static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int c;
+        while ((c = in.read()) != '\n') {
+            if (c < 0) return line.size() > 0 ? line.toString(StandardCharsets.UTF_8) : null;
+            if (line.size() == MAX_LINE) throw new IOException("línea demasiado larga");
+            if (c != '\r') line.write(c);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: DaemonClient DIRECCIÓN archivo... | DIRECCIÓN --stop");
+            System.exit(1);
+        }
+        boolean failed = false;
+        try (DaemonClient client = connect(args[0])) {
+            for (int i = 1; i < args.length; i++) {
+                if (args[i].equals("--stop")) {
+                    System.out.println(client.stop());
+                    continue;
+                }
+                String response = client.compileFile(Paths.get(args[i]));
+                System.out.println(response);
+                failed |= !response.contains("\"ok\": true");
+            }
+        } catch (IOException e) {
+            System.err.println("No se pudo hablar con el demonio en " + args[0] + ": " + e.getMessage());
+            System.exit(1);
+        }
+        if (failed) System.exit(1);
+    }
+}
@@ -0,0 +1,279 @@
+package compiler_driver;
+
+import compiler_diagnostics.Diagnostic;
+import compiler_diagnostics.Diagnostics;
+import compiler_lexer.ParallelLexer;
+import compiler_lexer.TokenBuffer;
+import compiler_lexer.TokenStream;
+import compiler_semantic.SemanticAnalyzer;
+import compiler_semantic.SemanticError;
+import compiler_sintactic.Ast;
+import compiler_sintactic.SyntacticAnalyzer;
+
+import jdk.jfr.FlightRecorder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Ejecuta las fases léxica, sintáctica y semántica sobre un archivo y arma su informe
+ * en memoria, de modo que varios archivos puedan compilarse en paralelo. Los errores se
+ * guardan además con su posición para los reportes JSON y SARIF.
+ */
+public class FileCompiler {
+
+    // Medir la asignación por fase cuesta dos lecturas de ThreadMXBean: sólo si se pide
+    private final boolean trackAllocation;
+    private ResultCache cache;
+    private boolean text = true;
+
+    public FileCompiler() {
+        this(false);
+    }
+
+    public FileCompiler(boolean trackAllocation) {
+        this.trackAllocation = trackAllocation;
+    }
+
+    // Con caché, un archivo ya compilado con el mismo contenido no vuelve a pasar por las fases
+    public void setCache(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    // Sin texto (reportes de resumen, JSON o SARIF) no se arma el informe: sólo los errores
+    public void setText(boolean text) {
+        this.text = text;
+    }
+
+    public FileReport compile(Path path, String content, long readNanos) {
+        return compile(path, content, readNanos, content.length());
+    }
+
+    public FileReport compile(Path path, String content, long readNanos, long bytesRead) {
+        return compile(path, content, readNanos, bytesRead, null);
+    }
+
+    // Con lexPool, un archivo grande se escanea en paralelo (ParallelLexer) en ese pool
+    public FileReport compile(Path path, String content, long readNanos, long bytesRead, ForkJoinPool lexPool) {
+        ByteArrayOutputStream bytes = text ? new ByteArrayOutputStream(256 + content.length()) : null;
+        // Un PrintStream propio aunque se descarte: uno compartido sincronizaría los hilos
+        PrintStream out = new PrintStream(text ? bytes : OutputStream.nullOutputStream(), false, StandardCharsets.UTF_8);
+        FileMetrics metrics = new FileMetrics();
+        metrics.readNanos = readNanos;
+        metrics.bytesRead = bytesRead;
+
+        FileEvent event = recording() ? new FileEvent() : null;
+        if (event != null) event.begin();
+
+        int header = 0;
+        if (text) {
+            out.println("\nCaso de prueba: " + path.getFileName());
+
+            out.println("Contenido:");
+            out.println("----------------------------------------");
+            out.println(content.trim());
+            out.println("----------------------------------------");
+            out.flush();
+            header = bytes.size();
+        }
+
+        Phase failed;
+        Errors errors = new Errors();
+        String key = cache != null ? ResultCache.key(content) : null;
+        ResultCache.Result cached = key != null ? cache.get(key, text) : null;
+        if (cached != null) {
+            if (text) bytes.writeBytes(cached.report);
+            failed = cached.failed;
+            errors.diagnostics = cached.diagnostics;
+            errors.omitted = cached.omitted;
+            metrics.tokens = cached.tokens;
+            metrics.nodes = cached.nodes;
+            metrics.errors = cached.errors;
+            metrics.cached = true;
+        } else {
+            failed = run(content, out, new Measure(path.toString(), metrics), errors, lexPool);
+            if (key != null) {
+                out.flush();
+                byte[] report = null;
+                if (text) {
+                    byte[] all = bytes.toByteArray();
+                    report = Arrays.copyOfRange(all, header, all.length);
+                }
+                long nanos = 0;
+                for (long phase : metrics.phaseNanos) nanos += phase;
+                cache.put(key, new ResultCache.Result(failed, metrics.errors, metrics.tokens, metrics.nodes,
+                        nanos, errors.diagnostics, errors.omitted, report));
+            }
+        }
+
+        if (event != null) event.end();
+        if (event != null && event.shouldCommit()) {
+            event.file = path.toString();
+            event.bytes = bytesRead;
+            event.cached = cached != null;
+            event.successful = failed == null;
+            event.failedPhase = failed != null ? failed.getLabel() : null;
+            event.commit();
+        }
+
+        out.flush();
+        return new FileReport(path, text ? bytes.toString(StandardCharsets.UTF_8) : null, failed,
+                errors.diagnostics, errors.omitted, metrics);
+    }
+
+    // Los errores de la fase que cortó la compilación
+    private static final class Errors {
+        List<Diagnostic> diagnostics = Collections.emptyList();
+        int omitted;
+
+        void set(Diagnostics found) {
+            diagnostics = found.getAll();
+            omitted = found.omitted();
+        }
+    }
+
+    private Phase run(String content, PrintStream out, Measure measure, Errors found, ForkJoinPool lexPool) {
+        FileMetrics metrics = measure.metrics;
+        out.println("Análisis léxico:");
+        // Los tokens se guardan (con los identificadores ya numerados) para que el parser no vuelva a escanear
+        measure.begin(Phase.LEXICAL);
+        TokenBuffer buffer = lexPool != null ? ParallelLexer.lex(content, lexPool) : TokenBuffer.lex(content);
+        metrics.tokens = buffer.size();
+        measure.end(buffer.errorCount());
+
+        if (buffer.errorCount() != 0) {
+            List<Diagnostic> lexical = new ArrayList<>(buffer.errorCount());
+            for (int k = 0; k < buffer.errorCount(); k++) {
+                int token = buffer.errorToken(k);
+                lexical.add(new Diagnostic(buffer.line(token), buffer.column(token), buffer.errorDetail(k),
+                        "Error léxico: " + buffer.errorMessage(k)));
+            }
+            found.diagnostics = lexical;
+            if (text) {
+                for (Diagnostic d : lexical) out.println(d.getText());
+            }
+            out.println("Error en análisis léxico");
+            metrics.errors = buffer.errorCount();
+            return Phase.LEXICAL;
+        }
+        out.println("Léxico correcto");
+
+        out.println("Análisis sintáctico:");
+        measure.begin(Phase.SYNTACTIC);
+        Ast ast;
+        int errors = 0;
+        try {
+            SyntacticAnalyzer parser = new SyntacticAnalyzer(new TokenStream(buffer));
+            ast = parser.parseProgram();
+            metrics.nodes = ast.size();
+            // El parser se recupera de cada error y sigue: se informan todos juntos
+            if (parser.getDiagnostics().hasErrors()) {
+                errors = parser.getDiagnostics().count();
+                metrics.errors = errors;
+                found.set(parser.getDiagnostics());
+                if (text) print(out, "Error sintáctico: ", parser.getDiagnostics());
+                return Phase.SYNTACTIC;
+            }
+            out.println("Sintáctico correcto");
+        } catch (SemanticError e) {
+            // Sólo el modo por caracteres declara variables mientras analiza la sintaxis
+            found.diagnostics = Collections.singletonList(e.toDiagnostic());
+            out.println(e.getMessage());
+            out.println("Error semántico");
+            return Phase.SEMANTIC;
+        } finally {
+            measure.end(errors);
+        }
+
+        out.println("Análisis semántico:");
+        Phase failed = null;
+        measure.begin(Phase.SEMANTIC);
+        try {
+            SemanticAnalyzer semantic = new SemanticAnalyzer(ast);
+            semantic.setOutput(out);
+            semantic.analyze();
+            errors = semantic.getDiagnostics().count();
+            if (errors > 0) {
+                found.set(semantic.getDiagnostics());
+                if (text) print(out, "", semantic.getDiagnostics());
+                out.println("Error semántico");
+                metrics.errors = errors;
+                failed = Phase.SEMANTIC;
+            } else {
+                out.println("Semántico correcto");
+            }
+        } catch (SemanticError e) {
+            found.diagnostics = Collections.singletonList(e.toDiagnostic());
+            out.println(e.getMessage());
+            out.println("Error semántico");
+            failed = Phase.SEMANTIC;
+        }
+        measure.end(errors);
+
+        out.println("Resultado final: hubo errores en alguna fase");
+        return failed;
+    }
+
+    /**
+     * Mide una fase por vez: tiempo, asignación (si se pidió) y el evento JFR.
+     */
+    private final class Measure {
+        final String file;
+        final FileMetrics metrics;
+        private Phase phase;
+        private long start;
+        private long allocated;
+        private PhaseEvent event;
+
+        Measure(String file, FileMetrics metrics) {
+            this.file = file;
+            this.metrics = metrics;
+        }
+
+        void begin(Phase phase) {
+            this.phase = phase;
+            event = recording() ? new PhaseEvent() : null;
+            if (event != null) event.begin();
+            allocated = trackAllocation ? Allocation.currentThreadBytes() : -1;
+            start = System.nanoTime();
+        }
+
+        void end(int errors) {
+            metrics.phaseNanos[phase.ordinal()] = System.nanoTime() - start;
+            if (allocated >= 0) {
+                metrics.phaseAllocated[phase.ordinal()] = Allocation.currentThreadBytes() - allocated;
+            }
+            if (event != null) event.end();
+            if (event != null && event.shouldCommit()) {
+                event.file = file;
+                event.phase = phase.getLabel();
+                event.bytes = metrics.bytesRead;
+                event.tokens = metrics.tokens;
+                event.nodes = metrics.nodes;
+                event.errors = errors;
+                event.allocated = metrics.phaseAllocated[phase.ordinal()];
+                event.commit();
+            }
+        }
+    }
+
+    // Cargar la primera clase de evento registra JFR entero (cientos de clases, decenas de ms):
+    // sin una grabación en curso no se crean eventos. Si se empieza una después (jcmd), los
+    // archivos siguientes ya la ven
+    private static boolean recording() {
+        return FlightRecorder.isInitialized();
+    }
+
+    static void print(PrintStream out, String prefix, Diagnostics diagnostics) {
+        for (Diagnostic d : diagnostics.getAll()) out.println(prefix + d.getText());
+        if (diagnostics.omitted() > 0) out.println("... y " + diagnostics.omitted() + " errores más");
+    }
+}
@@ -0,0 +1,33 @@
+package compiler_driver;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de la compilación completa de un archivo (las tres fases).
+ */
+@Name("compiler.File")
+@Label("Archivo compilado")
+@Category("Compilador")
+@StackTrace(false)
+class FileEvent extends jdk.jfr.Event {
+
+    @Label("Archivo")
+    String file;
+
+    @Label("Bytes leídos")
+    @DataAmount
+    long bytes;
+
+    @Label("Desde la caché")
+    boolean cached;
+
+    @Label("Correcto")
+    boolean successful;
+
+    @Label("Fase con errores")
+    String failedPhase;
+}
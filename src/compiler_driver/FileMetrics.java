@@ -0,0 +1,57 @@
+package compiler_driver;
+
+import java.util.Arrays;
+
+/**
+ * Métricas de un archivo: lo leído, lo producido por cada fase y el tiempo y la memoria
+ * asignada de cada una (-1 cuando la asignación no se midió).
+ */
+public class FileMetrics {
+
+    long bytesRead;
+    long readNanos;
+    int tokens;
+    int nodes;
+    int errors;
+    boolean cached;
+    final long[] phaseNanos = new long[Phase.values().length];
+    final long[] phaseAllocated = new long[Phase.values().length];
+
+    FileMetrics() {
+        Arrays.fill(phaseAllocated, -1);
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getReadNanos() {
+        return readNanos;
+    }
+
+    public int getTokens() {
+        return tokens;
+    }
+
+    public int getNodes() {
+        return nodes;
+    }
+
+    // Errores informados por la fase que falló
+    public int getErrors() {
+        return errors;
+    }
+
+    // El resultado salió de la caché: las fases no corrieron y sus tiempos quedan en cero
+    public boolean isCached() {
+        return cached;
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public long getPhaseAllocated(Phase phase) {
+        return phaseAllocated[phase.ordinal()];
+    }
+}
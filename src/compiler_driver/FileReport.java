@@ -0,0 +1,68 @@
+package compiler_driver;
+
+import compiler_diagnostics.Diagnostic;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Resultado de compilar un archivo: el texto del informe ya armado (null si no se pidió),
+ * los errores de la fase que falló y sus métricas.
+ */
+public class FileReport {
+
+    private final Path path;
+    private final String text;
+    private final Phase failedPhase;
+    private final List<Diagnostic> diagnostics;
+    private final int omitted;
+    private final FileMetrics metrics;
+
+    public FileReport(Path path, String text, Phase failedPhase, List<Diagnostic> diagnostics, int omitted,
+                      FileMetrics metrics) {
+        this.path = path;
+        this.text = text;
+        this.failedPhase = failedPhase;
+        this.diagnostics = diagnostics;
+        this.omitted = omitted;
+        this.metrics = metrics;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    // Primera fase con errores, o null si todas fueron correctas
+    public Phase getFailedPhase() {
+        return failedPhase;
+    }
+
+    public boolean isSuccessful() {
+        return failedPhase == null;
+    }
+
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    // Errores que pasaron el límite de Diagnostics y no están en la lista
+    public int getOmitted() {
+        return omitted;
+    }
+
+    public FileMetrics getMetrics() {
+        return metrics;
+    }
+
+    public long getReadNanos() {
+        return metrics.getReadNanos();
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return metrics.getPhaseNanos(phase);
+    }
+}
@@ -0,0 +1,47 @@
+package compiler_driver;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+
+/**
+ * El informe de siempre: el contenido de cada archivo y el resultado de cada fase.
+ */
+final class HumanReporter implements Reporter {
+
+    private final Writer out;
+
+    HumanReporter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public boolean needsText() {
+        return true;
+    }
+
+    @Override
+    public void folder(String folder) throws IOException {
+        out.write("Analizando carpeta: " + folder + "\n");
+    }
+
+    @Override
+    public void missingFolder(String folder) throws IOException {
+        out.write("No se pudo abrir la carpeta " + folder + "\n");
+    }
+
+    @Override
+    public void unreadableFile(Path path, String reason) throws IOException {
+        out.write("No se pudo leer el archivo " + path + ": " + reason + "\n");
+    }
+
+    @Override
+    public void file(FileReport report) throws IOException {
+        out.write(report.getText());
+    }
+
+    @Override
+    public void finish() throws IOException {
+        out.flush();
+    }
+}
@@ -0,0 +1,46 @@
+package compiler_driver;
+
+import compiler_diagnostics.Diagnostic;
+
+import java.util.List;
+
+/**
+ * Lo mínimo para escribir JSON a mano: cadenas entre comillas con sus escapes.
+ */
+public final class Json {
+
+    private Json() {
+    }
+
+    public static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2);
+        quoted.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"': quoted.append("\\\""); break;
+                case '\\': quoted.append("\\\\"); break;
+                case '\n': quoted.append("\\n"); break;
+                case '\r': quoted.append("\\r"); break;
+                case '\t': quoted.append("\\t"); break;
+                default:
+                    if (c < 0x20) quoted.append(String.format("\\u%04x", (int) c));
+                    else quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    // [{"line": ..., "column": ..., "message": ...}, ...], el formato del demonio y del reporte JSONL
+    static void diagnostics(StringBuilder json, List<Diagnostic> diagnostics) {
+        json.append('[');
+        for (int k = 0; k < diagnostics.size(); k++) {
+            Diagnostic d = diagnostics.get(k);
+            if (k > 0) json.append(", ");
+            json.append("{\"line\": ").append(d.getLine())
+                    .append(", \"column\": ").append(d.getColumn())
+                    .append(", \"message\": ").append(quote(d.getMessage())).append('}');
+        }
+        json.append(']');
+    }
+}
@@ -0,0 +1,66 @@
+package compiler_driver;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Una línea de JSON por archivo, con los mismos campos que las respuestas del demonio
+ * ({@link CheckResult#toJson}); una carpeta que no se pudo abrir da {"folder": ..., "error": ...} y un archivo que no se
+ * pudo leer, {"file": ..., "ok": false, "error": ...}.
+ */
+final class JsonLinesReporter implements Reporter {
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(256);
+
+    JsonLinesReporter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public boolean needsText() {
+        return false;
+    }
+
+    @Override
+    public void folder(String folder) {
+    }
+
+    @Override
+    public void missingFolder(String folder) throws IOException {
+        out.write("{\"folder\": " + Json.quote(folder) + ", \"error\": \"No se pudo abrir la carpeta\"}\n");
+    }
+
+    @Override
+    public void unreadableFile(Path path, String reason) throws IOException {
+        out.write("{\"file\": " + Json.quote(path.toString()) + ", \"ok\": false, \"error\": "
+                + Json.quote("No se pudo leer el archivo: " + reason) + "}\n");
+    }
+
+    @Override
+    public void file(FileReport report) throws IOException {
+        FileMetrics metrics = report.getMetrics();
+        long nanos = 0;
+        for (Phase phase : Phase.values()) nanos += metrics.getPhaseNanos(phase);
+
+        line.setLength(0);
+        line.append("{\"file\": ").append(Json.quote(report.getPath().toString()));
+        line.append(", \"ok\": ").append(report.isSuccessful());
+        line.append(", \"phase\": ").append(report.isSuccessful()
+                ? "null" : Json.quote(report.getFailedPhase().name().toLowerCase(Locale.ROOT)));
+        line.append(", \"tokens\": ").append(metrics.getTokens());
+        line.append(", \"nodes\": ").append(metrics.getNodes());
+        line.append(", \"micros\": ").append(nanos / 1000);
+        line.append(", \"diagnostics\": ");
+        Json.diagnostics(line, report.getDiagnostics());
+        line.append(", \"omitted\": ").append(report.getOmitted()).append("}\n");
+        out.append(line);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        out.flush();
+    }
+}
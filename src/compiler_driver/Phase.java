@@ -0,0 +1,20 @@
+package compiler_driver;
+
+/**
+ * Fases del compilador, en el orden en que se ejecutan.
+ */
+public enum Phase {
+    LEXICAL("Léxico"),
+    SYNTACTIC("Sintáctico"),
+    SEMANTIC("Semántico");
+
+    private final String label;
+
+    Phase(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
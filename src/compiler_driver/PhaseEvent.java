@@ -0,0 +1,44 @@
+package compiler_driver;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de una fase sobre un archivo. La duración es la del evento; si no hay una
+ * grabación activa no se guarda nada y el costo es casi nulo.
+ */
+@Name("compiler.Phase")
+@Label("Fase del compilador")
+@Category("Compilador")
+@Description("Una fase (léxica, sintáctica o semántica) sobre un archivo")
+@StackTrace(false)
+class PhaseEvent extends jdk.jfr.Event {
+
+    @Label("Archivo")
+    String file;
+
+    @Label("Fase")
+    String phase;
+
+    @Label("Bytes de entrada")
+    @DataAmount
+    long bytes;
+
+    @Label("Tokens")
+    int tokens;
+
+    @Label("Nodos del AST")
+    int nodes;
+
+    @Label("Errores")
+    int errors;
+
+    @Label("Bytes asignados")
+    @Description("Asignación del hilo durante la fase; -1 si no se midió")
+    @DataAmount
+    long allocated;
+}
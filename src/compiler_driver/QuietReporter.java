@@ -0,0 +1,50 @@
+package compiler_driver;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+
+/**
+ * Sólo una línea por archivo con errores; los correctos no aparecen. El resumen del lote
+ * lo imprime quien lo corre.
+ */
+final class QuietReporter implements Reporter {
+
+    private final Writer out;
+
+    QuietReporter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public boolean needsText() {
+        return false;
+    }
+
+    @Override
+    public void folder(String folder) {
+    }
+
+    @Override
+    public void missingFolder(String folder) throws IOException {
+        out.write("No se pudo abrir la carpeta " + folder + "\n");
+    }
+
+    @Override
+    public void unreadableFile(Path path, String reason) throws IOException {
+        out.write("No se pudo leer el archivo " + path + ": " + reason + "\n");
+    }
+
+    @Override
+    public void file(FileReport report) throws IOException {
+        if (report.isSuccessful()) return;
+        int errors = Math.max(report.getMetrics().getErrors(), report.getDiagnostics().size());
+        out.write(report.getPath() + ": " + report.getFailedPhase().getLabel() + ", "
+                + errors + (errors == 1 ? " error\n" : " errores\n"));
+    }
+
+    @Override
+    public void finish() throws IOException {
+        out.flush();
+    }
+}
@@ -0,0 +1,59 @@
+package compiler_driver;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formatos del reporte de un lote: el informe completo de siempre, un resumen con una línea
+ * por archivo con errores, JSON Lines (una línea por archivo, como las respuestas del
+ * demonio) y SARIF 2.1.0 para herramientas de análisis.
+ */
+public enum ReportFormat {
+    HUMAN("human"),
+    QUIET("quiet"),
+    JSON_LINES("jsonl"),
+    SARIF("sarif");
+
+    private static final int BUFFER = 1 << 16;
+
+    private final String name;
+
+    ReportFormat(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public static ReportFormat byName(String name) {
+        for (ReportFormat format : values()) {
+            if (format.name.equals(name)) return format;
+        }
+        return null;
+    }
+
+    // Los formatos para máquinas van siempre en UTF-8; los de texto, en la codificación de la consola
+    public Charset charset() {
+        if (this == JSON_LINES || this == SARIF) return StandardCharsets.UTF_8;
+        String console = System.getProperty("stdout.encoding", System.getProperty("sun.stdout.encoding"));
+        return console != null && Charset.isSupported(console) ? Charset.forName(console) : Charset.defaultCharset();
+    }
+
+    public Writer writer(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, charset()), BUFFER);
+    }
+
+    public Reporter open(Writer out) {
+        switch (this) {
+            case QUIET: return new QuietReporter(out);
+            case JSON_LINES: return new JsonLinesReporter(out);
+            case SARIF: return new SarifReporter(out);
+            default: return new HumanReporter(out);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package compiler_driver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Destino de los resultados de un lote: recibe cada archivo en el orden de la carpeta y
+ * escribe en un único writer con buffer, que se vacía al terminar. Se crea con
+ * {@link ReportFormat#open}.
+ */
+public interface Reporter {
+
+    // Si el reporte usa el informe de texto; si no, los archivos se compilan sin armarlo
+    boolean needsText();
+
+    void folder(String folder) throws IOException;
+
+    void missingFolder(String folder) throws IOException;
+
+    // Un archivo de la carpeta que no se pudo leer; el lote sigue con el siguiente
+    void unreadableFile(Path path, String reason) throws IOException;
+
+    void file(FileReport report) throws IOException;
+
+    // Cierra el documento si el formato lo necesita y vacía el writer (sin cerrarlo)
+    void finish() throws IOException;
+}
@@ -0,0 +1,316 @@
+package compiler_driver;
+
+import compiler_diagnostics.Diagnostic;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché en disco del resultado de compilar un archivo, indexada por el SHA-256 del contenido
+ * y de la versión del compilador. Cada entrada es un archivo que se escribe aparte y se mueve
+ * de forma atómica, así que varios hilos (o procesos) pueden leer y escribir a la vez. Cuando
+ * el tamaño total pasa del máximo se borran las entradas usadas hace más tiempo; la fecha de
+ * modificación del archivo guarda el último uso entre ejecuciones.
+ */
+public class ResultCache {
+
+    // Cambiarla cuando cambie el informe de alguna fase: invalida todas las entradas anteriores
+    public static final String VERSION = "compilador-19";
+
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final int MAGIC = 0x43414348;
+    private static final String SUFFIX = ".entry";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private final AtomicLong size = new AtomicLong();
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final AtomicLong savedNanos = new AtomicLong();
+    private final AtomicLong lookupNanos = new AtomicLong();
+
+    private static final class Entry {
+        final long bytes;
+        volatile long lastUse;
+
+        Entry(long bytes, long lastUse) {
+            this.bytes = bytes;
+            this.lastUse = lastUse;
+        }
+    }
+
+    /**
+     * Lo que se guarda de un archivo: la fase que falló (null si ninguna), los conteos, los
+     * errores y el informe de las tres fases (null si se compiló sin armarlo). nanos es lo que
+     * tardaron las fases al compilarlo.
+     */
+    static final class Result {
+        final Phase failed;
+        final int errors;
+        final int tokens;
+        final int nodes;
+        final long nanos;
+        final List<Diagnostic> diagnostics;
+        final int omitted;
+        final byte[] report;
+
+        Result(Phase failed, int errors, int tokens, int nodes, long nanos, List<Diagnostic> diagnostics,
+               int omitted, byte[] report) {
+            this.failed = failed;
+            this.errors = errors;
+            this.tokens = tokens;
+            this.nodes = nodes;
+            this.nanos = nanos;
+            this.diagnostics = diagnostics;
+            this.omitted = omitted;
+            this.report = report;
+        }
+    }
+
+    private ResultCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    // Abre (o crea) la carpeta de la caché y carga el índice de lo que ya tiene
+    public static ResultCache open(Path directory, long maxBytes) throws IOException {
+        Files.createDirectories(directory);
+        ResultCache cache = new ResultCache(directory, maxBytes);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                long bytes = Files.size(path);
+                long lastUse = Files.getLastModifiedTime(path).toMillis();
+                cache.index.put(name.substring(0, name.length() - SUFFIX.length()), new Entry(bytes, lastUse));
+                cache.size.addAndGet(bytes);
+            }
+        }
+        cache.evict();
+        return cache;
+    }
+
+    public static String key(String content) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(VERSION.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        byte[] hash = digest.digest(content.getBytes(StandardCharsets.UTF_8));
+
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[2 * i] = Character.forDigit((hash[i] >> 4) & 0xF, 16);
+            hex[2 * i + 1] = Character.forDigit(hash[i] & 0xF, 16);
+        }
+        return new String(hex);
+    }
+
+    // null si no está; una entrada dañada cuenta como fallo y se descarta. Si se necesita el
+    // informe de texto, una entrada guardada sin él también es un fallo (se vuelve a escribir)
+    Result get(String key, boolean text) {
+        long start = System.nanoTime();
+        try {
+            Entry entry = index.get(key);
+            if (entry != null) {
+                Result result = read(key);
+                if (result != null && text && result.report == null) {
+                    misses.incrementAndGet();
+                    return null;
+                }
+                if (result != null) {
+                    entry.lastUse = System.currentTimeMillis();
+                    touch(key, entry.lastUse);
+                    hits.incrementAndGet();
+                    savedNanos.addAndGet(result.nanos);
+                    return result;
+                }
+                remove(key);
+            }
+            misses.incrementAndGet();
+            return null;
+        } finally {
+            lookupNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    // La caché es sólo una ayuda: si no se puede escribir, se sigue sin ella
+    void put(String key, Result result) {
+        byte[] data = encode(result);
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temporary, data);
+            move(temporary, file(key));
+            temporary = null;
+        } catch (IOException e) {
+            return;
+        } finally {
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        Entry previous = index.put(key, new Entry(data.length, System.currentTimeMillis()));
+        long total = size.addAndGet(data.length - (previous != null ? previous.bytes : 0));
+        if (total > maxBytes) evict();
+    }
+
+    private static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Borra las menos usadas hasta bajar al 90 % del máximo, para no desalojar en cada escritura
+    private synchronized void evict() {
+        if (size.get() <= maxBytes) return;
+        List<Map.Entry<String, Entry>> entries = new ArrayList<>(index.entrySet());
+        entries.sort((a, b) -> Long.compare(a.getValue().lastUse, b.getValue().lastUse));
+        long target = maxBytes / 10 * 9;
+        for (Map.Entry<String, Entry> entry : entries) {
+            if (size.get() <= target) break;
+            remove(entry.getKey());
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = index.remove(key);
+        if (entry != null) size.addAndGet(-entry.bytes);
+        try {
+            Files.deleteIfExists(file(key));
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void touch(String key, long millis) {
+        try {
+            Files.setLastModifiedTime(file(key), FileTime.fromMillis(millis));
+        } catch (IOException ignored) {
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private Result read(String key) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file(key))))) {
+            if (in.readInt() != MAGIC || !in.readUTF().equals(VERSION)) return null;
+            int failed = in.readByte();
+            int errors = in.readInt();
+            int tokens = in.readInt();
+            int nodes = in.readInt();
+            long nanos = in.readLong();
+            int count = in.readInt();
+            int omitted = in.readInt();
+            List<Diagnostic> diagnostics = new ArrayList<>();
+            for (int k = 0; k < count; k++) {
+                diagnostics.add(new Diagnostic(in.readInt(), in.readInt(), readString(in), readString(in)));
+            }
+            int length = in.readInt();
+            byte[] report = length >= 0 ? new byte[length] : null;
+            if (report != null) in.readFully(report);
+            return new Result(failed >= 0 ? Phase.values()[failed] : null, errors, tokens, nodes, nanos,
+                    diagnostics, omitted, report);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static byte[] encode(Result result) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + (result.report != null ? result.report.length : 0));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeUTF(VERSION);
+            out.writeByte(result.failed != null ? result.failed.ordinal() : -1);
+            out.writeInt(result.errors);
+            out.writeInt(result.tokens);
+            out.writeInt(result.nodes);
+            out.writeLong(result.nanos);
+            out.writeInt(result.diagnostics.size());
+            out.writeInt(result.omitted);
+            for (Diagnostic d : result.diagnostics) {
+                out.writeInt(d.getLine());
+                out.writeInt(d.getColumn());
+                writeString(out, d.getMessage());
+                writeString(out, d.getText());
+            }
+            if (result.report != null) {
+                out.writeInt(result.report.length);
+                out.write(result.report);
+            } else {
+                out.writeInt(-1);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Sin el límite de 64 KB de writeUTF: un mensaje puede citar un identificador enorme
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    // Tiempo que tardaron en su momento las fases que los aciertos evitaron
+    public long getSavedNanos() {
+        return savedNanos.get();
+    }
+
+    public long getLookupNanos() {
+        return lookupNanos.get();
+    }
+
+    public long getSize() {
+        return size.get();
+    }
+
+    public int getEntries() {
+        return index.size();
+    }
+}
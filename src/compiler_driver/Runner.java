@@ -0,0 +1,183 @@
+package compiler_driver;
+
+import compiler_ir.IrOptimizer;
+import compiler_ir.IrProgram;
+import compiler_jvm.ClassGenerator;
+import compiler_jvm.CodeSizeError;
+import compiler_lexer.TokenBuffer;
+import compiler_optimizer.AstOptimizer;
+import compiler_lexer.TokenStream;
+import compiler_semantic.Bindings;
+import compiler_semantic.SemanticAnalyzer;
+import compiler_semantic.SemanticError;
+import compiler_sintactic.Ast;
+import compiler_sintactic.SyntacticAnalyzer;
+import compiler_vm.BytecodeCompiler;
+import compiler_vm.ExecutionError;
+import compiler_vm.Program;
+import compiler_vm.VirtualMachine;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Compila un programa y lo ejecuta en la máquina virtual, o lo traduce a una clase de la
+ * JVM y la ejecuta en el mismo proceso. Los errores de compilación y de ejecución van a err
+ * con el formato del informe; la salida del programa va a out.
+ */
+public class Runner {
+
+    public static final int OK = 0;
+    public static final int COMPILE_ERROR = 1;
+    public static final int RUNTIME_ERROR = 2;
+
+    private final PrintStream err;
+    private boolean optimize;
+    private AstOptimizer optimizer;
+
+    public Runner(PrintStream err) {
+        this.err = err;
+    }
+
+    // Pasa cada programa verificado por AstOptimizer antes de darlo a un backend
+    public void setOptimize(boolean optimize) {
+        this.optimize = optimize;
+    }
+
+    // Optimizador del último programa verificado; null si no se optimizó
+    public AstOptimizer getOptimizer() {
+        return optimizer;
+    }
+
+    /**
+     * Programa ya verificado: el AST y lo que el análisis semántico dedujo de él.
+     */
+    public static final class Checked {
+        public final Ast ast;
+        public final Bindings bindings;
+
+        Checked(Ast ast, Bindings bindings) {
+            this.ast = ast;
+            this.bindings = bindings;
+        }
+    }
+
+    // Las tres fases (y la optimización si se pidió); null (con los errores ya informados) si alguna falla
+    public Checked check(String content) {
+        optimizer = null;
+        TokenBuffer buffer = TokenBuffer.lex(content);
+        if (buffer.errorCount() != 0) {
+            for (int k = 0; k < buffer.errorCount(); k++) err.println("Error léxico: " + buffer.errorMessage(k));
+            return null;
+        }
+        try {
+            SyntacticAnalyzer parser = new SyntacticAnalyzer(new TokenStream(buffer));
+            Ast ast = parser.parseProgram();
+            if (parser.getDiagnostics().hasErrors()) {
+                FileCompiler.print(err, "Error sintáctico: ", parser.getDiagnostics());
+                return null;
+            }
+            SemanticAnalyzer semantic = new SemanticAnalyzer(ast);
+            semantic.setOutput(new PrintStream(OutputStream.nullOutputStream()));
+            semantic.setRecordBindings(true);
+            semantic.analyze();
+            if (semantic.getDiagnostics().hasErrors()) {
+                FileCompiler.print(err, "", semantic.getDiagnostics());
+                return null;
+            }
+            if (optimize) {
+                optimizer = new AstOptimizer(ast, semantic.getBindings());
+                optimizer.optimize();
+            }
+            return new Checked(ast, semantic.getBindings());
+        } catch (SemanticError e) {
+            err.println(e.getMessage());
+            return null;
+        }
+    }
+
+    public Program compile(String content) {
+        Checked checked = check(content);
+        return checked != null ? BytecodeCompiler.compile(checked.ast, checked.bindings) : null;
+    }
+
+    public int run(String content, InputStream in, PrintStream out) {
+        Program program = compile(content);
+        if (program == null) return COMPILE_ERROR;
+        VirtualMachine vm = new VirtualMachine(program);
+        vm.setInput(in);
+        vm.setOutput(out);
+        try {
+            vm.run();
+            return OK;
+        } catch (ExecutionError e) {
+            out.flush();
+            err.println(e.getMessage());
+            return RUNTIME_ERROR;
+        }
+    }
+
+    // La clase del programa, o null (con el error ya informado) si no compila o no entra en un .class
+    public byte[] compileClass(String content, String className, String sourceFile) {
+        Checked checked = check(content);
+        if (checked == null) return null;
+        try {
+            return ClassGenerator.generate(checked.ast, checked.bindings, className, sourceFile);
+        } catch (CodeSizeError e) {
+            err.println("Error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // El programa en código de tres direcciones, ya en SSA y con las pasadas de optimizer aplicadas
+    public IrProgram compileIr(String content, IrOptimizer optimizer) {
+        Checked checked = check(content);
+        return checked != null ? optimizer.compile(checked.ast, checked.bindings) : null;
+    }
+
+    // Como run, pero con la clase generada: la carga un cargador propio y el JIT la compila
+    public int runJvm(String content, InputStream in, PrintStream out) {
+        String name = "Programa";
+        byte[] bytes = compileClass(content, name, null);
+        if (bytes == null) return COMPILE_ERROR;
+        try {
+            Method entry = new Loader().define(name, bytes).getMethod("ejecutar", InputStream.class, PrintStream.class);
+            entry.invoke(null, in, out);
+            return OK;
+        } catch (InvocationTargetException e) {
+            if (!(e.getCause() instanceof RuntimeException)) throw new IllegalStateException(e.getCause());
+            out.flush();
+            err.println(e.getCause().getMessage());
+            return RUNTIME_ERROR;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Nombre de clase válido a partir del nombre de un archivo: "mi-programa.txt" da "Mi_programa"
+    public static String className(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String base = dot > 0 ? fileName.substring(0, dot) : fileName;
+        StringBuilder name = new StringBuilder();
+        for (int k = 0; k < base.length(); k++) {
+            char c = base.charAt(k);
+            name.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        }
+        if (name.length() == 0 || !Character.isJavaIdentifierStart(name.charAt(0))) name.insert(0, "Programa_");
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    private static final class Loader extends ClassLoader {
+        Loader() {
+            super(Runner.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
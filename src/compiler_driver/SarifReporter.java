@@ -0,0 +1,132 @@
+package compiler_driver;
+
+import compiler_diagnostics.Diagnostic;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Un documento SARIF 2.1.0 con una corrida: un resultado por error, con la fase como regla.
+ * Los resultados se escriben a medida que llegan; los avisos (carpetas que no se pudieron
+ * abrir, archivos que no se pudieron leer, errores omitidos por el límite) se juntan y van en la invocación, al cerrar.
+ */
+final class SarifReporter implements Reporter {
+
+    private final Writer out;
+    private final StringBuilder result = new StringBuilder(512);
+    private final List<String> notifications = new ArrayList<>();
+    private boolean started;
+    private boolean first = true;
+
+    SarifReporter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public boolean needsText() {
+        return false;
+    }
+
+    @Override
+    public void folder(String folder) throws IOException {
+        start();
+    }
+
+    @Override
+    public void missingFolder(String folder) throws IOException {
+        start();
+        notifications.add("No se pudo abrir la carpeta " + folder);
+    }
+
+    @Override
+    public void unreadableFile(Path path, String reason) throws IOException {
+        start();
+        notifications.add("No se pudo leer el archivo " + path + ": " + reason);
+    }
+
+    @Override
+    public void file(FileReport report) throws IOException {
+        start();
+        if (report.isSuccessful()) return;
+        String rule = report.getFailedPhase().name().toLowerCase(Locale.ROOT);
+        String uri = report.getPath().isAbsolute() ? report.getPath().toUri().toString() : uri(report.getPath().toString());
+        for (Diagnostic d : report.getDiagnostics()) {
+            result.setLength(0);
+            result.append(first ? "\n        " : ",\n        ");
+            first = false;
+            result.append("{\"ruleId\": ").append(Json.quote(rule))
+                    .append(", \"level\": \"error\", \"message\": {\"text\": ").append(Json.quote(d.getMessage()))
+                    .append("}, \"locations\": [{\"physicalLocation\": {\"artifactLocation\": {\"uri\": ")
+                    .append(Json.quote(uri)).append('}');
+            // Los errores sin posición (línea 0) van sin región
+            if (d.getLine() > 0) {
+                result.append(", \"region\": {\"startLine\": ").append(d.getLine());
+                if (d.getColumn() > 0) result.append(", \"startColumn\": ").append(d.getColumn());
+                result.append('}');
+            }
+            result.append("}}]}");
+            out.append(result);
+        }
+        if (report.getOmitted() > 0) {
+            notifications.add(report.getPath() + ": " + report.getOmitted() + " errores más sin informar");
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        start();
+        out.write(first ? "]," : "\n      ],");
+        out.write("\n      \"invocations\": [{\"executionSuccessful\": true, \"toolExecutionNotifications\": [");
+        for (int i = 0; i < notifications.size(); i++) {
+            out.write(i > 0 ? ",\n        " : "\n        ");
+            out.write("{\"level\": \"warning\", \"message\": {\"text\": " + Json.quote(notifications.get(i)) + "}}");
+        }
+        out.write(notifications.isEmpty() ? "]}]\n    }\n  ]\n}\n" : "\n      ]}]\n    }\n  ]\n}\n");
+        out.flush();
+        started = false;
+        first = true;
+        notifications.clear();
+    }
+
+    // Encabezado con la herramienta y una regla por fase
+    private void start() throws IOException {
+        if (started) return;
+        started = true;
+        StringBuilder header = new StringBuilder(1024);
+        header.append("{\n  \"$schema\": \"https://json.schemastore.org/sarif-2.1.0.json\",\n");
+        header.append("  \"version\": \"2.1.0\",\n  \"runs\": [\n    {\n");
+        header.append("      \"tool\": {\"driver\": {\"name\": \"compiler\", \"version\": ")
+                .append(Json.quote(ResultCache.VERSION)).append(", \"rules\": [");
+        for (Phase phase : Phase.values()) {
+            if (phase.ordinal() > 0) header.append(',');
+            header.append("\n        {\"id\": ").append(Json.quote(phase.name().toLowerCase(Locale.ROOT)))
+                    .append(", \"shortDescription\": {\"text\": ").append(Json.quote("Error " + phase.getLabel().toLowerCase(Locale.ROOT)))
+                    .append("}}");
+        }
+        header.append("\n      ]}},\n      \"results\": [");
+        out.write(header.toString());
+    }
+
+    // Ruta relativa como referencia URI: barras normales y el resto de los caracteres reservados escapados
+    static String uri(String path) {
+        String slashed = File.separatorChar == '/' ? path : path.replace(File.separatorChar, '/');
+        StringBuilder uri = new StringBuilder(slashed.length() + 8);
+        for (byte b : slashed.getBytes(StandardCharsets.UTF_8)) {
+            int c = b & 0xFF;
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '/' || c == '-' || c == '.' || c == '_' || c == '~') {
+                uri.append((char) c);
+            } else {
+                uri.append('%').append(Character.toUpperCase(Character.forDigit(c >> 4, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(c & 0xF, 16)));
+            }
+        }
+        return uri.toString();
+    }
+}
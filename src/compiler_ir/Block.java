@@ -0,0 +1,50 @@
+package compiler_ir;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bloque básico: instrucciones en orden (los PHI primero, la de control al final) y sus
+ * predecesores y sucesores en el grafo de control.
+ */
+public final class Block {
+
+    int id;
+    final List<Instruction> code = new ArrayList<>();
+    final List<Block> predecessors = new ArrayList<>();
+    final List<Block> successors = new ArrayList<>();
+
+    Block(int id) {
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public List<Instruction> getCode() {
+        return code;
+    }
+
+    public List<Block> getPredecessors() {
+        return predecessors;
+    }
+
+    public List<Block> getSuccessors() {
+        return successors;
+    }
+
+    Instruction terminator() {
+        return code.get(code.size() - 1);
+    }
+
+    // Inserta antes de la instrucción de control
+    void insertBeforeTerminator(Instruction instruction) {
+        code.add(code.size() - 1, instruction);
+    }
+
+    static void link(Block from, Block to) {
+        from.successors.add(to);
+        to.predecessors.add(from);
+    }
+}
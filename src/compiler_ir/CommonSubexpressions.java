@@ -0,0 +1,111 @@
+package compiler_ir;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Numeración de valores sobre el árbol de dominadores: una operación pura que repite
+ * operación, tipo y argumentos de otra que la domina se reemplaza por el valor de aquella.
+ * Entra también la división: si la primera no falló, la segunda tampoco.
+ */
+final class CommonSubexpressions {
+
+    private CommonSubexpressions() {
+    }
+
+    // Devuelve cuántas instrucciones quitó
+    static int run(IrProgram program) {
+        Dominators dominators = new Dominators(program);
+        int[] replacement = new int[program.valueCount()];
+        Arrays.fill(replacement, -1);
+        Map<Key, Integer> available = new HashMap<>();
+        Key[] scope = new Key[64];
+        int scopeTop = 0;
+        int removed = 0;
+
+        int count = program.blocks.size();
+        Block[] stack = new Block[count];
+        int[] next = new int[count];
+        int[] marks = new int[count];
+        int top = 0;
+        stack[top] = program.entry();
+        next[top] = -1;
+        top++;
+        while (top > 0) {
+            Block block = stack[top - 1];
+            if (next[top - 1] < 0) {
+                marks[top - 1] = scopeTop;
+                for (Instruction instruction : block.code) {
+                    int[] args = instruction.args;
+                    for (int k = 0; k < args.length; k++) {
+                        if (replacement[args[k]] >= 0) args[k] = replacement[args[k]];
+                    }
+                    if (!instruction.op.isPure() || instruction.op == Op.COPY) continue;
+                    Key key = new Key(instruction);
+                    Integer previous = available.get(key);
+                    if (previous != null) {
+                        replacement[instruction.dst] = previous;
+                        removed++;
+                    } else {
+                        available.put(key, instruction.dst);
+                        if (scopeTop == scope.length) scope = Arrays.copyOf(scope, scopeTop * 2);
+                        scope[scopeTop++] = key;
+                    }
+                }
+                next[top - 1] = 0;
+            }
+            List<Block> children = dominators.children.get(block.id);
+            if (next[top - 1] < children.size()) {
+                stack[top] = children.get(next[top - 1]++);
+                next[top] = -1;
+                top++;
+            } else {
+                top--;
+                while (scopeTop > marks[top]) available.remove(scope[--scopeTop]);
+            }
+        }
+        if (removed == 0) return 0;
+        for (Block block : program.blocks) {
+            block.code.removeIf(instruction -> instruction.dst >= 0 && replacement[instruction.dst] >= 0);
+        }
+        // Los PHI de un bloque pueden usar valores de bloques que se recorrieron después
+        program.replaceUses(replacement);
+        program.index();
+        return removed;
+    }
+
+    // Operación, tipo y argumentos (ordenados si la operación conmuta); la constante en los CONST
+    private static final class Key {
+        private final Op op;
+        private final Object type;
+        private final int[] args;
+        private final long bits;
+        private final String text;
+
+        Key(Instruction instruction) {
+            op = instruction.op;
+            type = instruction.type;
+            bits = instruction.bits;
+            text = instruction.text;
+            int[] a = instruction.args;
+            if (op.isCommutative() && a.length == 2 && a[0] > a[1]) a = new int[] {a[1], a[0]};
+            args = a;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) return false;
+            Key key = (Key) other;
+            return op == key.op && type == key.type && bits == key.bits && Objects.equals(text, key.text)
+                    && Arrays.equals(args, key.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return ((op.hashCode() * 31 + type.hashCode()) * 31 + Long.hashCode(bits)) * 31 + Arrays.hashCode(args);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package compiler_ir;
+
+import java.util.Arrays;
+
+/**
+ * Quita los COPY y los PHI triviales (todos sus argumentos son el mismo valor, o el propio
+ * PHI) y hace que sus usos lean directamente el valor original.
+ */
+final class CopyPropagation {
+
+    private CopyPropagation() {
+    }
+
+    // Devuelve cuántas instrucciones quitó
+    static int run(IrProgram program) {
+        int[] replacement = new int[program.valueCount()];
+        Arrays.fill(replacement, -1);
+        int removed = 0;
+        boolean changed = true;
+        // Un PHI puede volverse trivial cuando se resuelven los de los que depende
+        while (changed) {
+            changed = false;
+            for (Block block : program.blocks) {
+                for (Instruction instruction : block.code) {
+                    if (instruction.dst < 0 || replacement[instruction.dst] >= 0) continue;
+                    int source = source(instruction, replacement);
+                    if (source >= 0) {
+                        replacement[instruction.dst] = source;
+                        removed++;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        if (removed == 0) return 0;
+        for (int v = 0; v < replacement.length; v++) {
+            if (replacement[v] >= 0) replacement[v] = find(replacement, v);
+        }
+        for (Block block : program.blocks) {
+            block.code.removeIf(instruction -> instruction.dst >= 0 && replacement[instruction.dst] >= 0);
+        }
+        program.replaceUses(replacement);
+        program.index();
+        return removed;
+    }
+
+    // Valor al que equivale la instrucción, o -1 si no es una copia
+    private static int source(Instruction instruction, int[] replacement) {
+        if (instruction.op == Op.COPY) return find(replacement, instruction.args[0]);
+        if (instruction.op != Op.PHI) return -1;
+        int same = -1;
+        for (int a : instruction.args) {
+            a = find(replacement, a);
+            if (a == instruction.dst || a == same) continue;
+            if (same >= 0) return -1;
+            same = a;
+        }
+        return same;
+    }
+
+    private static int find(int[] replacement, int v) {
+        while (replacement[v] >= 0) v = replacement[v];
+        return v;
+    }
+}
@@ -0,0 +1,50 @@
+package compiler_ir;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Quita las operaciones puras (y los PHI) cuyo valor no llega a ninguna instrucción con
+ * efectos: se marca desde las escrituras, lecturas, saltos y divisiones que pueden fallar
+ * hacia atrás, así también caen los ciclos de PHI que sólo se usan entre sí. Las divisiones
+ * que pueden fallar se quedan: el error de ejecución es parte de lo que hace el programa.
+ */
+final class DeadCode {
+
+    private DeadCode() {
+    }
+
+    // Devuelve cuántas instrucciones quitó
+    static int run(IrProgram program) {
+        BitSet live = new BitSet(program.valueCount());
+        List<Instruction> work = new ArrayList<>();
+        for (Block block : program.blocks) {
+            for (Instruction instruction : block.code) {
+                if (instruction.dst < 0 || !removable(program, instruction)) work.add(instruction);
+            }
+        }
+        while (!work.isEmpty()) {
+            Instruction instruction = work.remove(work.size() - 1);
+            for (int a : instruction.args) {
+                if (live.get(a)) continue;
+                live.set(a);
+                Instruction definition = program.definition(a);
+                if (definition != null) work.add(definition);
+            }
+        }
+        int removed = 0;
+        for (Block block : program.blocks) {
+            int before = block.code.size();
+            block.code.removeIf(instruction -> instruction.dst >= 0 && !live.get(instruction.dst)
+                    && removable(program, instruction));
+            removed += before - block.code.size();
+        }
+        if (removed > 0) program.index();
+        return removed;
+    }
+
+    private static boolean removable(IrProgram program, Instruction instruction) {
+        return (instruction.op == Op.PHI || instruction.op.isPure()) && !instruction.canFail(program);
+    }
+}
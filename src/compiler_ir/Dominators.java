@@ -0,0 +1,106 @@
+package compiler_ir;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Árbol de dominadores del grafo de control (algoritmo iterativo de Cooper, Harvey y
+ * Kennedy sobre el orden posterior inverso) y, si se piden, las fronteras de dominancia.
+ * Los bloques se identifican por id; hay que volver a calcularlo si el grafo cambia.
+ */
+final class Dominators {
+
+    final Block[] order;      // orden posterior inverso desde la entrada
+    private final int[] rank; // posición de cada bloque en order
+    final int[] idom;         // dominador inmediato (la entrada se domina a sí misma)
+    final List<List<Block>> children;
+
+    Dominators(IrProgram program) {
+        int count = program.blocks.size();
+        order = reversePostorder(program);
+        rank = new int[count];
+        for (int k = 0; k < order.length; k++) rank[order[k].id] = k;
+        idom = new int[count];
+        Arrays.fill(idom, -1);
+        idom[0] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int k = 1; k < order.length; k++) {
+                Block block = order[k];
+                int dom = -1;
+                for (Block pred : block.predecessors) {
+                    if (idom[pred.id] < 0) continue;
+                    dom = dom < 0 ? pred.id : intersect(pred.id, dom);
+                }
+                if (idom[block.id] != dom) {
+                    idom[block.id] = dom;
+                    changed = true;
+                }
+            }
+        }
+        children = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) children.add(new ArrayList<>());
+        for (int k = 1; k < order.length; k++) children.get(idom[order[k].id]).add(order[k]);
+    }
+
+    private int intersect(int a, int b) {
+        while (a != b) {
+            while (rank[a] > rank[b]) a = idom[a];
+            while (rank[b] > rank[a]) b = idom[b];
+        }
+        return a;
+    }
+
+    boolean dominates(int a, int b) {
+        while (rank[b] > rank[a]) b = idom[b];
+        return a == b;
+    }
+
+    // Frontera de dominancia de cada bloque
+    BitSet[] frontiers() {
+        BitSet[] frontiers = new BitSet[idom.length];
+        for (int k = 0; k < frontiers.length; k++) frontiers[k] = new BitSet();
+        for (Block block : order) {
+            if (block.predecessors.size() < 2) continue;
+            for (Block pred : block.predecessors) {
+                for (int runner = pred.id; runner != idom[block.id]; runner = idom[runner]) {
+                    frontiers[runner].set(block.id);
+                }
+            }
+        }
+        return frontiers;
+    }
+
+    // Sin recursión: los programas generados tienen miles de bloques encadenados
+    private static Block[] reversePostorder(IrProgram program) {
+        int count = program.blocks.size();
+        Block[] post = new Block[count];
+        int size = 0;
+        boolean[] seen = new boolean[count];
+        Block[] stack = new Block[count];
+        int[] next = new int[count];
+        int top = 0;
+        stack[top++] = program.entry();
+        seen[0] = true;
+        while (top > 0) {
+            Block block = stack[top - 1];
+            if (next[top - 1] < block.successors.size()) {
+                Block succ = block.successors.get(next[top - 1]++);
+                if (!seen[succ.id]) {
+                    seen[succ.id] = true;
+                    next[top] = 0;
+                    stack[top++] = succ;
+                }
+            } else {
+                post[size++] = block;
+                top--;
+            }
+        }
+        Block[] order = new Block[size];
+        for (int k = 0; k < size; k++) order[k] = post[size - 1 - k];
+        return order;
+    }
+}
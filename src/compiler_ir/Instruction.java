@@ -0,0 +1,81 @@
+package compiler_ir;
+
+import compiler_semantic.Type;
+
+/**
+ * Una instrucción: operación, tipo con el que opera, valor que define (-1 si ninguno),
+ * argumentos y, para CONST, la constante. En un PHI los argumentos van en el orden de los
+ * predecesores del bloque.
+ */
+public final class Instruction {
+
+    Op op;
+    Type type;
+    int dst = -1;
+    int[] args;
+    long bits;
+    String text;
+    final int line;
+
+    Instruction(Op op, Type type, int dst, int[] args, int line) {
+        this.op = op;
+        this.type = type;
+        this.dst = dst;
+        this.args = args;
+        this.line = line;
+    }
+
+    public Op getOp() {
+        return op;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getDst() {
+        return dst;
+    }
+
+    public int argCount() {
+        return args.length;
+    }
+
+    public int arg(int k) {
+        return args[k];
+    }
+
+    // Valor de un CONST int, long o boolean
+    public long longValue() {
+        return bits;
+    }
+
+    public double doubleValue() {
+        return Double.longBitsToDouble(bits);
+    }
+
+    // Texto de un CONST string
+    public String text() {
+        return text;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    // La división entera falla con divisor cero, salvo que el divisor sea una constante distinta de cero
+    boolean canFail(IrProgram program) {
+        if (op != Op.DIV || type == Type.DOUBLE) return false;
+        Instruction divisor = program.definition(args[1]);
+        return divisor == null || divisor.op != Op.CONST || divisor.bits == 0;
+    }
+
+    String constant() {
+        switch (type) {
+            case DOUBLE: return Double.toString(doubleValue());
+            case BOOLEAN: return bits != 0 ? "true" : "false";
+            case STRING: return '"' + text + '"';
+            default: return Long.toString(bits);
+        }
+    }
+}
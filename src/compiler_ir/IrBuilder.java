@@ -0,0 +1,404 @@
+package compiler_ir;
+
+import compiler_lexer.TokenType;
+import compiler_semantic.Bindings;
+import compiler_semantic.Type;
+import compiler_sintactic.Ast;
+import compiler_sintactic.NodeKind;
+
+import java.util.Arrays;
+
+/**
+ * Baja un programa ya verificado (AST más {@link Bindings}) a código de tres direcciones.
+ * Cada variable del programa es un valor que se asigna con COPY, CONST o READ y empieza en
+ * cero en el bloque de entrada; los temporales se definen una sola vez. Los while quedan con
+ * la condición en un bloque de cabecera, el && y el || con cortocircuito en bloques propios.
+ */
+public final class IrBuilder {
+
+    private final Ast ast;
+    private final Bindings bindings;
+    private final IrProgram program = new IrProgram();
+    private final int[] variables;
+
+    private Block current;
+    private int line;
+
+    // Bloque de salida del while más interno, para break
+    private Block[] loopExits = new Block[8];
+    private int loopDepth;
+
+    // Pila propia para las cadenas de operadores inclinadas a la izquierda
+    private int[] spine = new int[16];
+    private int spineTop;
+
+    private IrBuilder(Ast ast, Bindings bindings) {
+        this.ast = ast;
+        this.bindings = bindings;
+        this.variables = new int[bindings.variableCount()];
+    }
+
+    public static IrProgram build(Ast ast, Bindings bindings) {
+        return new IrBuilder(ast, bindings).build();
+    }
+
+    private IrProgram build() {
+        current = program.newBlock();
+        line = ast.line(ast.root());
+        for (int v = 0; v < variables.length; v++) {
+            Type type = bindings.variableType(v);
+            variables[v] = variable(type, ast.text(bindings.declaration(v)));
+            zero(variables[v], type);
+        }
+        for (int n = ast.first(ast.root()); n != Ast.NONE; n = ast.next(n)) statement(n);
+        emit(Op.HALT, null, -1);
+        program.removeUnreachable();
+        program.index();
+        return program;
+    }
+
+    private int variable(Type type, String name) {
+        int value = program.newValue(type, name);
+        program.variables.set(value);
+        return value;
+    }
+
+    // ---------------------------------------------------------------
+    // Instrucciones y bloques
+    // ---------------------------------------------------------------
+
+    private Instruction emit(Op op, Type type, int dst, int... args) {
+        Instruction instruction = new Instruction(op, type, dst, args, line);
+        current.code.add(instruction);
+        return instruction;
+    }
+
+    // Instrucción con un temporal nuevo de tipo result como destino
+    private int temp(Op op, Type type, Type result, int... args) {
+        int dst = program.newValue(result, null);
+        emit(op, type, dst, args);
+        return dst;
+    }
+
+    private int constant(Type type, long bits) {
+        int dst = program.newValue(type, null);
+        emit(Op.CONST, type, dst).bits = bits;
+        return dst;
+    }
+
+    private void zero(int variable, Type type) {
+        emit(Op.CONST, type, variable).bits = 0;
+    }
+
+    // Cierra el bloque actual; lo que se emita después queda en un bloque sin predecesores
+    // (inalcanzable) hasta que se elija otro
+    private void jump(Block target) {
+        emit(Op.JUMP, null, -1);
+        Block.link(current, target);
+        current = program.newBlock();
+    }
+
+    private void branchOn(int condition, Block yes, Block no) {
+        emit(Op.BRANCH, null, -1, condition);
+        Block.link(current, yes);
+        Block.link(current, no);
+        current = program.newBlock();
+    }
+
+    // ---------------------------------------------------------------
+    // Sentencias
+    // ---------------------------------------------------------------
+
+    private void statement(int n) {
+        line = ast.line(n);
+        switch (ast.kind(n)) {
+            case BLOCK:
+                for (int c = ast.first(n); c != Ast.NONE; c = ast.next(c)) statement(c);
+                return;
+            case DECLARATION:
+                declaration(n);
+                return;
+            case IF: {
+                Block then = program.newBlock();
+                Block end = program.newBlock();
+                Block otherwise = ast.third(n) != Ast.NONE ? program.newBlock() : end;
+                branch(ast.first(n), then, otherwise);
+                current = then;
+                statement(ast.second(n));
+                jump(end);
+                if (otherwise != end) {
+                    current = otherwise;
+                    statement(ast.third(n));
+                    jump(end);
+                }
+                current = end;
+                return;
+            }
+            case WHILE: {
+                Block header = program.newBlock();
+                Block body = program.newBlock();
+                Block exit = program.newBlock();
+                jump(header);
+                current = header;
+                branch(ast.first(n), body, exit);
+                current = body;
+                if (loopDepth == loopExits.length) loopExits = Arrays.copyOf(loopExits, loopDepth * 2);
+                loopExits[loopDepth++] = exit;
+                statement(ast.second(n));
+                loopDepth--;
+                line = ast.line(n);
+                jump(header);
+                current = exit;
+                return;
+            }
+            case READ: {
+                int v = bindings.variable(ast.first(n));
+                emit(Op.READ, bindings.variableType(v), variables[v]);
+                return;
+            }
+            case WRITE: {
+                int e = ast.first(n);
+                emit(Op.WRITE, bindings.type(e), -1, value(e));
+                return;
+            }
+            case EXPRESSION:
+                value(ast.first(n));
+                return;
+            case BREAK:
+                jump(loopExits[loopDepth - 1]);
+                return;
+            default:
+                throw new IllegalStateException("Sentencia inesperada: " + ast.kind(n));
+        }
+    }
+
+    private void declaration(int n) {
+        int init = ast.second(n);
+        for (int c = ast.first(n); c != Ast.NONE; c = ast.next(c)) {
+            int v = bindings.variable(c);
+            boolean initialized = init != Ast.NONE && ast.next(c) == Ast.NONE;
+            // La inicialización es del último nombre; si lo usa, lo ve en cero
+            if (!initialized || uses(init, v)) zero(variables[v], bindings.variableType(v));
+            if (initialized) store(v, init);
+        }
+    }
+
+    // Evalúa n y lo guarda en la variable v; devuelve el valor guardado
+    private int store(int v, int n) {
+        Type type = bindings.variableType(v);
+        int value = convert(value(n), bindings.type(n), type);
+        emit(Op.COPY, type, variables[v], value);
+        return value;
+    }
+
+    // ---------------------------------------------------------------
+    // Condiciones: saltan a yes o a no
+    // ---------------------------------------------------------------
+
+    private void branch(int n, Block yes, Block no) {
+        switch (ast.kind(n)) {
+            case BOOL_LITERAL:
+                jump(ast.data(n) != 0 ? yes : no);
+                return;
+            case NOT:
+                branch(ast.first(n), no, yes);
+                return;
+            case BINARY: {
+                TokenType op = ast.operator(n);
+                if (op == TokenType.ANDAND || op == TokenType.OROR) {
+                    Block middle = program.newBlock();
+                    if (op == TokenType.ANDAND) branch(ast.first(n), middle, no);
+                    else branch(ast.first(n), yes, middle);
+                    current = middle;
+                    branch(ast.second(n), yes, no);
+                    return;
+                }
+                break;
+            }
+            default:
+                break;
+        }
+        branchOn(value(n), yes, no);
+    }
+
+    // ---------------------------------------------------------------
+    // Expresiones: devuelven el valor con el resultado
+    // ---------------------------------------------------------------
+
+    private int value(int n) {
+        switch (ast.kind(n)) {
+            case INT_LITERAL:
+                return constant(bindings.type(n), Long.parseLong(ast.text(n)));
+            case REAL_LITERAL:
+                return constant(Type.DOUBLE, Double.doubleToRawLongBits(Double.parseDouble(ast.text(n))));
+            case BOOL_LITERAL:
+                return constant(Type.BOOLEAN, ast.data(n));
+            case STRING_LITERAL: {
+                int dst = program.newValue(Type.STRING, null);
+                emit(Op.CONST, Type.STRING, dst).text = ast.text(n);
+                return dst;
+            }
+            case NAME:
+                return variables[bindings.variable(n)];
+            case NOT:
+                return temp(Op.NOT, Type.BOOLEAN, Type.BOOLEAN, value(ast.first(n)));
+            case ASSIGN:
+                return assignment(n);
+            case BINARY:
+                return binary(n);
+            default:
+                throw new IllegalStateException("Expresión inesperada: " + ast.kind(n));
+        }
+    }
+
+    private int assignment(int n) {
+        int v = bindings.variable(ast.first(n));
+        TokenType op = ast.operator(n);
+        if (op == TokenType.ASSIGN) return store(v, ast.second(n));
+        Type type = bindings.variableType(v);
+        int rhs = ast.second(n);
+        int a = stable(variables[v], rhs);
+        int b = convert(value(rhs), bindings.type(rhs), type);
+        line = ast.line(n);
+        int result = temp(arithmetic(op), type, type, a, b);
+        emit(Op.COPY, type, variables[v], result);
+        return result;
+    }
+
+    // Si la derecha asigna, una variable a la izquierda tiene que leerse antes de que cambie
+    private int stable(int value, int right) {
+        if (!program.variables.get(value) || !hasAssign(right)) return value;
+        return temp(Op.COPY, program.type(value), program.type(value), value);
+    }
+
+    private int binary(int n) {
+        int base = spineTop;
+        while (ast.kind(n) == NodeKind.BINARY) {
+            if (spineTop == spine.length) spine = Arrays.copyOf(spine, spineTop * 2);
+            spine[spineTop++] = n;
+            n = ast.first(n);
+        }
+        int left = value(n);
+        Type leftType = bindings.type(n);
+        while (spineTop > base) {
+            int op = spine[--spineTop];
+            left = combine(op, left, leftType);
+            leftType = bindings.type(op);
+        }
+        return left;
+    }
+
+    private int combine(int n, int left, Type leftType) {
+        TokenType op = ast.operator(n);
+        int right = ast.second(n);
+        Type rightType = bindings.type(right);
+
+        if (op == TokenType.ANDAND || op == TokenType.OROR) {
+            // El resultado es una variable propia: se asigna en los dos caminos
+            int result = variable(Type.BOOLEAN, null);
+            Block evaluate = program.newBlock();
+            Block end = program.newBlock();
+            emit(Op.COPY, Type.BOOLEAN, result, left);
+            if (op == TokenType.ANDAND) branchOn(left, evaluate, end);
+            else branchOn(left, end, evaluate);
+            current = evaluate;
+            emit(Op.COPY, Type.BOOLEAN, result, value(right));
+            jump(end);
+            current = end;
+            return result;
+        }
+        if (leftType == Type.STRING) {
+            // Sólo hay cadenas literales: la comparación se resuelve al traducir
+            boolean equal = ast.text(ast.first(n)).equals(ast.text(right));
+            return constant(Type.BOOLEAN, equal == (op == TokenType.EQEQ) ? 1 : 0);
+        }
+
+        left = stable(left, right);
+        int b = value(right);
+        line = ast.line(n);
+        Type type = bindings.type(n);
+        if (type == Type.BOOLEAN) {
+            Type common = leftType == Type.DOUBLE || rightType == Type.DOUBLE ? Type.DOUBLE
+                    : leftType == Type.LONG || rightType == Type.LONG ? Type.LONG
+                    : leftType == Type.BOOLEAN ? Type.BOOLEAN : Type.INT;
+            int a = convert(left, leftType, common);
+            b = convert(b, rightType, common);
+            return temp(comparison(op), common, Type.BOOLEAN, a, b);
+        }
+        int a = convert(left, leftType, type);
+        b = convert(b, rightType, type);
+        return temp(arithmetic(op), type, type, a, b);
+    }
+
+    private int convert(int value, Type from, Type to) {
+        if (from == to || to == Type.INT || to == Type.BOOLEAN) return value;
+        if (to == Type.LONG) return temp(Op.I2L, Type.LONG, Type.LONG, value);
+        return temp(from == Type.INT ? Op.I2D : Op.L2D, Type.DOUBLE, Type.DOUBLE, value);
+    }
+
+    private static Op arithmetic(TokenType op) {
+        switch (op) {
+            case PLUS:
+            case PLUSEQ: return Op.ADD;
+            case MINUS:
+            case MINUSEQ: return Op.SUB;
+            case STAR:
+            case STAREQ: return Op.MUL;
+            default: return Op.DIV;
+        }
+    }
+
+    private static Op comparison(TokenType op) {
+        switch (op) {
+            case EQEQ: return Op.EQ;
+            case NEQ:
+            case DIAMOND_NEQ: return Op.NE;
+            case LT: return Op.LT;
+            case LE: return Op.LE;
+            case GT: return Op.GT;
+            default: return Op.GE;
+        }
+    }
+
+    // La expresión contiene una asignación (recorre la cadena izquierda sin recursión)
+    private boolean hasAssign(int n) {
+        while (true) {
+            switch (ast.kind(n)) {
+                case ASSIGN:
+                    return true;
+                case NOT:
+                    n = ast.first(n);
+                    break;
+                case BINARY:
+                    if (hasAssign(ast.second(n))) return true;
+                    n = ast.first(n);
+                    break;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    // La expresión lee la variable v
+    private boolean uses(int n, int v) {
+        while (true) {
+            switch (ast.kind(n)) {
+                case NAME:
+                    return bindings.variable(n) == v;
+                case NOT:
+                    n = ast.first(n);
+                    break;
+                case ASSIGN:
+                    if (bindings.variable(ast.first(n)) == v) return true;
+                    n = ast.second(n);
+                    break;
+                case BINARY:
+                    if (uses(ast.second(n), v)) return true;
+                    n = ast.first(n);
+                    break;
+                default:
+                    return false;
+            }
+        }
+    }
+}
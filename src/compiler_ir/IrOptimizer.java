@@ -0,0 +1,107 @@
+package compiler_ir;
+
+import compiler_semantic.Bindings;
+import compiler_sintactic.Ast;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Traduce un programa verificado a código de tres direcciones, lo pasa a SSA y corre las
+ * pasadas habilitadas (todas por defecto) en el orden de {@link Pass}; si los invariantes de
+ * ciclo movieron algo, las subexpresiones comunes corren otra vez. Mide cada etapa y
+ * cuenta lo que cambió cada pasada; {@link #report()} lo resume.
+ */
+public class IrOptimizer {
+
+    private final Set<Pass> enabled = EnumSet.allOf(Pass.class);
+    private final long[] nanos = new long[Pass.values().length];
+    private final int[] changes = new int[Pass.values().length];
+    private long buildNanos;
+    private long ssaNanos;
+    private int instructionsBefore;
+    private int instructionsAfter;
+
+    public void setEnabled(Pass pass, boolean on) {
+        if (on) enabled.add(pass);
+        else enabled.remove(pass);
+    }
+
+    public boolean isEnabled(Pass pass) {
+        return enabled.contains(pass);
+    }
+
+    public IrProgram compile(Ast ast, Bindings bindings) {
+        long start = System.nanoTime();
+        IrProgram program = IrBuilder.build(ast, bindings);
+        long built = System.nanoTime();
+        Ssa.build(program);
+        long ssa = System.nanoTime();
+        buildNanos = built - start;
+        ssaNanos = ssa - built;
+        instructionsBefore = program.instructionCount();
+        for (Pass pass : Pass.values()) {
+            int k = pass.ordinal();
+            nanos[k] = 0;
+            changes[k] = 0;
+            if (!enabled.contains(pass)) continue;
+            long passStart = System.nanoTime();
+            changes[k] = run(pass, program);
+            nanos[k] = System.nanoTime() - passStart;
+            if (pass == Pass.LOOP_INVARIANT_MOTION && changes[k] > 0 && enabled.contains(Pass.COMMON_SUBEXPRESSIONS)) {
+                // Lo que se subió de ciclos distintos puede repetirse (dos const.int 1 en la
+                // entrada): otra numeración de valores los junta
+                int cse = Pass.COMMON_SUBEXPRESSIONS.ordinal();
+                long again = System.nanoTime();
+                changes[cse] += CommonSubexpressions.run(program);
+                nanos[cse] += System.nanoTime() - again;
+            }
+        }
+        instructionsAfter = program.instructionCount();
+        return program;
+    }
+
+    private static int run(Pass pass, IrProgram program) {
+        switch (pass) {
+            case COPY_PROPAGATION: return CopyPropagation.run(program);
+            case COMMON_SUBEXPRESSIONS: return CommonSubexpressions.run(program);
+            case LOOP_INVARIANT_MOTION: return LoopInvariantMotion.run(program);
+            case DEAD_CODE: return DeadCode.run(program);
+            default: return Liveness.run(program);
+        }
+    }
+
+    public long getNanos(Pass pass) {
+        return nanos[pass.ordinal()];
+    }
+
+    // Instrucciones quitadas o movidas; para LIVENESS, el máximo de valores vivos a la vez
+    public int getChanges(Pass pass) {
+        return changes[pass.ordinal()];
+    }
+
+    public long getBuildNanos() {
+        return buildNanos;
+    }
+
+    public long getSsaNanos() {
+        return ssaNanos;
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-24s %9.3f ms%n", "Traducción", buildNanos / 1e6));
+        sb.append(String.format("%-24s %9.3f ms%n", "SSA", ssaNanos / 1e6));
+        for (Pass pass : Pass.values()) {
+            if (!enabled.contains(pass)) {
+                sb.append(String.format("%-24s %12s%n", pass.getLabel(), "apagada"));
+                continue;
+            }
+            String what = pass == Pass.LIVENESS ? "máximo vivos" : pass == Pass.LOOP_INVARIANT_MOTION ? "movidas" : "quitadas";
+            sb.append(String.format("%-24s %9.3f ms   %d %s%n", pass.getLabel(), nanos[pass.ordinal()] / 1e6,
+                    changes[pass.ordinal()], what));
+        }
+        sb.append(String.format("Instrucciones: %d en SSA, %d al final%n", instructionsBefore, instructionsAfter));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,205 @@
+package compiler_ir;
+
+import compiler_semantic.Type;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Programa en código de tres direcciones: un grafo de bloques básicos que empieza en el
+ * primero. Los valores se numeran desde cero; cada uno tiene un tipo y, si viene de una
+ * variable del programa, su nombre (para el listado).
+ *
+ * Recién construido por {@link IrBuilder} las variables del programa son valores que se
+ * asignan varias veces; después de {@link Ssa#build} cada valor tiene una sola definición.
+ */
+public final class IrProgram {
+
+    final List<Block> blocks = new ArrayList<>();
+    private Type[] types = new Type[64];
+    private String[] names = new String[64];
+    private int valueCount;
+
+    // Valores que son variables del programa (o resultados de && y ||) y se asignan más de una vez
+    // hasta que Ssa los renombra
+    final BitSet variables = new BitSet();
+
+    // Definición de cada valor; se arma con index()
+    private Instruction[] definitions = new Instruction[0];
+
+    // Resultado de Liveness: valores vivos al entrar y al salir de cada bloque (por id)
+    BitSet[] liveIn;
+    BitSet[] liveOut;
+
+    int newValue(Type type, String name) {
+        if (valueCount == types.length) {
+            types = Arrays.copyOf(types, valueCount * 2);
+            names = Arrays.copyOf(names, valueCount * 2);
+        }
+        types[valueCount] = type;
+        names[valueCount] = name;
+        return valueCount++;
+    }
+
+    Block newBlock() {
+        Block block = new Block(blocks.size());
+        blocks.add(block);
+        return block;
+    }
+
+    public Block entry() {
+        return blocks.get(0);
+    }
+
+    public List<Block> getBlocks() {
+        return blocks;
+    }
+
+    public int valueCount() {
+        return valueCount;
+    }
+
+    public Type type(int value) {
+        return types[value];
+    }
+
+    public String name(int value) {
+        return names[value];
+    }
+
+    public int instructionCount() {
+        int count = 0;
+        for (Block block : blocks) count += block.code.size();
+        return count;
+    }
+
+    // Instrucción que define el valor (null si ninguna), según el último index()
+    public Instruction definition(int value) {
+        return value < definitions.length ? definitions[value] : null;
+    }
+
+    void index() {
+        definitions = new Instruction[valueCount];
+        for (Block block : blocks) {
+            for (Instruction instruction : block.code) {
+                if (instruction.dst >= 0) definitions[instruction.dst] = instruction;
+            }
+        }
+    }
+
+    // Cambia cada uso de v por replacement[v] cuando no es -1 (ya resuelto hasta el final de la cadena)
+    void replaceUses(int[] replacement) {
+        for (Block block : blocks) {
+            for (Instruction instruction : block.code) {
+                int[] args = instruction.args;
+                for (int k = 0; k < args.length; k++) {
+                    if (args[k] < replacement.length && replacement[args[k]] >= 0) args[k] = replacement[args[k]];
+                }
+            }
+        }
+    }
+
+    // Quita los bloques a los que no se llega desde la entrada y renumera los demás
+    void removeUnreachable() {
+        BitSet reached = new BitSet();
+        List<Block> work = new ArrayList<>();
+        work.add(entry());
+        reached.set(0);
+        while (!work.isEmpty()) {
+            Block block = work.remove(work.size() - 1);
+            for (Block next : block.successors) {
+                if (!reached.get(next.id)) {
+                    reached.set(next.id);
+                    work.add(next);
+                }
+            }
+        }
+        List<Block> kept = new ArrayList<>();
+        for (Block block : blocks) {
+            if (reached.get(block.id)) {
+                kept.add(block);
+            } else {
+                for (Block next : block.successors) removePredecessor(next, block);
+            }
+        }
+        blocks.clear();
+        blocks.addAll(kept);
+        for (int k = 0; k < blocks.size(); k++) blocks.get(k).id = k;
+        liveIn = null;
+        liveOut = null;
+    }
+
+    // Saca pred de la lista de predecesores de block junto con su argumento en cada PHI
+    static void removePredecessor(Block block, Block pred) {
+        int k = block.predecessors.indexOf(pred);
+        if (k < 0) return;
+        block.predecessors.remove(k);
+        for (Instruction instruction : block.code) {
+            if (instruction.op != Op.PHI) break;
+            int[] args = new int[instruction.args.length - 1];
+            System.arraycopy(instruction.args, 0, args, 0, k);
+            System.arraycopy(instruction.args, k + 1, args, k, args.length - k);
+            instruction.args = args;
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Listado
+    // ---------------------------------------------------------------
+
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        for (Block block : blocks) {
+            sb.append('b').append(block.id).append(':');
+            if (!block.predecessors.isEmpty()) {
+                sb.append("    ; desde");
+                for (Block pred : block.predecessors) sb.append(" b").append(pred.id);
+            }
+            sb.append('\n');
+            if (liveIn != null) values(sb.append("    ; vivos al entrar:"), liveIn[block.id]).append('\n');
+            for (Instruction instruction : block.code) {
+                sb.append("    ");
+                instruction(sb, block, instruction);
+                sb.append('\n');
+            }
+            if (liveOut != null) values(sb.append("    ; vivos al salir:"), liveOut[block.id]).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private StringBuilder values(StringBuilder sb, BitSet set) {
+        for (int v = set.nextSetBit(0); v >= 0; v = set.nextSetBit(v + 1)) value(sb.append(' '), v);
+        return sb;
+    }
+
+    private void instruction(StringBuilder sb, Block block, Instruction instruction) {
+        if (instruction.dst >= 0) value(sb, instruction.dst).append(" = ");
+        sb.append(instruction.op.getLabel());
+        if (instruction.type != null) sb.append('.').append(instruction.type.getName());
+        switch (instruction.op) {
+            case CONST:
+                sb.append(' ').append(instruction.constant());
+                break;
+            case PHI:
+                for (int k = 0; k < instruction.args.length; k++) {
+                    sb.append(" [b").append(block.predecessors.get(k).id).append(": ");
+                    value(sb, instruction.args[k]).append(']');
+                }
+                break;
+            default:
+                for (int k = 0; k < instruction.args.length; k++) value(sb.append(k == 0 ? " " : ", "), instruction.args[k]);
+                for (Block next : block.successors) {
+                    if (instruction.op.isTerminator()) sb.append(" b").append(next.id);
+                }
+                break;
+        }
+        if (instruction.line > 0 && instruction.op != Op.PHI) sb.append("    ; línea ").append(instruction.line);
+    }
+
+    // Los valores de una variable llevan su nombre (suma.7); los temporales, t y el número
+    private StringBuilder value(StringBuilder sb, int v) {
+        return names[v] != null ? sb.append(names[v]).append('.').append(v) : sb.append('t').append(v);
+    }
+}
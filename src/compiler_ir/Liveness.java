@@ -0,0 +1,73 @@
+package compiler_ir;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Valores vivos al entrar y al salir de cada bloque (análisis hacia atrás hasta punto fijo).
+ * El argumento de un PHI se cuenta como usado al final del predecesor correspondiente, no
+ * al entrar al bloque del PHI. Deja el resultado en el programa para el listado.
+ */
+final class Liveness {
+
+    private Liveness() {
+    }
+
+    // Devuelve el máximo de valores vivos a la vez en un borde de bloque
+    static int run(IrProgram program) {
+        List<Block> blocks = program.blocks;
+        int count = blocks.size();
+        BitSet[] in = new BitSet[count];
+        BitSet[] out = new BitSet[count];
+        BitSet[] defined = new BitSet[count];
+        BitSet[] used = new BitSet[count];
+        for (Block block : blocks) {
+            BitSet def = new BitSet();
+            BitSet use = new BitSet();
+            for (Instruction instruction : block.code) {
+                if (instruction.op != Op.PHI) {
+                    for (int a : instruction.args) {
+                        if (!def.get(a)) use.set(a);
+                    }
+                }
+                if (instruction.dst >= 0) def.set(instruction.dst);
+            }
+            defined[block.id] = def;
+            used[block.id] = use;
+            in[block.id] = (BitSet) use.clone();
+            out[block.id] = new BitSet();
+        }
+        Block[] order = new Dominators(program).order;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int k = order.length - 1; k >= 0; k--) {
+                Block block = order[k];
+                BitSet live = new BitSet();
+                for (Block succ : block.successors) {
+                    BitSet entering = (BitSet) in[succ.id].clone();
+                    int p = succ.predecessors.indexOf(block);
+                    for (Instruction phi : succ.code) {
+                        if (phi.op != Op.PHI) break;
+                        entering.clear(phi.dst);
+                        entering.set(phi.args[p]);
+                    }
+                    live.or(entering);
+                }
+                out[block.id] = live;
+                BitSet entering = (BitSet) live.clone();
+                entering.andNot(defined[block.id]);
+                entering.or(used[block.id]);
+                if (!entering.equals(in[block.id])) {
+                    in[block.id] = entering;
+                    changed = true;
+                }
+            }
+        }
+        program.liveIn = in;
+        program.liveOut = out;
+        int max = 0;
+        for (int b = 0; b < count; b++) max = Math.max(max, Math.max(in[b].cardinality(), out[b].cardinality()));
+        return max;
+    }
+}
@@ -0,0 +1,163 @@
+package compiler_ir;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Saca de los ciclos las operaciones puras que no dependen de nada calculado dentro: van al
+ * bloque previo a la cabecera (se crea si hace falta). Los ciclos son los naturales de cada
+ * arco de vuelta; se procesan de adentro hacia afuera para que lo sacado de un ciclo interno
+ * pueda seguir saliendo. Las divisiones que pueden fallar se quedan donde están.
+ */
+final class LoopInvariantMotion {
+
+    private LoopInvariantMotion() {
+    }
+
+    // Devuelve cuántas instrucciones sacó
+    static int run(IrProgram program) {
+        List<Loop> loops = loops(program, new Dominators(program));
+        if (loops.isEmpty()) return 0;
+        boolean added = false;
+        for (Loop loop : loops) added |= addPreheader(program, loop);
+        Dominators dominators = new Dominators(program);
+        if (added) loops = loops(program, dominators);
+
+        int[] where = new int[program.valueCount()];
+        Arrays.fill(where, -1);
+        for (Block block : program.blocks) {
+            for (Instruction instruction : block.code) {
+                if (instruction.dst >= 0) where[instruction.dst] = block.id;
+            }
+        }
+        int hoisted = 0;
+        for (Loop loop : loops) {
+            Block preheader = preheader(loop);
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (Block block : dominators.order) {
+                    if (!loop.body.get(block.id)) continue;
+                    for (int k = 0; k < block.code.size(); k++) {
+                        Instruction instruction = block.code.get(k);
+                        if (!invariant(program, instruction, loop, where)) continue;
+                        block.code.remove(k--);
+                        preheader.insertBeforeTerminator(instruction);
+                        where[instruction.dst] = preheader.id;
+                        hoisted++;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        program.index();
+        return hoisted;
+    }
+
+    private static boolean invariant(IrProgram program, Instruction instruction, Loop loop, int[] where) {
+        if (!instruction.op.isPure() || instruction.canFail(program)) return false;
+        for (int a : instruction.args) {
+            if (where[a] >= 0 && loop.body.get(where[a])) return false;
+        }
+        return true;
+    }
+
+    private static final class Loop {
+        final Block header;
+        final BitSet body = new BitSet();
+
+        Loop(Block header) {
+            this.header = header;
+        }
+    }
+
+    // Ciclos naturales, uno por cabecera, del más chico al más grande
+    private static List<Loop> loops(IrProgram program, Dominators dominators) {
+        List<Loop> loops = new ArrayList<>();
+        Loop[] byHeader = new Loop[program.blocks.size()];
+        for (Block latch : dominators.order) {
+            for (Block header : latch.successors) {
+                if (!dominators.dominates(header.id, latch.id)) continue;
+                Loop loop = byHeader[header.id];
+                if (loop == null) {
+                    loop = byHeader[header.id] = new Loop(header);
+                    loop.body.set(header.id);
+                    loops.add(loop);
+                }
+                // Todo lo que llega al arco de vuelta sin pasar por la cabecera
+                List<Block> work = new ArrayList<>();
+                if (!loop.body.get(latch.id)) {
+                    loop.body.set(latch.id);
+                    work.add(latch);
+                }
+                while (!work.isEmpty()) {
+                    Block block = work.remove(work.size() - 1);
+                    for (Block pred : block.predecessors) {
+                        if (!loop.body.get(pred.id)) {
+                            loop.body.set(pred.id);
+                            work.add(pred);
+                        }
+                    }
+                }
+            }
+        }
+        loops.sort((a, b) -> Integer.compare(a.body.cardinality(), b.body.cardinality()));
+        return loops;
+    }
+
+    // Predecesor de la cabecera que está fuera del ciclo, si es el único y sólo salta a ella
+    private static Block preheader(Loop loop) {
+        Block found = null;
+        for (Block pred : loop.header.predecessors) {
+            if (loop.body.get(pred.id)) continue;
+            if (found != null) return null;
+            found = pred;
+        }
+        return found != null && found.successors.size() == 1 ? found : null;
+    }
+
+    // Si no hay un bloque previo propio, lo crea: los predecesores de afuera pasan a saltar a él
+    // y los PHI de la cabecera juntan sus argumentos en un PHI del bloque nuevo
+    private static boolean addPreheader(IrProgram program, Loop loop) {
+        if (preheader(loop) != null) return false;
+        Block header = loop.header;
+        Block preheader = program.newBlock();
+        List<Block> inside = new ArrayList<>();
+        for (Block pred : header.predecessors) {
+            if (loop.body.get(pred.id)) {
+                inside.add(pred);
+            } else {
+                pred.successors.set(pred.successors.indexOf(header), preheader);
+                preheader.predecessors.add(pred);
+            }
+        }
+        for (Instruction phi : header.code) {
+            if (phi.op != Op.PHI) break;
+            int[] outside = new int[preheader.predecessors.size()];
+            int[] args = new int[inside.size() + 1];
+            int o = 0;
+            int i = 0;
+            for (int k = 0; k < header.predecessors.size(); k++) {
+                if (loop.body.get(header.predecessors.get(k).id)) args[i++] = phi.args[k];
+                else outside[o++] = phi.args[k];
+            }
+            int merged = outside[0];
+            for (int a : outside) {
+                if (a != merged) {
+                    merged = program.newValue(phi.type, program.name(phi.dst));
+                    preheader.code.add(new Instruction(Op.PHI, phi.type, merged, outside, 0));
+                    break;
+                }
+            }
+            args[i] = merged;
+            phi.args = args;
+        }
+        header.predecessors.clear();
+        header.predecessors.addAll(inside);
+        preheader.code.add(new Instruction(Op.JUMP, null, -1, new int[0], 0));
+        Block.link(preheader, header);
+        return true;
+    }
+}
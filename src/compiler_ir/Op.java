@@ -0,0 +1,53 @@
+package compiler_ir;
+
+/**
+ * Operaciones del código de tres direcciones. Cada instrucción define a lo sumo un valor
+ * (dst) a partir de sus argumentos; las de control (JUMP, BRANCH, HALT) cierran un bloque.
+ */
+public enum Op {
+    CONST("const"),   // dst = constante (bits o texto)
+    COPY("copy"),     // dst = a
+    NOT("not"),       // dst = !a
+    ADD("add"),       // dst = a op b, con a y b del tipo de la instrucción
+    SUB("sub"),
+    MUL("mul"),
+    DIV("div"),
+    EQ("eq"),         // dst (boolean) = a cmp b
+    NE("ne"),
+    LT("lt"),
+    LE("le"),
+    GT("gt"),
+    GE("ge"),
+    I2L("i2l"),       // dst = a ensanchado
+    I2D("i2d"),
+    L2D("l2d"),
+    PHI("phi"),       // dst = el argumento del predecesor por el que se llegó
+    READ("read"),     // dst = palabra leída de la entrada
+    WRITE("write"),   // escribe a
+    JUMP("jump"),     // salta al único sucesor
+    BRANCH("branch"), // salta al primer sucesor si a es verdadero, si no al segundo
+    HALT("halt");
+
+    private final String label;
+
+    Op(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isTerminator() {
+        return this == JUMP || this == BRANCH || this == HALT;
+    }
+
+    // Sin efectos: el resultado sólo depende de los argumentos (DIV puede fallar, ver Instruction.canFail)
+    public boolean isPure() {
+        return ordinal() <= L2D.ordinal();
+    }
+
+    public boolean isCommutative() {
+        return this == ADD || this == MUL || this == EQ || this == NE;
+    }
+}
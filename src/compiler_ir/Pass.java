@@ -0,0 +1,36 @@
+package compiler_ir;
+
+/**
+ * Pasadas de {@link IrOptimizer}, en el orden en que corren. El nombre corto es el que se usa
+ * en la línea de comandos.
+ */
+public enum Pass {
+    COPY_PROPAGATION("copy", "Propagación de copias"),
+    COMMON_SUBEXPRESSIONS("cse", "Subexpresiones comunes"),
+    LOOP_INVARIANT_MOTION("licm", "Invariantes de ciclo"),
+    DEAD_CODE("dce", "Código muerto"),
+    LIVENESS("liveness", "Vivacidad");
+
+    private final String name;
+    private final String label;
+
+    Pass(String name, String label) {
+        this.name = name;
+        this.label = label;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static Pass byName(String name) {
+        for (Pass pass : values()) {
+            if (pass.name.equals(name)) return pass;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,165 @@
+package compiler_ir;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pasa a forma SSA: pone PHI para cada variable en la frontera de dominancia de sus
+ * definiciones, sólo donde la variable está viva (SSA podada), y renombra recorriendo el
+ * árbol de dominadores para que cada definición cree un valor nuevo.
+ */
+public final class Ssa {
+
+    private Ssa() {
+    }
+
+    public static void build(IrProgram program) {
+        List<Block> blocks = program.blocks;
+        int count = blocks.size();
+        Dominators dominators = new Dominators(program);
+        BitSet[] frontiers = dominators.frontiers();
+        BitSet variables = program.variables;
+
+        // Variables definidas en cada bloque y vivas a su entrada
+        BitSet[] defined = new BitSet[count];
+        BitSet[] live = liveVariables(program, dominators.order, defined);
+
+        Map<Instruction, Integer> phis = new IdentityHashMap<>();
+        int[] work = new int[count];
+        for (int v = variables.nextSetBit(0); v >= 0; v = variables.nextSetBit(v + 1)) {
+            BitSet placed = new BitSet();
+            BitSet queued = new BitSet();
+            int top = 0;
+            for (int b = 0; b < count; b++) {
+                if (defined[b].get(v)) {
+                    queued.set(b);
+                    work[top++] = b;
+                }
+            }
+            while (top > 0) {
+                BitSet frontier = frontiers[work[--top]];
+                for (int b = frontier.nextSetBit(0); b >= 0; b = frontier.nextSetBit(b + 1)) {
+                    if (placed.get(b) || !live[b].get(v)) continue;
+                    placed.set(b);
+                    Block block = blocks.get(b);
+                    int[] args = new int[block.predecessors.size()];
+                    Arrays.fill(args, v);
+                    Instruction phi = new Instruction(Op.PHI, program.type(v), v, args, 0);
+                    block.code.add(0, phi);
+                    phis.put(phi, v);
+                    if (!queued.get(b)) {
+                        queued.set(b);
+                        work[top++] = b;
+                    }
+                }
+            }
+        }
+        rename(program, dominators, phis);
+        program.variables.clear();
+        program.index();
+    }
+
+    // Renombra en preorden del árbol de dominadores; cada variable tiene una pila con su
+    // valor actual y al salir de un bloque se deshacen las definiciones que hizo
+    private static void rename(IrProgram program, Dominators dominators, Map<Instruction, Integer> phis) {
+        BitSet variables = program.variables;
+        int[] current = new int[program.valueCount()];
+        Arrays.fill(current, -1);
+        int[] undo = new int[64];
+        int undoTop = 0;
+
+        int count = program.blocks.size();
+        Block[] stack = new Block[count];
+        int[] next = new int[count];
+        int[] marks = new int[count];
+        int top = 0;
+        stack[top] = program.entry();
+        next[top] = -1;
+        top++;
+        while (top > 0) {
+            Block block = stack[top - 1];
+            if (next[top - 1] < 0) {
+                marks[top - 1] = undoTop;
+                for (Instruction instruction : block.code) {
+                    if (instruction.op != Op.PHI) {
+                        for (int k = 0; k < instruction.args.length; k++) {
+                            int a = instruction.args[k];
+                            if (variables.get(a)) instruction.args[k] = current[a];
+                        }
+                    }
+                    int v = instruction.dst;
+                    if (v >= 0 && variables.get(v)) {
+                        if (undoTop + 2 > undo.length) undo = Arrays.copyOf(undo, undo.length * 2);
+                        undo[undoTop++] = v;
+                        undo[undoTop++] = current[v];
+                        instruction.dst = program.newValue(program.type(v), program.name(v));
+                        current[v] = instruction.dst;
+                    }
+                }
+                for (Block succ : block.successors) {
+                    int k = succ.predecessors.indexOf(block);
+                    for (Instruction phi : succ.code) {
+                        if (phi.op != Op.PHI) break;
+                        Integer v = phis.get(phi);
+                        if (v != null) phi.args[k] = current[v];
+                    }
+                }
+                next[top - 1] = 0;
+            }
+            List<Block> children = dominators.children.get(block.id);
+            if (next[top - 1] < children.size()) {
+                Block child = children.get(next[top - 1]++);
+                stack[top] = child;
+                next[top] = -1;
+                top++;
+            } else {
+                top--;
+                while (undoTop > marks[top]) {
+                    int previous = undo[--undoTop];
+                    current[undo[--undoTop]] = previous;
+                }
+            }
+        }
+    }
+
+    // Vivas a la entrada de cada bloque, contando sólo las variables; llena defined
+    private static BitSet[] liveVariables(IrProgram program, Block[] order, BitSet[] defined) {
+        List<Block> blocks = program.blocks;
+        int count = blocks.size();
+        BitSet variables = program.variables;
+        BitSet[] used = new BitSet[count];
+        for (Block block : blocks) {
+            BitSet def = new BitSet();
+            BitSet use = new BitSet();
+            for (Instruction instruction : block.code) {
+                for (int a : instruction.args) {
+                    if (variables.get(a) && !def.get(a)) use.set(a);
+                }
+                if (instruction.dst >= 0 && variables.get(instruction.dst)) def.set(instruction.dst);
+            }
+            defined[block.id] = def;
+            used[block.id] = use;
+        }
+        BitSet[] in = new BitSet[count];
+        for (int b = 0; b < count; b++) in[b] = (BitSet) used[b].clone();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int k = order.length - 1; k >= 0; k--) {
+                Block block = order[k];
+                BitSet out = new BitSet();
+                for (Block succ : block.successors) out.or(in[succ.id]);
+                out.andNot(defined[block.id]);
+                out.or(used[block.id]);
+                if (!out.equals(in[block.id])) {
+                    in[block.id] = out;
+                    changed = true;
+                }
+            }
+        }
+        return in;
+    }
+}
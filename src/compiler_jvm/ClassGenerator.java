@@ -0,0 +1,977 @@
+package compiler_jvm;
+
+import compiler_lexer.TokenType;
+import compiler_semantic.Bindings;
+import compiler_semantic.Type;
+import compiler_sintactic.Ast;
+import compiler_sintactic.NodeKind;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static compiler_jvm.MethodBuilder.*;
+
+/**
+ * Traduce un programa ya verificado (AST más {@link Bindings}) a un archivo .class que la
+ * JVM puede cargar y compilar con su JIT. int y boolean van como int, long como long y
+ * double como double; la aritmética es la de Java, así que los resultados coinciden con
+ * los de la máquina virtual.
+ *
+ * La clase no necesita nada fuera del JDK: trae sus propias rutinas de lectura y escritura
+ * (un StringBuilder que se vuelca cada 8 KB y un lector de palabras para los read) y los mismos
+ * mensajes de error de ejecución. main corre el programa con System.in y System.out y
+ * termina con código 2 si hay un error; ejecutar(InputStream, PrintStream) lo corre con
+ * otros flujos y deja pasar el error como RuntimeException.
+ *
+ * Las variables son locales de un solo método. HotSpot no compila con el JIT los métodos de
+ * más de 8000 bytes, así que si el programa no entra en ese tamaño las variables pasan a ser
+ * campos estáticos, las sentencias de primer nivel se reparten en varios métodos y cada
+ * while demasiado grande va a un método propio.
+ */
+public class ClassGenerator {
+
+    private static final int PUBLIC_STATIC = 0x0009;
+    private static final int PRIVATE_STATIC = 0x000A;
+    private static final int FLUSH_AT = 8192;
+    // Tamaño máximo de un método que HotSpot acepta compilar (HugeMethodLimit)
+    private static final int JIT_LIMIT = 8000;
+
+    private static final String STRING = "java/lang/String";
+    private static final String BUILDER = "java/lang/StringBuilder";
+    private static final String READER = "java/io/BufferedReader";
+    private static final String ERROR = "java/lang/RuntimeException";
+
+    private final Ast ast;
+    private final Bindings bindings;
+    private final String className;
+    private final ConstantPool pool = new ConstantPool();
+    private final List<MethodBuilder> methods = new ArrayList<>();
+
+    // Método en construcción y dónde vive cada variable: una local o (si split) un campo
+    private MethodBuilder m;
+    private final boolean split;
+    private final int[] slots;
+
+    // En split: tamaño medido de cada sentencia (0 si no se midió) y while que es el cuerpo
+    // del método en construcción
+    private final int[] sizes;
+    private int root = Ast.NONE;
+    private final boolean[] outline;
+    private final List<Integer> outlined = new ArrayList<>();
+
+    // Etiqueta de salida del while más interno, para break
+    private Label[] loopEnds = new Label[8];
+    private int loopDepth;
+
+    // Pila propia para las cadenas de operadores inclinadas a la izquierda
+    private int[] spine = new int[16];
+    private int spineTop;
+
+    private ClassGenerator(Ast ast, Bindings bindings, String className, boolean split) {
+        this.ast = ast;
+        this.bindings = bindings;
+        this.className = className;
+        this.split = split;
+        this.slots = new int[bindings.variableCount()];
+        this.sizes = split ? new int[ast.size()] : null;
+        this.outline = split ? new boolean[ast.size()] : null;
+    }
+
+    /**
+     * Genera la clase className (sin paquete). sourceFile, si no es null, queda como nombre
+     * del fuente en las trazas. Lanza {@link CodeSizeError} si el programa no entra en el
+     * formato .class ni repartido en varios métodos.
+     */
+    public static byte[] generate(Ast ast, Bindings bindings, String className, String sourceFile) {
+        ClassGenerator generator = new ClassGenerator(ast, bindings, className, false);
+        if (!generator.program()) {
+            generator = new ClassGenerator(ast, bindings, className, true);
+            generator.program();
+        }
+        return generator.assemble(sourceFile);
+    }
+
+    // ---------------------------------------------------------------
+    // Clase
+    // ---------------------------------------------------------------
+
+    private byte[] assemble(String sourceFile) {
+        runtime();
+        try {
+            // Los métodos se escriben primero: agregan constantes a la tabla
+            ByteArrayOutputStream body = new ByteArrayOutputStream(4096);
+            DataOutputStream b = new DataOutputStream(body);
+            List<String[]> fields = new ArrayList<>();
+            fields.add(new String[] {"salida", "L" + BUILDER + ";"});
+            fields.add(new String[] {"destino", "Ljava/io/PrintStream;"});
+            fields.add(new String[] {"origen", "Ljava/io/InputStream;"});
+            fields.add(new String[] {"entrada", "L" + READER + ";"});
+            fields.add(new String[] {"palabra", "L" + BUILDER + ";"});
+            if (split) {
+                for (int v = 0; v < slots.length; v++) fields.add(new String[] {fieldName(v), descriptor(v)});
+            }
+            b.writeShort(fields.size());
+            for (String[] field : fields) {
+                b.writeShort(PRIVATE_STATIC);
+                b.writeShort(pool.utf8(field[0]));
+                b.writeShort(pool.utf8(field[1]));
+                b.writeShort(0);
+            }
+            b.writeShort(methods.size());
+            for (MethodBuilder method : methods) method.writeTo(b);
+            if (sourceFile != null) {
+                b.writeShort(1);
+                b.writeShort(pool.utf8("SourceFile"));
+                b.writeInt(2);
+                b.writeShort(pool.utf8(sourceFile));
+            } else {
+                b.writeShort(0);
+            }
+
+            int thisClass = pool.classRef(className);
+            int superClass = pool.classRef("java/lang/Object");
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.size() + 4096);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(52);
+            pool.writeTo(out);
+            out.writeShort(0x0031);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);
+            body.writeTo(out);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private MethodBuilder method(int access, String name, String descriptor) {
+        m = new MethodBuilder(pool, access, name, descriptor);
+        methods.add(m);
+        return m;
+    }
+
+    private String fieldName(int v) {
+        return ast.text(bindings.declaration(v)) + "$" + v;
+    }
+
+    private String descriptor(int v) {
+        switch (bindings.variableType(v)) {
+            case LONG: return "J";
+            case DOUBLE: return "D";
+            default: return "I";
+        }
+    }
+
+    private static int kind(Type type) {
+        switch (type) {
+            case LONG: return LONG;
+            case DOUBLE: return DOUBLE;
+            default: return INT;
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Cuerpo del programa
+    // ---------------------------------------------------------------
+
+    // false si no entra en un método que el JIT compile y hay que repartirlo
+    private boolean program() {
+        if (!split) {
+            method(PRIVATE_STATIC, "programa", "()V");
+            int needed = 0;
+            for (int v = 0; v < slots.length; v++) needed += kind(bindings.variableType(v)) == INT ? 1 : 2;
+            if (needed > 0xFFFF) return false;
+            // Todas las locales empiezan en cero: así cualquier marco puede nombrarlas
+            for (int v = 0; v < slots.length; v++) {
+                int type = kind(bindings.variableType(v));
+                slots[v] = m.local(type);
+                zero(type);
+                m.store(type, slots[v]);
+            }
+            for (int n = ast.first(ast.root()); n != Ast.NONE; n = ast.next(n)) statement(n);
+            m.exit(RETURN);
+            if (m.size() <= JIT_LIMIT) return true;
+            methods.clear();
+            return false;
+        }
+
+        for (int v = 0; v < slots.length; v++) slots[v] = pool.field(className, fieldName(v), descriptor(v));
+        // Las sentencias de primer nivel se juntan en partes mientras entren en el límite
+        List<Integer> parts = new ArrayList<>();
+        int n = ast.first(ast.root());
+        while (n != Ast.NONE) {
+            parts.add(n);
+            int used = measure(n);
+            n = ast.next(n);
+            while (n != Ast.NONE && used + measure(n) < JIT_LIMIT) {
+                used += measure(n);
+                n = ast.next(n);
+            }
+        }
+        for (int p = 0; p < parts.size(); p++) {
+            method(PRIVATE_STATIC, "parte" + p, "()V");
+            int end = p + 1 < parts.size() ? parts.get(p + 1) : Ast.NONE;
+            for (int c = parts.get(p); c != end; c = ast.next(c)) statement(c);
+            finish(parts.get(p));
+        }
+        for (int k = 0; k < outlined.size(); k++) {
+            root = outlined.get(k);
+            method(PRIVATE_STATIC, "bucle" + root, "()V");
+            statement(root);
+            finish(root);
+        }
+        method(PRIVATE_STATIC, "programa", "()V");
+        for (int p = 0; p < parts.size(); p++) m.invoke(INVOKESTATIC, className, "parte" + p, "()V");
+        m.exit(RETURN);
+        return true;
+    }
+
+    private void finish(int first) {
+        m.exit(RETURN);
+        if (m.size() > MAX_CODE) {
+            throw new CodeSizeError("Sentencia demasiado grande para un método en la línea " + ast.line(first));
+        }
+    }
+
+    // Bytes de la sentencia n sola, con sus while grandes ya llevados a otro método
+    private int measure(int n) {
+        if (sizes[n] == 0) {
+            MethodBuilder saved = m;
+            int savedRoot = root;
+            m = new MethodBuilder(pool, PRIVATE_STATIC, "medida", "()V");
+            root = n;
+            statement(n);
+            sizes[n] = Math.max(1, m.size());
+            m = saved;
+            root = savedRoot;
+        }
+        return sizes[n];
+    }
+
+    private void zero(int type) {
+        if (type == LONG) m.longConstant(0);
+        else if (type == DOUBLE) m.doubleConstant(0);
+        else m.intConstant(0);
+    }
+
+    // En split, slots guarda la referencia al campo en la tabla de constantes
+    private void load(int v) {
+        if (split) m.field(GETSTATIC, slots[v], kind(bindings.variableType(v)));
+        else m.load(kind(bindings.variableType(v)), slots[v]);
+    }
+
+    private void store(int v) {
+        if (split) m.field(PUTSTATIC, slots[v], kind(bindings.variableType(v)));
+        else m.store(kind(bindings.variableType(v)), slots[v]);
+    }
+
+    // ---------------------------------------------------------------
+    // Sentencias
+    // ---------------------------------------------------------------
+
+    private void statement(int n) {
+        m.line(ast.line(n));
+        switch (ast.kind(n)) {
+            case BLOCK:
+                for (int c = ast.first(n); c != Ast.NONE; c = ast.next(c)) statement(c);
+                return;
+            case DECLARATION:
+                declaration(n);
+                return;
+            case IF: {
+                Label otherwise = m.newLabel();
+                branch(ast.first(n), otherwise, false);
+                statement(ast.second(n));
+                if (ast.third(n) == Ast.NONE) {
+                    m.place(otherwise);
+                } else {
+                    Label end = m.newLabel();
+                    m.jump(GOTO, end);
+                    m.place(otherwise);
+                    statement(ast.third(n));
+                    m.place(end);
+                }
+                return;
+            }
+            case WHILE: {
+                if (split && n != root && measure(n) > JIT_LIMIT) {
+                    if (!outline[n]) {
+                        outline[n] = true;
+                        outlined.add(n);
+                    }
+                    m.invoke(INVOKESTATIC, className, "bucle" + n, "()V");
+                    return;
+                }
+                Label body = m.newLabel();
+                Label test = m.newLabel();
+                Label end = m.newLabel();
+                m.jump(GOTO, test);
+                m.placeTarget(body);
+                if (loopDepth == loopEnds.length) loopEnds = Arrays.copyOf(loopEnds, loopDepth * 2);
+                loopEnds[loopDepth++] = end;
+                statement(ast.second(n));
+                loopDepth--;
+                m.place(test);
+                m.line(ast.line(n));
+                branch(ast.first(n), body, true);
+                m.place(end);
+                return;
+            }
+            case READ: {
+                int v = bindings.variable(ast.first(n));
+                m.intConstant(ast.line(n));
+                switch (bindings.variableType(v)) {
+                    case INT:
+                        m.invoke(INVOKESTATIC, className, "readInt", "(I)I");
+                        break;
+                    case LONG:
+                        m.invoke(INVOKESTATIC, className, "readLong", "(I)J");
+                        break;
+                    case DOUBLE:
+                        m.invoke(INVOKESTATIC, className, "readDouble", "(I)D");
+                        break;
+                    default:
+                        m.invoke(INVOKESTATIC, className, "readBoolean", "(I)I");
+                        break;
+                }
+                store(v);
+                return;
+            }
+            case WRITE:
+                write(ast.first(n));
+                return;
+            case EXPRESSION: {
+                int e = ast.first(n);
+                if (ast.kind(e) == NodeKind.ASSIGN) {
+                    assignment(e, false);
+                } else {
+                    expression(e);
+                    m.discard();
+                }
+                return;
+            }
+            case BREAK:
+                m.jump(GOTO, loopEnds[loopDepth - 1]);
+                return;
+            default:
+                throw new IllegalStateException("Sentencia inesperada: " + ast.kind(n));
+        }
+    }
+
+    private void declaration(int n) {
+        int init = ast.second(n);
+        for (int c = ast.first(n); c != Ast.NONE; c = ast.next(c)) {
+            int v = bindings.variable(c);
+            Type type = bindings.variableType(v);
+            // La inicialización es del último nombre; si lo usa, lo ve en cero
+            if (init == Ast.NONE || ast.next(c) != Ast.NONE || uses(init, v)) {
+                zero(kind(type));
+                store(v);
+            }
+            if (init != Ast.NONE && ast.next(c) == Ast.NONE) {
+                expression(init);
+                convert(bindings.type(init), type);
+                store(v);
+            }
+        }
+    }
+
+    private void write(int n) {
+        Type type = bindings.type(n);
+        if (type == Type.STRING) {
+            m.stringConstant(ast.text(n));
+            m.invoke(INVOKESTATIC, className, "write", "(L" + STRING + ";)V");
+            return;
+        }
+        expression(n);
+        switch (type) {
+            case INT:
+                m.simple(I2L, 1, LONG);
+                m.invoke(INVOKESTATIC, className, "write", "(J)V");
+                break;
+            case LONG:
+                m.invoke(INVOKESTATIC, className, "write", "(J)V");
+                break;
+            case DOUBLE:
+                m.invoke(INVOKESTATIC, className, "write", "(D)V");
+                break;
+            default:
+                m.invoke(INVOKESTATIC, className, "write", "(Z)V");
+                break;
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Condiciones: saltan a label cuando la condición vale when
+    // ---------------------------------------------------------------
+
+    private void branch(int n, Label label, boolean when) {
+        switch (ast.kind(n)) {
+            case BOOL_LITERAL:
+                if ((ast.data(n) != 0) == when) m.jump(GOTO, label);
+                return;
+            case NOT:
+                branch(ast.first(n), label, !when);
+                return;
+            case BINARY:
+                TokenType op = ast.operator(n);
+                int left = ast.first(n);
+                if (op == TokenType.ANDAND || op == TokenType.OROR) {
+                    // a && b salta por falso si cualquiera es falso; por verdadero necesita los dos
+                    boolean shortCircuit = op == TokenType.ANDAND ? !when : when;
+                    if (shortCircuit) {
+                        branch(left, label, when);
+                        branch(ast.second(n), label, when);
+                    } else {
+                        Label skip = m.newLabel();
+                        branch(left, skip, !when);
+                        branch(ast.second(n), label, when);
+                        m.place(skip);
+                    }
+                    return;
+                }
+                if (isComparison(op) && bindings.type(left) != Type.STRING) {
+                    expression(left);
+                    compare(n, bindings.type(left), label, when);
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        expression(n);
+        m.jump(when ? IFNE : IFEQ, label);
+    }
+
+    // Con el operando izquierdo de la comparación n en la pila: evalúa el derecho y salta
+    private void compare(int n, Type leftType, Label label, boolean when) {
+        TokenType op = ast.operator(n);
+        int right = ast.second(n);
+        Type rightType = bindings.type(right);
+        Type common = leftType == Type.DOUBLE || rightType == Type.DOUBLE ? Type.DOUBLE
+                : leftType == Type.LONG || rightType == Type.LONG ? Type.LONG : Type.INT;
+        convert(leftType, common);
+        expression(right);
+        convert(rightType, common);
+        if (common == Type.INT) {
+            m.jump(IF_ICMPEQ + condition(op, when), label);
+            return;
+        }
+        if (common == Type.LONG) {
+            m.simple(LCMP, 2, INT);
+        } else {
+            // Con NaN, dcmpg da 1 y dcmpl da -1: así < y > dan falso como en Java
+            m.simple(op == TokenType.LT || op == TokenType.LE ? DCMPG : DCMPL, 2, INT);
+        }
+        m.jump(IFEQ + condition(op, when), label);
+    }
+
+    // Desplazamiento del salto (desde ifeq o if_icmpeq) que se toma cuando op vale when
+    private static int condition(TokenType op, boolean when) {
+        switch (op) {
+            case EQEQ: return when ? 0 : 1;
+            case NEQ:
+            case DIAMOND_NEQ: return when ? 1 : 0;
+            case LT: return when ? 2 : 3;
+            case GE: return when ? 3 : 2;
+            case GT: return when ? 4 : 5;
+            default: return when ? 5 : 4;
+        }
+    }
+
+    private static boolean isComparison(TokenType op) {
+        switch (op) {
+            case EQEQ: case NEQ: case DIAMOND_NEQ:
+            case LT: case LE: case GT: case GE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Expresiones: dejan el valor en la pila
+    // ---------------------------------------------------------------
+
+    private void expression(int n) {
+        switch (ast.kind(n)) {
+            case INT_LITERAL:
+                if (bindings.type(n) == Type.LONG) m.longConstant(Long.parseLong(ast.text(n)));
+                else m.intConstant(Integer.parseInt(ast.text(n)));
+                return;
+            case REAL_LITERAL:
+                m.doubleConstant(Double.parseDouble(ast.text(n)));
+                return;
+            case BOOL_LITERAL:
+                m.intConstant(ast.data(n));
+                return;
+            case STRING_LITERAL:
+                m.stringConstant(ast.text(n));
+                return;
+            case NAME:
+                load(bindings.variable(n));
+                return;
+            case NOT:
+                expression(ast.first(n));
+                m.intConstant(1);
+                m.simple(IXOR, 2, INT);
+                return;
+            case ASSIGN:
+                assignment(n, true);
+                return;
+            case BINARY:
+                binary(n);
+                return;
+            default:
+                throw new IllegalStateException("Expresión inesperada: " + ast.kind(n));
+        }
+    }
+
+    // keep: deja el valor asignado en la pila
+    private void assignment(int n, boolean keep) {
+        int v = bindings.variable(ast.first(n));
+        Type type = bindings.variableType(v);
+        int rhs = ast.second(n);
+        TokenType op = ast.operator(n);
+        if (op != TokenType.ASSIGN) load(v);
+        expression(rhs);
+        convert(bindings.type(rhs), type);
+        if (op != TokenType.ASSIGN) arithmetic(op, type, ast.line(n));
+        if (keep) m.dup();
+        store(v);
+    }
+
+    private void binary(int n) {
+        int base = spineTop;
+        while (ast.kind(n) == NodeKind.BINARY) {
+            if (spineTop == spine.length) spine = Arrays.copyOf(spine, spineTop * 2);
+            spine[spineTop++] = n;
+            n = ast.first(n);
+        }
+        Type leftType = bindings.type(n);
+        // Las cadenas sólo se comparan entre literales: el resultado se resuelve al traducir
+        if (leftType != Type.STRING) expression(n);
+        while (spineTop > base) {
+            int op = spine[--spineTop];
+            combine(op, leftType);
+            leftType = bindings.type(op);
+        }
+    }
+
+    private void combine(int n, Type leftType) {
+        TokenType op = ast.operator(n);
+        int right = ast.second(n);
+        Type type = bindings.type(n);
+
+        if (op == TokenType.ANDAND || op == TokenType.OROR) {
+            Label end = m.newLabel();
+            m.dup();
+            m.jump(op == TokenType.ANDAND ? IFEQ : IFNE, end);
+            m.discard();
+            expression(right);
+            m.place(end);
+            return;
+        }
+        if (leftType == Type.STRING) {
+            boolean equal = ast.text(ast.first(n)).equals(ast.text(right));
+            m.intConstant(equal == (op == TokenType.EQEQ) ? 1 : 0);
+            return;
+        }
+        if (isComparison(op)) {
+            Label yes = m.newLabel();
+            Label end = m.newLabel();
+            compare(n, leftType, yes, true);
+            m.intConstant(0);
+            m.jump(GOTO, end);
+            m.place(yes);
+            m.intConstant(1);
+            m.place(end);
+            return;
+        }
+        convert(leftType, type);
+        expression(right);
+        convert(bindings.type(right), type);
+        arithmetic(op, type, ast.line(n));
+    }
+
+    // Operación de op (o de su forma compuesta) con los dos operandos de tipo type en la pila.
+    // La división entera pasa por una rutina que controla el divisor
+    private void arithmetic(TokenType op, Type type, int line) {
+        int offset;
+        switch (op) {
+            case PLUS:
+            case PLUSEQ: offset = 0; break;
+            case MINUS:
+            case MINUSEQ: offset = 1; break;
+            case STAR:
+            case STAREQ: offset = 2; break;
+            default: offset = 3; break;
+        }
+        if (offset == 3 && type == Type.INT) {
+            m.intConstant(line);
+            m.invoke(INVOKESTATIC, className, "idiv", "(III)I");
+        } else if (offset == 3 && type == Type.LONG) {
+            m.intConstant(line);
+            m.invoke(INVOKESTATIC, className, "ldiv", "(JJI)J");
+        } else {
+            int kind = kind(type);
+            int first = type == Type.INT ? IADD : type == Type.LONG ? LADD : DADD;
+            m.simple(first + offset * 4, 2, kind);
+        }
+    }
+
+    private void convert(Type from, Type to) {
+        if (from == to || to == Type.INT || to == Type.BOOLEAN) return;
+        if (to == Type.LONG) {
+            if (from == Type.INT) m.simple(I2L, 1, LONG);
+        } else if (from == Type.INT) {
+            m.simple(I2D, 1, DOUBLE);
+        } else if (from == Type.LONG) {
+            m.simple(L2D, 1, DOUBLE);
+        }
+    }
+
+    // La expresión lee la variable v
+    private boolean uses(int n, int v) {
+        while (true) {
+            switch (ast.kind(n)) {
+                case NAME:
+                    return bindings.variable(n) == v;
+                case NOT:
+                    n = ast.first(n);
+                    break;
+                case ASSIGN:
+                    if (bindings.variable(ast.first(n)) == v) return true;
+                    n = ast.second(n);
+                    break;
+                case BINARY:
+                    if (uses(ast.second(n), v)) return true;
+                    n = ast.first(n);
+                    break;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Rutinas de la clase: main, ejecutar, lectura, escritura y errores
+    // ---------------------------------------------------------------
+
+    private void runtime() {
+        String in = "Ljava/io/InputStream;";
+        String out = "Ljava/io/PrintStream;";
+
+        // main: corre con los flujos estándar; un error va a stderr y sale con 2
+        method(PUBLIC_STATIC, "main", "([L" + STRING + ";)V");
+        m.local(object(pool, "[L" + STRING + ";"));
+        Label start = m.newLabel();
+        Label end = m.newLabel();
+        Label handler = m.newLabel();
+        m.place(start);
+        m.field(GETSTATIC, "java/lang/System", "in", in);
+        m.field(GETSTATIC, "java/lang/System", "out", out);
+        m.invoke(INVOKESTATIC, className, "ejecutar", "(" + in + out + ")V");
+        m.place(end);
+        m.exit(RETURN);
+        m.handler(start, end, handler, ERROR);
+        m.placeHandler(handler, ERROR);
+        m.invoke(INVOKEVIRTUAL, "java/lang/Throwable", "getMessage", "()L" + STRING + ";");
+        m.field(GETSTATIC, "java/lang/System", "err", out);
+        m.swap();
+        m.invoke(INVOKEVIRTUAL, "java/io/PrintStream", "println", "(L" + STRING + ";)V");
+        m.intConstant(2);
+        m.invoke(INVOKESTATIC, "java/lang/System", "exit", "(I)V");
+        m.exit(RETURN);
+
+        // ejecutar: prepara los flujos, corre el programa y vuelca la salida aunque falle
+        method(PUBLIC_STATIC, "ejecutar", "(" + in + out + ")V");
+        m.local(object(pool, "java/io/InputStream"));
+        m.local(object(pool, "java/io/PrintStream"));
+        m.load(object(pool, "java/io/InputStream"), 0);
+        m.field(PUTSTATIC, className, "origen", in);
+        m.load(object(pool, "java/io/PrintStream"), 1);
+        m.field(PUTSTATIC, className, "destino", out);
+        m.newObject(BUILDER);
+        m.dup();
+        m.intConstant(FLUSH_AT + 64);
+        m.invoke(INVOKESPECIAL, BUILDER, "<init>", "(I)V");
+        m.field(PUTSTATIC, className, "salida", "L" + BUILDER + ";");
+        m.simple(ACONST_NULL, 0, object(pool, READER));
+        m.field(PUTSTATIC, className, "entrada", "L" + READER + ";");
+        m.newObject(BUILDER);
+        m.dup();
+        m.invoke(INVOKESPECIAL, BUILDER, "<init>", "()V");
+        m.field(PUTSTATIC, className, "palabra", "L" + BUILDER + ";");
+        start = m.newLabel();
+        end = m.newLabel();
+        handler = m.newLabel();
+        m.place(start);
+        m.invoke(INVOKESTATIC, className, "programa", "()V");
+        m.place(end);
+        m.invoke(INVOKESTATIC, className, "flush", "()V");
+        m.exit(RETURN);
+        m.handler(start, end, handler, "java/lang/Throwable");
+        m.placeHandler(handler, "java/lang/Throwable");
+        m.invoke(INVOKESTATIC, className, "flush", "()V");
+        m.exit(ATHROW);
+
+        flush();
+        writer("J", LONG);
+        writer("D", DOUBLE);
+        writer("Z", INT);
+        writer("L" + STRING + ";", object(pool, STRING));
+        word();
+        reader("readInt", "I", "java/lang/Integer", "parseInt", IRETURN);
+        reader("readLong", "J", "java/lang/Long", "parseLong", LRETURN);
+        reader("readDouble", "D", "java/lang/Double", "parseDouble", DRETURN);
+        readBoolean();
+        divide("idiv", INT);
+        divide("ldiv", LONG);
+        invalid();
+        fail();
+    }
+
+    private void flush() {
+        String sb = "L" + BUILDER + ";";
+        method(PRIVATE_STATIC, "flush", "()V");
+        Label go = m.newLabel();
+        m.field(GETSTATIC, className, "salida", sb);
+        m.invoke(INVOKEVIRTUAL, BUILDER, "length", "()I");
+        m.jump(IFNE, go);
+        m.exit(RETURN);
+        m.place(go);
+        m.field(GETSTATIC, className, "destino", "Ljava/io/PrintStream;");
+        m.field(GETSTATIC, className, "salida", sb);
+        m.invoke(INVOKEVIRTUAL, "java/io/PrintStream", "append", "(Ljava/lang/CharSequence;)Ljava/io/PrintStream;");
+        m.discard();
+        m.field(GETSTATIC, className, "destino", "Ljava/io/PrintStream;");
+        m.invoke(INVOKEVIRTUAL, "java/io/PrintStream", "flush", "()V");
+        m.field(GETSTATIC, className, "salida", sb);
+        m.intConstant(0);
+        m.invoke(INVOKEVIRTUAL, BUILDER, "setLength", "(I)V");
+        m.exit(RETURN);
+    }
+
+    // write(x): agrega x y un salto de línea; vuelca si el buffer pasa de 8 KB
+    private void writer(String type, int kind) {
+        String sb = "L" + BUILDER + ";";
+        method(PRIVATE_STATIC, "write", "(" + type + ")V");
+        m.local(kind);
+        m.field(GETSTATIC, className, "salida", sb);
+        m.load(kind, 0);
+        m.invoke(INVOKEVIRTUAL, BUILDER, "append", "(" + type + ")" + sb);
+        m.intConstant('\n');
+        m.invoke(INVOKEVIRTUAL, BUILDER, "append", "(C)" + sb);
+        m.invoke(INVOKEVIRTUAL, BUILDER, "length", "()I");
+        m.intConstant(FLUSH_AT);
+        Label end = m.newLabel();
+        m.jump(IF_ICMPLE, end);
+        m.invoke(INVOKESTATIC, className, "flush", "()V");
+        m.place(end);
+        m.exit(RETURN);
+    }
+
+    // word(línea): siguiente palabra separada por espacios, o error si se terminó la entrada.
+    // Lee de a un carácter como la máquina virtual: Scanner, con sus expresiones regulares,
+    // se llevaba casi todo el tiempo de los programas con muchos read
+    private void word() {
+        String reader = "L" + READER + ";";
+        String sb = "L" + BUILDER + ";";
+        method(PRIVATE_STATIC, "word", "(I)L" + STRING + ";");
+        int line = m.local(INT);
+        int c = m.local(INT);
+        m.intConstant(0);
+        m.store(INT, c);
+        m.invoke(INVOKESTATIC, className, "flush", "()V");
+        Label ready = m.newLabel();
+        m.field(GETSTATIC, className, "entrada", reader);
+        m.jump(IFNONNULL, ready);
+        m.newObject(READER);
+        m.dup();
+        m.newObject("java/io/InputStreamReader");
+        m.dup();
+        m.field(GETSTATIC, className, "origen", "Ljava/io/InputStream;");
+        m.stringConstant("UTF-8");
+        m.invoke(INVOKESPECIAL, "java/io/InputStreamReader", "<init>", "(Ljava/io/InputStream;L" + STRING + ";)V");
+        m.invoke(INVOKESPECIAL, READER, "<init>", "(Ljava/io/Reader;)V");
+        m.field(PUTSTATIC, className, "entrada", reader);
+        m.place(ready);
+        m.field(GETSTATIC, className, "palabra", sb);
+        m.intConstant(0);
+        m.invoke(INVOKEVIRTUAL, BUILDER, "setLength", "(I)V");
+
+        Label skip = m.newLabel();
+        Label collect = m.newLabel();
+        Label end = m.newLabel();
+        m.placeTarget(skip);
+        nextChar(reader, c, end);
+        m.invoke(INVOKESTATIC, "java/lang/Character", "isWhitespace", "(I)Z");
+        m.jump(IFNE, skip);
+        m.placeTarget(collect);
+        m.field(GETSTATIC, className, "palabra", sb);
+        m.load(INT, c);
+        m.simple(I2C, 1, INT);
+        m.invoke(INVOKEVIRTUAL, BUILDER, "append", "(C)" + sb);
+        m.discard();
+        nextChar(reader, c, end);
+        m.invoke(INVOKESTATIC, "java/lang/Character", "isWhitespace", "(I)Z");
+        m.jump(IFEQ, collect);
+
+        m.place(end);
+        Label found = m.newLabel();
+        m.field(GETSTATIC, className, "palabra", sb);
+        m.invoke(INVOKEVIRTUAL, BUILDER, "length", "()I");
+        m.jump(IFNE, found);
+        m.load(INT, line);
+        m.stringConstant("Fin de la entrada al leer");
+        m.invoke(INVOKESTATIC, className, "fail", "(IL" + STRING + ";)L" + ERROR + ";");
+        m.exit(ATHROW);
+        m.place(found);
+        m.field(GETSTATIC, className, "palabra", sb);
+        m.invoke(INVOKEVIRTUAL, BUILDER, "toString", "()L" + STRING + ";");
+        m.exit(ARETURN);
+    }
+
+    // c = entrada.read(); salta a end si es el final y si no deja c en la pila
+    private void nextChar(String reader, int c, Label end) {
+        m.field(GETSTATIC, className, "entrada", reader);
+        m.invoke(INVOKEVIRTUAL, READER, "read", "()I");
+        m.store(INT, c);
+        m.load(INT, c);
+        m.jump(IFLT, end);
+        m.load(INT, c);
+    }
+
+    // readX(línea): lee una palabra y la convierte con parser; si no se puede, error
+    private void reader(String name, String type, String owner, String parser, int returnOpcode) {
+        method(PRIVATE_STATIC, name, "(I)" + type);
+        int string = object(pool, STRING);
+        m.local(INT);
+        m.local(string);
+        m.load(INT, 0);
+        m.invoke(INVOKESTATIC, className, "word", "(I)L" + STRING + ";");
+        m.store(string, 1);
+        Label start = m.newLabel();
+        Label end = m.newLabel();
+        Label handler = m.newLabel();
+        m.place(start);
+        m.load(string, 1);
+        m.invoke(INVOKESTATIC, owner, parser, "(L" + STRING + ";)" + type);
+        m.place(end);
+        m.exit(returnOpcode);
+        m.handler(start, end, handler, "java/lang/NumberFormatException");
+        m.placeHandler(handler, "java/lang/NumberFormatException");
+        m.discard();
+        m.load(INT, 0);
+        m.load(string, 1);
+        m.invoke(INVOKESTATIC, className, "invalid", "(IL" + STRING + ";)L" + ERROR + ";");
+        m.exit(ATHROW);
+    }
+
+    // Acepta true/1 y false/0, como la máquina virtual
+    private void readBoolean() {
+        method(PRIVATE_STATIC, "readBoolean", "(I)I");
+        int string = object(pool, STRING);
+        m.local(INT);
+        m.local(string);
+        m.load(INT, 0);
+        m.invoke(INVOKESTATIC, className, "word", "(I)L" + STRING + ";");
+        m.store(string, 1);
+        Label yes = m.newLabel();
+        Label no = m.newLabel();
+        String[] words = {"true", "1", "false", "0"};
+        for (int k = 0; k < words.length; k++) {
+            m.load(string, 1);
+            m.stringConstant(words[k]);
+            m.invoke(INVOKEVIRTUAL, STRING, "equals", "(Ljava/lang/Object;)Z");
+            m.jump(IFNE, k < 2 ? yes : no);
+        }
+        m.load(INT, 0);
+        m.load(string, 1);
+        m.invoke(INVOKESTATIC, className, "invalid", "(IL" + STRING + ";)L" + ERROR + ";");
+        m.exit(ATHROW);
+        m.place(yes);
+        m.intConstant(1);
+        m.exit(IRETURN);
+        m.place(no);
+        m.intConstant(0);
+        m.exit(IRETURN);
+    }
+
+    // idiv(a, b, línea) y ldiv: división entera con error si el divisor es cero
+    private void divide(String name, int kind) {
+        String type = kind == INT ? "I" : "J";
+        method(PRIVATE_STATIC, name, "(" + type + type + "I)" + type);
+        int a = m.local(kind);
+        int b = m.local(kind);
+        int line = m.local(INT);
+        Label ok = m.newLabel();
+        m.load(kind, b);
+        if (kind == LONG) {
+            m.longConstant(0);
+            m.simple(LCMP, 2, INT);
+        }
+        m.jump(IFNE, ok);
+        m.load(INT, line);
+        m.stringConstant("División por cero");
+        m.invoke(INVOKESTATIC, className, "fail", "(IL" + STRING + ";)L" + ERROR + ";");
+        m.exit(ATHROW);
+        m.place(ok);
+        m.load(kind, a);
+        m.load(kind, b);
+        m.simple(kind == INT ? IDIV : LDIV, 2, kind);
+        m.exit(kind == INT ? IRETURN : LRETURN);
+    }
+
+    private void invalid() {
+        method(PRIVATE_STATIC, "invalid", "(IL" + STRING + ";)L" + ERROR + ";");
+        int string = object(pool, STRING);
+        m.local(INT);
+        m.local(string);
+        m.load(INT, 0);
+        m.newObject(BUILDER);
+        m.dup();
+        m.stringConstant("Entrada inválida: '");
+        m.invoke(INVOKESPECIAL, BUILDER, "<init>", "(L" + STRING + ";)V");
+        m.load(string, 1);
+        m.invoke(INVOKEVIRTUAL, BUILDER, "append", "(L" + STRING + ";)L" + BUILDER + ";");
+        m.intConstant('\'');
+        m.invoke(INVOKEVIRTUAL, BUILDER, "append", "(C)L" + BUILDER + ";");
+        m.invoke(INVOKEVIRTUAL, BUILDER, "toString", "()L" + STRING + ";");
+        m.invoke(INVOKESTATIC, className, "fail", "(IL" + STRING + ";)L" + ERROR + ";");
+        m.exit(ARETURN);
+    }
+
+    // fail(línea, mensaje): el error con el mismo texto que da la máquina virtual
+    private void fail() {
+        method(PRIVATE_STATIC, "fail", "(IL" + STRING + ";)L" + ERROR + ";");
+        int string = object(pool, STRING);
+        String sb = "L" + BUILDER + ";";
+        m.local(INT);
+        m.local(string);
+        m.newObject(ERROR);
+        m.dup();
+        m.newObject(BUILDER);
+        m.dup();
+        m.stringConstant("Error de ejecución en línea ");
+        m.invoke(INVOKESPECIAL, BUILDER, "<init>", "(L" + STRING + ";)V");
+        m.load(INT, 0);
+        m.invoke(INVOKEVIRTUAL, BUILDER, "append", "(I)" + sb);
+        m.stringConstant(": ");
+        m.invoke(INVOKEVIRTUAL, BUILDER, "append", "(L" + STRING + ";)" + sb);
+        m.load(string, 1);
+        m.invoke(INVOKEVIRTUAL, BUILDER, "append", "(L" + STRING + ";)" + sb);
+        m.invoke(INVOKEVIRTUAL, BUILDER, "toString", "()L" + STRING + ";");
+        m.invoke(INVOKESPECIAL, ERROR, "<init>", "(L" + STRING + ";)V");
+        m.exit(ARETURN);
+    }
+}
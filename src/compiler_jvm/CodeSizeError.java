@@ -0,0 +1,12 @@
+package compiler_jvm;
+
+/**
+ * El programa pasa algún límite del formato .class (tamaño de un método, cantidad de
+ * constantes) y no se puede generar.
+ */
+public class CodeSizeError extends RuntimeException {
+
+    public CodeSizeError(String message) {
+        super(message, null, false, false);
+    }
+}
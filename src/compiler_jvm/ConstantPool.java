@@ -0,0 +1,138 @@
+package compiler_jvm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tabla de constantes de un archivo .class. Cada constante se agrega una sola vez: pedirla
+ * de nuevo devuelve el mismo índice.
+ */
+final class ConstantPool {
+
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD = 9;
+    private static final int METHOD = 10;
+    private static final int NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private final Map<String, Integer> index = new HashMap<>();
+    private int count = 1;
+
+    int utf8(String text) {
+        Integer i = index.get("U" + text);
+        if (i != null) return i;
+        try {
+            out.writeByte(UTF8);
+            out.writeUTF(text);
+        } catch (IOException e) {
+            // writeUTF falla con textos de más de 65535 bytes
+            throw new CodeSizeError("Cadena demasiado larga para un archivo .class");
+        }
+        return put("U" + text, 1);
+    }
+
+    int classRef(String internalName) {
+        int name = utf8(internalName);
+        return entry("C" + internalName, CLASS, name, -1);
+    }
+
+    int string(String text) {
+        int value = utf8(text);
+        return entry("S" + text, STRING, value, -1);
+    }
+
+    int integer(int value) {
+        Integer i = index.get("I" + value);
+        if (i != null) return i;
+        write(INTEGER);
+        writeInt(value);
+        return put("I" + value, 1);
+    }
+
+    // long y double ocupan dos lugares de la tabla
+    int longValue(long value) {
+        Integer i = index.get("J" + value);
+        if (i != null) return i;
+        write(LONG);
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+        return put("J" + value, 2);
+    }
+
+    int doubleValue(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        Integer i = index.get("D" + bits);
+        if (i != null) return i;
+        write(DOUBLE);
+        writeInt((int) (bits >>> 32));
+        writeInt((int) bits);
+        return put("D" + bits, 2);
+    }
+
+    int field(String owner, String name, String descriptor) {
+        return member(FIELD, owner, name, descriptor);
+    }
+
+    int method(String owner, String name, String descriptor) {
+        return member(METHOD, owner, name, descriptor);
+    }
+
+    private int member(int tag, String owner, String name, String descriptor) {
+        int cls = classRef(owner);
+        int nat = entry("N" + name + ' ' + descriptor, NAME_AND_TYPE, utf8(name), utf8(descriptor));
+        return entry(tag + owner + '.' + name + ' ' + descriptor, tag, cls, nat);
+    }
+
+    // Entrada con uno o dos índices de dos bytes
+    private int entry(String key, int tag, int first, int second) {
+        Integer i = index.get(key);
+        if (i != null) return i;
+        write(tag);
+        writeShort(first);
+        if (second >= 0) writeShort(second);
+        return put(key, 1);
+    }
+
+    private int put(String key, int slots) {
+        int i = count;
+        count += slots;
+        if (count > 0xFFFF) throw new CodeSizeError("Demasiadas constantes para un archivo .class");
+        index.put(key, i);
+        return i;
+    }
+
+    void writeTo(DataOutputStream target) throws IOException {
+        target.writeShort(count);
+        bytes.writeTo(target);
+    }
+
+    private void write(int b) {
+        bytes.write(b);
+    }
+
+    private void writeShort(int value) {
+        try {
+            out.writeShort(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeInt(int value) {
+        try {
+            out.writeInt(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
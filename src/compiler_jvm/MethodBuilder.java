@@ -0,0 +1,550 @@
+package compiler_jvm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Arma el código de un método JVM. Lleva la cuenta de los tipos en la pila para calcular
+ * max_stack y escribir la StackMapTable: cada destino de salto recibe un marco completo con
+ * todas las variables locales (que se inicializan al comienzo del método) y la pila de ese
+ * punto.
+ *
+ * Después de un goto, return o athrow el código es inalcanzable hasta la próxima etiqueta
+ * con un salto pendiente; lo que se emita mientras tanto se descarta, así no queda código
+ * muerto sin marco.
+ */
+final class MethodBuilder {
+
+    // Tipos de verificación (los objetos llevan el índice de su clase en los bits altos)
+    static final int TOP = 0;
+    static final int INT = 1;
+    static final int DOUBLE = 3;
+    static final int LONG = 4;
+    static final int OBJECT = 7;
+
+    // Códigos de operación usados por el generador
+    static final int ACONST_NULL = 0x01;
+    static final int ICONST_0 = 0x03;
+    static final int LCONST_0 = 0x09;
+    static final int DCONST_0 = 0x0e;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC = 0x12;
+    static final int LDC_W = 0x13;
+    static final int LDC2_W = 0x14;
+    static final int ILOAD = 0x15;
+    static final int LLOAD = 0x16;
+    static final int DLOAD = 0x18;
+    static final int ALOAD = 0x19;
+    static final int ISTORE = 0x36;
+    static final int LSTORE = 0x37;
+    static final int DSTORE = 0x39;
+    static final int ASTORE = 0x3a;
+    static final int POP = 0x57;
+    static final int POP2 = 0x58;
+    static final int DUP = 0x59;
+    static final int DUP2 = 0x5c;
+    static final int SWAP = 0x5f;
+    static final int IADD = 0x60;
+    static final int LADD = 0x61;
+    static final int DADD = 0x63;
+    static final int ISUB = 0x64;
+    static final int LSUB = 0x65;
+    static final int DSUB = 0x67;
+    static final int IMUL = 0x68;
+    static final int LMUL = 0x69;
+    static final int DMUL = 0x6b;
+    static final int IDIV = 0x6c;
+    static final int LDIV = 0x6d;
+    static final int DDIV = 0x6f;
+    static final int IXOR = 0x82;
+    static final int I2L = 0x85;
+    static final int I2D = 0x87;
+    static final int L2I = 0x88;
+    static final int L2D = 0x8a;
+    static final int I2C = 0x92;
+    static final int LCMP = 0x94;
+    static final int DCMPL = 0x97;
+    static final int DCMPG = 0x98;
+    static final int IFEQ = 0x99;
+    static final int IFNE = 0x9a;
+    static final int IFLT = 0x9b;
+    static final int IFGE = 0x9c;
+    static final int IFGT = 0x9d;
+    static final int IFLE = 0x9e;
+    static final int IF_ICMPEQ = 0x9f;
+    static final int IF_ICMPNE = 0xa0;
+    static final int IF_ICMPLT = 0xa1;
+    static final int IF_ICMPGE = 0xa2;
+    static final int IF_ICMPGT = 0xa3;
+    static final int IF_ICMPLE = 0xa4;
+    static final int GOTO = 0xa7;
+    static final int IRETURN = 0xac;
+    static final int LRETURN = 0xad;
+    static final int DRETURN = 0xaf;
+    static final int ARETURN = 0xb0;
+    static final int RETURN = 0xb1;
+    static final int GETSTATIC = 0xb2;
+    static final int PUTSTATIC = 0xb3;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC = 0xb8;
+    static final int NEW = 0xbb;
+    static final int ATHROW = 0xbf;
+    static final int IFNULL = 0xc6;
+    static final int IFNONNULL = 0xc7;
+
+    // Los saltos usan desplazamientos de 16 bits: el método no puede pasar de este tamaño
+    static final int MAX_CODE = 32767;
+
+    /**
+     * Posición del código. Guarda la pila con la que llegan los saltos y dónde corregir
+     * el desplazamiento de cada uno cuando se conozca la posición.
+     */
+    static final class Label {
+        int position = -1;
+        int[] stack;
+        boolean framed;
+        private int[] jumps = new int[2];
+        private int jumpCount;
+    }
+
+    private final ConstantPool pool;
+    private final int access;
+    private final String name;
+    private final String descriptor;
+
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream(256);
+    private int[] locals = new int[8];
+    private int localSlots;
+    private int[] stack = new int[16];
+    private int depth;
+    private int slots;
+    private int maxSlots;
+    private boolean live = true;
+
+    private final List<Label> labels = new ArrayList<>();
+    private final List<int[]> frames = new ArrayList<>();
+    private final List<Handler> handlers = new ArrayList<>();
+    private final List<int[]> lineNumbers = new ArrayList<>();
+
+    MethodBuilder(ConstantPool pool, int access, String name, String descriptor) {
+        this.pool = pool;
+        this.access = access;
+        this.name = name;
+        this.descriptor = descriptor;
+    }
+
+    // Reserva una variable local (o un parámetro, en orden) y devuelve su posición
+    int local(int type) {
+        int slot = localSlots;
+        int needed = slot + 2;
+        if (needed > locals.length) locals = Arrays.copyOf(locals, Math.max(needed, locals.length * 2));
+        locals[slot] = type;
+        localSlots += isWide(type) ? 2 : 1;
+        if (isWide(type)) locals[slot + 1] = TOP;
+        return slot;
+    }
+
+    int size() {
+        return code.size();
+    }
+
+    boolean isLive() {
+        return live;
+    }
+
+    static int object(ConstantPool pool, String internalName) {
+        return OBJECT | pool.classRef(internalName) << 8;
+    }
+
+    private static boolean isWide(int type) {
+        return type == LONG || type == DOUBLE;
+    }
+
+    // ---------------------------------------------------------------
+    // Pila
+    // ---------------------------------------------------------------
+
+    private void push(int type) {
+        if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+        stack[depth++] = type;
+        slots += isWide(type) ? 2 : 1;
+        if (slots > maxSlots) maxSlots = slots;
+    }
+
+    private void pop(int count) {
+        for (int k = 0; k < count; k++) {
+            slots -= isWide(stack[--depth]) ? 2 : 1;
+        }
+    }
+
+    int top() {
+        return stack[depth - 1];
+    }
+
+    // ---------------------------------------------------------------
+    // Instrucciones
+    // ---------------------------------------------------------------
+
+    void intConstant(int value) {
+        if (!live) return;
+        if (value >= -1 && value <= 5) {
+            u1(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            u1(BIPUSH);
+            u1(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            u1(SIPUSH);
+            u2(value);
+        } else {
+            ldc(pool.integer(value));
+        }
+        push(INT);
+    }
+
+    void longConstant(long value) {
+        if (!live) return;
+        if (value == 0 || value == 1) {
+            u1(LCONST_0 + (int) value);
+        } else {
+            u1(LDC2_W);
+            u2(pool.longValue(value));
+        }
+        push(LONG);
+    }
+
+    void doubleConstant(double value) {
+        if (!live) return;
+        if (Double.doubleToRawLongBits(value) == 0 || value == 1) {
+            u1(DCONST_0 + (int) value);
+        } else {
+            u1(LDC2_W);
+            u2(pool.doubleValue(value));
+        }
+        push(DOUBLE);
+    }
+
+    void stringConstant(String value) {
+        if (!live) return;
+        ldc(pool.string(value));
+        push(object(pool, "java/lang/String"));
+    }
+
+    private void ldc(int index) {
+        if (index < 256) {
+            u1(LDC);
+            u1(index);
+        } else {
+            u1(LDC_W);
+            u2(index);
+        }
+    }
+
+    void load(int type, int slot) {
+        if (!live) return;
+        localInstruction(type == INT ? ILOAD : type == LONG ? LLOAD : type == DOUBLE ? DLOAD : ALOAD, slot);
+        push(type);
+    }
+
+    void store(int type, int slot) {
+        if (!live) return;
+        localInstruction(type == INT ? ISTORE : type == LONG ? LSTORE : type == DOUBLE ? DSTORE : ASTORE, slot);
+        pop(1);
+    }
+
+    // Las formas cortas (iload_0..3 y demás) están a 0x1a + 4 * tipo desde la larga
+    private void localInstruction(int opcode, int slot) {
+        if (slot <= 3) {
+            int shortBase = opcode < ISTORE ? 0x1a + (opcode - ILOAD) * 4 : 0x3b + (opcode - ISTORE) * 4;
+            u1(shortBase + slot);
+        } else if (slot <= 255) {
+            u1(opcode);
+            u1(slot);
+        } else {
+            u1(0xc4);
+            u1(opcode);
+            u2(slot);
+        }
+    }
+
+    // Instrucción sin operandos que saca pops valores de la pila y deja result (TOP: nada)
+    void simple(int opcode, int pops, int result) {
+        if (!live) return;
+        u1(opcode);
+        pop(pops);
+        if (result != TOP) push(result);
+    }
+
+    void dup() {
+        if (!live) return;
+        int type = top();
+        u1(isWide(type) ? DUP2 : DUP);
+        push(type);
+    }
+
+    void swap() {
+        if (!live) return;
+        u1(SWAP);
+        int a = stack[depth - 1];
+        stack[depth - 1] = stack[depth - 2];
+        stack[depth - 2] = a;
+    }
+
+    void discard() {
+        if (!live) return;
+        u1(isWide(top()) ? POP2 : POP);
+        pop(1);
+    }
+
+    void field(int opcode, String owner, String fieldName, String fieldDescriptor) {
+        if (!live) return;
+        field(opcode, pool.field(owner, fieldName, fieldDescriptor), type(fieldDescriptor, 0));
+    }
+
+    // Con la referencia ya en la tabla y el tipo de verificación del campo
+    void field(int opcode, int ref, int type) {
+        if (!live) return;
+        u1(opcode);
+        u2(ref);
+        if (opcode == GETSTATIC) push(type);
+        else pop(1);
+    }
+
+    void invoke(int opcode, String owner, String methodName, String methodDescriptor) {
+        if (!live) return;
+        u1(opcode);
+        u2(pool.method(owner, methodName, methodDescriptor));
+        int arguments = 0;
+        int i = 1;
+        while (methodDescriptor.charAt(i) != ')') {
+            arguments++;
+            i = skip(methodDescriptor, i);
+        }
+        pop(arguments + (opcode == INVOKESTATIC ? 0 : 1));
+        if (methodDescriptor.charAt(i + 1) != 'V') push(type(methodDescriptor, i + 1));
+    }
+
+    void newObject(String internalName) {
+        if (!live) return;
+        u1(NEW);
+        u2(pool.classRef(internalName));
+        push(object(pool, internalName));
+    }
+
+    // return, ireturn, athrow...: lo que sigue queda inalcanzable
+    void exit(int opcode) {
+        if (!live) return;
+        u1(opcode);
+        depth = 0;
+        slots = 0;
+        live = false;
+    }
+
+    void line(int line) {
+        if (!live) return;
+        if (!lineNumbers.isEmpty() && lineNumbers.get(lineNumbers.size() - 1)[0] == code.size()) {
+            lineNumbers.get(lineNumbers.size() - 1)[1] = line;
+        } else {
+            lineNumbers.add(new int[] {code.size(), line});
+        }
+    }
+
+    // Tipo de verificación del descriptor que empieza en i
+    private int type(String desc, int i) {
+        switch (desc.charAt(i)) {
+            case 'J': return LONG;
+            case 'D': return DOUBLE;
+            case 'L': return object(pool, desc.substring(i + 1, desc.indexOf(';', i)));
+            case '[': return object(pool, desc.substring(i, skip(desc, i)));
+            default: return INT;
+        }
+    }
+
+    private static int skip(String desc, int i) {
+        while (desc.charAt(i) == '[') i++;
+        return desc.charAt(i) == 'L' ? desc.indexOf(';', i) + 1 : i + 1;
+    }
+
+    // ---------------------------------------------------------------
+    // Saltos y etiquetas
+    // ---------------------------------------------------------------
+
+    Label newLabel() {
+        Label label = new Label();
+        labels.add(label);
+        return label;
+    }
+
+    void jump(int opcode, Label target) {
+        if (!live) return;
+        if (opcode >= IF_ICMPEQ && opcode <= IF_ICMPLE) pop(2);
+        else if (opcode != GOTO) pop(1);
+
+        if (target.position >= 0 && !target.framed) {
+            throw new IllegalStateException("Salto hacia atrás a una etiqueta sin marco");
+        }
+        if (target.stack == null) target.stack = Arrays.copyOf(stack, depth);
+        if (target.jumpCount == target.jumps.length) target.jumps = Arrays.copyOf(target.jumps, target.jumpCount * 2);
+        target.jumps[target.jumpCount++] = code.size();
+        u1(opcode);
+        u2(0);
+        if (opcode == GOTO) {
+            depth = 0;
+            slots = 0;
+            live = false;
+        }
+    }
+
+    // Coloca la etiqueta en la posición actual; si le llegan saltos, lleva marco
+    void place(Label label) {
+        label.position = code.size();
+        if (label.stack == null) return;
+        if (!live) {
+            restore(label.stack);
+            live = true;
+        }
+        frame(label);
+    }
+
+    // Etiqueta que recibirá saltos hacia atrás (el cuerpo de un while): siempre lleva marco
+    void placeTarget(Label label) {
+        if (label.stack == null) label.stack = live ? Arrays.copyOf(stack, depth) : new int[0];
+        place(label);
+    }
+
+    // Comienzo de un manejador de excepciones: la pila tiene sólo la excepción
+    void placeHandler(Label label, String exception) {
+        label.stack = new int[] {object(pool, exception)};
+        live = false;
+        place(label);
+    }
+
+    // Las posiciones se leen al escribir el método, cuando ya están todas colocadas
+    void handler(Label start, Label end, Label handler, String exception) {
+        handlers.add(new Handler(start, end, handler, pool.classRef(exception)));
+    }
+
+    private static final class Handler {
+        final Label start;
+        final Label end;
+        final Label target;
+        final int type;
+
+        Handler(Label start, Label end, Label target, int type) {
+            this.start = start;
+            this.end = end;
+            this.target = target;
+            this.type = type;
+        }
+    }
+
+    private void restore(int[] saved) {
+        depth = 0;
+        slots = 0;
+        for (int type : saved) push(type);
+    }
+
+    private void frame(Label label) {
+        label.framed = true;
+        int[] last = frames.isEmpty() ? null : frames.get(frames.size() - 1);
+        if (last != null && last[0] == label.position) return;
+        int[] frame = new int[1 + label.stack.length];
+        frame[0] = label.position;
+        System.arraycopy(label.stack, 0, frame, 1, label.stack.length);
+        frames.add(frame);
+    }
+
+    // ---------------------------------------------------------------
+    // Escritura
+    // ---------------------------------------------------------------
+
+    void writeTo(DataOutputStream out) throws IOException {
+        byte[] bytes = code.toByteArray();
+        if (bytes.length > MAX_CODE) throw new CodeSizeError("Método demasiado grande: " + name);
+        for (Label label : labels) {
+            for (int k = 0; k < label.jumpCount; k++) {
+                int at = label.jumps[k];
+                int offset = label.position - at;
+                bytes[at + 1] = (byte) (offset >> 8);
+                bytes[at + 2] = (byte) offset;
+            }
+        }
+
+        ByteArrayOutputStream attribute = new ByteArrayOutputStream(bytes.length + 64);
+        DataOutputStream a = new DataOutputStream(attribute);
+        a.writeShort(maxSlots);
+        a.writeShort(localSlots);
+        a.writeInt(bytes.length);
+        a.write(bytes);
+        a.writeShort(handlers.size());
+        for (Handler handler : handlers) {
+            a.writeShort(handler.start.position);
+            a.writeShort(handler.end.position);
+            a.writeShort(handler.target.position);
+            a.writeShort(handler.type);
+        }
+        int attributes = (frames.isEmpty() ? 0 : 1) + (lineNumbers.isEmpty() ? 0 : 1);
+        a.writeShort(attributes);
+        if (!frames.isEmpty()) writeFrames(a);
+        if (!lineNumbers.isEmpty()) {
+            a.writeShort(pool.utf8("LineNumberTable"));
+            a.writeInt(2 + lineNumbers.size() * 4);
+            a.writeShort(lineNumbers.size());
+            for (int[] entry : lineNumbers) {
+                a.writeShort(entry[0]);
+                a.writeShort(entry[1]);
+            }
+        }
+
+        out.writeShort(access);
+        out.writeShort(pool.utf8(name));
+        out.writeShort(pool.utf8(descriptor));
+        out.writeShort(1);
+        out.writeShort(pool.utf8("Code"));
+        out.writeInt(attribute.size());
+        attribute.writeTo(out);
+    }
+
+    // Todos los marcos son completos (full_frame): las locales son siempre las mismas
+    private void writeFrames(DataOutputStream out) throws IOException {
+        ByteArrayOutputStream table = new ByteArrayOutputStream();
+        DataOutputStream t = new DataOutputStream(table);
+        t.writeShort(frames.size());
+        int previous = -1;
+        for (int[] frame : frames) {
+            t.writeByte(255);
+            t.writeShort(frame[0] - previous - 1);
+            previous = frame[0];
+            int count = 0;
+            for (int slot = 0; slot < localSlots; slot += isWide(locals[slot]) ? 2 : 1) count++;
+            t.writeShort(count);
+            for (int slot = 0; slot < localSlots; slot += isWide(locals[slot]) ? 2 : 1) {
+                writeType(t, locals[slot]);
+            }
+            t.writeShort(frame.length - 1);
+            for (int k = 1; k < frame.length; k++) writeType(t, frame[k]);
+        }
+        out.writeShort(pool.utf8("StackMapTable"));
+        out.writeInt(table.size());
+        table.writeTo(out);
+    }
+
+    private static void writeType(DataOutputStream out, int type) throws IOException {
+        out.writeByte(type & 0xFF);
+        if ((type & 0xFF) == OBJECT) out.writeShort(type >>> 8);
+    }
+
+    private void u1(int value) {
+        code.write(value);
+    }
+
+    private void u2(int value) {
+        code.write(value >> 8);
+        code.write(value);
+    }
+}
@@ -0,0 +1,390 @@
+package compiler_lexer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lexer que trabaja directamente sobre los bytes UTF-8 de la fuente, sin decodificarla a String.
+ * El ASCII se clasifica por tabla; sólo los bytes no ASCII de identificadores, cadenas o
+ * símbolos se decodifican. Las columnas se cuentan en code points.
+ */
+public class ByteScanner implements Lexer {
+
+    // Clases de carácter (sólo ASCII)
+    private static final byte C_OTHER = 0;
+    private static final byte C_SPACE = 1;
+    private static final byte C_NEWLINE = 2;
+    private static final byte C_LETTER = 3;
+    private static final byte C_DIGIT = 4;
+
+    private static final byte[] CLASS = new byte[128];
+
+    static {
+        CLASS[' '] = C_SPACE;
+        CLASS['\t'] = C_SPACE;
+        CLASS['\r'] = C_SPACE;
+        CLASS['\n'] = C_NEWLINE;
+        CLASS['_'] = C_LETTER;
+        for (char c = 'a'; c <= 'z'; c++) CLASS[c] = C_LETTER;
+        for (char c = 'A'; c <= 'Z'; c++) CLASS[c] = C_LETTER;
+        for (char c = '0'; c <= '9'; c++) CLASS[c] = C_DIGIT;
+    }
+
+    private final ByteBuffer buf;
+    private final int limit;
+    private int pos;
+    private int line = 1;
+    private int lineStart;
+    // Bytes de continuación UTF-8 vistos en la línea actual (no suman columnas)
+    private int lineExtra;
+
+    // Code point decodificado por decode() y cantidad de bytes que ocupa
+    private int cp;
+    private int cpLength;
+
+    // Datos del último token escaneado
+    private TokenType tokenType;
+    private int tokenStart;
+    private int tokenEnd;
+    private int tokenLine;
+    private int tokenColumn;
+    private boolean tokenAscii;
+    private String errorMessage;
+
+    public ByteScanner(byte[] src) {
+        this(ByteBuffer.wrap(src != null ? src : new byte[0]));
+    }
+
+    // Escanea desde la posición hasta el límite del buffer (puede ser un MappedByteBuffer)
+    public ByteScanner(ByteBuffer src) {
+        this.buf = src;
+        this.pos = src.position();
+        this.lineStart = pos;
+        this.limit = src.limit();
+    }
+
+    private int at(int p) {
+        return p < limit ? buf.get(p) & 0xFF : 0;
+    }
+
+    private int column(int p) {
+        return p - lineStart - lineExtra + 1;
+    }
+
+    private void newLine(int next) {
+        line++;
+        lineStart = next;
+        lineExtra = 0;
+    }
+
+    // Decodifica el code point en p; una secuencia inválida cuenta como U+FFFD de un byte
+    private void decode(int p) {
+        int b0 = at(p);
+        int n;
+        int min;
+        if (b0 < 0x80) { cp = b0; cpLength = 1; return; }
+        if ((b0 & 0xE0) == 0xC0) { n = 2; cp = b0 & 0x1F; min = 0x80; }
+        else if ((b0 & 0xF0) == 0xE0) { n = 3; cp = b0 & 0x0F; min = 0x800; }
+        else if ((b0 & 0xF8) == 0xF0) { n = 4; cp = b0 & 0x07; min = 0x10000; }
+        else { cp = 0xFFFD; cpLength = 1; return; }
+        for (int i = 1; i < n; i++) {
+            int b = at(p + i);
+            if ((b & 0xC0) != 0x80) { cp = 0xFFFD; cpLength = 1; return; }
+            cp = (cp << 6) | (b & 0x3F);
+        }
+        if (cp < min || cp > Character.MAX_CODE_POINT) { cp = 0xFFFD; cpLength = 1; return; }
+        cpLength = n;
+    }
+
+    // Consume el code point decodificado actualizando la cuenta de columnas
+    private int consume(int p) {
+        lineExtra += cpLength - 1;
+        return p + cpLength;
+    }
+
+    private int classAt(int p) {
+        int b = at(p);
+        if (b < 0x80) return CLASS[b];
+        decode(p);
+        if (Character.isDigit(cp)) return C_DIGIT;
+        if (Character.isLetter(cp)) return C_LETTER;
+        return C_OTHER;
+    }
+
+    // Avanza sobre un carácter de identificador o número ya clasificado
+    private int advance(int p) {
+        if (at(p) < 0x80) return p + 1;
+        tokenAscii = false;
+        decode(p);
+        return consume(p);
+    }
+
+    /**
+     * Escanea el siguiente token sin crear objetos (salvo el mensaje de los errores).
+     */
+    public TokenType scan() {
+        int p = pos;
+        errorMessage = null;
+        tokenAscii = true;
+
+        // Ignorar espacios, saltos y comentarios
+        while (true) {
+            int c = at(p);
+            if (c == ' ' || c == '\t' || c == '\r') { p++; continue; }
+            if (c == '\n') { p++; newLine(p); continue; }
+            if (c == '/') {
+                int d = at(p + 1);
+                if (d == '/') {
+                    p += 2;
+                    int e;
+                    while ((e = at(p)) != '\n' && e != 0) {
+                        if ((e & 0xC0) == 0x80) lineExtra++;
+                        p++;
+                    }
+                    continue;
+                }
+                if (d == '*') {
+                    int startLine = line;
+                    int startCol = column(p);
+                    int startPos = p;
+                    p += 2;
+                    boolean closed = false;
+                    int e;
+                    while ((e = at(p)) != 0) {
+                        p++;
+                        if (e == '*') {
+                            if (at(p) == '/') { p++; closed = true; break; }
+                        } else if (e == '\n') {
+                            newLine(p);
+                        } else if ((e & 0xC0) == 0x80) {
+                            lineExtra++;
+                        }
+                    }
+                    if (!closed) {
+                        pos = p;
+                        return error("Comentario sin cierre", startPos, p, startLine, startCol);
+                    }
+                    continue;
+                }
+                pos = p + 1;
+                return token(TokenType.SLASH, p, p + 1);
+            }
+            break;
+        }
+
+        int start = p;
+        int c = at(p);
+
+        if (c == 0) {
+            pos = p;
+            return token(TokenType.EOF, p, p);
+        }
+
+        // Cadenas
+        if (c == '"') {
+            int startLine = line;
+            int startCol = column(p);
+            p++;
+            int e;
+            while ((e = at(p)) != '"' && e != 0) {
+                if (e == '\n') {
+                    p++;
+                    newLine(p);
+                    pos = p;
+                    return error("Cadena sin cierre", start, p, startLine, startCol);
+                }
+                if (e >= 0x80) {
+                    tokenAscii = false;
+                    decode(p);
+                    p = consume(p);
+                } else {
+                    p++;
+                }
+            }
+            if (e != '"') {
+                pos = p;
+                return error("Cadena sin cierre", start, p, startLine, startCol);
+            }
+            pos = p + 1;
+            tokenType = TokenType.STRING_CONST;
+            tokenStart = start + 1;
+            tokenEnd = p;
+            tokenLine = startLine;
+            tokenColumn = startCol;
+            return tokenType;
+        }
+
+        int cls = classAt(p);
+
+        // Números
+        if (cls == C_DIGIT) {
+            int startCol = column(p);
+            while (classAt(p) == C_DIGIT) p = advance(p);
+            if (classAt(p) == C_LETTER) {
+                pos = p;
+                return error("Identificador no puede comenzar con un número", start, p, line, startCol);
+            }
+            if (at(p) == '.') {
+                p++;
+                if (classAt(p) != C_DIGIT) {
+                    pos = p;
+                    return error("Número real mal formado", start, p, line, startCol);
+                }
+                while (classAt(p) == C_DIGIT) p = advance(p);
+                pos = p;
+                return token(TokenType.REAL_CONST, start, p, startCol);
+            }
+            pos = p;
+            return token(TokenType.INT_CONST, start, p, startCol);
+        }
+
+        // Identificadores y palabras reservadas
+        if (cls == C_LETTER) {
+            int startCol = column(p);
+            p = advance(p);
+            while (true) {
+                int k = classAt(p);
+                if (k != C_LETTER && k != C_DIGIT) break;
+                p = advance(p);
+            }
+            pos = p;
+            TokenType type = tokenAscii ? keywordType(start, p - start) : TokenType.ID;
+            return token(type, start, p, startCol);
+        }
+
+        // Operadores y símbolos
+        int d = at(p + 1);
+        TokenType type = null;
+        int length = 1;
+        switch (c) {
+            case '+': if (d == '=') { type = TokenType.PLUSEQ; length = 2; } else type = TokenType.PLUS; break;
+            case '-': if (d == '=') { type = TokenType.MINUSEQ; length = 2; } else type = TokenType.MINUS; break;
+            case '*': if (d == '=') { type = TokenType.STAREQ; length = 2; } else type = TokenType.STAR; break;
+            case '>': if (d == '=') { type = TokenType.GE; length = 2; } else type = TokenType.GT; break;
+            case '<':
+                if (d == '=') { type = TokenType.LE; length = 2; }
+                else if (d == '>') { type = TokenType.DIAMOND_NEQ; length = 2; }
+                else type = TokenType.LT;
+                break;
+            case '=': if (d == '=') { type = TokenType.EQEQ; length = 2; } else type = TokenType.ASSIGN; break;
+            case '!': if (d == '=') { type = TokenType.NEQ; length = 2; } else type = TokenType.NOT; break;
+            case '&': if (d == '&') { type = TokenType.ANDAND; length = 2; } break;
+            case '|': if (d == '|') { type = TokenType.OROR; length = 2; } break;
+            case '(': type = TokenType.LPAREN; break;
+            case ')': type = TokenType.RPAREN; break;
+            case '{': type = TokenType.LBRACE; break;
+            case '}': type = TokenType.RBRACE; break;
+            case ';': type = TokenType.SEMICOLON; break;
+            case ',': type = TokenType.COMMA; break;
+            default: break;
+        }
+        if (type != null) {
+            pos = p + length;
+            return token(type, p, p + length);
+        }
+
+        // Si no se reconoce el símbolo
+        int startCol = column(p);
+        decode(p);
+        String symbol = new String(Character.toChars(cp));
+        p = consume(p);
+        pos = p;
+        return error("Símbolo no reconocido: '" + symbol + "'", start, p, line, startCol);
+    }
+
+    private TokenType keywordType(int start, int length) {
+        switch (length) {
+            case 2:
+                if (matches(start, "if")) return TokenType.IF;
+                break;
+            case 4:
+                switch (at(start)) {
+                    case 'l': if (matches(start, "long")) return TokenType.LONG; break;
+                    case 't':
+                        if (matches(start, "then")) return TokenType.THEN;
+                        if (matches(start, "true")) return TokenType.TRUE;
+                        break;
+                    case 'e': if (matches(start, "else")) return TokenType.ELSE; break;
+                    case 'r': if (matches(start, "read")) return TokenType.READ; break;
+                    default: break;
+                }
+                break;
+            case 5:
+                switch (at(start)) {
+                    case 'w':
+                        if (matches(start, "while")) return TokenType.WHILE;
+                        if (matches(start, "write")) return TokenType.WRITE;
+                        break;
+                    case 'b': if (matches(start, "break")) return TokenType.BREAK; break;
+                    case 'f': if (matches(start, "false")) return TokenType.FALSE; break;
+                    default: break;
+                }
+                break;
+            case 6:
+                if (matches(start, "double")) return TokenType.DOUBLE;
+                break;
+            default:
+                break;
+        }
+        return TokenType.ID;
+    }
+
+    private boolean matches(int start, String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (at(start + i) != word.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private TokenType token(TokenType type, int start, int end) {
+        return token(type, start, end, column(start));
+    }
+
+    private TokenType token(TokenType type, int start, int end, int col) {
+        tokenType = type;
+        tokenStart = start;
+        tokenEnd = end;
+        tokenLine = line;
+        tokenColumn = col;
+        return type;
+    }
+
+    private TokenType error(String msg, int start, int end, int ln, int col) {
+        tokenType = TokenType.ERROR;
+        tokenStart = start;
+        tokenEnd = end;
+        tokenLine = ln;
+        tokenColumn = col;
+        errorMessage = "Error léxico [" + ln + ":" + col + "]: " + msg;
+        return tokenType;
+    }
+
+    public TokenType tokenType() { return tokenType; }
+    public int tokenStart() { return tokenStart; }
+    public int tokenLength() { return tokenEnd - tokenStart; }
+    public int tokenLine() { return tokenLine; }
+    public int tokenColumn() { return tokenColumn; }
+    public String errorMessage() { return errorMessage; }
+
+    // Lexema del último token: sólo aquí se decodifica, y sólo si no es ASCII
+    public String lexeme() {
+        if (tokenType == TokenType.ERROR) return errorMessage;
+        String fixed = TableScanner.fixedLexeme(tokenType);
+        if (fixed != null) return fixed;
+        int length = tokenEnd - tokenStart;
+        Charset charset = tokenAscii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8;
+        if (buf.hasArray()) {
+            return new String(buf.array(), buf.arrayOffset() + tokenStart, length, charset);
+        }
+        byte[] bytes = new byte[length];
+        buf.get(tokenStart, bytes);
+        return new String(bytes, charset);
+    }
+
+    @Override
+    public Token nextToken() {
+        TokenType type = scan();
+        return new Token(type, lexeme(), tokenLine, tokenColumn);
+    }
+}
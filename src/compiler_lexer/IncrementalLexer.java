@@ -0,0 +1,102 @@
+package compiler_lexer;
+
+/**
+ * Re-escaneo incremental: dado el TokenBuffer anterior y una edición, sólo vuelve a escanear
+ * desde el último token que termina antes de la edición hasta que el nuevo flujo coincide
+ * con el anterior; el resto de los tokens se copia desplazando offsets, líneas y columnas.
+ *
+ * Entre dos tokens el lexer siempre está en su estado inicial (comentarios y espacios no
+ * dejan estado pendiente), así que dos escaneos que llegan al mismo offset del texto
+ * posterior a la edición producen el mismo resultado a partir de ahí. Esto cubre las
+ * ediciones que abren o cierran un comentario o una cadena.
+ */
+public class IncrementalLexer {
+
+    private int rescannedTokens;
+
+    /**
+     * Aplica la edición (offset, caracteres borrados, texto insertado) y devuelve el nuevo buffer.
+     */
+    public TokenBuffer relex(TokenBuffer previous, int offset, int removedLength, CharSequence inserted) {
+        int oldLength = previous.sourceLength();
+        if (offset < 0 || removedLength < 0 || offset + removedLength > oldLength) {
+            throw new IllegalArgumentException("Edición fuera del texto: " + offset + "+" + removedLength);
+        }
+        if (inserted == null) inserted = "";
+
+        char[] oldSource = previous.source();
+        int insertedLength = inserted.length();
+        int delta = insertedLength - removedLength;
+        int editEndOld = offset + removedLength;
+        int editEndNew = offset + insertedLength;
+
+        // Nueva fuente con centinela
+        char[] source = new char[oldLength + delta + 1];
+        System.arraycopy(oldSource, 0, source, 0, offset);
+        for (int i = 0; i < insertedLength; i++) source[offset + i] = inserted.charAt(i);
+        System.arraycopy(oldSource, editEndOld, source, editEndNew, oldLength - editEndOld);
+        source[source.length - 1] = '\0';
+
+        // Punto de reinicio: último token que termina estrictamente antes de la edición
+        int restart = lastTokenEndingBefore(previous, offset);
+        int restartPos = 0;
+        int restartLine = 1;
+        int restartLineStart = 0;
+        if (restart >= 0) {
+            restartPos = previous.rawStart(restart);
+            restartLine = previous.line(restart);
+            restartLineStart = restartPos - previous.column(restart) + 1;
+        } else {
+            restart = 0;
+        }
+
+        TokenBuffer result = new TokenBuffer(source, previous.size() + 16, previous.interner());
+        result.copyFrom(previous, 0, restart, 0, 0, -1, 0);
+
+        TableScanner scanner = new TableScanner(source, restartPos, restartLine, restartLineStart);
+        int old = restart;
+        rescannedTokens = 0;
+        while (true) {
+            TokenType type = scanner.scan();
+            result.add(scanner);
+            rescannedTokens++;
+            if (type == TokenType.EOF) return result;
+
+            int rawStart = type == TokenType.STRING_CONST ? scanner.tokenStart() - 1 : scanner.tokenStart();
+            if (rawStart < editEndNew) continue;
+
+            // Buscar en el flujo anterior un token que empiece en el mismo punto del texto no editado
+            int target = rawStart - delta;
+            while (old < previous.size() && previous.rawStart(old) < target) old++;
+            if (old < previous.size() && previous.rawStart(old) == target && target >= editEndOld
+                    && previous.type(old) == type && previous.length(old) == scanner.tokenLength()) {
+                int lineDelta = scanner.tokenLine() - previous.line(old);
+                int columnDelta = scanner.tokenColumn() - previous.column(old);
+                result.copyFrom(previous, old + 1, previous.size(), delta, lineDelta, previous.line(old), columnDelta);
+                return result;
+            }
+        }
+    }
+
+    // Cantidad de tokens escaneados en la última llamada a relex
+    public int rescannedTokens() {
+        return rescannedTokens;
+    }
+
+    private static int lastTokenEndingBefore(TokenBuffer buffer, int offset) {
+        // Los finales de los tokens son crecientes: búsqueda binaria
+        int lo = 0;
+        int hi = buffer.size() - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (buffer.rawEnd(mid) < offset) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,111 @@
+package compiler_lexer;
+
+import java.util.Arrays;
+
+/**
+ * Asigna a cada nombre distinto un número denso (0, 1, 2...). El lexer interna los
+ * identificadores directamente desde su buffer de caracteres, así que cada nombre se
+ * convierte en String una sola vez y las fases siguientes trabajan con el número.
+ */
+public class Interner {
+
+    // Tabla de dispersión con sondeo lineal: guarda número + 1 (0 = libre)
+    private int[] table = new int[64];
+    private int[] hashes = new int[32];
+    private String[] names = new String[32];
+    private int size;
+
+    public int intern(char[] chars, int start, int length) {
+        int hash = 0;
+        for (int k = 0; k < length; k++) hash = 31 * hash + chars[start + k];
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) return add(new String(chars, start, length), hash, slot);
+            int id = entry - 1;
+            if (hashes[id] == hash && matches(names[id], chars, start, length)) return id;
+        }
+    }
+
+    public int intern(CharSequence text) {
+        int length = text.length();
+        int hash = 0;
+        for (int k = 0; k < length; k++) hash = 31 * hash + text.charAt(k);
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) return add(text.toString(), hash, slot);
+            int id = entry - 1;
+            if (hashes[id] == hash && names[id].contentEquals(text)) return id;
+        }
+    }
+
+    // Número del nombre, o -1 si nunca se internó
+    public int find(CharSequence text) {
+        int length = text.length();
+        int hash = 0;
+        for (int k = 0; k < length; k++) hash = 31 * hash + text.charAt(k);
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) return -1;
+            int id = entry - 1;
+            if (hashes[id] == hash && names[id].contentEquals(text)) return id;
+        }
+    }
+
+    // Otro Interner con los mismos números, que sigue aparte: lo que se interne en uno no toca al otro
+    public Interner copy() {
+        Interner copy = new Interner();
+        copy.table = table.clone();
+        copy.hashes = hashes.clone();
+        copy.names = names.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int add(String name, int hash, int slot) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int id = size++;
+        names[id] = name;
+        hashes[id] = hash;
+        table[slot] = id + 1;
+        // Factor de carga máximo 1/2
+        if (size * 2 > table.length) rehash();
+        return id;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(hashes[id]) & mask;
+            while (table[slot] != 0) slot = (slot + 1) & mask;
+            table[slot] = id + 1;
+        }
+    }
+
+    private static boolean matches(String name, char[] chars, int start, int length) {
+        if (name.length() != length) return false;
+        for (int k = 0; k < length; k++) {
+            if (name.charAt(k) != chars[start + k]) return false;
+        }
+        return true;
+    }
+
+    // Mezcla los bits altos para que nombres parecidos no caigan en casillas vecinas
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
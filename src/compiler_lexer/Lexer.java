@@ -0,0 +1,10 @@
+package compiler_lexer;
+
+/**
+ * Fuente de tokens: implementada por Scanner y por los motores alternativos del lexer.
+ */
+public interface Lexer {
+
+    // Devuelve el siguiente token; al final devuelve EOF indefinidamente
+    Token nextToken();
+}
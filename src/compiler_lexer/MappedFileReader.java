@@ -0,0 +1,75 @@
+package compiler_lexer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader UTF-8 sobre un archivo mapeado en memoria por regiones.
+ * Los bytes quedan fuera del heap; sólo se decodifica lo que pide el Scanner.
+ */
+class MappedFileReader extends Reader {
+
+    // Tamaño de cada región mapeada
+    private static final long REGION = 64L << 20;
+
+    private final FileChannel channel;
+    private final long size;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private MappedByteBuffer region;
+    private long regionStart;
+    private boolean finished = false;
+
+    MappedFileReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        map(0);
+    }
+
+    // Mapea la región que empieza en offset (los bytes de un carácter cortado se vuelven a mapear)
+    private void map(long offset) throws IOException {
+        regionStart = offset;
+        region = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(REGION, size - offset));
+    }
+
+    private boolean lastRegion() {
+        return regionStart + region.limit() >= size;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (finished) return -1;
+        if (len == 0) return 0;
+
+        CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+        while (out.position() == off) {
+            boolean last = lastRegion();
+            decoder.decode(region, out, last);
+            if (last && !region.hasRemaining()) {
+                decoder.flush(out);
+                finished = true;
+                break;
+            }
+            if (!last && region.remaining() < 4) {
+                map(regionStart + region.position());
+            }
+        }
+        int n = out.position() - off;
+        return n == 0 ? -1 : n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,220 @@
+package compiler_lexer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Escaneo de un solo archivo grande en paralelo: la fuente se corta en trozos que empiezan
+ * después de un salto de línea, cada trozo se escanea en un ForkJoinPool como si fuera el
+ * principio del archivo (línea 1, con su propio Interner) y después se unen en orden.
+ *
+ * Un trozo que empieza dentro de un comentario o de una cadena escanea mal su comienzo. Al
+ * unir, el escáner del trozo anterior sigue hasta su primer token que empieza en este trozo;
+ * si el trozo tiene un token que empieza en ese mismo punto, desde ahí los dos flujos son
+ * iguales (entre tokens el lexer siempre está en su estado inicial, como en
+ * {@link IncrementalLexer}) y se copia el resto. Si no, el escáner anterior continúa token por
+ * token hasta engancharse o pasar el trozo. Esa parte es secuencial pero corta; la copia de
+ * los tramos elegidos vuelve al pool. Las líneas se corrigen con los saltos de línea de
+ * los trozos anteriores y los ID se renumeran en orden de aparición, así que el resultado es
+ * idéntico al de {@link TokenBuffer#lex(CharSequence)}.
+ */
+public class ParallelLexer {
+
+    // Con menos, los hilos no compensan lo que cuesta repartir y unir
+    public static final int MIN_CHUNK_CHARS = 1 << 20;
+
+    private ParallelLexer() {
+    }
+
+    // Trozos de al menos MIN_CHUNK_CHARS, unos cuatro por hilo; una fuente chica se escanea sola
+    public static TokenBuffer lex(CharSequence src, ForkJoinPool pool) {
+        int length = src.length();
+        if (pool.getParallelism() < 2 || length < 2 * MIN_CHUNK_CHARS) return TokenBuffer.lex(src);
+        int chunkChars = Math.max(MIN_CHUNK_CHARS, length / (pool.getParallelism() * 4));
+        return lex(src, pool, chunkChars);
+    }
+
+    public static TokenBuffer lex(CharSequence src, ForkJoinPool pool, int chunkChars) {
+        char[] buf = new TableScanner(src).buffer();
+        int length = buf.length - 1;
+        int[] bounds = bounds(buf, length, Math.max(1, chunkChars));
+        int count = bounds.length - 1;
+
+        List<Callable<Chunk>> tasks = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            int from = bounds[k];
+            int to = bounds[k + 1];
+            boolean last = k == count - 1;
+            tasks.add(() -> Chunk.scan(buf, from, to, last));
+        }
+        List<Chunk> chunks = await(pool.invokeAll(tasks));
+        return merge(buf, chunks.toArray(new Chunk[0]), pool);
+    }
+
+    private static <T> List<T> await(List<Future<T>> futures) {
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Escaneo interrumpido", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    // Comienzos de los trozos: 0, cada uno justo después de un '\n', y al final la longitud
+    private static int[] bounds(char[] buf, int length, int chunkChars) {
+        int[] bounds = new int[16];
+        int count = 0;
+        bounds[count++] = 0;
+        int start = 0;
+        while (true) {
+            int next = start + chunkChars;
+            while (next < length && buf[next - 1] != '\n') next++;
+            if (next >= length) break;
+            if (count == bounds.length) bounds = Arrays.copyOf(bounds, count * 2);
+            bounds[count++] = next;
+            start = next;
+        }
+        bounds = Arrays.copyOf(bounds, count + 1);
+        bounds[count] = length;
+        return bounds;
+    }
+
+    /**
+     * Los tokens que empiezan en [from, to) escaneando desde from, y el escáner parado en el
+     * primero que empieza después (el último trozo sigue hasta EOF).
+     */
+    private static final class Chunk {
+        final int from;
+        final int to;
+        final TokenBuffer tokens;
+        final TableScanner scanner;
+        int newlines;
+
+        private Chunk(int from, int to, TokenBuffer tokens, TableScanner scanner) {
+            this.from = from;
+            this.to = to;
+            this.tokens = tokens;
+            this.scanner = scanner;
+        }
+
+        static Chunk scan(char[] buf, int from, int to, boolean last) {
+            TableScanner scanner = new TableScanner(buf, from, 1, from);
+            Chunk chunk = new Chunk(from, to, new TokenBuffer(buf, (to - from) / 4 + 16, new Interner()), scanner);
+            while (true) {
+                TokenType type = scanner.scan();
+                if (!last && rawStart(scanner) >= to) break;
+                chunk.tokens.add(scanner);
+                if (type == TokenType.EOF) break;
+            }
+            int newlines = 0;
+            for (int i = from; i < to; i++) {
+                if (buf[i] == '\n') newlines++;
+            }
+            chunk.newlines = newlines;
+            return chunk;
+        }
+    }
+
+    /**
+     * Une los trozos en orden. La parte secuencial sólo decide qué tramo de cada trozo se usa,
+     * reserva su lugar, numera sus ID y agrega los errores y los tokens del escáner anterior;
+     * la copia de los tramos, que es casi todo, se hace después en el pool.
+     */
+    private static TokenBuffer merge(char[] buf, Chunk[] chunks, ForkJoinPool pool) {
+        int total = 16;
+        for (Chunk chunk : chunks) total += chunk.tokens.size();
+        TokenBuffer result = new TokenBuffer(buf, total, new Interner());
+        List<Callable<Void>> fills = new ArrayList<>(chunks.length);
+
+        // El escáner que produjo el último token tomado tiene el siguiente ya escaneado
+        Chunk first = chunks[0];
+        take(result, first, 0, 0, fills);
+        TableScanner current = first.scanner;
+        int currentDelta = 0;
+        int lineDelta = first.newlines;
+
+        for (int k = 1; k < chunks.length; k++) {
+            Chunk chunk = chunks[k];
+            while (true) {
+                int next = rawStart(current);
+                int match = firstAtOrAfter(chunk.tokens, next);
+                if (match < chunk.tokens.size() && chunk.tokens.rawStart(match) == next) {
+                    take(result, chunk, match, lineDelta, fills);
+                    current = chunk.scanner;
+                    currentDelta = lineDelta;
+                    break;
+                }
+                // Un comentario o una cadena del trozo anterior tapa el resto de éste
+                if (next >= chunk.to) break;
+                result.add(current, currentDelta);
+                current.scan();
+            }
+            lineDelta += chunk.newlines;
+        }
+        await(pool.invokeAll(fills));
+        return result;
+    }
+
+    // Reserva el tramo [from, size) del trozo y deja su copia para el pool
+    private static void take(TokenBuffer result, Chunk chunk, int from, int lineDelta, List<Callable<Void>> fills) {
+        TokenBuffer tokens = chunk.tokens;
+        int to = tokens.size();
+        int[] symbolMap = symbolMap(result.interner(), tokens, from, to);
+        int at = result.reserve(to - from);
+        result.addErrors(at, tokens, from, to, lineDelta);
+        fills.add(() -> {
+            result.fillChunk(at, tokens, from, to, lineDelta, symbolMap);
+            return null;
+        });
+    }
+
+    /**
+     * Número global de cada ID del trozo, dado en orden de primera aparición como lo haría el
+     * escaneo secuencial. Si el tramo es todo el trozo, ese orden es el de su propio Interner;
+     * si no, hay que recorrer los tokens del tramo.
+     */
+    private static int[] symbolMap(Interner global, TokenBuffer tokens, int from, int to) {
+        Interner local = tokens.interner();
+        int[] map = new int[local.size()];
+        if (from == 0) {
+            for (int id = 0; id < map.length; id++) map[id] = global.intern(local.name(id));
+            return map;
+        }
+        Arrays.fill(map, -1);
+        int[] symbols = tokens.symbols();
+        for (int i = from; i < to; i++) {
+            int id = symbols[i];
+            if (id >= 0 && map[id] < 0) map[id] = global.intern(local.name(id));
+        }
+        return map;
+    }
+
+    // Primer token que empieza en offset o después (los comienzos crecen)
+    private static int firstAtOrAfter(TokenBuffer tokens, int offset) {
+        int lo = 0;
+        int hi = tokens.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (tokens.rawStart(mid) < offset) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Las cadenas empiezan en la comilla, antes de su lexema
+    private static int rawStart(TableScanner scanner) {
+        return scanner.tokenType() == TokenType.STRING_CONST ? scanner.tokenStart() - 1 : scanner.tokenStart();
+    }
+}
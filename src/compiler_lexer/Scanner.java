@@ -1,25 +1,93 @@
 package compiler_lexer;
 
-import java.io.FileReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 
-public class Scanner {
+public class Scanner implements Lexer, Closeable {
 
-    private String src;
+    // Tamaño de la ventana deslizante de caracteres
+    private static final int WINDOW = 8192;
+
+    // Fuente en memoria (null cuando se lee desde un Reader)
+    private final CharSequence src;
+    private int srcPos = 0;
+    private final Reader reader;
+
+    private final char[] window;
     private int index = 0;
+    private int limit = 0;
+    private boolean exhausted = false;
+
     private int line = 1;
     private int column = 1;
 
     public Scanner(String src) {
+        this((CharSequence) src);
+    }
+
+    public Scanner(CharSequence src) {
         this.src = src != null ? src : "";
+        this.reader = null;
+        this.window = new char[Math.max(1, Math.min(WINDOW, this.src.length()))];
+    }
+
+    // Lee la fuente por partes: la memoria usada no depende del tamaño de la entrada
+    public Scanner(Reader reader) {
+        this.src = null;
+        this.reader = reader;
+        this.window = new char[WINDOW];
+    }
+
+    // Escanea un archivo UTF-8 mapeado en memoria, sin cargarlo en el heap
+    public static Scanner fromFile(Path path) throws IOException {
+        return new Scanner(new MappedFileReader(path));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reader != null) reader.close();
     }
 
     // Devuelve el carácter actual sin avanzar
     private char peek() {
-        if (index < src.length()) {
-            return src.charAt(index);
+        if (index < limit) {
+            return window[index];
+        }
+        return fill() ? window[index] : '\0';
+    }
+
+    // Carga el siguiente tramo de la fuente en la ventana
+    private boolean fill() {
+        if (exhausted) return false;
+        int n;
+        if (src != null) {
+            n = Math.min(window.length, src.length() - srcPos);
+            if (src instanceof String) {
+                ((String) src).getChars(srcPos, srcPos + n, window, 0);
+            } else {
+                for (int i = 0; i < n; i++) window[i] = src.charAt(srcPos + i);
+            }
+            srcPos += n;
         } else {
-            return '\0';
+            try {
+                do {
+                    n = reader.read(window, 0, window.length);
+                } while (n == 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        index = 0;
+        if (n <= 0) {
+            limit = 0;
+            exhausted = true;
+            return false;
         }
+        limit = n;
+        return true;
     }
 
     // Avanza un carácter y actualiza la posición
@@ -45,6 +113,7 @@ public class Scanner {
     }
 
     // Devuelve el siguiente token
+    @Override
     public Token nextToken() {
 
         // Ignorar espacios, saltos y comentarios
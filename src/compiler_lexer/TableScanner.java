@@ -0,0 +1,397 @@
+package compiler_lexer;
+
+/**
+ * Lexer dirigido por tablas: clases de carácter precalculadas para ASCII, tabla de
+ * transiciones para los operadores de dos caracteres y hash perfecto para las palabras
+ * reservadas, comparando directamente sobre el buffer sin crear Strings.
+ * Produce exactamente la misma secuencia de tokens que {@link Scanner}.
+ */
+public class TableScanner implements Lexer {
+
+    // Clases de carácter
+    private static final byte C_OTHER = 0;
+    private static final byte C_EOF = 1;
+    private static final byte C_SPACE = 2;
+    private static final byte C_NEWLINE = 3;
+    private static final byte C_LETTER = 4;
+    private static final byte C_DIGIT = 5;
+    private static final byte C_QUOTE = 6;
+    private static final byte C_SLASH = 7;
+    private static final byte C_OPERATOR = 8;
+    private static final byte C_PUNCT = 9;
+
+    private static final byte[] CLASS = new byte[128];
+
+    // Operadores: fila por primer carácter, columna por segundo carácter
+    private static final int COL_NONE = 0;
+    private static final int COL_EQ = 1;
+    private static final int COL_GT = 2;
+    private static final int COL_AMP = 3;
+    private static final int COL_BAR = 4;
+
+    private static final byte[] OP_ROW = new byte[128];
+    private static final byte[] OP_COL = new byte[128];
+    private static final TokenType[][] TRANSITION = new TokenType[9][5];
+    private static final TokenType[] PUNCT = new TokenType[128];
+
+    // Lexema fijo de cada tipo (null para los que dependen del texto)
+    private static final String[] LEXEME = new String[TokenType.values().length];
+
+    // Hash perfecto: (c0 + 13 * c1 + longitud) & 15
+    private static final char[][] KEYWORD = new char[16][];
+    private static final TokenType[] KEYWORD_TYPE = new TokenType[16];
+
+    static {
+        CLASS[0] = C_EOF;
+        CLASS[' '] = C_SPACE;
+        CLASS['\t'] = C_SPACE;
+        CLASS['\r'] = C_SPACE;
+        CLASS['\n'] = C_NEWLINE;
+        CLASS['_'] = C_LETTER;
+        for (char c = 'a'; c <= 'z'; c++) CLASS[c] = C_LETTER;
+        for (char c = 'A'; c <= 'Z'; c++) CLASS[c] = C_LETTER;
+        for (char c = '0'; c <= '9'; c++) CLASS[c] = C_DIGIT;
+        CLASS['"'] = C_QUOTE;
+        CLASS['/'] = C_SLASH;
+
+        java.util.Arrays.fill(OP_ROW, (byte) -1);
+        operator('+', TokenType.PLUS, COL_EQ, TokenType.PLUSEQ);
+        operator('-', TokenType.MINUS, COL_EQ, TokenType.MINUSEQ);
+        operator('*', TokenType.STAR, COL_EQ, TokenType.STAREQ);
+        operator('>', TokenType.GT, COL_EQ, TokenType.GE);
+        operator('<', TokenType.LT, COL_EQ, TokenType.LE);
+        TRANSITION[OP_ROW['<']][COL_GT] = TokenType.DIAMOND_NEQ;
+        operator('=', TokenType.ASSIGN, COL_EQ, TokenType.EQEQ);
+        operator('!', TokenType.NOT, COL_EQ, TokenType.NEQ);
+        // '&' y '|' solos no son símbolos válidos
+        operator('&', null, COL_AMP, TokenType.ANDAND);
+        operator('|', null, COL_BAR, TokenType.OROR);
+        OP_COL['='] = COL_EQ;
+        OP_COL['>'] = COL_GT;
+        OP_COL['&'] = COL_AMP;
+        OP_COL['|'] = COL_BAR;
+
+        punct('(', TokenType.LPAREN);
+        punct(')', TokenType.RPAREN);
+        punct('{', TokenType.LBRACE);
+        punct('}', TokenType.RBRACE);
+        punct(';', TokenType.SEMICOLON);
+        punct(',', TokenType.COMMA);
+
+        lexeme(TokenType.PLUS, "+");
+        lexeme(TokenType.MINUS, "-");
+        lexeme(TokenType.STAR, "*");
+        lexeme(TokenType.SLASH, "/");
+        lexeme(TokenType.GT, ">");
+        lexeme(TokenType.LT, "<");
+        lexeme(TokenType.GE, ">=");
+        lexeme(TokenType.LE, "<=");
+        lexeme(TokenType.EQEQ, "==");
+        lexeme(TokenType.NEQ, "!=");
+        lexeme(TokenType.DIAMOND_NEQ, "<>");
+        lexeme(TokenType.ASSIGN, "=");
+        lexeme(TokenType.LPAREN, "(");
+        lexeme(TokenType.RPAREN, ")");
+        lexeme(TokenType.LBRACE, "{");
+        lexeme(TokenType.RBRACE, "}");
+        lexeme(TokenType.SEMICOLON, ";");
+        lexeme(TokenType.PLUSEQ, "+=");
+        lexeme(TokenType.MINUSEQ, "-=");
+        lexeme(TokenType.STAREQ, "*=");
+        lexeme(TokenType.COMMA, ",");
+        lexeme(TokenType.ANDAND, "&&");
+        lexeme(TokenType.OROR, "||");
+        lexeme(TokenType.NOT, "!");
+        lexeme(TokenType.EOF, "");
+
+        keyword("long", TokenType.LONG);
+        keyword("double", TokenType.DOUBLE);
+        keyword("if", TokenType.IF);
+        keyword("then", TokenType.THEN);
+        keyword("else", TokenType.ELSE);
+        keyword("while", TokenType.WHILE);
+        keyword("break", TokenType.BREAK);
+        keyword("read", TokenType.READ);
+        keyword("write", TokenType.WRITE);
+        keyword("true", TokenType.TRUE);
+        keyword("false", TokenType.FALSE);
+    }
+
+    private static void operator(char c, TokenType single, int col, TokenType pair) {
+        byte row = 0;
+        while (row < TRANSITION.length && TRANSITION[row][COL_NONE] != null) row++;
+        // Las filas de '&' y '|' no tienen símbolo simple: se marcan con ERROR
+        TRANSITION[row][COL_NONE] = single != null ? single : TokenType.ERROR;
+        TRANSITION[row][col] = pair;
+        OP_ROW[c] = row;
+        CLASS[c] = C_OPERATOR;
+    }
+
+    private static void punct(char c, TokenType type) {
+        PUNCT[c] = type;
+        CLASS[c] = C_PUNCT;
+    }
+
+    private static void lexeme(TokenType type, String text) {
+        LEXEME[type.ordinal()] = text;
+    }
+
+    private static void keyword(String word, TokenType type) {
+        int h = keywordHash(word.charAt(0), word.charAt(1), word.length());
+        if (KEYWORD[h] != null) throw new IllegalStateException("Colisión en el hash de palabras reservadas: " + word);
+        KEYWORD[h] = word.toCharArray();
+        KEYWORD_TYPE[h] = type;
+        lexeme(type, word);
+    }
+
+    // Lexema fijo del tipo, o null si depende del texto (compartido con ByteScanner)
+    static String fixedLexeme(TokenType type) {
+        return LEXEME[type.ordinal()];
+    }
+
+    private static int keywordHash(char c0, char c1, int length) {
+        return (c0 + 13 * c1 + length) & 15;
+    }
+
+    // Buffer con un '\0' centinela al final: evita comprobar límites en cada carácter
+    private final char[] buf;
+    private int pos;
+    private int line = 1;
+    private int lineStart;
+
+    // Datos del último token escaneado
+    private TokenType tokenType;
+    private int tokenStart;
+    private int tokenEnd;
+    private int tokenLine;
+    private int tokenColumn;
+    private String errorMessage;
+
+    public TableScanner(CharSequence src) {
+        this(src != null ? src : "", 0, src != null ? src.length() : 0);
+    }
+
+    // Escanea el rango [from, to) de la fuente; las columnas se cuentan desde from
+    public TableScanner(CharSequence src, int from, int to) {
+        buf = new char[to - from + 1];
+        if (src instanceof String) {
+            ((String) src).getChars(from, to, buf, 0);
+        } else {
+            for (int i = from; i < to; i++) buf[i - from] = src.charAt(i);
+        }
+        buf[to - from] = '\0';
+    }
+
+    // Reanuda el escaneo sobre un buffer ya preparado (con centinela), sin copiarlo
+    TableScanner(char[] buf, int pos, int line, int lineStart) {
+        this.buf = buf;
+        this.pos = pos;
+        this.line = line;
+        this.lineStart = lineStart;
+    }
+
+    private static byte classOf(char c) {
+        if (c < 128) return CLASS[c];
+        if (Character.isDigit(c)) return C_DIGIT;
+        if (Character.isLetter(c)) return C_LETTER;
+        return C_OTHER;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        if (c < 128) {
+            byte cls = CLASS[c];
+            return cls == C_LETTER || cls == C_DIGIT;
+        }
+        return Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * Escanea el siguiente token sin crear objetos (salvo el mensaje de los errores).
+     * El resultado queda disponible en tokenType(), tokenStart(), tokenLength(), etc.
+     */
+    public TokenType scan() {
+        final char[] b = buf;
+        int p = pos;
+        errorMessage = null;
+
+        // Ignorar espacios, saltos y comentarios
+        while (true) {
+            char c = b[p];
+            byte cls = classOf(c);
+            if (cls == C_SPACE) { p++; continue; }
+            if (cls == C_NEWLINE) { p++; line++; lineStart = p; continue; }
+            if (cls == C_SLASH) {
+                if (b[p + 1] == '/') {
+                    p += 2;
+                    while (b[p] != '\n' && b[p] != '\0') p++;
+                    continue;
+                }
+                if (b[p + 1] == '*') {
+                    int startLine = line;
+                    int startCol = p - lineStart + 1;
+                    int startPos = p;
+                    p += 2;
+                    boolean closed = false;
+                    while (b[p] != '\0') {
+                        char d = b[p++];
+                        if (d == '*') {
+                            if (b[p] == '/') { p++; closed = true; break; }
+                        } else if (d == '\n') {
+                            line++;
+                            lineStart = p;
+                        }
+                    }
+                    if (!closed) {
+                        pos = p;
+                        return error("Comentario sin cierre", startPos, p, startLine, startCol);
+                    }
+                    continue;
+                }
+                pos = p + 1;
+                return token(TokenType.SLASH, p, p + 1);
+            }
+            break;
+        }
+
+        int start = p;
+        char c = b[p];
+        switch (classOf(c)) {
+            case C_EOF:
+                pos = p;
+                return token(TokenType.EOF, p, p);
+
+            case C_QUOTE: {
+                int startLine = line;
+                int startCol = p - lineStart + 1;
+                p++;
+                while (b[p] != '"' && b[p] != '\0') {
+                    if (b[p++] == '\n') {
+                        line++;
+                        lineStart = p;
+                        pos = p;
+                        return error("Cadena sin cierre", start, p, startLine, startCol);
+                    }
+                }
+                if (b[p] != '"') {
+                    pos = p;
+                    return error("Cadena sin cierre", start, p, startLine, startCol);
+                }
+                pos = p + 1;
+                // El lexema de la cadena no incluye las comillas
+                tokenType = TokenType.STRING_CONST;
+                tokenStart = start + 1;
+                tokenEnd = p;
+                tokenLine = startLine;
+                tokenColumn = startCol;
+                return tokenType;
+            }
+
+            case C_DIGIT: {
+                while (classOf(b[p]) == C_DIGIT) p++;
+                if (classOf(b[p]) == C_LETTER) {
+                    pos = p;
+                    return error("Identificador no puede comenzar con un número", start, p);
+                }
+                if (b[p] == '.') {
+                    p++;
+                    if (classOf(b[p]) != C_DIGIT) {
+                        pos = p;
+                        return error("Número real mal formado", start, p);
+                    }
+                    while (classOf(b[p]) == C_DIGIT) p++;
+                    pos = p;
+                    return token(TokenType.REAL_CONST, start, p);
+                }
+                pos = p;
+                return token(TokenType.INT_CONST, start, p);
+            }
+
+            case C_LETTER: {
+                p++;
+                while (isIdentifierPart(b[p])) p++;
+                pos = p;
+                return token(keywordType(b, start, p - start), start, p);
+            }
+
+            case C_OPERATOR: {
+                int row = OP_ROW[c];
+                char d = b[p + 1];
+                TokenType pair = d < 128 ? TRANSITION[row][OP_COL[d]] : null;
+                if (pair != null && OP_COL[d] != COL_NONE) {
+                    pos = p + 2;
+                    return token(pair, p, p + 2);
+                }
+                pos = p + 1;
+                TokenType single = TRANSITION[row][COL_NONE];
+                if (single == TokenType.ERROR) {
+                    return error("Símbolo no reconocido: '" + c + "'", p, p + 1);
+                }
+                return token(single, p, p + 1);
+            }
+
+            case C_PUNCT:
+                pos = p + 1;
+                return token(PUNCT[c], p, p + 1);
+
+            default:
+                pos = p + 1;
+                return error("Símbolo no reconocido: '" + c + "'", p, p + 1);
+        }
+    }
+
+    // Busca la palabra en la tabla de reservadas comparando en el buffer
+    private static TokenType keywordType(char[] b, int start, int length) {
+        if (length < 2 || length > 6) return TokenType.ID;
+        int h = keywordHash(b[start], b[start + 1], length);
+        char[] kw = KEYWORD[h];
+        if (kw == null || kw.length != length) return TokenType.ID;
+        for (int i = 0; i < length; i++) {
+            if (b[start + i] != kw[i]) return TokenType.ID;
+        }
+        return KEYWORD_TYPE[h];
+    }
+
+    private TokenType token(TokenType type, int start, int end) {
+        tokenType = type;
+        tokenStart = start;
+        tokenEnd = end;
+        tokenLine = line;
+        tokenColumn = start - lineStart + 1;
+        return type;
+    }
+
+    private TokenType error(String msg, int start, int end) {
+        return error(msg, start, end, line, start - lineStart + 1);
+    }
+
+    private TokenType error(String msg, int start, int end, int ln, int col) {
+        tokenType = TokenType.ERROR;
+        tokenStart = start;
+        tokenEnd = end;
+        tokenLine = ln;
+        tokenColumn = col;
+        errorMessage = "Error léxico [" + ln + ":" + col + "]: " + msg;
+        return tokenType;
+    }
+
+    public TokenType tokenType() { return tokenType; }
+    public int tokenStart() { return tokenStart; }
+    public int tokenLength() { return tokenEnd - tokenStart; }
+    public int tokenLine() { return tokenLine; }
+    public int tokenColumn() { return tokenColumn; }
+    public String errorMessage() { return errorMessage; }
+    public char[] buffer() { return buf; }
+
+    @Override
+    public Token nextToken() {
+        TokenType type = scan();
+        String lexeme;
+        if (type == TokenType.ERROR) {
+            lexeme = errorMessage;
+        } else {
+            lexeme = LEXEME[type.ordinal()];
+            if (lexeme == null) lexeme = new String(buf, tokenStart, tokenEnd - tokenStart);
+        }
+        return new Token(type, lexeme, tokenLine, tokenColumn);
+    }
+}
@@ -5,6 +5,8 @@ public class Token {
     private String lexeme;
     private int line;
     private int column;
+    // Número del identificador en el Interner del lexer; -1 si no se internó
+    private int symbol = -1;
 
     public Token(TokenType type, String lexeme, int line, int column) {
         this.type = type;
@@ -13,6 +15,11 @@ public class Token {
         this.column = column;
     }
 
+    public Token(TokenType type, String lexeme, int line, int column, int symbol) {
+        this(type, lexeme, line, column);
+        this.symbol = symbol;
+    }
+
     public TokenType getType() {
         return type;
     }
@@ -29,6 +36,10 @@ public class Token {
         return column;
     }
 
+    public int getSymbol() {
+        return symbol;
+    }
+
     @Override
     public String toString() {
         return "Token{" +
@@ -0,0 +1,316 @@
+package compiler_lexer;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tokens guardados como arreglos primitivos paralelos (tipo, inicio, longitud, línea, columna).
+ * Escanear un archivo completo crea una cantidad constante de objetos por nombre distinto:
+ * los identificadores se internan al escanearlos, el resto de los lexemas se entregan como
+ * vistas sobre el código fuente sólo cuando se piden, y {@link Token} queda como vista de
+ * compatibilidad.
+ */
+public class TokenBuffer {
+
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final char[] source;
+    private byte[] types;
+    private int[] starts;
+    private int[] lengths;
+    private int[] lines;
+    private int[] columns;
+    // Número de Interner para los ID, -1 para el resto
+    private int[] symbols;
+    private int size;
+    private final Interner interner;
+
+    // Los errores son raros: sus mensajes se guardan aparte
+    private int[] errorTokens = new int[0];
+    private String[] errorMessages = new String[0];
+    private int errorCount;
+
+    TokenBuffer(char[] source, int capacity, Interner interner) {
+        this.source = source;
+        this.interner = interner;
+        types = new byte[capacity];
+        starts = new int[capacity];
+        lengths = new int[capacity];
+        lines = new int[capacity];
+        columns = new int[capacity];
+        symbols = new int[capacity];
+    }
+
+    // Escanea toda la fuente; el último token siempre es EOF
+    public static TokenBuffer lex(CharSequence src) {
+        TableScanner scanner = new TableScanner(src);
+        TokenBuffer buffer = new TokenBuffer(scanner.buffer(), scanner.buffer().length / 4 + 16, new Interner());
+        TokenType type;
+        do {
+            type = scanner.scan();
+            buffer.add(scanner);
+        } while (type != TokenType.EOF);
+        return buffer;
+    }
+
+    void add(TableScanner scanner) {
+        add(scanner, 0);
+    }
+
+    // Con lineDelta, el escáner contó las líneas desde otro punto que el comienzo de la fuente
+    void add(TableScanner scanner, int lineDelta) {
+        if (size == types.length) grow();
+        TokenType type = scanner.tokenType();
+        types[size] = (byte) type.ordinal();
+        starts[size] = scanner.tokenStart();
+        lengths[size] = scanner.tokenLength();
+        lines[size] = scanner.tokenLine() + lineDelta;
+        columns[size] = scanner.tokenColumn();
+        symbols[size] = type == TokenType.ID
+                ? interner.intern(source, scanner.tokenStart(), scanner.tokenLength()) : -1;
+        if (type == TokenType.ERROR) {
+            String message = scanner.errorMessage();
+            addError(size, lineDelta != 0 ? moved(message, lines[size], columns[size]) : message);
+        }
+        size++;
+    }
+
+    // Deja lugar para count tokens que se llenan después con fillChunk; devuelve dónde empieza
+    int reserve(int count) {
+        while (size + count > types.length) grow();
+        int at = size;
+        size += count;
+        return at;
+    }
+
+    /**
+     * Escribe en [at, at + to - from) los tokens [from, to) de un buffer escaneado aparte sobre
+     * la misma fuente, con las líneas desplazadas lineDelta y los ID pasados a los números de
+     * este buffer con symbolMap (número del otro Interner a número de éste). Sólo escribe en
+     * ese rango, así que varios hilos pueden llenar rangos distintos a la vez.
+     */
+    void fillChunk(int at, TokenBuffer other, int from, int to, int lineDelta, int[] symbolMap) {
+        int count = to - from;
+        System.arraycopy(other.types, from, types, at, count);
+        System.arraycopy(other.starts, from, starts, at, count);
+        System.arraycopy(other.lengths, from, lengths, at, count);
+        System.arraycopy(other.columns, from, columns, at, count);
+        int[] otherLines = other.lines;
+        int[] otherSymbols = other.symbols;
+        for (int k = 0; k < count; k++) {
+            lines[at + k] = otherLines[from + k] + lineDelta;
+            int local = otherSymbols[from + k];
+            symbols[at + k] = local < 0 ? -1 : symbolMap[local];
+        }
+    }
+
+    // Los errores de los tokens [from, to) del otro buffer, que van desde at en éste
+    void addErrors(int at, TokenBuffer other, int from, int to, int lineDelta) {
+        for (int e = 0; e < other.errorCount; e++) {
+            int i = other.errorTokens[e];
+            if (i < from || i >= to) continue;
+            String message = other.errorMessages[e];
+            if (lineDelta != 0) message = moved(message, other.lines[i] + lineDelta, other.columns[i]);
+            addError(at + i - from, message);
+        }
+    }
+
+    // Los números de ID por token, para recorrer en orden los de un buffer escaneado aparte
+    int[] symbols() {
+        return symbols;
+    }
+
+    /**
+     * Los mismos tokens (sin copiarlos: un buffer terminado no cambia) con otro Interner, que
+     * debe dar los mismos números a los ID, por ejemplo {@link Interner#copy()} del suyo.
+     */
+    public TokenBuffer withInterner(Interner other) {
+        TokenBuffer view = new TokenBuffer(source, 0, other);
+        view.types = types;
+        view.starts = starts;
+        view.lengths = lengths;
+        view.lines = lines;
+        view.columns = columns;
+        view.symbols = symbols;
+        view.size = size;
+        view.errorTokens = errorTokens;
+        view.errorMessages = errorMessages;
+        view.errorCount = errorCount;
+        return view;
+    }
+
+    // El mensaje de un error léxico lleva su posición: se regenera en la nueva
+    private static String moved(String message, int line, int column) {
+        return "Error léxico [" + line + ":" + column + "]" + message.substring(message.indexOf(']') + 1);
+    }
+
+    /**
+     * Copia los tokens [from, to) de otro buffer desplazando offsets y líneas.
+     * Las columnas sólo cambian en los tokens de la línea anchorLine (la del punto de reenganche).
+     * Ambos buffers deben compartir el Interner para que los números de los ID sigan valiendo.
+     */
+    void copyFrom(TokenBuffer other, int from, int to, int startDelta, int lineDelta, int anchorLine, int columnDelta) {
+        int count = to - from;
+        if (count <= 0) return;
+        while (size + count > types.length) grow();
+        System.arraycopy(other.types, from, types, size, count);
+        System.arraycopy(other.lengths, from, lengths, size, count);
+        System.arraycopy(other.symbols, from, symbols, size, count);
+        for (int k = 0; k < count; k++) {
+            int i = from + k;
+            starts[size + k] = other.starts[i] + startDelta;
+            lines[size + k] = other.lines[i] + lineDelta;
+            columns[size + k] = other.columns[i] + (other.lines[i] == anchorLine ? columnDelta : 0);
+        }
+        for (int e = 0; e < other.errorCount; e++) {
+            int i = other.errorTokens[e];
+            if (i < from || i >= to) continue;
+            String message = other.errorMessages[e];
+            if (lineDelta != 0 || other.lines[i] == anchorLine && columnDelta != 0) {
+                message = moved(message, lines[size + i - from], columns[size + i - from]);
+            }
+            addError(size + i - from, message);
+        }
+        size += count;
+    }
+
+    private void grow() {
+        int capacity = Math.max(16, types.length * 2);
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        columns = Arrays.copyOf(columns, capacity);
+        symbols = Arrays.copyOf(symbols, capacity);
+    }
+
+    private void addError(int index, String message) {
+        if (errorCount == errorTokens.length) {
+            int capacity = Math.max(4, errorCount * 2);
+            errorTokens = Arrays.copyOf(errorTokens, capacity);
+            errorMessages = Arrays.copyOf(errorMessages, capacity);
+        }
+        errorTokens[errorCount] = index;
+        errorMessages[errorCount] = message;
+        errorCount++;
+    }
+
+    char[] source() { return source; }
+
+    // Longitud de la fuente (sin el centinela)
+    public int sourceLength() { return source.length - 1; }
+
+    // Offsets del texto real del token (las cadenas guardan el contenido sin comillas)
+    int rawStart(int i) {
+        return types[i] == TokenType.STRING_CONST.ordinal() ? starts[i] - 1 : starts[i];
+    }
+
+    int rawEnd(int i) {
+        return types[i] == TokenType.STRING_CONST.ordinal() ? starts[i] + lengths[i] + 1 : starts[i] + lengths[i];
+    }
+
+    public int size() { return size; }
+    public TokenType type(int i) { return TYPES[types[i]]; }
+    public int typeOrdinal(int i) { return types[i]; }
+    public int start(int i) { return starts[i]; }
+    public int length(int i) { return lengths[i]; }
+    public int line(int i) { return lines[i]; }
+    public int column(int i) { return columns[i]; }
+    public int symbol(int i) { return symbols[i]; }
+    public Interner interner() { return interner; }
+
+    public int errorCount() { return errorCount; }
+    public int errorToken(int k) { return errorTokens[k]; }
+    public String errorMessage(int k) { return errorMessages[k]; }
+
+    // El mensaje sin "Error léxico [línea:columna]: ", como los de las otras fases
+    public String errorDetail(int k) {
+        String message = errorMessages[k];
+        int end = message.indexOf("]: ");
+        return end >= 0 ? message.substring(end + 3) : message;
+    }
+
+    // Lexema como vista sobre la fuente (para ERROR devuelve el mensaje)
+    public CharSequence lexeme(int i) {
+        if (types[i] == TokenType.ERROR.ordinal()) return errorMessageOf(i);
+        return new Slice(source, starts[i], lengths[i]);
+    }
+
+    // Compara el lexema con un texto sin crear objetos
+    public boolean lexemeEquals(int i, String text) {
+        int len = lengths[i];
+        if (len != text.length()) return false;
+        int start = starts[i];
+        for (int k = 0; k < len; k++) {
+            if (source[start + k] != text.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    private String errorMessageOf(int i) {
+        int k = Arrays.binarySearch(errorTokens, 0, errorCount, i);
+        return k >= 0 ? errorMessages[k] : "";
+    }
+
+    // Vista de compatibilidad: los ID reutilizan el String del Interner
+    public Token token(int i) {
+        if (symbols[i] >= 0) {
+            return new Token(TokenType.ID, interner.name(symbols[i]), lines[i], columns[i], symbols[i]);
+        }
+        return new Token(type(i), lexeme(i).toString(), lines[i], columns[i]);
+    }
+
+    // Lista de sólo lectura que crea cada Token al pedirlo
+    public List<Token> tokens() {
+        return new AbstractList<>() {
+            @Override
+            public Token get(int index) {
+                if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+                return token(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Fragmento de la fuente sin copiar caracteres.
+     */
+    private static final class Slice implements CharSequence {
+        private final char[] chars;
+        private final int offset;
+        private final int length;
+
+        Slice(char[] chars, int offset, int length) {
+            this.chars = chars;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) throw new IndexOutOfBoundsException(index);
+            return chars[offset + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) throw new IndexOutOfBoundsException();
+            return new Slice(chars, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, offset, length);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package compiler_lexer;
+
+import java.util.List;
+
+/**
+ * Flujo de tokens con buffer de anticipación (lookahead).
+ * Puede leer los tokens a demanda desde un Lexer o reproducir una lista ya escaneada,
+ * de modo que el código fuente se recorre una sola vez por compilación.
+ */
+public class TokenStream {
+
+    // Capacidad del buffer circular (potencia de dos)
+    private static final int LOOKAHEAD = 4;
+
+    private final Lexer lexer;
+    private final List<Token> tokens;
+    private int listPos = 0;
+    // Interner que numeró los identificadores de los tokens; null si no vienen numerados
+    private final Interner interner;
+
+    private final Token[] ring = new Token[LOOKAHEAD];
+    private int head = 0;
+    private int count = 0;
+    private Token eof;
+
+    public TokenStream(Lexer lexer) {
+        this.lexer = lexer;
+        this.tokens = null;
+        this.interner = null;
+    }
+
+    public TokenStream(List<Token> tokens) {
+        this.lexer = null;
+        this.tokens = tokens;
+        this.interner = null;
+    }
+
+    public TokenStream(TokenBuffer buffer) {
+        this.lexer = null;
+        this.tokens = buffer.tokens();
+        this.interner = buffer.interner();
+    }
+
+    public Interner interner() {
+        return interner;
+    }
+
+    // Devuelve el token actual sin consumirlo
+    public Token peek() {
+        return peek(0);
+    }
+
+    // Devuelve el token k posiciones adelante (0 = actual)
+    public Token peek(int k) {
+        if (k >= LOOKAHEAD) throw new IllegalArgumentException("Lookahead máximo: " + (LOOKAHEAD - 1));
+        while (count <= k) {
+            ring[(head + count) & (LOOKAHEAD - 1)] = pull();
+            count++;
+        }
+        return ring[(head + k) & (LOOKAHEAD - 1)];
+    }
+
+    public TokenType peekType() {
+        return peek(0).getType();
+    }
+
+    public TokenType peekType(int k) {
+        return peek(k).getType();
+    }
+
+    // Consume y devuelve el token actual
+    public Token next() {
+        Token t = peek(0);
+        if (t.getType() != TokenType.EOF) {
+            ring[head] = null;
+            head = (head + 1) & (LOOKAHEAD - 1);
+            count--;
+        }
+        return t;
+    }
+
+    // Una vez alcanzado EOF se sigue devolviendo el mismo token
+    private Token pull() {
+        if (eof != null) return eof;
+        Token t;
+        if (lexer != null) {
+            t = lexer.nextToken();
+        } else if (listPos < tokens.size()) {
+            t = tokens.get(listPos++);
+        } else {
+            Token last = tokens.isEmpty() ? null : tokens.get(tokens.size() - 1);
+            t = new Token(TokenType.EOF, "", last != null ? last.getLine() : 1, last != null ? last.getColumn() : 1);
+        }
+        if (t.getType() == TokenType.EOF) eof = t;
+        return t;
+    }
+}
@@ -0,0 +1,120 @@
+package compiler_lsp;
+
+import compiler_lexer.IncrementalLexer;
+import compiler_lexer.TokenBuffer;
+
+import java.util.Arrays;
+
+/**
+ * Un documento abierto en el editor: su texto, sus tokens y la versión que mandó el cliente.
+ * Cada cambio se aplica al texto y se re-escanea sólo la zona editada. Los cambios llegan
+ * desde un solo hilo; el análisis, desde otro, sólo lee {@link Snapshot}s, que no cambian.
+ *
+ * El re-escaneo sigue internando nombres en el Interner del documento, así que cada
+ * Snapshot lleva una copia propia: el parser del análisis interna ahí los tipos y los
+ * literales sin tocar el que usa el hilo de los cambios. Como el Interner del documento
+ * también guarda cada nombre a medio escribir, cuando crece al doble desde el último escaneo
+ * completo se vuelve a escanear todo con uno nuevo.
+ */
+final class Document {
+
+    // Los tokens de una versión
+    static final class Snapshot {
+        final TokenBuffer tokens;
+        final int version;
+
+        Snapshot(TokenBuffer tokens, int version) {
+            this.tokens = tokens;
+            this.version = version;
+        }
+    }
+
+    final String uri;
+    private final StringBuilder text;
+    private final IncrementalLexer lexer = new IncrementalLexer();
+    // Los tokens del lexer, con el Interner que sólo toca este hilo
+    private TokenBuffer tokens;
+    private int namesAtLex;
+    private volatile Snapshot snapshot;
+
+    // Inicio de cada línea; se recalcula sólo cuando un cambio lo necesita
+    private int[] lineStarts = new int[64];
+    private int lines;
+    private boolean indexed;
+
+    Document(String uri, String text, int version) {
+        this.uri = uri;
+        this.text = new StringBuilder(text);
+        lex(version);
+    }
+
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    int version() {
+        return snapshot.version;
+    }
+
+    // Un documento cerrado no vuelve a publicar: su versión ya no coincide con ningún análisis
+    void close() {
+        snapshot = new Snapshot(snapshot.tokens, Integer.MIN_VALUE);
+    }
+
+    // Reemplaza todo el texto (cambio sin rango)
+    void replace(String content, int version) {
+        text.setLength(0);
+        text.append(content);
+        lex(version);
+        indexed = false;
+    }
+
+    /**
+     * Reemplaza el rango [(startLine, startCharacter), (endLine, endCharacter)) por inserted.
+     * Las posiciones son las del protocolo: líneas desde 0 y caracteres UTF-16, que son los
+     * char de Java.
+     */
+    void edit(int startLine, int startCharacter, int endLine, int endCharacter, String inserted, int version) {
+        int start = offset(startLine, startCharacter);
+        int end = Math.max(start, offset(endLine, endCharacter));
+        tokens = lexer.relex(tokens, start, end - start, inserted);
+        text.replace(start, end, inserted);
+        indexed = false;
+        if (tokens.interner().size() > 2 * namesAtLex + 256) lex(version);
+        else publish(version);
+    }
+
+    private void lex(int version) {
+        tokens = TokenBuffer.lex(text);
+        namesAtLex = tokens.interner().size();
+        publish(version);
+    }
+
+    private void publish(int version) {
+        snapshot = new Snapshot(tokens.withInterner(tokens.interner().copy()), version);
+    }
+
+    // Una posición fuera del texto se ajusta al final de la línea o del documento
+    private int offset(int line, int character) {
+        if (!indexed) indexLines();
+        if (line < 0) return 0;
+        if (line >= lines) return text.length();
+        int lineEnd = line + 1 < lines ? lineStarts[line + 1] - 1 : text.length();
+        return lineStarts[line] + Math.max(0, Math.min(character, lineEnd - lineStarts[line]));
+    }
+
+    private void indexLines() {
+        int[] starts = lineStarts;
+        int count = 0;
+        starts[count++] = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                if (count == starts.length) starts = Arrays.copyOf(starts, count * 2);
+                starts[count++] = i + 1;
+            }
+        }
+        lineStarts = starts;
+        lines = count;
+        indexed = true;
+    }
+}
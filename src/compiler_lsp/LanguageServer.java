@@ -0,0 +1,350 @@
+package compiler_lsp;
+
+import compiler_diagnostics.Diagnostic;
+import compiler_driver.CheckResult;
+import compiler_driver.Json;
+import compiler_driver.ResultCache;
+import compiler_lexer.TokenBuffer;
+import compiler_lexer.TokenType;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor del Language Server Protocol sobre stdio (o cualquier par de streams): guarda los
+ * documentos abiertos, aplica los cambios incrementales con {@link Document} y publica los
+ * errores de las tres fases. Cada cambio reprograma el análisis de su documento para dentro
+ * de la espera configurada; un análisis que ve que llegó una versión más nueva se corta entre
+ * fases y no publica nada.
+ *
+ * Atiende initialize, shutdown, exit y las notificaciones didOpen, didChange y didClose; los
+ * demás pedidos reciben el error MethodNotFound.
+ */
+public class LanguageServer {
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 50;
+
+    // Códigos de error de JSON-RPC
+    private static final int PARSE_ERROR = -32700;
+    private static final int INVALID_REQUEST = -32600;
+    private static final int METHOD_NOT_FOUND = -32601;
+    private static final int INTERNAL_ERROR = -32603;
+
+    private static final int MAX_HEADER = 8192;
+
+    private final InputStream in;
+    private final OutputStream out;
+    private long debounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+
+    // Sólo los toca el hilo que lee los mensajes
+    private final Map<String, Document> documents = new HashMap<>();
+    private final Map<String, ScheduledFuture<?>> pending = new HashMap<>();
+    private boolean shutdown;
+
+    private final ScheduledExecutorService analysis = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "compiler-lsp");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger scheduled = new AtomicInteger();
+    private final AtomicInteger analyses = new AtomicInteger();
+
+    public LanguageServer(InputStream in, OutputStream out) {
+        this.in = new BufferedInputStream(in);
+        this.out = out;
+    }
+
+    // Espera desde el último cambio hasta analizar; 0 analiza en cada cambio
+    public void setDebounceMillis(long debounceMillis) {
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Atiende mensajes hasta exit o hasta que se cierra la entrada. Devuelve el código de
+     * salida que pide el protocolo: 0 si antes llegó shutdown, 1 si no.
+     */
+    public int run() throws IOException {
+        try {
+            String body;
+            while ((body = readMessage()) != null) {
+                Object message;
+                try {
+                    message = JsonParser.parse(body);
+                } catch (IllegalArgumentException e) {
+                    sendError(null, PARSE_ERROR, e.getMessage());
+                    continue;
+                }
+                if (!(message instanceof Map)) {
+                    sendError(null, INVALID_REQUEST, "Se esperaba un objeto");
+                    continue;
+                }
+                if (!handle(object(message))) break;
+            }
+            return shutdown ? 0 : 1;
+        } finally {
+            analysis.shutdownNow();
+        }
+    }
+
+    // Análisis que llegaron a publicar
+    public int getAnalyses() {
+        return analyses.get();
+    }
+
+    // Análisis descartados antes de empezar o cortados por una versión más nueva (más los que
+    // estén esperando o en curso)
+    public int getCancelled() {
+        return scheduled.get() - analyses.get();
+    }
+
+    // false con exit
+    private boolean handle(Map<String, Object> message) throws IOException {
+        Object id = message.get("id");
+        String method = (String) message.get("method");
+        if (method == null) return true;  // respuesta del cliente a algo que no pedimos
+        if (method.equals("exit")) return false;
+        if (shutdown && id != null) {
+            sendError(id, INVALID_REQUEST, "El servidor ya recibió shutdown");
+            return true;
+        }
+        try {
+            Map<String, Object> params = message.get("params") instanceof Map ? object(message.get("params")) : null;
+            switch (method) {
+                case "initialize":
+                    send(response(id, "{\"capabilities\": {\"textDocumentSync\": {\"openClose\": true, \"change\": 2}}, "
+                            + "\"serverInfo\": {\"name\": \"compiler\", \"version\": " + Json.quote(ResultCache.VERSION) + "}}"));
+                    break;
+                case "shutdown":
+                    shutdown = true;
+                    for (ScheduledFuture<?> future : pending.values()) future.cancel(false);
+                    send(response(id, "null"));
+                    break;
+                case "textDocument/didOpen":
+                    didOpen(object(params.get("textDocument")));
+                    break;
+                case "textDocument/didChange":
+                    didChange(object(params.get("textDocument")), list(params.get("contentChanges")));
+                    break;
+                case "textDocument/didClose":
+                    didClose(object(params.get("textDocument")));
+                    break;
+                default:
+                    if (id != null) sendError(id, METHOD_NOT_FOUND, "Método no soportado: " + method);
+            }
+        } catch (RuntimeException e) {
+            // Parámetros que no son los del protocolo
+            if (id != null) sendError(id, INTERNAL_ERROR, method + ": " + e);
+        }
+        return true;
+    }
+
+    private void didOpen(Map<String, Object> item) {
+        String uri = (String) item.get("uri");
+        Document document = new Document(uri, (String) item.get("text"), integer(item.get("version")));
+        documents.put(uri, document);
+        schedule(document, 0);
+    }
+
+    private void didChange(Map<String, Object> identifier, List<Object> changes) {
+        Document document = documents.get((String) identifier.get("uri"));
+        if (document == null) return;
+        int version = integer(identifier.get("version"));
+        for (Object item : changes) {
+            Map<String, Object> change = object(item);
+            String text = (String) change.get("text");
+            if (change.get("range") == null) {
+                document.replace(text, version);
+                continue;
+            }
+            Map<String, Object> range = object(change.get("range"));
+            Map<String, Object> start = object(range.get("start"));
+            Map<String, Object> end = object(range.get("end"));
+            document.edit(integer(start.get("line")), integer(start.get("character")),
+                    integer(end.get("line")), integer(end.get("character")), text, version);
+        }
+        schedule(document, debounceMillis);
+    }
+
+    private void didClose(Map<String, Object> identifier) throws IOException {
+        String uri = (String) identifier.get("uri");
+        Document document = documents.remove(uri);
+        if (document != null) document.close();
+        ScheduledFuture<?> previous = pending.remove(uri);
+        if (previous != null) previous.cancel(false);
+        // Al cerrar, el editor espera que se borren sus errores
+        send(notification("textDocument/publishDiagnostics", "{\"uri\": " + Json.quote(uri) + ", \"diagnostics\": []}"));
+    }
+
+    // Un análisis pendiente que todavía no empezó se descarta; uno en curso se corta solo
+    private void schedule(Document document, long delay) {
+        int version = document.version();
+        ScheduledFuture<?> future = analysis.schedule(() -> analyze(document, version), delay, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> previous = pending.put(document.uri, future);
+        if (previous != null) previous.cancel(false);
+        scheduled.incrementAndGet();
+    }
+
+    // Un fallo del análisis se avisa con window/logMessage: el ejecutor lo guardaría en el futuro y nadie lo vería
+    private void analyze(Document document, int version) {
+        try {
+            publish(document, version);
+        } catch (RuntimeException | StackOverflowError e) {
+            String message = "Falló el análisis de " + document.uri + " (versión " + version + "): " + e;
+            try {
+                send(notification("window/logMessage", "{\"type\": 1, \"message\": " + Json.quote(message) + "}"));
+            } catch (IOException ignored) {
+                // El cliente se fue: run() lo va a ver al leer
+            }
+        }
+    }
+
+    private void publish(Document document, int version) {
+        Document.Snapshot snapshot = document.snapshot();
+        if (snapshot.version != version) return;
+        CheckResult result = CheckResult.check(snapshot.tokens, () -> document.version() != version);
+        if (result == null || document.version() != version) return;
+        StringBuilder params = new StringBuilder(256);
+        params.append("{\"uri\": ").append(Json.quote(document.uri))
+                .append(", \"version\": ").append(version)
+                .append(", \"diagnostics\": [");
+        String phase = result.isSuccessful() ? null : result.getFailedPhase().name().toLowerCase(Locale.ROOT);
+        List<Diagnostic> diagnostics = result.getDiagnostics();
+        for (int k = 0; k < diagnostics.size(); k++) {
+            if (k > 0) params.append(", ");
+            diagnostic(params, snapshot.tokens, diagnostics.get(k), phase);
+        }
+        params.append("]}");
+        try {
+            send(notification("textDocument/publishDiagnostics", params.toString()));
+            analyses.incrementAndGet();
+        } catch (IOException e) {
+            // El cliente se fue: run() lo va a ver al leer
+        }
+    }
+
+    // Línea y columna desde 1 pasan a posiciones desde 0; el rango cubre el token que empieza ahí
+    private static void diagnostic(StringBuilder json, TokenBuffer tokens, Diagnostic d, String phase) {
+        int line = Math.max(0, d.getLine() - 1);
+        int character = Math.max(0, d.getColumn() - 1);
+        int length = d.getLine() > 0 ? tokenLength(tokens, d.getLine(), d.getColumn()) : 0;
+        json.append("{\"range\": {\"start\": {\"line\": ").append(line).append(", \"character\": ").append(character)
+                .append("}, \"end\": {\"line\": ").append(line).append(", \"character\": ").append(character + length)
+                .append("}}, \"severity\": 1, \"source\": \"compiler\", \"code\": ").append(Json.quote(phase))
+                .append(", \"message\": ").append(Json.quote(d.getMessage())).append('}');
+    }
+
+    // Largo del token en esa posición (búsqueda binaria: los tokens están en orden), o 1 si no hay
+    // uno. Si sigue en otra línea el rango pasa del final de la línea, y el protocolo lo recorta ahí
+    private static int tokenLength(TokenBuffer tokens, int line, int column) {
+        int lo = 0;
+        int hi = tokens.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int compare = tokens.line(mid) != line ? Integer.compare(tokens.line(mid), line)
+                    : Integer.compare(tokens.column(mid), column);
+            if (compare < 0) {
+                lo = mid + 1;
+            } else if (compare > 0) {
+                hi = mid - 1;
+            } else {
+                // Las cadenas guardan el contenido sin las comillas
+                int quotes = tokens.type(mid) == TokenType.STRING_CONST ? 2 : 0;
+                return Math.max(1, tokens.length(mid) + quotes);
+            }
+        }
+        return 1;
+    }
+
+    // Encabezados hasta una línea vacía; sólo importa Content-Length. null al cerrarse la entrada
+    private String readMessage() throws IOException {
+        int length = -1;
+        while (true) {
+            String header = readHeader();
+            if (header == null) return null;
+            if (header.isEmpty()) {
+                if (length >= 0) break;
+                continue;
+            }
+            int colon = header.indexOf(':');
+            if (colon > 0 && header.substring(0, colon).trim().equalsIgnoreCase("Content-Length")) {
+                try {
+                    length = Integer.parseInt(header.substring(colon + 1).trim());
+                } catch (NumberFormatException e) {
+                    throw new IOException("Content-Length inválido: " + header);
+                }
+            }
+        }
+        byte[] body = in.readNBytes(length);
+        if (body.length < length) return null;
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    private String readHeader() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int c;
+        while ((c = in.read()) != '\n') {
+            if (c < 0) return null;
+            if (line.size() == MAX_HEADER) throw new IOException("encabezado demasiado largo");
+            if (c != '\r') line.write(c);
+        }
+        return line.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static String response(Object id, String result) {
+        return "{\"jsonrpc\": \"2.0\", \"id\": " + id(id) + ", \"result\": " + result + "}";
+    }
+
+    private static String notification(String method, String params) {
+        return "{\"jsonrpc\": \"2.0\", \"method\": " + Json.quote(method) + ", \"params\": " + params + "}";
+    }
+
+    private void sendError(Object id, int code, String message) throws IOException {
+        send("{\"jsonrpc\": \"2.0\", \"id\": " + id(id) + ", \"error\": {\"code\": " + code
+                + ", \"message\": " + Json.quote(message) + "}}");
+    }
+
+    private static String id(Object id) {
+        return id instanceof String ? Json.quote((String) id) : String.valueOf(id);
+    }
+
+    // Lo usan el hilo de lectura y el de análisis: cada mensaje sale entero
+    private void send(String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        byte[] header = ("Content-Length: " + body.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        synchronized (out) {
+            out.write(header);
+            out.write(body);
+            out.flush();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> object(Object value) {
+        if (!(value instanceof Map)) throw new IllegalArgumentException("se esperaba un objeto");
+        return (Map<String, Object>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> list(Object value) {
+        if (!(value instanceof List)) throw new IllegalArgumentException("se esperaba un arreglo");
+        return (List<Object>) value;
+    }
+
+    private static int integer(Object value) {
+        if (!(value instanceof Number)) throw new IllegalArgumentException("se esperaba un número");
+        return ((Number) value).intValue();
+    }
+}
@@ -0,0 +1,436 @@
+package compiler_optimizer;
+
+import compiler_lexer.TokenType;
+import compiler_semantic.Bindings;
+import compiler_semantic.Type;
+import compiler_sintactic.Ast;
+import compiler_sintactic.NodeKind;
+
+import java.util.Arrays;
+
+/**
+ * Optimiza un programa ya verificado modificando su AST: pliega las expresiones constantes
+ * (aritmética, comparaciones, !, && y ||), reemplaza los if y while de condición constante
+ * por la rama que corresponde y quita las sentencias inalcanzables (después de un break, de
+ * un if cuyas dos ramas salen o de un while (true) sin break).
+ *
+ * Un nodo plegado se convierte en literal sin cambiar de índice, así el tipo que guardó
+ * {@link Bindings} sigue valiendo. La aritmética es la de Java (int de 32 bits); una
+ * división entera por cero no se pliega para que siga fallando al ejecutar.
+ */
+public class AstOptimizer {
+
+    private final Ast ast;
+    private final Bindings bindings;
+
+    private int nodesBefore;
+    private int nodesAfter;
+    private int folded;
+    private int removedStatements;
+
+    // Pila propia para las cadenas de operadores inclinadas a la izquierda
+    private int[] spine = new int[16];
+    private int spineTop;
+
+    public AstOptimizer(Ast ast, Bindings bindings) {
+        this.ast = ast;
+        this.bindings = bindings;
+    }
+
+    public void optimize() {
+        int root = ast.root();
+        nodesBefore = count(root);
+        ast.setFirst(root, list(ast.first(root)));
+        nodesAfter = count(root);
+    }
+
+    public int getNodesBefore() {
+        return nodesBefore;
+    }
+
+    public int getNodesAfter() {
+        return nodesAfter;
+    }
+
+    // Nodos que dejaron de estar en el árbol
+    public int getEliminatedNodes() {
+        return nodesBefore - nodesAfter;
+    }
+
+    // Operaciones resueltas al compilar
+    public int getFoldedExpressions() {
+        return folded;
+    }
+
+    public int getRemovedStatements() {
+        return removedStatements;
+    }
+
+    public String summary() {
+        return getEliminatedNodes() + " de " + nodesBefore + " nodos eliminados (" + folded
+                + " operaciones plegadas, " + removedStatements + " sentencias quitadas)";
+    }
+
+    // ---------------------------------------------------------------
+    // Sentencias
+    // ---------------------------------------------------------------
+
+    // Optimiza una lista de sentencias y devuelve su nuevo primer elemento
+    private int list(int first) {
+        int head = Ast.NONE;
+        int tail = Ast.NONE;
+        int n = first;
+        while (n != Ast.NONE) {
+            int next = ast.next(n);
+            int s = statement(n);
+            if (s != Ast.NONE) {
+                if (tail == Ast.NONE) head = s;
+                else ast.setNext(tail, s);
+                tail = s;
+                ast.setNext(s, Ast.NONE);
+                if (exits(s)) {
+                    // Lo que sigue no se alcanza nunca
+                    for (int rest = next; rest != Ast.NONE; rest = ast.next(rest)) removedStatements++;
+                    return head;
+                }
+            }
+            n = next;
+        }
+        return head;
+    }
+
+    // Sentencia que ocupa un lugar fijo (rama de if, cuerpo de while): si desaparece queda un bloque vacío
+    private int single(int n) {
+        int s = statement(n);
+        if (s != Ast.NONE) return s;
+        ast.setKind(n, NodeKind.BLOCK);
+        ast.setFirst(n, Ast.NONE);
+        ast.setSecond(n, Ast.NONE);
+        ast.setThird(n, Ast.NONE);
+        return n;
+    }
+
+    // Devuelve la sentencia que reemplaza a n, o NONE si se quita
+    private int statement(int n) {
+        switch (ast.kind(n)) {
+            case BLOCK:
+                ast.setFirst(n, list(ast.first(n)));
+                return n;
+            case DECLARATION:
+                if (ast.second(n) != Ast.NONE) ast.setSecond(n, expression(ast.second(n)));
+                return n;
+            case IF: {
+                int condition = expression(ast.first(n));
+                ast.setFirst(n, condition);
+                if (ast.kind(condition) == NodeKind.BOOL_LITERAL) {
+                    removedStatements++;
+                    int taken = ast.data(condition) != 0 ? ast.second(n) : ast.third(n);
+                    return taken != Ast.NONE ? statement(taken) : Ast.NONE;
+                }
+                ast.setSecond(n, single(ast.second(n)));
+                if (ast.third(n) != Ast.NONE) ast.setThird(n, single(ast.third(n)));
+                return n;
+            }
+            case WHILE: {
+                int condition = expression(ast.first(n));
+                ast.setFirst(n, condition);
+                if (ast.kind(condition) == NodeKind.BOOL_LITERAL && ast.data(condition) == 0) {
+                    removedStatements++;
+                    return Ast.NONE;
+                }
+                ast.setSecond(n, single(ast.second(n)));
+                return n;
+            }
+            case WRITE:
+                ast.setFirst(n, expression(ast.first(n)));
+                return n;
+            case EXPRESSION: {
+                int e = expression(ast.first(n));
+                ast.setFirst(n, e);
+                // Una expresión constante como sentencia no hace nada
+                if (isLiteral(e)) {
+                    removedStatements++;
+                    return Ast.NONE;
+                }
+                return n;
+            }
+            default:
+                return n;
+        }
+    }
+
+    // La sentencia nunca sigue con la siguiente de su lista
+    private boolean exits(int n) {
+        switch (ast.kind(n)) {
+            case BREAK:
+                return true;
+            case BLOCK: {
+                int last = ast.first(n);
+                if (last == Ast.NONE) return false;
+                while (ast.next(last) != Ast.NONE) last = ast.next(last);
+                return exits(last);
+            }
+            case IF:
+                return ast.third(n) != Ast.NONE && exits(ast.second(n)) && exits(ast.third(n));
+            case WHILE: {
+                int condition = ast.first(n);
+                return ast.kind(condition) == NodeKind.BOOL_LITERAL && ast.data(condition) != 0
+                        && !breaks(ast.second(n));
+            }
+            default:
+                return false;
+        }
+    }
+
+    // Hay un break que sale del while cuyo cuerpo es n (no cuenta los de while internos)
+    private boolean breaks(int n) {
+        switch (ast.kind(n)) {
+            case BREAK:
+                return true;
+            case BLOCK:
+                for (int c = ast.first(n); c != Ast.NONE; c = ast.next(c)) {
+                    if (breaks(c)) return true;
+                }
+                return false;
+            case IF:
+                return breaks(ast.second(n)) || (ast.third(n) != Ast.NONE && breaks(ast.third(n)));
+            default:
+                return false;
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Expresiones: devuelven el nodo que reemplaza a n (n mismo si no cambia de lugar)
+    // ---------------------------------------------------------------
+
+    private int expression(int n) {
+        switch (ast.kind(n)) {
+            case NOT: {
+                int operand = expression(ast.first(n));
+                ast.setFirst(n, operand);
+                if (ast.kind(operand) == NodeKind.BOOL_LITERAL) {
+                    return bool(n, ast.data(operand) == 0);
+                }
+                // !!x es x
+                if (ast.kind(operand) == NodeKind.NOT) {
+                    folded++;
+                    return ast.first(operand);
+                }
+                return n;
+            }
+            case ASSIGN:
+                ast.setSecond(n, expression(ast.second(n)));
+                return n;
+            case BINARY:
+                return binary(n);
+            default:
+                return n;
+        }
+    }
+
+    private int binary(int n) {
+        int base = spineTop;
+        while (ast.kind(n) == NodeKind.BINARY) {
+            if (spineTop == spine.length) spine = Arrays.copyOf(spine, spineTop * 2);
+            spine[spineTop++] = n;
+            n = ast.first(n);
+        }
+        int left = expression(n);
+        while (spineTop > base) {
+            int op = spine[--spineTop];
+            ast.setFirst(op, left);
+            ast.setSecond(op, expression(ast.second(op)));
+            left = combine(op);
+        }
+        return left;
+    }
+
+    private int combine(int n) {
+        TokenType op = ast.operator(n);
+        int left = ast.first(n);
+        int right = ast.second(n);
+
+        if (op == TokenType.ANDAND || op == TokenType.OROR) {
+            // El neutro (true en &&, false en ||) desaparece; el absorbente decide si la izquierda
+            // no tiene efectos (ni asignaciones ni divisiones enteras que puedan fallar)
+            boolean absorbing = op == TokenType.OROR;
+            if (ast.kind(left) == NodeKind.BOOL_LITERAL) {
+                folded++;
+                return (ast.data(left) != 0) == absorbing ? left : right;
+            }
+            if (ast.kind(right) == NodeKind.BOOL_LITERAL) {
+                if ((ast.data(right) != 0) != absorbing) {
+                    folded++;
+                    return left;
+                }
+                if (!hasEffects(left)) {
+                    folded++;
+                    return right;
+                }
+            }
+            return n;
+        }
+        if (!isLiteral(left) || !isLiteral(right)) return n;
+
+        Type leftType = bindings.type(left);
+        Type rightType = bindings.type(right);
+        if (leftType == Type.STRING) {
+            boolean equal = ast.text(left).equals(ast.text(right));
+            return bool(n, equal == (op == TokenType.EQEQ));
+        }
+        if (isComparison(op)) {
+            int c;
+            if (leftType == Type.DOUBLE || rightType == Type.DOUBLE) {
+                double a = doubleValue(left);
+                double b = doubleValue(right);
+                // Con NaN todas dan falso salvo !=
+                if (a != a || b != b) return bool(n, op == TokenType.NEQ || op == TokenType.DIAMOND_NEQ);
+                c = Double.compare(a == 0 ? 0 : a, b == 0 ? 0 : b);
+            } else {
+                c = Long.compare(longValue(left), longValue(right));
+            }
+            return bool(n, compares(op, c));
+        }
+
+        Type type = bindings.type(n);
+        if (type == Type.DOUBLE) {
+            double a = doubleValue(left);
+            double b = doubleValue(right);
+            double r;
+            switch (op) {
+                case PLUS: r = a + b; break;
+                case MINUS: r = a - b; break;
+                case STAR: r = a * b; break;
+                default: r = a / b; break;
+            }
+            return literal(n, NodeKind.REAL_LITERAL, Double.toString(r));
+        }
+        long a = longValue(left);
+        long b = longValue(right);
+        long r;
+        switch (op) {
+            case PLUS: r = a + b; break;
+            case MINUS: r = a - b; break;
+            case STAR: r = a * b; break;
+            default:
+                if (b == 0) return n;
+                r = a / b;
+                break;
+        }
+        if (type == Type.INT) r = (int) r;
+        return literal(n, NodeKind.INT_LITERAL, Long.toString(r));
+    }
+
+    private static boolean compares(TokenType op, int c) {
+        switch (op) {
+            case EQEQ: return c == 0;
+            case NEQ:
+            case DIAMOND_NEQ: return c != 0;
+            case LT: return c < 0;
+            case LE: return c <= 0;
+            case GT: return c > 0;
+            default: return c >= 0;
+        }
+    }
+
+    private static boolean isComparison(TokenType op) {
+        switch (op) {
+            case EQEQ: case NEQ: case DIAMOND_NEQ:
+            case LT: case LE: case GT: case GE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private boolean isLiteral(int n) {
+        switch (ast.kind(n)) {
+            case INT_LITERAL:
+            case REAL_LITERAL:
+            case STRING_LITERAL:
+            case BOOL_LITERAL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // Valor de un literal entero o booleano
+    private long longValue(int n) {
+        return ast.kind(n) == NodeKind.BOOL_LITERAL ? ast.data(n) : Long.parseLong(ast.text(n));
+    }
+
+    private double doubleValue(int n) {
+        return ast.kind(n) == NodeKind.REAL_LITERAL ? Double.parseDouble(ast.text(n)) : longValue(n);
+    }
+
+    // Convierte n en un literal; conserva su tipo en Bindings
+    private int literal(int n, NodeKind kind, String text) {
+        folded++;
+        ast.setKind(n, kind);
+        ast.setData(n, ast.intern(text));
+        ast.setFirst(n, Ast.NONE);
+        ast.setSecond(n, Ast.NONE);
+        return n;
+    }
+
+    private int bool(int n, boolean value) {
+        folded++;
+        ast.setKind(n, NodeKind.BOOL_LITERAL);
+        ast.setData(n, value ? 1 : 0);
+        ast.setFirst(n, Ast.NONE);
+        ast.setSecond(n, Ast.NONE);
+        return n;
+    }
+
+    /**
+     * La expresión contiene una asignación o una división entera cuyo divisor no es un literal
+     * distinto de cero, la misma regla que Instruction.canFail en el IR (recorre la cadena
+     * izquierda sin recursión).
+     */
+    private boolean hasEffects(int n) {
+        while (true) {
+            switch (ast.kind(n)) {
+                case ASSIGN:
+                    return true;
+                case NOT:
+                    n = ast.first(n);
+                    break;
+                case BINARY:
+                    if (canFail(n) || hasEffects(ast.second(n))) return true;
+                    n = ast.first(n);
+                    break;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private boolean canFail(int n) {
+        if (ast.operator(n) != TokenType.SLASH || bindings.type(n) == Type.DOUBLE) return false;
+        int divisor = ast.second(n);
+        return ast.kind(divisor) != NodeKind.INT_LITERAL || longValue(divisor) == 0;
+    }
+
+    // Nodos alcanzables desde n (hijos y hermanos), con una pila propia
+    private int count(int n) {
+        int[] stack = new int[64];
+        int top = 0;
+        int total = 0;
+        stack[top++] = n;
+        while (top > 0) {
+            int c = stack[--top];
+            total++;
+            if (top + 4 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+            if (isLiteral(c) || ast.kind(c) == NodeKind.NAME || ast.kind(c) == NodeKind.BREAK) {
+                if (ast.next(c) != Ast.NONE) stack[top++] = ast.next(c);
+                continue;
+            }
+            if (ast.first(c) != Ast.NONE) stack[top++] = ast.first(c);
+            if (ast.second(c) != Ast.NONE) stack[top++] = ast.second(c);
+            if (ast.third(c) != Ast.NONE) stack[top++] = ast.third(c);
+            if (ast.next(c) != Ast.NONE) stack[top++] = ast.next(c);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,71 @@
+package compiler_semantic;
+
+import java.util.Arrays;
+
+/**
+ * Lo que el análisis semántico deduce del AST y necesitan los backends: el tipo de cada
+ * expresión y, para cada NAME, la variable a la que se refiere. Cada declaración es una
+ * variable distinta, así que un nombre tapado en un bloque interno no se confunde con el
+ * de afuera.
+ */
+public class Bindings {
+
+    private static final Type[] TYPES = Type.values();
+
+    // Por nodo: ordinal del tipo + 1 (0 = sin tipo) y variable de los NAME (-1 = ninguna)
+    private final byte[] types;
+    private final int[] variables;
+
+    // Por variable: tipo y NAME donde se declaró
+    private Type[] variableTypes = new Type[16];
+    private int[] declarations = new int[16];
+    private int count;
+
+    Bindings(int nodes) {
+        types = new byte[nodes];
+        variables = new int[nodes];
+        Arrays.fill(variables, -1);
+    }
+
+    int declare(int name, Type type) {
+        if (count == variableTypes.length) {
+            variableTypes = Arrays.copyOf(variableTypes, count * 2);
+            declarations = Arrays.copyOf(declarations, count * 2);
+        }
+        variableTypes[count] = type;
+        declarations[count] = name;
+        variables[name] = count;
+        types[name] = (byte) (type.ordinal() + 1);
+        return count++;
+    }
+
+    void bind(int name, int variable) {
+        variables[name] = variable;
+    }
+
+    void setType(int node, Type type) {
+        types[node] = (byte) (type.ordinal() + 1);
+    }
+
+    // Tipo de una expresión; null si el nodo no es una expresión tipada
+    public Type type(int node) {
+        int t = types[node];
+        return t != 0 ? TYPES[t - 1] : null;
+    }
+
+    public int variable(int name) {
+        return variables[name];
+    }
+
+    public int variableCount() {
+        return count;
+    }
+
+    public Type variableType(int variable) {
+        return variableTypes[variable];
+    }
+
+    public int declaration(int variable) {
+        return declarations[variable];
+    }
+}
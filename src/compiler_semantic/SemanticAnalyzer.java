@@ -1,21 +1,71 @@
 package compiler_semantic;
 
+import compiler_diagnostics.Diagnostic;
+import compiler_diagnostics.Diagnostics;
 import compiler_lexer.Token;
 import compiler_lexer.TokenType;
+import compiler_sintactic.Ast;
+import compiler_sintactic.NodeKind;
+import java.io.PrintStream;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 public class SemanticAnalyzer {
 
-    private final Map<String, String> symbolTable = new HashMap<>();
+    // Modo por líneas: los nombres llegan ya recortados desde el texto
+    private final Map<String, Type> symbolTable = new HashMap<>();
     private final String src;
 
+    // Modo por AST: recorre el árbol del parser en lugar de partir el texto
+    private final Ast ast;
+    private SymbolTable symbols;
+    private final Diagnostics diagnostics = new Diagnostics();
+    private int loopDepth;
+    private int[] spine = new int[16];
+    private int spineTop;
+    private Bindings bindings;
+
+    // Destino de los mensajes de progreso (cada archivo puede tener el suyo en compilación paralela)
+    private PrintStream out = System.out;
+
     public SemanticAnalyzer(String src) {
         this.src = src;
+        this.ast = null;
+    }
+
+    public SemanticAnalyzer(Ast ast) {
+        this.src = null;
+        this.ast = ast;
+    }
+
+    public void setOutput(PrintStream out) {
+        this.out = out;
+    }
+
+    // Errores encontrados en modo AST (el modo por líneas corta en el primero con SemanticError)
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    // Pide que el recorrido del AST guarde tipos y variables para un backend
+    public void setRecordBindings(boolean record) {
+        bindings = record && ast != null ? new Bindings(ast.size()) : null;
+    }
+
+    // null si no se pidió con setRecordBindings
+    public Bindings getBindings() {
+        return bindings;
     }
 
     public void analyze() throws SemanticError {
-        System.out.println("Análisis semántico iniciado");
+        out.println("Análisis semántico iniciado");
+
+        if (ast != null) {
+            analyzeAst();
+            if (!diagnostics.hasErrors()) out.println("Análisis semántico completado sin errores");
+            return;
+        }
 
         // Separar líneas (sin expresiones regulares)
         String[] lines = src.replace("\r", "").split("\n");
@@ -32,8 +82,9 @@ public class SemanticAnalyzer {
                     line.startsWith("long ") || line.startsWith("double ")) {
 
                 int firstSpace = line.indexOf(' ');
-                String type = (firstSpace != -1) ? line.substring(0, firstSpace) : line;
-                String decl = line.substring(type.length()).trim();
+                String typeName = (firstSpace != -1) ? line.substring(0, firstSpace) : line;
+                Type type = Type.fromName(typeName);
+                String decl = line.substring(typeName.length()).trim();
 
                 if (decl.endsWith(";")) decl = decl.substring(0, decl.length() - 1);
 
@@ -72,11 +123,11 @@ public class SemanticAnalyzer {
             }
         }
 
-        System.out.println("Análisis semántico completado sin errores");
+        out.println("Análisis semántico completado sin errores");
     }
 
-    public void declareVariable(Token idToken, String type) throws SemanticError {
-        String name = idToken.getLexeme().trim().replace(";", "");
+    public void declareVariable(Token idToken, Type type) throws SemanticError {
+        String name = idToken.getLexeme();
 
         if (isReservedWord(name)) {
             error("No se puede usar palabra reservada como identificador: " + name, idToken);
@@ -103,35 +154,269 @@ public class SemanticAnalyzer {
     }
 
     public void useVariable(Token idToken) throws SemanticError {
-        String name = idToken.getLexeme().trim().replace(";", "");
+        String name = idToken.getLexeme();
         if (!symbolTable.containsKey(name)) {
             error("Variable no declarada: " + name, idToken);
         }
     }
 
-    public void assignVariable(Token idToken, String exprType) throws SemanticError {
-        String name = idToken.getLexeme().trim().replace(";", "");
+    public void assignVariable(Token idToken, Type exprType) throws SemanticError {
+        String name = idToken.getLexeme();
         if (!symbolTable.containsKey(name)) {
             error("Variable no declarada antes de asignar: " + name, idToken);
             return;
         }
-        String varType = symbolTable.get(name);
-        if (!varType.equals(exprType)) {
+        Type varType = symbolTable.get(name);
+        if (!exprType.isAssignableTo(varType)) {
             error("Tipos incompatibles: variable '" + name + "' es " + varType +
                     " pero se intenta asignar " + exprType, idToken);
         }
     }
 
 
-    private String inferType(String line) {
-        if (line.contains("\"")) return "string";
-        if (line.contains("true") || line.contains("false")) return "boolean";
-        if (line.contains(".")) return "double";
-        return "int";
+    private Type inferType(String line) {
+        if (line.contains("\"")) return Type.STRING;
+        if (line.contains("true") || line.contains("false")) return Type.BOOLEAN;
+        if (line.contains(".")) return Type.DOUBLE;
+        return Type.INT;
+    }
+
+    // ---------------------------------------------------------------
+    // Modo por AST: una sola pasada que resuelve nombres y calcula tipos de abajo hacia arriba
+    // ---------------------------------------------------------------
+
+    private void analyzeAst() {
+        // Tabla indexada por el número de texto del AST: buscar es leer un arreglo
+        symbols = new SymbolTable(ast.textCount());
+        loopDepth = 0;
+        for (int n = ast.first(ast.root()); n != Ast.NONE; n = ast.next(n)) {
+            statement(n);
+        }
+    }
+
+    private void statement(int n) {
+        switch (ast.kind(n)) {
+            case BLOCK:
+                symbols.enterScope();
+                for (int c = ast.first(n); c != Ast.NONE; c = ast.next(c)) statement(c);
+                symbols.exitScope();
+                return;
+            case DECLARATION:
+                declaration(n);
+                return;
+            case IF:
+                condition(ast.first(n));
+                statement(ast.second(n));
+                if (ast.third(n) != Ast.NONE) statement(ast.third(n));
+                return;
+            case WHILE:
+                condition(ast.first(n));
+                loopDepth++;
+                statement(ast.second(n));
+                loopDepth--;
+                return;
+            case READ:
+                lookup(ast.first(n), "Variable no declarada: ");
+                return;
+            case WRITE:
+            case EXPRESSION:
+                type(ast.first(n));
+                return;
+            case BREAK:
+                if (loopDepth == 0) error("break fuera de un ciclo", n);
+                return;
+            default:
+                throw new IllegalStateException("Sentencia inesperada: " + ast.kind(n));
+        }
+    }
+
+    private void declaration(int n) {
+        Type type = Type.fromName(ast.text(n));
+        int last = Ast.NONE;
+        for (int c = ast.first(n); c != Ast.NONE; c = ast.next(c)) {
+            String name = ast.text(c);
+            if (isReservedWord(name)) {
+                error("No se puede usar palabra reservada como identificador: " + name, c);
+            }
+            // Un bloque interno puede tapar una variable de afuera, pero no repetir una suya
+            int slot = bindings != null ? bindings.declare(c, type) : -1;
+            if (!symbols.declare(ast.data(c), type, slot)) error("Variable ya declarada: " + name, c);
+            last = c;
+        }
+        // La inicialización corresponde al último nombre declarado
+        if (ast.second(n) != Ast.NONE) {
+            Type value = type(ast.second(n));
+            if (value != null && !value.isAssignableTo(type)) incompatible(last, type, value);
+        }
+    }
+
+    private void condition(int n) {
+        Type type = type(n);
+        if (type != null && type != Type.BOOLEAN) error("La condición debe ser boolean, se encontró " + type, n);
+    }
+
+    private Type lookup(int name, String msg) {
+        Type type = symbols.lookup(ast.data(name));
+        if (type == null) error(msg + ast.text(name), name);
+        else if (bindings != null) bindings.bind(name, symbols.slot(ast.data(name)));
+        return type;
+    }
+
+    // Las cadenas de operadores quedan inclinadas a la izquierda: se recorren con una pila
+    // propia para que una expresión larga no agote la pila de llamadas
+    private Type type(int n) {
+        if (ast.kind(n) != NodeKind.BINARY) return record(n, operand(n));
+        int base = spineTop;
+        while (ast.kind(n) == NodeKind.BINARY) {
+            if (spineTop == spine.length) spine = Arrays.copyOf(spine, spineTop * 2);
+            spine[spineTop++] = n;
+            n = ast.first(n);
+        }
+        Type left = record(n, operand(n));
+        while (spineTop > base) {
+            int op = spine[--spineTop];
+            left = record(op, binary(op, left, type(ast.second(op))));
+        }
+        return left;
+    }
+
+    private Type record(int n, Type type) {
+        if (bindings != null && type != null) bindings.setType(n, type);
+        return type;
+    }
+
+    private Type operand(int n) {
+        switch (ast.kind(n)) {
+            case INT_LITERAL: return integer(n);
+            case REAL_LITERAL: return Type.DOUBLE;
+            case STRING_LITERAL: return Type.STRING;
+            case BOOL_LITERAL: return Type.BOOLEAN;
+            case NAME: return lookup(n, "Variable no declarada: ");
+            case NOT:
+                Type type = type(ast.first(n));
+                if (type != null && type != Type.BOOLEAN) {
+                    error("El operador '!' requiere boolean, se encontró " + type, n);
+                }
+                return Type.BOOLEAN;
+            case ASSIGN: return assignment(n);
+            case BINARY: return type(n);
+            default:
+                throw new IllegalStateException("Expresión inesperada: " + ast.kind(n));
+        }
+    }
+
+    // Las constantes que no entran en un int son long, como en Java con el sufijo L
+    private Type integer(int n) {
+        String text = ast.text(n);
+        if (text.length() < 10) return Type.INT;
+        try {
+            return Long.parseLong(text) <= Integer.MAX_VALUE ? Type.INT : Type.LONG;
+        } catch (NumberFormatException e) {
+            error("Constante entera fuera de rango: " + text, n);
+            return null;
+        }
+    }
+
+    private Type assignment(int n) {
+        int target = ast.first(n);
+        Type var = lookup(target, "Variable no declarada antes de asignar: ");
+        Type value = type(ast.second(n));
+        if (var == null || value == null) return var;
+        TokenType op = ast.operator(n);
+        if (op != TokenType.ASSIGN && !(var.isNumeric() && value.isNumeric())) {
+            String name = op == TokenType.SLASH ? "/=" : symbol(op);
+            error("El operador '" + name + "' requiere operandos numéricos, se encontró "
+                    + var + " y " + value, n);
+        } else if (!value.isAssignableTo(var)) {
+            incompatible(target, var, value);
+        }
+        return var;
+    }
+
+    private Type binary(int n, Type left, Type right) {
+        TokenType op = ast.operator(n);
+        // Comparaciones y operadores lógicos dan boolean aunque un operando tenga error
+        Type result;
+        boolean ok;
+        switch (op) {
+            case PLUS:
+            case MINUS:
+            case STAR:
+            case SLASH:
+                if (left == null || right == null) return null;
+                if (left.isNumeric() && right.isNumeric()) return Type.wider(left, right);
+                result = null;
+                break;
+            case GT:
+            case LT:
+            case GE:
+            case LE:
+                result = Type.BOOLEAN;
+                ok = left == null || right == null || (left.isNumeric() && right.isNumeric());
+                if (ok) return result;
+                break;
+            case EQEQ:
+            case NEQ:
+            case DIAMOND_NEQ:
+                result = Type.BOOLEAN;
+                ok = left == null || right == null || left == right || (left.isNumeric() && right.isNumeric());
+                if (ok) return result;
+                break;
+            case ANDAND:
+            case OROR:
+                result = Type.BOOLEAN;
+                ok = (left == null || left == Type.BOOLEAN) && (right == null || right == Type.BOOLEAN);
+                if (ok) return result;
+                break;
+            case STAREQ:
+                // "(a) *= b" o "3 *= b": el parser lo acepta como operador pero no hay variable
+                error("Se esperaba una variable a la izquierda de '*='", n);
+                return null;
+            default:
+                result = null;
+                break;
+        }
+        error("Operandos incompatibles para '" + symbol(op) + "': " + left + " y " + right, n);
+        return result;
+    }
+
+    private static String symbol(TokenType op) {
+        switch (op) {
+            case PLUS: return "+";
+            case MINUS: return "-";
+            case STAR: return "*";
+            case SLASH: return "/";
+            case GT: return ">";
+            case LT: return "<";
+            case GE: return ">=";
+            case LE: return "<=";
+            case EQEQ: return "==";
+            case NEQ: return "!=";
+            case DIAMOND_NEQ: return "<>";
+            case ANDAND: return "&&";
+            case OROR: return "||";
+            case PLUSEQ: return "+=";
+            case MINUSEQ: return "-=";
+            case STAREQ: return "*=";
+            default: return op.name();
+        }
+    }
+
+    private void incompatible(int name, Type var, Type value) {
+        error("Tipos incompatibles: variable '" + ast.text(name) + "' es " + var +
+                " pero se intenta asignar " + value, name);
+    }
+
+    // En modo AST los errores se anotan y el recorrido sigue; un tipo null marca una
+    // expresión ya informada para no repetir el error en las que la contienen
+    private void error(String msg, int node) {
+        int line = ast.line(node);
+        int column = ast.column(node);
+        diagnostics.add(new Diagnostic(line, column, msg,
+                "Error semántico en línea " + line + ", columna " + column + ": " + msg));
     }
 
     private void error(String msg, Token token) throws SemanticError {
-        throw new SemanticError("Error semántico en línea " + token.getLine() +
-                ", columna " + token.getColumn() + ": " + msg);
+        throw new SemanticError(token.getLine(), token.getColumn(), msg);
     }
 }
@@ -1,10 +1,41 @@
 package compiler_semantic;
 
+import compiler_diagnostics.Diagnostic;
+
 /**
  * Representa un error semántico detectado durante el análisis.
+ * No guarda traza de pila: el mensaje ya indica línea y columna.
  */
 public class SemanticError extends Exception {
+    private final int line;
+    private final int column;
+    private final String detail;
+
     public SemanticError(String message) {
-        super(message);
+        super(message, null, false, false);
+        this.line = 0;
+        this.column = 0;
+        this.detail = message;
+    }
+
+    public SemanticError(int line, int column, String detail) {
+        super("Error semántico en línea " + line + ", columna " + column + ": " + detail, null, false, false);
+        this.line = line;
+        this.column = column;
+        this.detail = detail;
+    }
+
+    // 0 si el error no tiene posición
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    // El mismo error con el formato de las demás fases
+    public Diagnostic toDiagnostic() {
+        return new Diagnostic(line, column, detail, getMessage());
     }
 }
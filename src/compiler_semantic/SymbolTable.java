@@ -1,28 +1,103 @@
 package compiler_semantic;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
- * Clase auxiliar para manejar la tabla de símbolos.
- * Guarda el nombre de las variables y su tipo.
+ * Tabla de símbolos con bloques anidados, indexada por el número que el Interner le dio
+ * a cada nombre. Cada nombre guarda sólo su declaración visible; al declararlo en un
+ * bloque interno la anterior se apila y se restaura al salir del bloque. Cada declaración
+ * puede llevar además un número (la variable que le asignó quien la declara).
  */
 public class SymbolTable {
-    private final Map<String, String> table = new HashMap<>();
 
-    public boolean contains(String name) {
-        return table.containsKey(name);
+    private Type[] types;
+    private int[] depths;
+    private int[] slots;
+    private int depth;
+
+    // Declaraciones tapadas: (número, tipo anterior, profundidad anterior, variable anterior)
+    private int[] savedIds = new int[16];
+    private Type[] savedTypes = new Type[16];
+    private int[] savedDepths = new int[16];
+    private int[] savedSlots = new int[16];
+    private int saved;
+
+    // Tope de la pila de tapadas al entrar a cada bloque
+    private int[] marks = new int[8];
+
+    public SymbolTable(int capacity) {
+        capacity = Math.max(capacity, 16);
+        types = new Type[capacity];
+        depths = new int[capacity];
+        slots = new int[capacity];
+    }
+
+    public void enterScope() {
+        if (depth == marks.length) marks = Arrays.copyOf(marks, depth * 2);
+        marks[depth++] = saved;
+    }
+
+    public void exitScope() {
+        int mark = marks[--depth];
+        while (saved > mark) {
+            saved--;
+            int id = savedIds[saved];
+            types[id] = savedTypes[saved];
+            depths[id] = savedDepths[saved];
+            slots[id] = savedSlots[saved];
+            savedTypes[saved] = null;
+        }
+    }
+
+    // Devuelve false si el nombre ya está declarado en el bloque actual
+    public boolean declare(int id, Type type) {
+        return declare(id, type, -1);
+    }
+
+    public boolean declare(int id, Type type, int slot) {
+        if (id >= types.length) grow(id);
+        if (types[id] != null && depths[id] == depth) return false;
+        // En el nivel global no hay nada que restaurar
+        if (depth > 0) save(id);
+        types[id] = type;
+        depths[id] = depth;
+        slots[id] = slot;
+        return true;
+    }
+
+    private void save(int id) {
+        if (saved == savedIds.length) {
+            int capacity = saved * 2;
+            savedIds = Arrays.copyOf(savedIds, capacity);
+            savedTypes = Arrays.copyOf(savedTypes, capacity);
+            savedDepths = Arrays.copyOf(savedDepths, capacity);
+            savedSlots = Arrays.copyOf(savedSlots, capacity);
+        }
+        savedIds[saved] = id;
+        savedTypes[saved] = types[id];
+        savedDepths[saved] = depths[id];
+        savedSlots[saved] = slots[id];
+        saved++;
+    }
+
+    // Tipo de la declaración visible, o null si el nombre no está declarado en este punto
+    public Type lookup(int id) {
+        return id < types.length ? types[id] : null;
     }
 
-    public void put(String name, String type) {
-        table.put(name, type);
+    // Variable de la declaración visible (-1 si se declaró sin número)
+    public int slot(int id) {
+        return slots[id];
     }
 
-    public String get(String name) {
-        return table.get(name);
+    public int depth() {
+        return depth;
     }
 
-    public Map<String, String> getAll() {
-        return table;
+    private void grow(int id) {
+        int capacity = Math.max(types.length * 2, id + 1);
+        types = Arrays.copyOf(types, capacity);
+        depths = Arrays.copyOf(depths, capacity);
+        slots = Arrays.copyOf(slots, capacity);
     }
 }
@@ -0,0 +1,54 @@
+package compiler_semantic;
+
+/**
+ * Tipos del lenguaje. Los numéricos están ordenados de menor a mayor para poder
+ * ensanchar int → long → double comparando posiciones.
+ */
+public enum Type {
+    INT("int"),
+    LONG("long"),
+    DOUBLE("double"),
+    BOOLEAN("boolean"),
+    STRING("string");
+
+    private final String name;
+
+    Type(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isNumeric() {
+        return this == INT || this == LONG || this == DOUBLE;
+    }
+
+    // Un valor de este tipo puede guardarse en una variable de tipo target
+    public boolean isAssignableTo(Type target) {
+        if (this == target) return true;
+        return isNumeric() && target.isNumeric() && ordinal() < target.ordinal();
+    }
+
+    // Tipo resultante de operar dos numéricos
+    public static Type wider(Type a, Type b) {
+        return a.ordinal() >= b.ordinal() ? a : b;
+    }
+
+    // Tipo de una declaración a partir de su palabra clave; null si no es un tipo
+    public static Type fromName(String name) {
+        switch (name) {
+            case "int": return INT;
+            case "long": return LONG;
+            case "double": return DOUBLE;
+            case "boolean": return BOOLEAN;
+            default: return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
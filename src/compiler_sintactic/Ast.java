@@ -0,0 +1,164 @@
+package compiler_sintactic;
+
+import compiler_lexer.Interner;
+import compiler_lexer.TokenType;
+
+import java.util.Arrays;
+
+/**
+ * AST guardado en un arena: cada nodo es un índice y sus campos viven en arreglos int
+ * paralelos (tipo, hijos, siguiente hermano, dato, línea y columna). Los textos
+ * (identificadores y literales) se guardan una sola vez en un {@link Interner} y los nodos
+ * los referencian por número; si es el mismo Interner del lexer, los identificadores
+ * conservan el número que les dio el escaneo.
+ */
+public class Ast {
+
+    // Índice que representa "sin nodo"
+    public static final int NONE = -1;
+
+    private static final NodeKind[] KINDS = NodeKind.values();
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    private byte[] kinds;
+    private int[] first;
+    private int[] second;
+    private int[] third;
+    private int[] next;
+    private int[] data;
+    private int[] lines;
+    private int[] columns;
+    private int size;
+    private int root = NONE;
+
+    private final Interner texts;
+
+    public Ast() {
+        this(64, new Interner());
+    }
+
+    public Ast(int capacity, Interner texts) {
+        this.texts = texts;
+        capacity = Math.max(capacity, 8);
+        kinds = new byte[capacity];
+        first = new int[capacity];
+        second = new int[capacity];
+        third = new int[capacity];
+        next = new int[capacity];
+        data = new int[capacity];
+        lines = new int[capacity];
+        columns = new int[capacity];
+    }
+
+    public int add(NodeKind kind, int line, int column) {
+        if (size == kinds.length) grow();
+        int n = size++;
+        kinds[n] = (byte) kind.ordinal();
+        first[n] = NONE;
+        second[n] = NONE;
+        third[n] = NONE;
+        next[n] = NONE;
+        data[n] = 0;
+        lines[n] = line;
+        columns[n] = column;
+        return n;
+    }
+
+    private void grow() {
+        int capacity = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        first = Arrays.copyOf(first, capacity);
+        second = Arrays.copyOf(second, capacity);
+        third = Arrays.copyOf(third, capacity);
+        next = Arrays.copyOf(next, capacity);
+        data = Arrays.copyOf(data, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        columns = Arrays.copyOf(columns, capacity);
+    }
+
+    // Devuelve el número del texto, agregándolo si es nuevo
+    public int intern(String text) {
+        return texts.intern(text);
+    }
+
+    public Interner texts() { return texts; }
+
+    public int size() { return size; }
+    public int textCount() { return texts.size(); }
+    public int root() { return root; }
+    public void setRoot(int node) { root = node; }
+
+    public NodeKind kind(int n) { return KINDS[kinds[n]]; }
+    public int first(int n) { return first[n]; }
+    public int second(int n) { return second[n]; }
+    public int third(int n) { return third[n]; }
+    public int next(int n) { return next[n]; }
+    public int data(int n) { return data[n]; }
+    public int line(int n) { return lines[n]; }
+    public int column(int n) { return columns[n]; }
+
+    public void setKind(int n, NodeKind kind) { kinds[n] = (byte) kind.ordinal(); }
+    public void setFirst(int n, int child) { first[n] = child; }
+    public void setSecond(int n, int child) { second[n] = child; }
+    public void setThird(int n, int child) { third[n] = child; }
+    public void setNext(int n, int sibling) { next[n] = sibling; }
+    public void setData(int n, int value) { data[n] = value; }
+
+    public String text(int n) { return texts.name(data[n]); }
+    public String textById(int id) { return texts.name(id); }
+    public TokenType operator(int n) { return TOKEN_TYPES[data[n]]; }
+
+    // Bytes ocupados por los arreglos del arena (capacidad reservada, sin la tabla de textos)
+    public long memoryBytes() {
+        return (long) kinds.length * (1 + 7 * Integer.BYTES);
+    }
+
+    // Representación en texto con forma de S-expresiones, útil para depurar
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        if (root != NONE) dump(root, sb);
+        return sb.toString();
+    }
+
+    private void dump(int n, StringBuilder sb) {
+        NodeKind kind = kind(n);
+        switch (kind) {
+            case NAME:
+            case INT_LITERAL:
+            case REAL_LITERAL:
+                sb.append(text(n));
+                return;
+            case STRING_LITERAL:
+                sb.append('"').append(text(n)).append('"');
+                return;
+            case BOOL_LITERAL:
+                sb.append(data[n] != 0);
+                return;
+            case BREAK:
+                sb.append("(break)");
+                return;
+            default:
+                break;
+        }
+        sb.append('(').append(kind.name().toLowerCase());
+        if (kind == NodeKind.BINARY || kind == NodeKind.ASSIGN) sb.append(' ').append(operator(n));
+        if (kind == NodeKind.DECLARATION) sb.append(' ').append(text(n));
+        if (kind == NodeKind.PROGRAM || kind == NodeKind.BLOCK || kind == NodeKind.DECLARATION) {
+            for (int c = first[n]; c != NONE; c = next[c]) {
+                sb.append(' ');
+                dump(c, sb);
+            }
+            if (kind == NodeKind.DECLARATION && second[n] != NONE) {
+                sb.append(" = ");
+                dump(second[n], sb);
+            }
+        } else {
+            for (int c : new int[] {first[n], second[n], third[n]}) {
+                if (c == NONE) continue;
+                sb.append(' ');
+                dump(c, sb);
+            }
+        }
+        sb.append(')');
+    }
+}
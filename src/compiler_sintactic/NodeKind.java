@@ -0,0 +1,25 @@
+package compiler_sintactic;
+
+/**
+ * Tipos de nodo del AST. Para cada uno se indica qué guardan los campos del nodo
+ * (first, second, third, data); las listas se encadenan con next.
+ */
+public enum NodeKind {
+    PROGRAM,      // first: primera sentencia
+    BLOCK,        // first: primera sentencia
+    DECLARATION,  // first: primer NAME declarado, second: inicialización (del último nombre), data: tipo
+    IF,           // first: condición, second: rama then, third: rama else
+    WHILE,        // first: condición, second: cuerpo
+    READ,         // first: NAME leído
+    WRITE,        // first: expresión
+    BREAK,
+    EXPRESSION,   // first: expresión
+    ASSIGN,       // first: NAME asignado, second: valor, data: operador (ASSIGN, PLUSEQ, MINUSEQ, STAREQ, SLASH)
+    BINARY,       // first: izquierda, second: derecha, data: operador (ordinal de TokenType)
+    NOT,          // first: operando
+    NAME,         // data: texto
+    INT_LITERAL,  // data: texto
+    REAL_LITERAL, // data: texto
+    STRING_LITERAL, // data: texto
+    BOOL_LITERAL  // data: 1 (true) o 0 (false)
+}
@@ -1,9 +1,14 @@
 package compiler_sintactic;
 
+import compiler_diagnostics.Diagnostic;
+import compiler_diagnostics.Diagnostics;
+import compiler_lexer.Interner;
 import compiler_lexer.Token;
+import compiler_lexer.TokenStream;
 import compiler_lexer.TokenType;
 import compiler_semantic.SemanticAnalyzer;
 import compiler_semantic.SemanticError;
+import compiler_semantic.Type;
 
 public class SyntacticAnalyzer {
 
@@ -13,9 +18,26 @@ public class SyntacticAnalyzer {
     private int col = 1;
     private final SemanticAnalyzer semantic = new SemanticAnalyzer(src);
 
+    // Modo por tokens: null cuando se analiza directamente el texto
+    private final TokenStream tokens;
+    private final Ast ast;
+    private final Diagnostics diagnostics = new Diagnostics();
+    // Bloques abiertos: al recuperarse de un error, una '}' cierra el bloque actual
+    private int blockDepth;
+
 
     public SyntacticAnalyzer(String src) {
         this.src = src;
+        this.tokens = null;
+        this.ast = null;
+    }
+
+    public SyntacticAnalyzer(TokenStream tokens) {
+        this.src = null;
+        this.tokens = tokens;
+        // Si el lexer ya numeró los identificadores, el AST reutiliza esos números
+        Interner names = tokens.interner();
+        this.ast = new Ast(64, names != null ? names : new Interner());
     }
 
     private boolean end() { return pos >= src.length(); }
@@ -77,13 +99,25 @@ public class SyntacticAnalyzer {
         }
     }
 
-    public void parseProgram() throws SemanticError {
+    /**
+     * Analiza el programa completo. En modo por tokens devuelve el AST construido (las
+     * declaraciones se validan después, al recorrerlo); ante un error de sintaxis lo anota
+     * en {@link #getDiagnostics()}, descarta esa sentencia y sigue con la próxima, así que
+     * el AST sólo sirve si no hubo errores. En modo por caracteres sólo valida, corta en
+     * el primer error y devuelve null.
+     */
+    public Ast parseProgram() throws SemanticError {
+        if (tokens != null) {
+            program();
+            return ast;
+        }
         skip();
         if (end()) error("Archivo vacío o sin instrucciones válidas");
         while (!end()) {
             parseStatement();
             skip();
         }
+        return null;
     }
 
     private void parseStatement() throws SemanticError {
@@ -103,11 +137,11 @@ public class SyntacticAnalyzer {
 
     private void parseDecl() throws SemanticError {
         // Detectar tipo
-        String type = null;
-        if (starts("int")) { accept("int"); type = "int"; }
-        else if (starts("boolean")) { accept("boolean"); type = "boolean"; }
-        else if (starts("long")) { accept("long"); type = "long"; }
-        else if (starts("double")) { accept("double"); type = "double"; }
+        Type type = null;
+        if (starts("int")) { accept("int"); type = Type.INT; }
+        else if (starts("boolean")) { accept("boolean"); type = Type.BOOLEAN; }
+        else if (starts("long")) { accept("long"); type = Type.LONG; }
+        else if (starts("double")) { accept("double"); type = Type.DOUBLE; }
         else error("Tipo no reconocido");
 
         skip();
@@ -208,53 +242,76 @@ public class SyntacticAnalyzer {
         else error("Se esperaba '}'");
     }
 
+    // Precedencia por escalada: cada operador se reconoce una sola vez (operator() mira el
+    // carácter actual y el siguiente) y la derecha se analiza con el poder de ligadura del
+    // operador más uno, así todos asocian a izquierda
     private void parseExpression() {
-        skip();
-        parseTerm();
-        skip();
-        while (starts("&&") || starts("||") ||
-                starts("==") || starts("!=") ||
-                starts(">=") || starts("<=") ||
-                cur() == '>' || cur() == '<' || cur() == '+' || cur() == '-') {
-            if (starts("&&")) accept("&&");
-            else if (starts("||")) accept("||");
-            else if (starts("==")) accept("==");
-            else if (starts("!=")) accept("!=");
-            else if (starts(">=")) accept(">=");
-            else if (starts("<=")) accept("<=");
-            else { next(); }
-            parseTerm();
-            skip();
-        }
+        parseExpression(1);
     }
 
-    private void parseTerm() {
-        skip();
+    private void parseExpression(int min) {
         parseFactor();
-        skip();
-        while (starts("*=") || starts("/=") || cur() == '*' || cur() == '/') {
-            if (starts("*=")) accept("*=");
-            else if (starts("/=")) accept("/=");
-            else next();
-            parseFactor();
+        while (true) {
             skip();
+            int power = operator();
+            if (power < min) return;
+            pos += operatorLength;
+            col += operatorLength;
+            parseExpression(power + 1);
+        }
+    }
+
+    // Largo del último operador reconocido por operator()
+    private int operatorLength;
+
+    // Poder de ligadura del operador binario en la posición actual (0 si no hay); los
+    // mismos niveles que BINDING en el modo por tokens
+    private int operator() {
+        char c = cur();
+        char d = peek();
+        operatorLength = 2;
+        switch (c) {
+            case '|': return d == '|' ? 1 : 0;
+            case '&': return d == '&' ? 2 : 0;
+            case '=':
+            case '!': return d == '=' ? 3 : 0;
+            case '<':
+            case '>':
+                if (d != '=') operatorLength = 1;
+                return 3;
+            case '+':
+            case '-':
+                operatorLength = 1;
+                return 4;
+            case '*':
+            case '/':
+                if (d != '=') operatorLength = 1;
+                return 5;
+            default:
+                return 0;
         }
     }
 
     private void parseFactor() {
         skip();
-        if (Character.isDigit(cur())) { num(); return; }
-        if (Character.isLetter(cur()) || cur() == '_') {
+        char c = cur();
+        if (Character.isDigit(c)) { num(); return; }
+        if (Character.isLetter(c) || c == '_') {
             id();
             skip();
-            if (starts("+=")) { accept("+="); parseExpression(); return; }
-            if (starts("-=")) { accept("-="); parseExpression(); return; }
-            if (starts("*=")) { accept("*="); parseExpression(); return; }
-            if (starts("/=")) { accept("/="); parseExpression(); return; }
-            if (cur() == '=') { next(); parseExpression(); return; }
+            c = cur();
+            char d = peek();
+            if (d == '=' && (c == '+' || c == '-' || c == '*' || c == '/')) {
+                pos += 2;
+                col += 2;
+                parseExpression();
+            } else if (c == '=' && d != '=') {
+                next();
+                parseExpression();
+            }
             return;
         }
-        if (cur() == '(') {
+        if (c == '(') {
             next();
             parseExpression();
             if (cur() == ')') next();
@@ -275,4 +332,329 @@ public class SyntacticAnalyzer {
         pos += kw.length();
         col += kw.length();
     }
+
+    // ---------------------------------------------------------------
+    // Modo por tokens: consume el flujo del Scanner sin volver a leer caracteres
+    // ---------------------------------------------------------------
+
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    // Anota el error y corta la sentencia actual; program() y block() se recuperan
+    private void error(String msg, Token at) {
+        throw new SyntacticError(report(msg, at));
+    }
+
+    private String report(String msg, Token at) {
+        String text = msg + " en línea " + at.getLine() + ", columna " + at.getColumn();
+        diagnostics.add(new Diagnostic(at.getLine(), at.getColumn(), msg, text));
+        return text;
+    }
+
+    // Modo pánico: descarta tokens hasta terminar la sentencia rota (';'), hasta la '}'
+    // del bloque actual o hasta algo que empiece una sentencia nueva. El token donde falló
+    // se descarta siempre, aunque pueda empezar una sentencia: así "while long;" no vuelve
+    // a fallar en "long"
+    private void synchronize() {
+        boolean moved = false;
+        while (true) {
+            Token t = tokens.peek();
+            switch (t.getType()) {
+                case EOF:
+                    return;
+                case SEMICOLON:
+                    tokens.next();
+                    return;
+                case RBRACE:
+                    // Dentro de un bloque la '}' la consume block(); afuera sobra y se saltea
+                    if (blockDepth == 0) tokens.next();
+                    return;
+                case IF:
+                case WHILE:
+                case READ:
+                case WRITE:
+                case BREAK:
+                case LBRACE:
+                case LONG:
+                case DOUBLE:
+                    if (moved) return;
+                    break;
+                default:
+                    if (moved && isTypeName(t)) return;
+                    break;
+            }
+            tokens.next();
+            moved = true;
+        }
+    }
+
+    private boolean check(TokenType type) {
+        return tokens.peekType() == type;
+    }
+
+    private boolean accept(TokenType type) {
+        if (tokens.peekType() != type) return false;
+        tokens.next();
+        return true;
+    }
+
+    private Token expect(TokenType type, String msg) {
+        if (tokens.peekType() != type) error(msg, tokens.peek());
+        return tokens.next();
+    }
+
+    // "int" y "boolean" no son palabras reservadas del lexer: llegan como ID
+    private boolean isTypeName(Token t) {
+        switch (t.getType()) {
+            case LONG:
+            case DOUBLE:
+                return true;
+            case ID:
+                return t.getLexeme().equals("int") || t.getLexeme().equals("boolean");
+            default:
+                return false;
+        }
+    }
+
+    private int node(NodeKind kind, Token at) {
+        return ast.add(kind, at.getLine(), at.getColumn());
+    }
+
+    private int program() {
+        int program = node(NodeKind.PROGRAM, tokens.peek());
+        ast.setRoot(program);
+        if (check(TokenType.EOF)) report("Archivo vacío o sin instrucciones válidas", tokens.peek());
+        int last = Ast.NONE;
+        while (!check(TokenType.EOF)) {
+            try {
+                last = append(program, last, statement());
+            } catch (SyntacticError e) {
+                synchronize();
+            }
+        }
+        return program;
+    }
+
+    // Agrega un hijo al final de la lista de parent; devuelve el nuevo último
+    private int append(int parent, int last, int child) {
+        if (last == Ast.NONE) ast.setFirst(parent, child);
+        else ast.setNext(last, child);
+        return child;
+    }
+
+    private int statement() {
+        Token t = tokens.peek();
+        if (isTypeName(t)) return declaration();
+        switch (t.getType()) {
+            case IF: return ifStatement();
+            case WHILE: return whileStatement();
+            case READ: return readStatement();
+            case WRITE: return writeStatement();
+            case LBRACE: return block();
+            case BREAK:
+                tokens.next();
+                expect(TokenType.SEMICOLON, "Se esperaba ';' al final de la sentencia");
+                return node(NodeKind.BREAK, t);
+            default:
+                break;
+        }
+
+        int stmt = node(NodeKind.EXPRESSION, t);
+        ast.setFirst(stmt, expression());
+        expect(TokenType.SEMICOLON, "Se esperaba ';' al final de la sentencia");
+        return stmt;
+    }
+
+    private int declaration() {
+        Token typeToken = tokens.next();
+        String type = typeToken.getLexeme();
+        int decl = node(NodeKind.DECLARATION, typeToken);
+        ast.setData(decl, ast.intern(type));
+
+        Token id = expect(TokenType.ID, "Se esperaba identificador");
+        int last = append(decl, Ast.NONE, name(id));
+
+        // Declaraciones múltiples separadas por coma
+        while (accept(TokenType.COMMA)) {
+            Token nextId = expect(TokenType.ID, "Se esperaba identificador");
+            last = append(decl, last, name(nextId));
+        }
+
+        // Asignación opcional (corresponde al último nombre declarado)
+        if (accept(TokenType.ASSIGN)) ast.setSecond(decl, expression());
+
+        expect(TokenType.SEMICOLON, "Se esperaba ';'");
+        return decl;
+    }
+
+    private int name(Token id) {
+        int n = node(NodeKind.NAME, id);
+        int symbol = tokens.interner() != null ? id.getSymbol() : -1;
+        ast.setData(n, symbol >= 0 ? symbol : ast.intern(id.getLexeme()));
+        return n;
+    }
+
+    // Condición de if/while: con o sin paréntesis
+    private int condition() {
+        if (accept(TokenType.LPAREN)) {
+            int cond = expression();
+            expect(TokenType.RPAREN, "Se esperaba ')'");
+            return cond;
+        }
+        return expression();
+    }
+
+    private int ifStatement() {
+        int stmt = node(NodeKind.IF, tokens.next());
+        ast.setFirst(stmt, condition());
+        accept(TokenType.THEN);
+        ast.setSecond(stmt, statement());
+        if (accept(TokenType.ELSE)) ast.setThird(stmt, statement());
+        return stmt;
+    }
+
+    private int whileStatement() {
+        int stmt = node(NodeKind.WHILE, tokens.next());
+        ast.setFirst(stmt, condition());
+        ast.setSecond(stmt, statement());
+        return stmt;
+    }
+
+    private int readStatement() {
+        int stmt = node(NodeKind.READ, tokens.next());
+        expect(TokenType.LPAREN, "Se esperaba '('");
+        ast.setFirst(stmt, name(expect(TokenType.ID, "Se esperaba identificador")));
+        expect(TokenType.RPAREN, "Se esperaba ')'");
+        accept(TokenType.SEMICOLON);
+        return stmt;
+    }
+
+    private int writeStatement() {
+        int stmt = node(NodeKind.WRITE, tokens.next());
+        expect(TokenType.LPAREN, "Se esperaba '('");
+        ast.setFirst(stmt, expression());
+        expect(TokenType.RPAREN, "Se esperaba ')'");
+        accept(TokenType.SEMICOLON);
+        return stmt;
+    }
+
+    private int block() {
+        int block = node(NodeKind.BLOCK, tokens.next());
+        int last = Ast.NONE;
+        blockDepth++;
+        try {
+            while (!check(TokenType.RBRACE) && !check(TokenType.EOF)) {
+                try {
+                    last = append(block, last, statement());
+                } catch (SyntacticError e) {
+                    synchronize();
+                }
+            }
+        } finally {
+            blockDepth--;
+        }
+        expect(TokenType.RBRACE, "Se esperaba '}'");
+        return block;
+    }
+
+    private int binary(Token op, int left, int right) {
+        int n = node(NodeKind.BINARY, op);
+        ast.setData(n, op.getType().ordinal());
+        ast.setFirst(n, left);
+        ast.setSecond(n, right);
+        return n;
+    }
+
+    // Poder de ligadura de cada operador binario, por ordinal de TokenType (0 si no es
+    // binario): || < && < comparaciones < + - < * /. "*=" y "/=" después de algo que no es
+    // un nombre se toman como * y /
+    private static final int[] BINDING = new int[TokenType.values().length];
+
+    static {
+        bind(1, TokenType.OROR);
+        bind(2, TokenType.ANDAND);
+        bind(3, TokenType.EQEQ, TokenType.NEQ, TokenType.DIAMOND_NEQ,
+                TokenType.LT, TokenType.LE, TokenType.GT, TokenType.GE);
+        bind(4, TokenType.PLUS, TokenType.MINUS);
+        bind(5, TokenType.STAR, TokenType.STAREQ, TokenType.SLASH);
+    }
+
+    private static void bind(int power, TokenType... types) {
+        for (TokenType type : types) BINDING[type.ordinal()] = power;
+    }
+
+    private int expression() {
+        return expression(1);
+    }
+
+    // Escalada de precedencia: la derecha de un operador sólo toma operadores que ligan más
+    // fuerte, así que las cadenas del mismo nivel quedan inclinadas a la izquierda y la
+    // recursión no pasa de un nivel por operador de distinta precedencia
+    private int expression(int min) {
+        int left = factor();
+        while (true) {
+            TokenType type = tokens.peekType();
+            int power = BINDING[type.ordinal()];
+            if (power < min) return left;
+            Token op = tokens.next();
+            // "/=" llega como SLASH seguido de ASSIGN
+            if (type == TokenType.SLASH) accept(TokenType.ASSIGN);
+            left = binary(op, left, expression(power + 1));
+        }
+    }
+
+    private int factor() {
+        Token t = tokens.peek();
+        int n;
+        switch (t.getType()) {
+            case INT_CONST:
+            case REAL_CONST:
+            case STRING_CONST:
+                tokens.next();
+                n = node(t.getType() == TokenType.INT_CONST ? NodeKind.INT_LITERAL
+                        : t.getType() == TokenType.REAL_CONST ? NodeKind.REAL_LITERAL
+                        : NodeKind.STRING_LITERAL, t);
+                ast.setData(n, ast.intern(t.getLexeme()));
+                return n;
+            case TRUE:
+            case FALSE:
+                tokens.next();
+                n = node(NodeKind.BOOL_LITERAL, t);
+                ast.setData(n, t.getType() == TokenType.TRUE ? 1 : 0);
+                return n;
+            case NOT:
+                tokens.next();
+                n = node(NodeKind.NOT, t);
+                ast.setFirst(n, factor());
+                return n;
+            case ID:
+                tokens.next();
+                int target = name(t);
+                Token op = tokens.peek();
+                TokenType type = op.getType();
+                if (type == TokenType.PLUSEQ || type == TokenType.MINUSEQ
+                        || type == TokenType.STAREQ || type == TokenType.ASSIGN) {
+                    tokens.next();
+                } else if (type == TokenType.SLASH && tokens.peekType(1) == TokenType.ASSIGN) {
+                    tokens.next();
+                    tokens.next();
+                } else {
+                    return target;
+                }
+                n = node(NodeKind.ASSIGN, op);
+                ast.setData(n, type.ordinal());
+                ast.setFirst(n, target);
+                ast.setSecond(n, expression());
+                return n;
+            case LPAREN:
+                tokens.next();
+                n = expression();
+                expect(TokenType.RPAREN, "Se esperaba ')'");
+                return n;
+            default:
+                error("Expresión inválida", t);
+                return Ast.NONE;
+        }
+    }
 }
@@ -2,6 +2,7 @@ package compiler_sintactic;
 
 public class SyntacticError extends RuntimeException {
     public SyntacticError(String msg) {
-        super(msg);
+        // Sin traza de pila: se usa para volver a la sentencia y seguir, no para depurar
+        super(msg, null, false, false);
     }
 }
@@ -0,0 +1,625 @@
+package compiler_vm;
+
+import compiler_lexer.TokenType;
+import compiler_semantic.Bindings;
+import compiler_semantic.Type;
+import compiler_sintactic.Ast;
+import compiler_sintactic.NodeKind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Traduce un programa ya verificado (AST más {@link Bindings}) a bytecode de registros.
+ *
+ * Los registros de cada arreglo se reparten así: primero las variables, después las
+ * constantes y al final los temporales, que se usan como pila y se liberan al terminar
+ * cada sentencia. Las condiciones de if y while se traducen a saltos directos (con
+ * cortocircuito para && y ||) y los while se arman con la condición al final, de modo que
+ * cada vuelta ejecuta un solo salto.
+ */
+public class BytecodeCompiler {
+
+    private final Ast ast;
+    private final Bindings bindings;
+
+    private int[] code = new int[256];
+    private int[] lines = new int[64];
+    private int size;
+    private int line;
+
+    // Registro de cada variable, en el arreglo long o en el double según su tipo
+    private final int[] registers;
+    private int longVariables;
+    private int doubleVariables;
+
+    private long[] longValues = new long[16];
+    private double[] doubleValues = new double[16];
+    private int longCount;
+    private int doubleCount;
+    private final Map<Long, Integer> longConstants = new HashMap<>();
+    private final Map<Long, Integer> doubleConstants = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+
+    // Temporales: desde el primer registro libre tras las constantes
+    private int longBase;
+    private int doubleBase;
+    private int longTop;
+    private int doubleTop;
+    private int longMax;
+    private int doubleMax;
+
+    // Etiquetas: posición en el código de cada una y operandos de salto que las usan
+    private int[] labels = new int[16];
+    private int labelCount;
+    private int[] fixups = new int[16];
+    private int fixupCount;
+
+    // Etiqueta de salida del while más interno, para break
+    private int[] loopEnds = new int[8];
+    private int loopDepth;
+
+    // Pila propia para las cadenas de operadores inclinadas a la izquierda
+    private int[] spine = new int[16];
+    private int spineTop;
+
+    private BytecodeCompiler(Ast ast, Bindings bindings) {
+        this.ast = ast;
+        this.bindings = bindings;
+        this.registers = new int[bindings.variableCount()];
+    }
+
+    public static Program compile(Ast ast, Bindings bindings) {
+        return new BytecodeCompiler(ast, bindings).compile();
+    }
+
+    private Program compile() {
+        for (int v = 0; v < registers.length; v++) {
+            registers[v] = bindings.variableType(v) == Type.DOUBLE ? doubleCount++ : longCount++;
+        }
+        longVariables = longCount;
+        doubleVariables = doubleCount;
+        constants();
+        longBase = longTop = longMax = longCount;
+        doubleBase = doubleTop = doubleMax = doubleCount;
+
+        for (int n = ast.first(ast.root()); n != Ast.NONE; n = ast.next(n)) statement(n);
+        emit(Opcode.HALT, 0, 0, 0);
+
+        for (int k = 0; k < fixupCount; k++) code[fixups[k]] = labels[code[fixups[k]]];
+
+        long[] longs = Arrays.copyOf(longValues, longMax);
+        double[] doubles = Arrays.copyOf(doubleValues, doubleMax);
+        return new Program(Arrays.copyOf(code, size), Arrays.copyOf(lines, size / Opcode.WIDTH),
+                longs, doubles, strings.toArray(new String[0]));
+    }
+
+    // Las constantes se reservan antes de traducir para que los temporales queden después.
+    // Cada entero tiene también su versión double: así sumarlo a un double no cuesta una conversión
+    private void constants() {
+        longConstant(0);
+        longConstant(1);
+        doubleConstant(0);
+        for (int n = 0; n < ast.size(); n++) {
+            switch (ast.kind(n)) {
+                case INT_LITERAL:
+                    long value = Long.parseLong(ast.text(n));
+                    longConstant(value);
+                    doubleConstant(value);
+                    break;
+                case REAL_LITERAL:
+                    doubleConstant(Double.parseDouble(ast.text(n)));
+                    break;
+                case BOOL_LITERAL:
+                    longConstant(ast.data(n));
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private int longConstant(long value) {
+        Integer register = longConstants.get(value);
+        if (register != null) return register;
+        if (longCount >= longValues.length) longValues = Arrays.copyOf(longValues, longCount * 2 + 16);
+        longValues[longCount] = value;
+        longConstants.put(value, longCount);
+        return longCount++;
+    }
+
+    private int doubleConstant(double value) {
+        Long bits = Double.doubleToLongBits(value);
+        Integer register = doubleConstants.get(bits);
+        if (register != null) return register;
+        if (doubleCount >= doubleValues.length) doubleValues = Arrays.copyOf(doubleValues, doubleCount * 2 + 16);
+        doubleValues[doubleCount] = value;
+        doubleConstants.put(bits, doubleCount);
+        return doubleCount++;
+    }
+
+    private int string(String text) {
+        Integer index = stringIndex.get(text);
+        if (index != null) return index;
+        strings.add(text);
+        stringIndex.put(text, strings.size() - 1);
+        return strings.size() - 1;
+    }
+
+    // ---------------------------------------------------------------
+    // Sentencias
+    // ---------------------------------------------------------------
+
+    private void statement(int n) {
+        line = ast.line(n);
+        switch (ast.kind(n)) {
+            case BLOCK:
+                for (int c = ast.first(n); c != Ast.NONE; c = ast.next(c)) statement(c);
+                return;
+            case DECLARATION:
+                declaration(n);
+                break;
+            case IF: {
+                int otherwise = newLabel();
+                branch(ast.first(n), otherwise, false);
+                statement(ast.second(n));
+                if (ast.third(n) == Ast.NONE) {
+                    place(otherwise);
+                } else {
+                    int end = newLabel();
+                    jump(Opcode.JMP, end, 0, 0);
+                    place(otherwise);
+                    statement(ast.third(n));
+                    place(end);
+                }
+                return;
+            }
+            case WHILE: {
+                int body = newLabel();
+                int test = newLabel();
+                int end = newLabel();
+                jump(Opcode.JMP, test, 0, 0);
+                place(body);
+                if (loopDepth == loopEnds.length) loopEnds = Arrays.copyOf(loopEnds, loopDepth * 2);
+                loopEnds[loopDepth++] = end;
+                statement(ast.second(n));
+                loopDepth--;
+                place(test);
+                line = ast.line(n);
+                branch(ast.first(n), body, true);
+                place(end);
+                return;
+            }
+            case READ: {
+                int v = bindings.variable(ast.first(n));
+                emit(readOpcode(bindings.variableType(v)), registers[v], 0, 0);
+                return;
+            }
+            case WRITE:
+                write(ast.first(n));
+                break;
+            case EXPRESSION:
+                value(ast.first(n), -1);
+                break;
+            case BREAK:
+                jump(Opcode.JMP, loopEnds[loopDepth - 1], 0, 0);
+                return;
+            default:
+                throw new IllegalStateException("Sentencia inesperada: " + ast.kind(n));
+        }
+        longTop = longBase;
+        doubleTop = doubleBase;
+    }
+
+    private void declaration(int n) {
+        int init = ast.second(n);
+        for (int c = ast.first(n); c != Ast.NONE; c = ast.next(c)) {
+            int v = bindings.variable(c);
+            Type type = bindings.variableType(v);
+            // La inicialización es del último nombre; si lo usa, lo ve en cero
+            if (init != Ast.NONE && ast.next(c) == Ast.NONE && !uses(init, v)) {
+                store(v, init);
+            } else {
+                zero(v, type);
+                if (init != Ast.NONE && ast.next(c) == Ast.NONE) store(v, init);
+            }
+        }
+    }
+
+    private void zero(int v, Type type) {
+        if (type == Type.DOUBLE) emit(Opcode.MOV_D, registers[v], doubleConstant(0), 0);
+        else emit(Opcode.MOV_L, registers[v], longConstant(0), 0);
+    }
+
+    private void write(int n) {
+        Type type = bindings.type(n);
+        int r = value(n, -1);
+        switch (type) {
+            case INT:
+            case LONG:
+                emit(Opcode.WRITE_L, r, 0, 0);
+                break;
+            case DOUBLE:
+                emit(Opcode.WRITE_D, r, 0, 0);
+                break;
+            case BOOLEAN:
+                emit(Opcode.WRITE_B, r, 0, 0);
+                break;
+            default:
+                emit(Opcode.WRITE_S, r, 0, 0);
+                break;
+        }
+    }
+
+    private static int readOpcode(Type type) {
+        switch (type) {
+            case INT: return Opcode.READ_I;
+            case LONG: return Opcode.READ_L;
+            case DOUBLE: return Opcode.READ_D;
+            default: return Opcode.READ_B;
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Condiciones: saltan a label cuando la condición vale when
+    // ---------------------------------------------------------------
+
+    private void branch(int n, int label, boolean when) {
+        switch (ast.kind(n)) {
+            case BOOL_LITERAL:
+                if ((ast.data(n) != 0) == when) jump(Opcode.JMP, label, 0, 0);
+                return;
+            case NOT:
+                branch(ast.first(n), label, !when);
+                return;
+            case BINARY:
+                TokenType op = ast.operator(n);
+                int left = ast.first(n);
+                int right = ast.second(n);
+                if (op == TokenType.ANDAND || op == TokenType.OROR) {
+                    // a && b salta por falso si cualquiera es falso; por verdadero necesita los dos
+                    boolean shortCircuit = op == TokenType.ANDAND ? !when : when;
+                    if (shortCircuit) {
+                        branch(left, label, when);
+                        branch(right, label, when);
+                    } else {
+                        int skip = newLabel();
+                        branch(left, skip, !when);
+                        branch(right, label, when);
+                        place(skip);
+                    }
+                    return;
+                }
+                if (isComparison(op) && isLongFile(bindings.type(left)) && isLongFile(bindings.type(right))) {
+                    int a = value(left, -1);
+                    if (isVariable(a, false) && hasAssign(right)) a = copy(a, false);
+                    int b = value(right, -1);
+                    jump(jumpOpcode(op, when), label, a, b);
+                    longTop = longBase;
+                    doubleTop = doubleBase;
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        int r = value(n, -1);
+        jump(when ? Opcode.JNZ : Opcode.JZ, label, r, 0);
+        longTop = longBase;
+        doubleTop = doubleBase;
+    }
+
+    private static int jumpOpcode(TokenType op, boolean when) {
+        switch (op) {
+            case EQEQ: return when ? Opcode.JEQ : Opcode.JNE;
+            case NEQ:
+            case DIAMOND_NEQ: return when ? Opcode.JNE : Opcode.JEQ;
+            case LT: return when ? Opcode.JLT : Opcode.JGE;
+            case LE: return when ? Opcode.JLE : Opcode.JGT;
+            case GT: return when ? Opcode.JGT : Opcode.JLE;
+            default: return when ? Opcode.JGE : Opcode.JLT;
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Expresiones: devuelven el registro con el valor. dst es una sugerencia de dónde dejarlo
+    // (-1 si no hay); quien llama mueve el valor si el registro devuelto es otro.
+    // ---------------------------------------------------------------
+
+    private int value(int n, int dst) {
+        switch (ast.kind(n)) {
+            case INT_LITERAL:
+                return longConstant(Long.parseLong(ast.text(n)));
+            case REAL_LITERAL:
+                return doubleConstant(Double.parseDouble(ast.text(n)));
+            case BOOL_LITERAL:
+                return longConstant(ast.data(n));
+            case STRING_LITERAL:
+                return string(ast.text(n));
+            case NAME:
+                return registers[bindings.variable(n)];
+            case NOT: {
+                int markL = longTop;
+                int markD = doubleTop;
+                int a = value(ast.first(n), -1);
+                longTop = markL;
+                doubleTop = markD;
+                int r = dst >= 0 ? dst : temp(false);
+                emit(Opcode.NOT, r, a, 0);
+                return r;
+            }
+            case ASSIGN:
+                return assignment(n);
+            case BINARY:
+                return binary(n, dst);
+            default:
+                throw new IllegalStateException("Expresión inesperada: " + ast.kind(n));
+        }
+    }
+
+    private int assignment(int n) {
+        int v = bindings.variable(ast.first(n));
+        Type type = bindings.variableType(v);
+        int reg = registers[v];
+        TokenType op = ast.operator(n);
+        int markL = longTop;
+        int markD = doubleTop;
+        if (op == TokenType.ASSIGN) {
+            store(v, ast.second(n));
+        } else {
+            int rhs = ast.second(n);
+            int a = hasAssign(rhs) ? copy(reg, type == Type.DOUBLE) : reg;
+            int b = value(rhs, -1);
+            if (type == Type.DOUBLE) b = toDouble(b, bindings.type(rhs));
+            line = ast.line(n);
+            emit(arithmetic(op, type), reg, a, b);
+        }
+        longTop = markL;
+        doubleTop = markD;
+        return reg;
+    }
+
+    // Evalúa n y lo guarda en la variable v (ensanchando a double si hace falta)
+    private void store(int v, int n) {
+        Type type = bindings.variableType(v);
+        Type valueType = bindings.type(n);
+        int reg = registers[v];
+        boolean isDouble = type == Type.DOUBLE;
+        int r = value(n, isDouble == (valueType == Type.DOUBLE) ? reg : -1);
+        if (isDouble && valueType != Type.DOUBLE) emit(Opcode.L2D, reg, r, 0);
+        else if (r != reg) emit(isDouble ? Opcode.MOV_D : Opcode.MOV_L, reg, r, 0);
+    }
+
+    private int binary(int n, int dst) {
+        int base = spineTop;
+        while (ast.kind(n) == NodeKind.BINARY) {
+            if (spineTop == spine.length) spine = Arrays.copyOf(spine, spineTop * 2);
+            spine[spineTop++] = n;
+            n = ast.first(n);
+        }
+        int markL = longTop;
+        int markD = doubleTop;
+        int left = value(n, -1);
+        Type leftType = bindings.type(n);
+        while (spineTop > base) {
+            int op = spine[--spineTop];
+            left = combine(op, left, leftType, spineTop == base ? dst : -1, markL, markD);
+            leftType = bindings.type(op);
+        }
+        return left;
+    }
+
+    private int combine(int n, int left, Type leftType, int dst, int markL, int markD) {
+        TokenType op = ast.operator(n);
+        int right = ast.second(n);
+        Type rightType = bindings.type(right);
+        Type type = bindings.type(n);
+
+        if (op == TokenType.ANDAND || op == TokenType.OROR) {
+            // El resultado se arma en un temporal propio: la derecha puede no evaluarse
+            int r = left >= longBase ? left : temp(false);
+            if (r != left) emit(Opcode.MOV_L, r, left, 0);
+            int end = newLabel();
+            jump(op == TokenType.ANDAND ? Opcode.JZ : Opcode.JNZ, end, r, 0);
+            int b = value(right, -1);
+            if (b != r) emit(Opcode.MOV_L, r, b, 0);
+            place(end);
+            longTop = r + 1;
+            doubleTop = markD;
+            return r;
+        }
+
+        if (leftType == Type.STRING) {
+            // Sólo hay cadenas literales: la comparación se resuelve al traducir
+            boolean equal = ast.text(ast.first(n)).equals(ast.text(right));
+            return longConstant(equal == (op == TokenType.EQEQ) ? 1 : 0);
+        }
+
+        // Si la derecha asigna, la izquierda tiene que leerse antes de que cambie
+        boolean leftDouble = leftType == Type.DOUBLE;
+        if (isVariable(left, leftDouble) && hasAssign(right)) left = copy(left, leftDouble);
+        int b = value(right, -1);
+
+        int opcode;
+        boolean resultDouble;
+        if (isComparison(op)) {
+            boolean compareDouble = leftType == Type.DOUBLE || rightType == Type.DOUBLE;
+            if (compareDouble) {
+                left = toDouble(left, leftType);
+                b = toDouble(b, rightType);
+            }
+            opcode = comparison(op, compareDouble);
+            resultDouble = false;
+        } else {
+            if (type == Type.DOUBLE) {
+                left = toDouble(left, leftType);
+                b = toDouble(b, rightType);
+            }
+            opcode = arithmetic(op, type);
+            resultDouble = type == Type.DOUBLE;
+        }
+        longTop = markL;
+        doubleTop = markD;
+        int r = dst >= 0 ? dst : temp(resultDouble);
+        line = ast.line(n);
+        emit(opcode, r, left, b);
+        return r;
+    }
+
+    private static boolean isComparison(TokenType op) {
+        switch (op) {
+            case EQEQ: case NEQ: case DIAMOND_NEQ:
+            case LT: case LE: case GT: case GE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static int comparison(TokenType op, boolean isDouble) {
+        int base;
+        switch (op) {
+            case EQEQ: base = Opcode.LEQ; break;
+            case NEQ:
+            case DIAMOND_NEQ: base = Opcode.LNE; break;
+            case LT: base = Opcode.LLT; break;
+            case LE: base = Opcode.LLE; break;
+            case GT: base = Opcode.LGT; break;
+            default: base = Opcode.LGE; break;
+        }
+        return isDouble ? base + (Opcode.DEQ - Opcode.LEQ) : base;
+    }
+
+    // Operación de op (o de su forma compuesta +=, -=, *=, /=) sobre el tipo type
+    private static int arithmetic(TokenType op, Type type) {
+        int offset;
+        switch (op) {
+            case PLUS:
+            case PLUSEQ: offset = 0; break;
+            case MINUS:
+            case MINUSEQ: offset = 1; break;
+            case STAR:
+            case STAREQ: offset = 2; break;
+            default: offset = 3; break;
+        }
+        switch (type) {
+            case INT: return Opcode.IADD + offset;
+            case LONG: return Opcode.LADD + offset;
+            default: return Opcode.DADD + offset;
+        }
+    }
+
+    private static boolean isLongFile(Type type) {
+        return type == Type.INT || type == Type.LONG || type == Type.BOOLEAN;
+    }
+
+    private boolean isVariable(int register, boolean isDouble) {
+        return register < (isDouble ? doubleVariables : longVariables);
+    }
+
+    private int copy(int register, boolean isDouble) {
+        int t = temp(isDouble);
+        emit(isDouble ? Opcode.MOV_D : Opcode.MOV_L, t, register, 0);
+        return t;
+    }
+
+    private int toDouble(int register, Type type) {
+        if (type == Type.DOUBLE) return register;
+        if (register >= longVariables && register < longBase) {
+            return doubleConstant(longValues[register]);
+        }
+        int t = temp(true);
+        emit(Opcode.L2D, t, register, 0);
+        return t;
+    }
+
+    // La expresión contiene una asignación (recorre la cadena izquierda sin recursión)
+    private boolean hasAssign(int n) {
+        while (true) {
+            switch (ast.kind(n)) {
+                case ASSIGN:
+                    return true;
+                case NOT:
+                    n = ast.first(n);
+                    break;
+                case BINARY:
+                    if (hasAssign(ast.second(n))) return true;
+                    n = ast.first(n);
+                    break;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    // La expresión lee la variable v
+    private boolean uses(int n, int v) {
+        while (true) {
+            switch (ast.kind(n)) {
+                case NAME:
+                    return bindings.variable(n) == v;
+                case NOT:
+                    n = ast.first(n);
+                    break;
+                case ASSIGN:
+                    if (bindings.variable(ast.first(n)) == v) return true;
+                    n = ast.second(n);
+                    break;
+                case BINARY:
+                    if (uses(ast.second(n), v)) return true;
+                    n = ast.first(n);
+                    break;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private int temp(boolean isDouble) {
+        if (isDouble) {
+            int t = doubleTop++;
+            if (doubleTop > doubleMax) doubleMax = doubleTop;
+            return t;
+        }
+        int t = longTop++;
+        if (longTop > longMax) longMax = longTop;
+        return t;
+    }
+
+    // ---------------------------------------------------------------
+    // Código y etiquetas
+    // ---------------------------------------------------------------
+
+    private void emit(int opcode, int a, int b, int c) {
+        if (size + Opcode.WIDTH > code.length) code = Arrays.copyOf(code, code.length * 2);
+        int index = size / Opcode.WIDTH;
+        if (index == lines.length) lines = Arrays.copyOf(lines, lines.length * 2);
+        lines[index] = line;
+        code[size] = opcode;
+        code[size + 1] = a;
+        code[size + 2] = b;
+        code[size + 3] = c;
+        size += Opcode.WIDTH;
+    }
+
+    // El operando a de un salto guarda la etiqueta hasta que se resuelven todas al final
+    private void jump(int opcode, int label, int b, int c) {
+        if (fixupCount == fixups.length) fixups = Arrays.copyOf(fixups, fixupCount * 2);
+        fixups[fixupCount++] = size + 1;
+        emit(opcode, label, b, c);
+    }
+
+    private int newLabel() {
+        if (labelCount == labels.length) labels = Arrays.copyOf(labels, labelCount * 2);
+        labels[labelCount] = -1;
+        return labelCount++;
+    }
+
+    private void place(int label) {
+        labels[label] = size;
+    }
+}
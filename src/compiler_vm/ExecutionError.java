@@ -0,0 +1,18 @@
+package compiler_vm;
+
+/**
+ * Error al ejecutar un programa (división entera por cero, entrada inválida o agotada).
+ */
+public class ExecutionError extends RuntimeException {
+
+    private final int line;
+
+    public ExecutionError(String message, int line) {
+        super("Error de ejecución en línea " + line + ": " + message, null, false, false);
+        this.line = line;
+    }
+
+    public int getLine() {
+        return line;
+    }
+}
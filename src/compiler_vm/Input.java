@@ -0,0 +1,52 @@
+package compiler_vm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lee de la entrada palabras separadas por espacios o saltos de línea, una por cada read.
+ */
+final class Input {
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private final StringBuilder word = new StringBuilder();
+
+    Input(InputStream in) {
+        this.reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    // Siguiente palabra, o null al final de la entrada
+    String next() {
+        word.setLength(0);
+        int c = read();
+        while (c >= 0 && Character.isWhitespace(c)) c = read();
+        while (c >= 0 && !Character.isWhitespace(c)) {
+            word.append((char) c);
+            c = read();
+        }
+        return word.length() > 0 ? word.toString() : null;
+    }
+
+    private int read() {
+        if (position == limit) {
+            try {
+                limit = reader.read(buffer, 0, buffer.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
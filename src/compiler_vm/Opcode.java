@@ -0,0 +1,95 @@
+package compiler_vm;
+
+/**
+ * Códigos de operación del bytecode. Cada instrucción ocupa cuatro enteros: el código y tres
+ * operandos (a, b, c). Los registros long guardan int, long y boolean (0 o 1); los double
+ * van en su propio arreglo, así que ningún valor se encajona.
+ *
+ * Las operaciones I* trabajan sobre int guardados en registros long y recortan el resultado
+ * a 32 bits, igual que Java.
+ */
+public final class Opcode {
+
+    private Opcode() {
+    }
+
+    public static final int WIDTH = 4;
+
+    public static final int HALT = 0;
+
+    // a = b
+    public static final int MOV_L = 1;
+    public static final int MOV_D = 2;
+    // double a = long b
+    public static final int L2D = 3;
+
+    // a = b op c
+    public static final int IADD = 4;
+    public static final int ISUB = 5;
+    public static final int IMUL = 6;
+    public static final int IDIV = 7;
+    public static final int LADD = 8;
+    public static final int LSUB = 9;
+    public static final int LMUL = 10;
+    public static final int LDIV = 11;
+    public static final int DADD = 12;
+    public static final int DSUB = 13;
+    public static final int DMUL = 14;
+    public static final int DDIV = 15;
+
+    // a = !b
+    public static final int NOT = 16;
+
+    // long a = (b op c), con b y c long
+    public static final int LEQ = 17;
+    public static final int LNE = 18;
+    public static final int LLT = 19;
+    public static final int LLE = 20;
+    public static final int LGT = 21;
+    public static final int LGE = 22;
+    // long a = (b op c), con b y c double
+    public static final int DEQ = 23;
+    public static final int DNE = 24;
+    public static final int DLT = 25;
+    public static final int DLE = 26;
+    public static final int DGT = 27;
+    public static final int DGE = 28;
+
+    // Saltos: el destino es la posición de la instrucción en el código
+    public static final int JMP = 29;      // salta a a
+    public static final int JZ = 30;       // si b == 0 salta a a
+    public static final int JNZ = 31;      // si b != 0 salta a a
+    public static final int JEQ = 32;      // si b == c (long) salta a a
+    public static final int JNE = 33;
+    public static final int JLT = 34;
+    public static final int JLE = 35;
+    public static final int JGT = 36;
+    public static final int JGE = 37;
+
+    // Entrada y salida
+    public static final int READ_I = 38;
+    public static final int READ_L = 39;
+    public static final int READ_D = 40;
+    public static final int READ_B = 41;
+    public static final int WRITE_L = 42;
+    public static final int WRITE_D = 43;
+    public static final int WRITE_B = 44;
+    public static final int WRITE_S = 45;  // a: índice en la tabla de cadenas
+
+    static final String[] NAMES = {
+        "halt", "mov.l", "mov.d", "l2d",
+        "iadd", "isub", "imul", "idiv", "ladd", "lsub", "lmul", "ldiv", "dadd", "dsub", "dmul", "ddiv",
+        "not",
+        "leq", "lne", "llt", "lle", "lgt", "lge", "deq", "dne", "dlt", "dle", "dgt", "dge",
+        "jmp", "jz", "jnz", "jeq", "jne", "jlt", "jle", "jgt", "jge",
+        "read.i", "read.l", "read.d", "read.b", "write.l", "write.d", "write.b", "write.s"
+    };
+
+    public static String name(int opcode) {
+        return NAMES[opcode];
+    }
+
+    public static boolean isJump(int opcode) {
+        return opcode >= JMP && opcode <= JGE;
+    }
+}
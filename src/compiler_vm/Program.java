@@ -0,0 +1,75 @@
+package compiler_vm;
+
+/**
+ * Un programa ya traducido a bytecode: el código, la línea de origen de cada instrucción y
+ * el contenido inicial de los registros (las constantes ocupan registros propios, así que
+ * ninguna instrucción lleva valores inmediatos).
+ */
+public class Program {
+
+    // Tipo de cada operando (a, b, c) por código: l registro long, d registro double,
+    // j destino de salto, s cadena, - sin uso
+    private static final String[] FORMATS = {
+        "---", "ll-", "dd-", "dl-",
+        "lll", "lll", "lll", "lll", "lll", "lll", "lll", "lll", "ddd", "ddd", "ddd", "ddd",
+        "ll-",
+        "lll", "lll", "lll", "lll", "lll", "lll", "ldd", "ldd", "ldd", "ldd", "ldd", "ldd",
+        "j--", "jl-", "jl-", "jll", "jll", "jll", "jll", "jll", "jll",
+        "l--", "l--", "d--", "l--", "l--", "d--", "l--", "s--"
+    };
+
+    final int[] code;
+    final int[] lines;
+    final long[] longs;
+    final double[] doubles;
+    final String[] strings;
+
+    Program(int[] code, int[] lines, long[] longs, double[] doubles, String[] strings) {
+        this.code = code;
+        this.lines = lines;
+        this.longs = longs;
+        this.doubles = doubles;
+        this.strings = strings;
+    }
+
+    // Cantidad de instrucciones
+    public int size() {
+        return code.length / Opcode.WIDTH;
+    }
+
+    public int longRegisters() {
+        return longs.length;
+    }
+
+    public int doubleRegisters() {
+        return doubles.length;
+    }
+
+    // Listado legible del código, una instrucción por línea
+    public String disassemble() {
+        StringBuilder sb = new StringBuilder();
+        for (int pc = 0; pc < code.length; pc += Opcode.WIDTH) {
+            int op = code[pc];
+            sb.append(String.format("%5d  %-8s", pc / Opcode.WIDTH, Opcode.name(op)));
+            String format = FORMATS[op];
+            for (int k = 0; k < 3; k++) {
+                int operand = code[pc + 1 + k];
+                switch (format.charAt(k)) {
+                    case 'l': sb.append(" r").append(operand).append(constant(operand, false)); break;
+                    case 'd': sb.append(" f").append(operand).append(constant(operand, true)); break;
+                    case 'j': sb.append(" @").append(operand / Opcode.WIDTH); break;
+                    case 's': sb.append(" \"").append(strings[operand]).append('"'); break;
+                    default: break;
+                }
+            }
+            sb.append("    ; línea ").append(lines[pc / Opcode.WIDTH]).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // Los registros con valor inicial distinto de cero son constantes: se muestra el valor
+    private String constant(int register, boolean isDouble) {
+        if (isDouble) return doubles[register] != 0 ? "(" + doubles[register] + ")" : "";
+        return longs[register] != 0 ? "(" + longs[register] + ")" : "";
+    }
+}
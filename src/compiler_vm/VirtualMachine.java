@@ -0,0 +1,244 @@
+package compiler_vm;
+
+import java.io.InputStream;
+import java.io.PrintStream;
+
+/**
+ * Intérprete del bytecode. Los registros son dos arreglos (long y double) que se copian del
+ * programa al empezar; el ciclo principal decodifica cada instrucción con un switch sobre
+ * el código. La salida se junta en un buffer y se vuelca antes de cada read y al terminar.
+ */
+public class VirtualMachine {
+
+    private static final int FLUSH_AT = 8192;
+
+    private final Program program;
+    private InputStream in = System.in;
+    private PrintStream out = System.out;
+    private long executed;
+
+    public VirtualMachine(Program program) {
+        this.program = program;
+    }
+
+    public void setInput(InputStream in) {
+        this.in = in;
+    }
+
+    public void setOutput(PrintStream out) {
+        this.out = out;
+    }
+
+    // Instrucciones ejecutadas en la última corrida
+    public long getExecuted() {
+        return executed;
+    }
+
+    public void run() {
+        final int[] code = program.code;
+        final long[] l = program.longs.clone();
+        final double[] d = program.doubles.clone();
+        final StringBuilder buffer = new StringBuilder(FLUSH_AT + 64);
+        Input input = null;
+        int pc = 0;
+        long count = 0;
+        try {
+            while (true) {
+                count++;
+                switch (code[pc]) {
+                    case Opcode.HALT:
+                        return;
+                    case Opcode.MOV_L:
+                        l[code[pc + 1]] = l[code[pc + 2]];
+                        break;
+                    case Opcode.MOV_D:
+                        d[code[pc + 1]] = d[code[pc + 2]];
+                        break;
+                    case Opcode.L2D:
+                        d[code[pc + 1]] = l[code[pc + 2]];
+                        break;
+
+                    case Opcode.IADD:
+                        l[code[pc + 1]] = (int) (l[code[pc + 2]] + l[code[pc + 3]]);
+                        break;
+                    case Opcode.ISUB:
+                        l[code[pc + 1]] = (int) (l[code[pc + 2]] - l[code[pc + 3]]);
+                        break;
+                    case Opcode.IMUL:
+                        l[code[pc + 1]] = (int) (l[code[pc + 2]] * l[code[pc + 3]]);
+                        break;
+                    case Opcode.IDIV: {
+                        long divisor = l[code[pc + 3]];
+                        if (divisor == 0) throw error(pc, "División por cero");
+                        l[code[pc + 1]] = (int) (l[code[pc + 2]] / divisor);
+                        break;
+                    }
+                    case Opcode.LADD:
+                        l[code[pc + 1]] = l[code[pc + 2]] + l[code[pc + 3]];
+                        break;
+                    case Opcode.LSUB:
+                        l[code[pc + 1]] = l[code[pc + 2]] - l[code[pc + 3]];
+                        break;
+                    case Opcode.LMUL:
+                        l[code[pc + 1]] = l[code[pc + 2]] * l[code[pc + 3]];
+                        break;
+                    case Opcode.LDIV: {
+                        long divisor = l[code[pc + 3]];
+                        if (divisor == 0) throw error(pc, "División por cero");
+                        l[code[pc + 1]] = l[code[pc + 2]] / divisor;
+                        break;
+                    }
+                    case Opcode.DADD:
+                        d[code[pc + 1]] = d[code[pc + 2]] + d[code[pc + 3]];
+                        break;
+                    case Opcode.DSUB:
+                        d[code[pc + 1]] = d[code[pc + 2]] - d[code[pc + 3]];
+                        break;
+                    case Opcode.DMUL:
+                        d[code[pc + 1]] = d[code[pc + 2]] * d[code[pc + 3]];
+                        break;
+                    case Opcode.DDIV:
+                        d[code[pc + 1]] = d[code[pc + 2]] / d[code[pc + 3]];
+                        break;
+
+                    case Opcode.NOT:
+                        l[code[pc + 1]] = l[code[pc + 2]] ^ 1;
+                        break;
+
+                    case Opcode.LEQ:
+                        l[code[pc + 1]] = l[code[pc + 2]] == l[code[pc + 3]] ? 1 : 0;
+                        break;
+                    case Opcode.LNE:
+                        l[code[pc + 1]] = l[code[pc + 2]] != l[code[pc + 3]] ? 1 : 0;
+                        break;
+                    case Opcode.LLT:
+                        l[code[pc + 1]] = l[code[pc + 2]] < l[code[pc + 3]] ? 1 : 0;
+                        break;
+                    case Opcode.LLE:
+                        l[code[pc + 1]] = l[code[pc + 2]] <= l[code[pc + 3]] ? 1 : 0;
+                        break;
+                    case Opcode.LGT:
+                        l[code[pc + 1]] = l[code[pc + 2]] > l[code[pc + 3]] ? 1 : 0;
+                        break;
+                    case Opcode.LGE:
+                        l[code[pc + 1]] = l[code[pc + 2]] >= l[code[pc + 3]] ? 1 : 0;
+                        break;
+                    case Opcode.DEQ:
+                        l[code[pc + 1]] = d[code[pc + 2]] == d[code[pc + 3]] ? 1 : 0;
+                        break;
+                    case Opcode.DNE:
+                        l[code[pc + 1]] = d[code[pc + 2]] != d[code[pc + 3]] ? 1 : 0;
+                        break;
+                    case Opcode.DLT:
+                        l[code[pc + 1]] = d[code[pc + 2]] < d[code[pc + 3]] ? 1 : 0;
+                        break;
+                    case Opcode.DLE:
+                        l[code[pc + 1]] = d[code[pc + 2]] <= d[code[pc + 3]] ? 1 : 0;
+                        break;
+                    case Opcode.DGT:
+                        l[code[pc + 1]] = d[code[pc + 2]] > d[code[pc + 3]] ? 1 : 0;
+                        break;
+                    case Opcode.DGE:
+                        l[code[pc + 1]] = d[code[pc + 2]] >= d[code[pc + 3]] ? 1 : 0;
+                        break;
+
+                    // Los saltos fijan pc y siguen sin pasar por el avance común
+                    case Opcode.JMP:
+                        pc = code[pc + 1];
+                        continue;
+                    case Opcode.JZ:
+                        pc = l[code[pc + 2]] == 0 ? code[pc + 1] : pc + Opcode.WIDTH;
+                        continue;
+                    case Opcode.JNZ:
+                        pc = l[code[pc + 2]] != 0 ? code[pc + 1] : pc + Opcode.WIDTH;
+                        continue;
+                    case Opcode.JEQ:
+                        pc = l[code[pc + 2]] == l[code[pc + 3]] ? code[pc + 1] : pc + Opcode.WIDTH;
+                        continue;
+                    case Opcode.JNE:
+                        pc = l[code[pc + 2]] != l[code[pc + 3]] ? code[pc + 1] : pc + Opcode.WIDTH;
+                        continue;
+                    case Opcode.JLT:
+                        pc = l[code[pc + 2]] < l[code[pc + 3]] ? code[pc + 1] : pc + Opcode.WIDTH;
+                        continue;
+                    case Opcode.JLE:
+                        pc = l[code[pc + 2]] <= l[code[pc + 3]] ? code[pc + 1] : pc + Opcode.WIDTH;
+                        continue;
+                    case Opcode.JGT:
+                        pc = l[code[pc + 2]] > l[code[pc + 3]] ? code[pc + 1] : pc + Opcode.WIDTH;
+                        continue;
+                    case Opcode.JGE:
+                        pc = l[code[pc + 2]] >= l[code[pc + 3]] ? code[pc + 1] : pc + Opcode.WIDTH;
+                        continue;
+
+                    case Opcode.READ_I:
+                    case Opcode.READ_L:
+                    case Opcode.READ_D:
+                    case Opcode.READ_B: {
+                        flush(buffer);
+                        if (input == null) input = new Input(in);
+                        String word = input.next();
+                        if (word == null) throw error(pc, "Fin de la entrada al leer");
+                        read(code[pc], word, code[pc + 1], l, d, pc);
+                        break;
+                    }
+                    case Opcode.WRITE_L:
+                        buffer.append(l[code[pc + 1]]).append('\n');
+                        if (buffer.length() > FLUSH_AT) flush(buffer);
+                        break;
+                    case Opcode.WRITE_D:
+                        buffer.append(d[code[pc + 1]]).append('\n');
+                        if (buffer.length() > FLUSH_AT) flush(buffer);
+                        break;
+                    case Opcode.WRITE_B:
+                        buffer.append(l[code[pc + 1]] != 0).append('\n');
+                        if (buffer.length() > FLUSH_AT) flush(buffer);
+                        break;
+                    case Opcode.WRITE_S:
+                        buffer.append(program.strings[code[pc + 1]]).append('\n');
+                        if (buffer.length() > FLUSH_AT) flush(buffer);
+                        break;
+                    default:
+                        throw new IllegalStateException("Código de operación inválido: " + code[pc]);
+                }
+                pc += Opcode.WIDTH;
+            }
+        } finally {
+            executed = count;
+            flush(buffer);
+        }
+    }
+
+    private void read(int opcode, String word, int register, long[] l, double[] d, int pc) {
+        try {
+            switch (opcode) {
+                case Opcode.READ_I:
+                    l[register] = Integer.parseInt(word);
+                    return;
+                case Opcode.READ_L:
+                    l[register] = Long.parseLong(word);
+                    return;
+                case Opcode.READ_D:
+                    d[register] = Double.parseDouble(word);
+                    return;
+                default:
+                    if (word.equals("true") || word.equals("1")) l[register] = 1;
+                    else if (word.equals("false") || word.equals("0")) l[register] = 0;
+                    else throw new NumberFormatException(word);
+            }
+        } catch (NumberFormatException e) {
+            throw error(pc, "Entrada inválida: '" + word + "'");
+        }
+    }
+
+    private void flush(StringBuilder buffer) {
+        if (buffer.length() == 0) return;
+        out.append(buffer);
+        out.flush();
+        buffer.setLength(0);
+    }
+
+    private ExecutionError error(int pc, String message) {
+        return new ExecutionError(message, program.lines[pc / Opcode.WIDTH]);
+    }
+}